@@ -20,7 +20,6 @@ package free.rm.skytube.gui.activities;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.view.Menu;
@@ -38,9 +37,6 @@ import androidx.preference.PreferenceManager;
 
 import com.afollestad.materialdialogs.MaterialDialog;
 import com.google.android.gms.cast.CastMediaControlIntent;
-import com.google.android.gms.cast.MediaInfo;
-import com.google.android.gms.cast.MediaLoadOptions;
-import com.google.android.gms.cast.MediaMetadata;
 import com.google.android.gms.cast.MediaStatus;
 import com.google.android.gms.cast.framework.CastButtonFactory;
 import com.google.android.gms.cast.framework.CastContext;
@@ -51,22 +47,18 @@ import com.google.android.gms.cast.framework.SessionManagerListener;
 import com.google.android.gms.cast.framework.media.RemoteMediaClient;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
-import com.google.android.gms.common.images.WebImage;
-import com.google.gson.Gson;
 import com.sothree.slidinguppanel.SlidingUpPanelLayout;
 
-import org.schabi.newpipe.extractor.stream.StreamInfo;
-
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import free.rm.skytube.BuildConfig;
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
-import free.rm.skytube.app.StreamSelectionPolicy;
 import free.rm.skytube.businessobjects.ChromecastListener;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.PlayQueue;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
-import free.rm.skytube.businessobjects.interfaces.GetDesiredStreamListener;
+import free.rm.skytube.gui.businessobjects.ChromecastQueue;
 import free.rm.skytube.gui.businessobjects.MainActivityListener;
 import free.rm.skytube.gui.businessobjects.YouTubePlayer;
 import free.rm.skytube.gui.fragments.ChromecastControllerFragment;
@@ -95,6 +87,7 @@ public abstract class BaseActivity extends AppCompatActivity implements MainActi
 					new SessionManagerListenerImpl();
 	private ChromecastMiniControllerFragment chromecastMiniControllerFragment;
 	private ChromecastControllerFragment chromecastControllerFragment;
+	private ChromecastQueue chromecastQueue;
 
 	private MediaRouter mediaRouter;
 	private Intent externalPlayIntent;
@@ -377,6 +370,10 @@ public abstract class BaseActivity extends AppCompatActivity implements MainActi
 		@Override
 		public void onSessionEnded(Session session, int error) {
 			YouTubePlayer.setConnectedToChromecast(false);
+			if (chromecastQueue != null) {
+				chromecastQueue.close();
+				chromecastQueue = null;
+			}
 			hidePanel();
 		}
 
@@ -475,63 +472,41 @@ public abstract class BaseActivity extends AppCompatActivity implements MainActi
 	}
 
 	public void playVideoOnChromecast(final YouTubeVideo video, final int position) {
+		if(mCastSession == null)
+			return;
 		showLoadingSpinner();
-		if(video.getDescription() == null) {
-			compositeDisposable.add(YouTubeTasks.getVideoDescription(video)
-					.subscribe(description -> playVideoOnChromecast(video, position)));
-		} else {
-			compositeDisposable.add(
-					YouTubeTasks.getDesiredStream(video, new GetDesiredStreamListener() {
-						@Override
-						public void onGetDesiredStream(StreamInfo desiredStream, YouTubeVideo video) {
-							if(mCastSession == null)
-								return;
-							Gson gson = new Gson();
-							final RemoteMediaClient remoteMediaClient = mCastSession.getRemoteMediaClient();
-							MediaMetadata metadata = new MediaMetadata(MediaMetadata.MEDIA_TYPE_GENERIC);
-							metadata.putInt(KEY_POSITION, position);
-							metadata.putString(KEY_VIDEO, gson.toJson(video));
-
-							metadata.addImage(new WebImage(Uri.parse(video.getThumbnailUrl())));
-
-					StreamSelectionPolicy policy = SkyTubeApp.getSettings().getDesiredVideoResolution(false).withAllowVideoOnly(false);
-					StreamSelectionPolicy.StreamSelection selection = policy.select(desiredStream);
-					MediaInfo currentPlayingMedia = new MediaInfo.Builder(selection.getVideoStreamUri().toString())
-									.setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
-									.setContentType(selection.getVideoStream().getFormat().mimeType)
-									.setMetadata(metadata)
-									.build();
-
-							MediaLoadOptions options = new MediaLoadOptions.Builder().setAutoplay(true).setPlayPosition(0).build();
-							remoteMediaClient.load(currentPlayingMedia, options);
-							chromecastMiniControllerFragment.init(remoteMediaClient, currentPlayingMedia, position);
-							chromecastControllerFragment.init(remoteMediaClient, currentPlayingMedia, position);
-							// If the Controller panel isn't visible, setting the progress of the progressbar in the mini controller won't
-							// work until the panel is visible, so do it as soon as the sliding panel is visible. Adding this listener when
-							// the panel is not hidden will lead to a java.util.ConcurrentModificationException the next time a video is
-							// switching from local playback to chromecast, so we should only do this if the panel is hidden.
-							if (slidingLayout.getPanelState() == SlidingUpPanelLayout.PanelState.HIDDEN) {
-								slidingLayout.addPanelSlideListener(getOnPanelDisplayed(position, video.getDurationInSeconds() * 1000));
-							}
-						}
-
-						@Override
-						public void onGetDesiredStreamError(Throwable throwable) {
-							if (throwable != null) {
-								if (chromecastLoadingSpinner != null)
-									chromecastLoadingSpinner.setVisibility(View.GONE);
-								new AlertDialog.Builder(BaseActivity.this)
-										.setMessage(throwable.getMessage())
-										.setTitle(R.string.error_video_play)
-										.setCancelable(false)
-										.setPositiveButton(R.string.ok, (dialog, which) -> {
-										})
-										.show();
-							}
-						}
-					})
-						.subscribe());
+		// the videos after the clicked one are queued on the receiver too
+		PlayQueue playQueue = PlayQueue.take(video.getId());
+		if (playQueue == null) {
+			playQueue = PlayQueue.of(video);
 		}
+		if (chromecastQueue != null) {
+			chromecastQueue.close();
+		}
+		final RemoteMediaClient remoteMediaClient = mCastSession.getRemoteMediaClient();
+		chromecastQueue = new ChromecastQueue(remoteMediaClient, playQueue);
+		compositeDisposable.add(chromecastQueue.start(position)
+				.subscribe(currentPlayingMedia -> {
+					chromecastMiniControllerFragment.init(remoteMediaClient, currentPlayingMedia, position);
+					chromecastControllerFragment.init(remoteMediaClient, currentPlayingMedia, position);
+					// If the Controller panel isn't visible, setting the progress of the progressbar in the mini controller won't
+					// work until the panel is visible, so do it as soon as the sliding panel is visible. Adding this listener when
+					// the panel is not hidden will lead to a java.util.ConcurrentModificationException the next time a video is
+					// switching from local playback to chromecast, so we should only do this if the panel is hidden.
+					if (slidingLayout.getPanelState() == SlidingUpPanelLayout.PanelState.HIDDEN) {
+						slidingLayout.addPanelSlideListener(getOnPanelDisplayed(position, video.getDurationInSeconds() * 1000));
+					}
+				}, throwable -> {
+					if (chromecastLoadingSpinner != null)
+						chromecastLoadingSpinner.setVisibility(View.GONE);
+					new AlertDialog.Builder(BaseActivity.this)
+							.setMessage(throwable.getMessage())
+							.setTitle(R.string.error_video_play)
+							.setCancelable(false)
+							.setPositiveButton(R.string.ok, (dialog, which) -> {
+							})
+							.show();
+				}));
 	}
 
 	private SlidingUpPanelLayout.PanelSlideListener getOnPanelDisplayed(final int position, final int duration) {
@@ -0,0 +1,298 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.gui.businessobjects;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import com.google.android.gms.common.images.WebImage;
+import com.google.gson.Gson;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.app.StreamSelectionPolicy;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.PlayQueue;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.gui.activities.BaseActivity;
+import free.rm.skytube.gui.businessobjects.views.Linker;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Plays a {@link PlayQueue} on the Chromecast: the streams of the upcoming videos are resolved ahead,
+ * and the next one is always in the queue of the receiver, so it can preload it, and start it
+ * immediately, when the current one finishes.
+ *
+ * <p>The stream URLs expire after a few hours, so an URL is checked, when it's handed to the
+ * receiver - it must be valid until the end of its video - and it's resolved again, if it's not.
+ * Everything is called on the main thread, only the streams are resolved in the background.</p>
+ */
+public class ChromecastQueue {
+	private static final String KEY_VIDEO_ID = "videoId";
+	/** The number of the upcoming videos, whose streams are resolved ahead */
+	private static final int RESOLVE_AHEAD = 2;
+	/** The receiver starts to buffer the next item this many seconds before the current one ends */
+	private static final double PRELOAD_TIME_SECONDS = 20;
+	private static final long EXPIRY_MARGIN = TimeUnit.MINUTES.toMillis(10);
+
+	private final RemoteMediaClient remoteMediaClient;
+	private final PlayQueue playQueue;
+	private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+	/** The resolved streams of the upcoming videos, by their id */
+	private final Map<String, ResolvedItem> resolvedItems = new HashMap<>();
+	private final Set<String> resolving = new HashSet<>();
+	/** The id of the last video, handed to the receiver */
+	private String lastQueuedVideoId;
+	private boolean closed;
+
+	private final RemoteMediaClient.Callback callback = new RemoteMediaClient.Callback() {
+		@Override
+		public void onStatusUpdated() {
+			onReceiverStatusUpdated();
+		}
+	};
+
+	/**
+	 * The media of a video, with the expiry of its stream URL.
+	 */
+	static class ResolvedItem {
+		private final YouTubeVideo video;
+		private final MediaInfo mediaInfo;
+		/** The time, when the URL expires - or {@link Long#MAX_VALUE}, if it's unknown */
+		private final long expiresAt;
+
+		ResolvedItem(YouTubeVideo video, MediaInfo mediaInfo, long expiresAt) {
+			this.video = video;
+			this.mediaInfo = mediaInfo;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isValidUntil(long time) {
+			return expiresAt > time;
+		}
+	}
+
+	public ChromecastQueue(RemoteMediaClient remoteMediaClient, PlayQueue playQueue) {
+		this.remoteMediaClient = remoteMediaClient;
+		this.playQueue = playQueue;
+	}
+
+	/**
+	 * Start playing the queue on the receiver from its current video.
+	 *
+	 * @param position The position in the first video, in milliseconds.
+	 * @return The media of the first video, after the receiver is asked to play it.
+	 */
+	public Single<MediaInfo> start(int position) {
+		final YouTubeVideo first = playQueue.getCurrent();
+		return resolve(first, position)
+				.map(item -> {
+					if (!closed) {
+						lastQueuedVideoId = first.getId();
+						remoteMediaClient.registerCallback(callback);
+						remoteMediaClient.queueLoad(new MediaQueueItem[]{toQueueItem(item)}, 0,
+								MediaStatus.REPEAT_MODE_REPEAT_OFF, position, null);
+						queueNext();
+					}
+					return item.mediaInfo;
+				});
+	}
+
+	/**
+	 * Stop following the receiver - when an other video is cast.
+	 */
+	public void close() {
+		closed = true;
+		compositeDisposable.clear();
+		remoteMediaClient.unregisterCallback(callback);
+	}
+
+	/**
+	 * Called when the receiver moves on: the video after the current one is handed to it, and the
+	 * following ones are resolved.
+	 */
+	private void onReceiverStatusUpdated() {
+		final MediaStatus status = remoteMediaClient.getMediaStatus();
+		if (closed || status == null) {
+			return;
+		}
+		final MediaQueueItem currentItem = status.getQueueItemById(status.getCurrentItemId());
+		final String currentVideoId = getVideoId(currentItem);
+		if (currentVideoId == null || currentVideoId.equals(playQueue.getCurrent().getId())) {
+			return;
+		}
+		while (!currentVideoId.equals(playQueue.getCurrent().getId())) {
+			if (playQueue.moveToNext() == null) {
+				Logger.w(this, "Video %s is not in the queue", currentVideoId);
+				return;
+			}
+		}
+		Logger.i(this, "The receiver is playing %s", currentVideoId);
+		queueNext();
+	}
+
+	/**
+	 * Hand the video after the current one to the receiver, if it's not there yet.
+	 */
+	private void queueNext() {
+		final YouTubeVideo next = playQueue.getNext(playQueue.getCurrent());
+		if (next == null || next.getId().equals(lastQueuedVideoId)) {
+			return;
+		}
+		lastQueuedVideoId = next.getId();
+		// the URL must be valid, while the current and the next video are played
+		final long validUntil = System.currentTimeMillis() + getRemainingTime() + next.getDurationInSeconds() * 1000L + EXPIRY_MARGIN;
+		final ResolvedItem resolved = resolvedItems.remove(next.getId());
+		if (resolved != null && resolved.isValidUntil(validUntil)) {
+			append(resolved);
+		} else {
+			if (resolved != null) {
+				Logger.i(this, "The stream of %s is about to expire, resolving it again", next.getId());
+			}
+			compositeDisposable.add(resolve(next, 0)
+					.subscribe(this::append,
+							error -> Logger.e(this, "Unable to resolve " + next.getId() + ": " + error.getMessage(), error)));
+		}
+		resolveAhead(next);
+	}
+
+	private void append(ResolvedItem item) {
+		if (closed) {
+			return;
+		}
+		Logger.i(this, "Queueing %s on the receiver", item.video.getId());
+		remoteMediaClient.queueAppendItem(toQueueItem(item), null);
+	}
+
+	/**
+	 * Resolve the streams of the videos after the given one, so they are ready when they are queued.
+	 */
+	private void resolveAhead(YouTubeVideo video) {
+		YouTubeVideo upcoming = video;
+		for (int i = 0; i < RESOLVE_AHEAD; i++) {
+			upcoming = playQueue.getNext(upcoming);
+			if (upcoming == null) {
+				return;
+			}
+			final String videoId = upcoming.getId();
+			if (resolvedItems.containsKey(videoId) || !resolving.add(videoId)) {
+				continue;
+			}
+			compositeDisposable.add(resolve(upcoming, 0)
+					.doFinally(() -> resolving.remove(videoId))
+					.subscribe(item -> resolvedItems.put(videoId, item),
+							error -> Logger.e(this, "Unable to resolve " + videoId + ": " + error.getMessage(), error)));
+		}
+	}
+
+	private long getRemainingTime() {
+		final long duration = remoteMediaClient.getStreamDuration();
+		if (duration <= 0) {
+			// the current video is not loaded yet
+			return playQueue.getCurrent().getDurationInSeconds() * 1000L;
+		}
+		return Math.max(0, duration - remoteMediaClient.getApproximateStreamPosition());
+	}
+
+	/**
+	 * @return The media of the video - resolved in the background, and returned on the main thread.
+	 */
+	private static Single<ResolvedItem> resolve(YouTubeVideo video, int position) {
+		return Single.fromCallable(() -> {
+			final StreamInfo streamInfo = NewPipeService.get().getStreamInfoByVideoId(video.getId());
+			video.updateFromStreamInfo(streamInfo);
+			Linker.getSpanned(video.getDescription());
+			final StreamSelectionPolicy policy = SkyTubeApp.getSettings().getDesiredVideoResolution(false).withAllowVideoOnly(false);
+			final StreamSelectionPolicy.StreamSelection selection = policy.select(streamInfo);
+			if (selection == null) {
+				throw new IllegalStateException(policy.getErrorMessage(SkyTubeApp.getContext()));
+			}
+			final MediaMetadata metadata = new MediaMetadata(MediaMetadata.MEDIA_TYPE_GENERIC);
+			metadata.putInt(BaseActivity.KEY_POSITION, position);
+			metadata.putString(BaseActivity.KEY_VIDEO, new Gson().toJson(video));
+			metadata.addImage(new WebImage(Uri.parse(video.getThumbnailUrl())));
+
+			final Uri streamUri = selection.getVideoStreamUri();
+			final MediaInfo mediaInfo = new MediaInfo.Builder(streamUri.toString())
+					.setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
+					.setContentType(selection.getVideoStream().getFormat().mimeType)
+					.setStreamDuration(video.getDurationInSeconds() * 1000L)
+					.setMetadata(metadata)
+					.build();
+			return new ResolvedItem(video, mediaInfo, getExpiry(streamUri));
+		})
+				.subscribeOn(Schedulers.io())
+				.observeOn(AndroidSchedulers.mainThread());
+	}
+
+	/**
+	 * @return The expiry of a YouTube stream URL - in its 'expire' parameter, in seconds - or
+	 * {@link Long#MAX_VALUE}, if it's unknown.
+	 */
+	static long getExpiry(Uri streamUri) {
+		final String expire = streamUri.getQueryParameter("expire");
+		if (expire != null) {
+			try {
+				return TimeUnit.SECONDS.toMillis(Long.parseLong(expire));
+			} catch (NumberFormatException e) {
+				Logger.w(ChromecastQueue.class, "Invalid expiry: %s", expire);
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	private static MediaQueueItem toQueueItem(ResolvedItem item) {
+		final JSONObject customData = new JSONObject();
+		try {
+			customData.put(KEY_VIDEO_ID, item.video.getId());
+		} catch (JSONException e) {
+			throw new IllegalStateException(e);
+		}
+		return new MediaQueueItem.Builder(item.mediaInfo)
+				.setAutoplay(true)
+				.setPreloadTime(PRELOAD_TIME_SECONDS)
+				.setCustomData(customData)
+				.build();
+	}
+
+	@Nullable
+	private static String getVideoId(@Nullable MediaQueueItem item) {
+		if (item == null || item.getCustomData() == null) {
+			return null;
+		}
+		return item.getCustomData().optString(KEY_VIDEO_ID, null);
+	}
+}
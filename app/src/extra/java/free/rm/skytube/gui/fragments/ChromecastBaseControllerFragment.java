@@ -162,6 +162,13 @@ public abstract class ChromecastBaseControllerFragment extends FragmentEx {
 
 			updateButtons();
 
+			// the receiver continued with the next item of its queue
+			MediaInfo media = remoteMediaClient.getMediaInfo();
+			if (media != null && currentPlayingMedia != null && oldState != MediaStatus.PLAYER_STATE_IDLE
+					&& !media.getContentId().equals(currentPlayingMedia.getContentId())) {
+				init(remoteMediaClient, media, (int) remoteMediaClient.getApproximateStreamPosition());
+			}
+
 			if(didSeek) {
 				didSeek = false;
 				chromecastPlaybackProgressBar.setProgress((int)remoteMediaClient.getApproximateStreamPosition());
@@ -0,0 +1,131 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.app;
+
+import org.ocpsoft.prettytime.PrettyTime;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Formats timestamps relative to the current time, like "3 hours ago".
+ *
+ * <p>The elapsed time is rounded down to a bucket - a number of minutes, hours, days, weeks, months
+ * or years - and every bucket is formatted only once, by a shared {@link PrettyTime}, so the cards
+ * published in the same hour share the same string.  The caller can cache the string until
+ * {@link #getValidUntil(long, long)}, when the elapsed time moves into the next bucket.</p>
+ */
+public final class RelativeTimeFormatter {
+	private static final long MINUTE = 60 * 1000L;
+	private static final long HOUR = 60 * MINUTE;
+	private static final long DAY = 24 * HOUR;
+	private static final long WEEK = 7 * DAY;
+	private static final long MONTH = 30 * DAY;
+	private static final long YEAR = 365 * DAY;
+	/** The length of a month for PrettyTime - a 30 day bucket would be formatted as "4 weeks" */
+	private static final long PRETTY_TIME_MONTH = 2_629_743_830L;
+
+	/** The length of the buckets, the elapsed time is rounded down to the largest one it exceeds */
+	private static final long[] UNITS = {MINUTE, HOUR, DAY, WEEK, MONTH, YEAR};
+	/** The length of the units, as PrettyTime formats them */
+	private static final long[] FORMATTED_UNITS = {MINUTE, HOUR, DAY, WEEK, PRETTY_TIME_MONTH, 12 * PRETTY_TIME_MONTH};
+	private static final int MONTH_UNIT = 4;
+	private static final int YEAR_UNIT = 5;
+	/** The number of the cached buckets for each unit - older ones are formatted on every call */
+	private static final int[] CACHE_SIZES = {60, 24, 7, 5, 13, 100};
+
+	private static final RelativeTimeFormatter INSTANCE = new RelativeTimeFormatter();
+
+	private final String[][] cache = new String[UNITS.length][];
+	private Locale locale;
+	private PrettyTime prettyTime;
+
+	RelativeTimeFormatter() {
+		for (int i = 0; i < UNITS.length; i++) {
+			cache[i] = new String[CACHE_SIZES[i]];
+		}
+	}
+
+	public static RelativeTimeFormatter get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param timestamp The time to format, in milliseconds.
+	 * @param now The current time, in milliseconds.
+	 * @return The time, relative to now, e.g. "17 hours ago".
+	 */
+	public synchronized String format(long timestamp, long now) {
+		final Locale currentLocale = Locale.getDefault();
+		if (!currentLocale.equals(locale)) {
+			// the language was changed, the cached strings are in the old one
+			locale = currentLocale;
+			prettyTime = new PrettyTime(new Date(0), currentLocale);
+			for (String[] unitCache : cache) {
+				Arrays.fill(unitCache, null);
+			}
+		}
+		final long elapsed = Math.max(0, now - timestamp);
+		int unit = getUnit(elapsed);
+		long count = elapsed / UNITS[unit];
+		if (unit == MONTH_UNIT && count >= 12) {
+			// the last days before a whole year are 12 months, which is displayed as a year
+			unit = YEAR_UNIT;
+			count = 1;
+		}
+		final String[] unitCache = cache[unit];
+		if (count < unitCache.length) {
+			String result = unitCache[(int) count];
+			if (result == null) {
+				result = formatBucket(unit, count);
+				unitCache[(int) count] = result;
+			}
+			return result;
+		}
+		return formatBucket(unit, count);
+	}
+
+	/**
+	 * @param timestamp The time which was formatted.
+	 * @param now The current time, in milliseconds.
+	 * @return The time, until the string returned by {@link #format(long, long)} stays the same.
+	 */
+	public long getValidUntil(long timestamp, long now) {
+		if (timestamp > now) {
+			// formatted as the present, until it really is
+			return timestamp;
+		}
+		final long elapsed = now - timestamp;
+		final int unit = getUnit(elapsed);
+		return timestamp + (elapsed / UNITS[unit] + 1) * UNITS[unit];
+	}
+
+	private String formatBucket(int unit, long count) {
+		// the reference time of the formatter is the epoch, so the bucket is formatted as a date before
+		// it - at least a millisecond, as the epoch itself would be "moments from now"
+		return prettyTime.format(new Date(-Math.max(1, count * FORMATTED_UNITS[unit])));
+	}
+
+	private static int getUnit(long elapsed) {
+		int unit = 0;
+		while (unit + 1 < UNITS.length && elapsed >= UNITS[unit + 1]) {
+			unit++;
+		}
+		return unit;
+	}
+}
@@ -41,6 +41,8 @@ public class Settings {
     private final SkyTubeApp app;
     private static final String TUTORIAL_COMPLETED = "YouTubePlayerActivity.TutorialCompleted";
     private static final String LATEST_RELEASE_NOTES_DISPLAYED = "Settings.LATEST_RELEASE_NOTES_DISPLAYED";
+    private static final String VIDEO_BLOB_FORMAT_VERSION = "Settings.VIDEO_BLOB_FORMAT_VERSION";
+    private static final String LAST_FULL_BACKUP = "Settings.LAST_FULL_BACKUP";
 
     Settings(SkyTubeApp app) {
         this.app = app;
@@ -152,6 +154,14 @@ public class Settings {
         return getSharedPreferences().getBoolean(SkyTubeApp.getStr(R.string.pref_key_disable_search_history), false);
     }
 
+    public boolean isHideWatchedFeedVideos() {
+        return getSharedPreferences().getBoolean(SkyTubeApp.getStr(R.string.pref_key_hide_watched_feed_videos), false);
+    }
+
+    public boolean isRemoteSearchSuggestionsEnabled() {
+        return getSharedPreferences().getBoolean(SkyTubeApp.getStr(R.string.pref_key_remote_search_suggestions), false);
+    }
+
     public void setWarningMobilePolicy(Policy warnPolicy) {
         setPreference(R.string.pref_key_mobile_network_usage_policy, warnPolicy.name().toLowerCase());
     }
@@ -168,6 +178,10 @@ public class Settings {
         return getPreference(R.string.pref_key_switch_volume_and_brightness, false);
     }
 
+    public boolean isBackgroundAudioOnly() {
+        return getPreference(R.string.pref_key_background_audio_only, false);
+    }
+
     /**
      * Will check whether the video player tutorial was completed before.  If no, it will return
      * false and will save the value accordingly.
@@ -210,6 +224,40 @@ public class Settings {
         setPreference(SkyTubeApp.KEY_SUBSCRIPTIONS_LAST_UPDATED, dateTimeInMs != null ? dateTimeInMs : -1);
     }
 
+    /**
+     * @return The version of the video serialization format, which the stored videos were migrated to.
+     */
+    public int getVideoBlobFormatVersion() {
+        return getSharedPreferences().getInt(VIDEO_BLOB_FORMAT_VERSION, 0);
+    }
+
+    public void setVideoBlobFormatVersion(int version) {
+        final SharedPreferences.Editor editor = getSharedPreferences().edit();
+        editor.putInt(VIDEO_BLOB_FORMAT_VERSION, version);
+        editor.apply();
+    }
+
+    public boolean isDebugLogEnabled() {
+        return getSharedPreferences().getBoolean(SkyTubeApp.getStr(R.string.pref_key_debug_log), false);
+    }
+
+    public boolean isDifferentialBackupEnabled() {
+        return getSharedPreferences().getBoolean(SkyTubeApp.getStr(R.string.pref_key_differential_backup), false);
+    }
+
+    /**
+     * @return The description of the last full database backup, as JSON - or null, if there wasn't any.
+     */
+    public String getLastFullBackup() {
+        return getSharedPreferences().getString(LAST_FULL_BACKUP, null);
+    }
+
+    public void setLastFullBackup(String manifestJson) {
+        final SharedPreferences.Editor editor = getSharedPreferences().edit();
+        editor.putString(LAST_FULL_BACKUP, manifestJson);
+        editor.apply();
+    }
+
     public void setDownloadFolder(String dir) {
         setPreference(R.string.pref_key_video_download_folder, dir);
     }
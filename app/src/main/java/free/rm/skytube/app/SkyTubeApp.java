@@ -18,6 +18,7 @@
 package free.rm.skytube.app;
 
 import android.app.AlarmManager;
+import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
@@ -62,12 +63,16 @@ import java.util.List;
 import free.rm.skytube.BuildConfig;
 import free.rm.skytube.R;
 import free.rm.skytube.businessobjects.FeedUpdaterReceiver;
+import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.db.DatabaseRuntime;
 import free.rm.skytube.businessobjects.db.DatabaseTasks;
+import free.rm.skytube.businessobjects.download.DownloadEngine;
+import free.rm.skytube.businessobjects.download.DownloadNotifier;
 import free.rm.skytube.gui.activities.MainActivity;
 import free.rm.skytube.gui.businessobjects.YouTubePlayer;
 import free.rm.skytube.gui.fragments.ChannelBrowserFragment;
@@ -90,6 +95,8 @@ public class SkyTubeApp extends MultiDexApplication {
 	public static final String KEY_SUBSCRIPTIONS_LAST_UPDATED = "SkyTubeApp.KEY_SUBSCRIPTIONS_LAST_UPDATED";
 	public static final String NEW_VIDEOS_NOTIFICATION_CHANNEL = "free.rm.skytube.NEW_VIDEOS_NOTIFICATION_CHANNEL";
 	public static final int NEW_VIDEOS_NOTIFICATION_CHANNEL_ID = 1;
+	public static final String DOWNLOADS_NOTIFICATION_CHANNEL = "free.rm.skytube.DOWNLOADS_NOTIFICATION_CHANNEL";
+	public static final String PLAYBACK_NOTIFICATION_CHANNEL = "free.rm.skytube.PLAYBACK_NOTIFICATION_CHANNEL";
 
 	private static final CompositeDisposable COMPOSITE_DISPOSABLE = new CompositeDisposable();
 
@@ -98,10 +105,22 @@ public class SkyTubeApp extends MultiDexApplication {
 		super.onCreate();
 		this.settings = new Settings(this);
 		this.settings.migrate();
+		Logger.setRecording(settings.isDebugLogEnabled());
 		this.names = new FragmentNames(this);
 		skyTubeApp = this;
 		setupRxJava();
 		initChannels(this);
+		initDownloads();
+		COMPOSITE_DISPOSABLE.add(DatabaseTasks.migrateVideoBlobs()
+				.subscribe(() -> {}, error -> Logger.e(this, "Unable to convert the stored videos: " + error.getMessage(), error)));
+	}
+
+	/**
+	 * Continue the downloads, which were interrupted when the app was stopped.
+	 */
+	private void initDownloads() {
+		DownloadEngine.get().addListener(new DownloadNotifier(this));
+		DownloadEngine.get().resumeQueue();
 	}
 
 	private void setupRxJava() {
@@ -165,6 +184,15 @@ public class SkyTubeApp extends MultiDexApplication {
 		}
 	}
 
+	@Override
+	public void onTrimMemory(int level) {
+		super.onTrimMemory(level);
+		if (BuildConfig.DEBUG && level == TRIM_MEMORY_UI_HIDDEN) {
+			// the app went to the background: a good time to look at the slowest queries
+			DatabaseRuntime.get().logMetrics(20);
+		}
+	}
+
 	@Override
 	public void onTerminate() {
 		COMPOSITE_DISPOSABLE.clear();
@@ -319,6 +347,19 @@ public class SkyTubeApp extends MultiDexApplication {
 		notificationChannel.setLightColor(ColorUtils.compositeColors(0xFFFF0000, 0xFFFF0000));
 		notificationChannel.enableVibration(false);
 		notificationManager.createNotificationChannel(notificationChannel);
+
+		NotificationChannel downloadsChannel = new NotificationChannel(DOWNLOADS_NOTIFICATION_CHANNEL,
+				context.getString(R.string.notification_channel_downloads_title), NotificationManager.IMPORTANCE_LOW);
+		downloadsChannel.enableVibration(false);
+		downloadsChannel.setSound(null, null);
+		notificationManager.createNotificationChannel(downloadsChannel);
+
+		NotificationChannel playbackChannel = new NotificationChannel(PLAYBACK_NOTIFICATION_CHANNEL,
+				context.getString(R.string.notification_channel_playback_title), NotificationManager.IMPORTANCE_LOW);
+		playbackChannel.enableVibration(false);
+		playbackChannel.setSound(null, null);
+		playbackChannel.setLockscreenVisibility(Notification.VISIBILITY_PUBLIC);
+		notificationManager.createNotificationChannel(playbackChannel);
 	}
 
 	/**
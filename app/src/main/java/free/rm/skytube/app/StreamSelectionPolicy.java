@@ -36,28 +36,45 @@ import free.rm.skytube.businessobjects.YouTube.VideoStream.VideoResolution;
 
 public class StreamSelectionPolicy {
     private final static List<MediaFormat> VIDEO_FORMAT_QUALITY = Arrays.asList(MediaFormat.WEBM, MediaFormat.MPEG_4, MediaFormat.v3GPP);
+    /** The formats played in the audio only mode, the preferred one first, if the bitrates are the same */
+    private final static List<MediaFormat> AUDIO_FORMAT_QUALITY = Arrays.asList(MediaFormat.WEBMA, MediaFormat.M4A);
 
     private final boolean allowVideoOnly;
     private final VideoResolution maxResolution;
     private final VideoResolution minResolution;
     private final VideoQuality videoQuality;
+    /** Prefer the audio in the same container as the video, so they can be muxed after download */
+    private final boolean muxableAudio;
 
     public StreamSelectionPolicy(boolean allowVideoOnly, VideoResolution maxResolution, VideoResolution minResolution, VideoQuality videoQuality) {
+        this(allowVideoOnly, maxResolution, minResolution, videoQuality, false);
+    }
+
+    private StreamSelectionPolicy(boolean allowVideoOnly, VideoResolution maxResolution, VideoResolution minResolution, VideoQuality videoQuality, boolean muxableAudio) {
         this.allowVideoOnly = allowVideoOnly;
         this.maxResolution = maxResolution != VideoResolution.RES_UNKNOWN ? maxResolution : null;
         this.minResolution = minResolution != VideoResolution.RES_UNKNOWN ? minResolution : null;
         this.videoQuality = videoQuality;
+        this.muxableAudio = muxableAudio;
     }
 
     public StreamSelectionPolicy withAllowVideoOnly(boolean newValue) {
-        return new StreamSelectionPolicy(newValue, maxResolution, minResolution, videoQuality);
+        return new StreamSelectionPolicy(newValue, maxResolution, minResolution, videoQuality, muxableAudio);
+    }
+
+    /**
+     * @return A policy, which prefers the audio streams in the same container as the video - for the
+     * downloads, where the tracks are muxed into one file.
+     */
+    public StreamSelectionPolicy withMuxableAudio(boolean newValue) {
+        return new StreamSelectionPolicy(allowVideoOnly, maxResolution, minResolution, videoQuality, newValue);
     }
 
     public StreamSelection select(StreamInfo streamInfo) {
         VideoStreamWithResolution videoStreamWithResolution = pickVideo(streamInfo);
         if (videoStreamWithResolution != null) {
             if (videoStreamWithResolution.videoStream.isVideoOnly) {
-                AudioStream audioStream = pickAudio(streamInfo);
+                AudioStream audioStream = pickAudio(streamInfo, videoStreamWithResolution.videoStream.getFormat(), videoQuality);
                 if (audioStream != null) {
                     return new StreamSelection(videoStreamWithResolution.videoStream, videoStreamWithResolution.resolution, audioStream);
                 }
@@ -68,6 +85,17 @@ public class StreamSelectionPolicy {
         return null;
     }
 
+    /**
+     * Select the audio stream for the audio only playback - regardless of the quality preference, the
+     * one with the smallest bitrate, as the audio is usually played in the background, where the
+     * bandwidth matters more.
+     *
+     * @return The audio stream, or null, if the video doesn't have a playable audio stream.
+     */
+    public AudioStream selectAudioOnly(StreamInfo streamInfo) {
+        return pickAudio(streamInfo, null, VideoQuality.LEAST_BANDWITH);
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("StreamSelectionPolicy{");
@@ -79,6 +107,9 @@ public class StreamSelectionPolicy {
             sb.append(", minResolution=").append(minResolution);
         }
         sb.append(", videoQuality=").append(videoQuality);
+        if (muxableAudio) {
+            sb.append(", muxableAudio=true");
+        }
         sb.append('}');
         return sb.toString();
     }
@@ -95,25 +126,58 @@ public class StreamSelectionPolicy {
         return context.getString(R.string.video_stream_not_found_with_request_resolution, min, max);
     }
 
-    private AudioStream pickAudio(StreamInfo streamInfo) {
+    /**
+     * Pick the best audio stream - for downloads, preferring the ones in the same container as the video,
+     * so they can be muxed into one file.  Without a video - in the audio only mode - only the
+     * {@link #AUDIO_FORMAT_QUALITY} formats are accepted.
+     */
+    private AudioStream pickAudio(StreamInfo streamInfo, MediaFormat videoFormat, VideoQuality quality) {
         AudioStream best = null;
+        AudioStream bestInSameContainer = null;
         for (AudioStream audioStream : streamInfo.getAudioStreams()) {
-            if (isBetter(best, audioStream)) {
+            if (videoFormat == null && !AUDIO_FORMAT_QUALITY.contains(audioStream.getFormat())) {
+                continue;
+            }
+            if (isBetter(best, audioStream, quality)) {
                 best = audioStream;
             }
+            if (muxableAudio && isSameContainer(videoFormat, audioStream.getFormat()) && isBetter(bestInSameContainer, audioStream, quality)) {
+                bestInSameContainer = audioStream;
+            }
         }
-        return best;
+        return bestInSameContainer != null ? bestInSameContainer : best;
+    }
+
+    /**
+     * @return True, if the formats share the container, e.g. 'video/webm' and 'audio/webm'.
+     */
+    private static boolean isSameContainer(MediaFormat videoFormat, MediaFormat audioFormat) {
+        if (videoFormat == null || audioFormat == null) {
+            return false;
+        }
+        final String videoMime = videoFormat.getMimeType();
+        final String audioMime = audioFormat.getMimeType();
+        return videoMime.substring(videoMime.indexOf('/') + 1).equals(audioMime.substring(audioMime.indexOf('/') + 1));
     }
 
-    private boolean isBetter(AudioStream best, AudioStream other) {
+    private static boolean isBetter(AudioStream best, AudioStream other, VideoQuality quality) {
         if (best == null) {
             return true;
         }
-        switch (videoQuality) {
+        if (best.average_bitrate == other.average_bitrate) {
+            return isSecondBetterAudioFormat(best, other);
+        }
+        switch (quality) {
             case LEAST_BANDWITH: return other.average_bitrate < best.average_bitrate;
             case BEST_QUALITY: return best.average_bitrate < other.average_bitrate;
         }
-        throw new IllegalStateException("Unexpected videoQuality:" + videoQuality);
+        throw new IllegalStateException("Unexpected videoQuality:" + quality);
+    }
+
+    private static boolean isSecondBetterAudioFormat(AudioStream stream1, AudioStream stream2) {
+        final int format1Idx = AUDIO_FORMAT_QUALITY.indexOf(stream1.getFormat());
+        final int format2Idx = AUDIO_FORMAT_QUALITY.indexOf(stream2.getFormat());
+        return format2Idx >= 0 && (format1Idx < 0 || format2Idx < format1Idx);
     }
 
     private static boolean isSecondBetterFormat(VideoStream stream1, VideoStream stream2) {
@@ -0,0 +1,133 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The last logged events, kept in memory, so they can be attached to a bug report - when the buffer
+ * is full, the oldest event is overwritten.
+ */
+public class LogBuffer {
+	/**
+	 * A logged event.
+	 */
+	public static class Event {
+		private final long time;
+		private final char level;
+		private final String tag;
+		private final String thread;
+		private final String message;
+		private final String error;
+
+		Event(long time, char level, String tag, String thread, String message, String error) {
+			this.time = time;
+			this.level = level;
+			this.tag = tag;
+			this.thread = thread;
+			this.message = message;
+			this.error = error;
+		}
+
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return The level, as in logcat: 'D', 'I', 'W' or 'E'.
+		 */
+		public char getLevel() {
+			return level;
+		}
+
+		public String getTag() {
+			return tag;
+		}
+
+		public String getThread() {
+			return thread;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * @return The class and message of the logged exception, or null.
+		 */
+		public String getError() {
+			return error;
+		}
+	}
+
+	private final Event[] events;
+	private int next;
+	private int size;
+
+	public LogBuffer(int capacity) {
+		this.events = new Event[capacity];
+	}
+
+	public synchronized void add(long time, char level, String tag, String message, Throwable error) {
+		events[next] = new Event(time, level, tag, Thread.currentThread().getName(), message,
+				error != null ? error.getClass().getName() + ": " + error.getMessage() : null);
+		next = (next + 1) % events.length;
+		size = Math.min(size + 1, events.length);
+	}
+
+	/**
+	 * @return The events, the oldest first.
+	 */
+	public synchronized List<Event> getEvents() {
+		final List<Event> result = new ArrayList<>(size);
+		final int first = (next - size + events.length) % events.length;
+		for (int i = 0; i < size; i++) {
+			result.add(events[(first + i) % events.length]);
+		}
+		return result;
+	}
+
+	public synchronized void clear() {
+		for (int i = 0; i < events.length; i++) {
+			events[i] = null;
+		}
+		next = 0;
+		size = 0;
+	}
+
+	/**
+	 * @return The events as text, one line per event, like in logcat.
+	 */
+	public String export() {
+		final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+		final StringBuilder result = new StringBuilder();
+		for (Event event : getEvents()) {
+			result.append(dateFormat.format(new Date(event.time)))
+					.append(' ').append(event.level).append('/').append(event.tag)
+					.append(" [").append(event.thread).append("]: ").append(event.message);
+			if (event.error != null) {
+				result.append(" - ").append(event.error);
+			}
+			result.append('\n');
+		}
+		return result.toString();
+	}
+}
@@ -19,29 +19,214 @@ package free.rm.skytube.businessobjects;
 
 import android.util.Log;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import free.rm.skytube.BuildConfig;
+
+/**
+ * Logs to logcat, with the simple name of the class of the logging object as the tag.
+ *
+ * <p>The messages below the level of the tag are neither formatted nor logged - the level is
+ * {@link Log#DEBUG} in debug builds and {@link Log#INFO} in release builds, which can be changed for
+ * a tag with <code>adb shell setprop log.tag.&lt;tag&gt; DEBUG</code> (or ERROR, to silence it).  The
+ * methods with a few arguments don't allocate an array for them, so a disabled debug message in a
+ * loop costs only a lookup.</p>
+ *
+ * <p>If it's enabled, the events are also recorded in a {@link LogBuffer}, regardless of the level of
+ * their tag, so they can be exported for a bug report.</p>
+ */
 public class Logger {
+	private static final int BUFFER_CAPACITY = 1000;
+	private static final int DEFAULT_LEVEL = BuildConfig.DEBUG ? Log.DEBUG : Log.INFO;
 
-	public static void i(Object obj, String format, Object ... args) {
-		Log.i(obj.getClass().getSimpleName(), format(format, args));
+	private static final ConcurrentMap<Class<?>, Tag> TAGS = new ConcurrentHashMap<>();
+	/** Null, if the events are not recorded */
+	private static volatile LogBuffer buffer;
+
+	/**
+	 * The tag of a class, and the lowest level which is logged with it.
+	 */
+	private static class Tag {
+		private final String name;
+		private final int level;
+
+		Tag(String name) {
+			this.name = name;
+			this.level = getLevel(name);
+		}
+
+		private static int getLevel(String name) {
+			try {
+				if (Log.isLoggable(name, Log.DEBUG)) {
+					return Log.DEBUG;
+				}
+				if (!Log.isLoggable(name, Log.WARN)) {
+					return Log.ERROR;
+				}
+			} catch (IllegalArgumentException e) {
+				// tags longer than 23 characters can't be configured on older devices
+			}
+			return DEFAULT_LEVEL;
+		}
+	}
+
+	public static void d(Object obj, String msg) {
+		if (isEnabled(obj, Log.DEBUG)) {
+			log(obj, Log.DEBUG, msg, null);
+		}
+	}
+
+	public static void d(Object obj, String format, Object arg) {
+		if (isEnabled(obj, Log.DEBUG)) {
+			log(obj, Log.DEBUG, String.format(format, arg), null);
+		}
+	}
+
+	public static void d(Object obj, String format, Object arg1, Object arg2) {
+		if (isEnabled(obj, Log.DEBUG)) {
+			log(obj, Log.DEBUG, String.format(format, arg1, arg2), null);
+		}
+	}
+
+	public static void d(Object obj, String format, Object arg1, Object arg2, Object arg3) {
+		if (isEnabled(obj, Log.DEBUG)) {
+			log(obj, Log.DEBUG, String.format(format, arg1, arg2, arg3), null);
+		}
 	}
 
 	public static void d(Object obj, String format, Object ... args) {
-		Log.d(obj.getClass().getSimpleName(), format(format, args));
+		if (isEnabled(obj, Log.DEBUG)) {
+			log(obj, Log.DEBUG, format(format, args), null);
+		}
+	}
+
+	public static void i(Object obj, String msg) {
+		if (isEnabled(obj, Log.INFO)) {
+			log(obj, Log.INFO, msg, null);
+		}
+	}
+
+	public static void i(Object obj, String format, Object arg) {
+		if (isEnabled(obj, Log.INFO)) {
+			log(obj, Log.INFO, String.format(format, arg), null);
+		}
+	}
+
+	public static void i(Object obj, String format, Object arg1, Object arg2) {
+		if (isEnabled(obj, Log.INFO)) {
+			log(obj, Log.INFO, String.format(format, arg1, arg2), null);
+		}
+	}
+
+	public static void i(Object obj, String format, Object arg1, Object arg2, Object arg3) {
+		if (isEnabled(obj, Log.INFO)) {
+			log(obj, Log.INFO, String.format(format, arg1, arg2, arg3), null);
+		}
+	}
+
+	public static void i(Object obj, String format, Object ... args) {
+		if (isEnabled(obj, Log.INFO)) {
+			log(obj, Log.INFO, format(format, args), null);
+		}
+	}
+
+	public static void w(Object obj, String msg) {
+		if (isEnabled(obj, Log.WARN)) {
+			log(obj, Log.WARN, msg, null);
+		}
+	}
+
+	public static void w(Object obj, String format, Object arg) {
+		if (isEnabled(obj, Log.WARN)) {
+			log(obj, Log.WARN, String.format(format, arg), null);
+		}
+	}
+
+	public static void w(Object obj, String format, Object arg1, Object arg2) {
+		if (isEnabled(obj, Log.WARN)) {
+			log(obj, Log.WARN, String.format(format, arg1, arg2), null);
+		}
+	}
+
+	public static void w(Object obj, String format, Object arg1, Object arg2, Object arg3) {
+		if (isEnabled(obj, Log.WARN)) {
+			log(obj, Log.WARN, String.format(format, arg1, arg2, arg3), null);
+		}
 	}
 
 	public static void w(Object obj, String format, Object ... args) {
-		Log.w(obj.getClass().getSimpleName(), format(format, args));
+		if (isEnabled(obj, Log.WARN)) {
+			log(obj, Log.WARN, format(format, args), null);
+		}
 	}
 
 	public static void e(Object obj, String msg, Throwable tr) {
-		Log.e(obj.getClass().getSimpleName(), msg, tr);
+		if (isEnabled(obj, Log.ERROR)) {
+			log(obj, Log.ERROR, msg, tr);
+		}
 	}
 
 	public static void e(Object obj, String format, Object ... args) {
-		Log.e(obj.getClass().getSimpleName(), format(format, args));
+		if (isEnabled(obj, Log.ERROR)) {
+			log(obj, Log.ERROR, format(format, args), null);
+		}
+	}
+
+	/**
+	 * @return True, if a message with the given level would be logged or recorded for the object -
+	 * to skip computing the arguments of a message.
+	 */
+	public static boolean isEnabled(Object obj, int level) {
+		return buffer != null || level >= getTag(obj).level;
+	}
+
+	/**
+	 * Start or stop recording the events, for {@link #exportEvents()}.
+	 */
+	public static synchronized void setRecording(boolean enabled) {
+		if (enabled && buffer == null) {
+			buffer = new LogBuffer(BUFFER_CAPACITY);
+		} else if (!enabled) {
+			buffer = null;
+		}
+	}
+
+	/**
+	 * @return The recorded events as text, or null if the events are not recorded.
+	 */
+	public static String exportEvents() {
+		final LogBuffer currentBuffer = buffer;
+		return currentBuffer != null ? currentBuffer.export() : null;
+	}
+
+	private static void log(Object obj, int level, String msg, Throwable tr) {
+		final Tag tag = getTag(obj);
+		if (level >= tag.level) {
+			if (tr != null) {
+				Log.println(level, tag.name, msg + '\n' + Log.getStackTraceString(tr));
+			} else {
+				Log.println(level, tag.name, msg);
+			}
+		}
+		final LogBuffer currentBuffer = buffer;
+		if (currentBuffer != null) {
+			currentBuffer.add(System.currentTimeMillis(), "??VDIWEA".charAt(level), tag.name, msg, tr);
+		}
+	}
+
+	private static Tag getTag(Object obj) {
+		// the static methods log with the class itself
+		final Class<?> cls = obj instanceof Class ? (Class<?>) obj : obj.getClass();
+		Tag tag = TAGS.get(cls);
+		if (tag == null) {
+			tag = new Tag(cls.getSimpleName());
+			TAGS.put(cls, tag);
+		}
+		return tag;
 	}
 
 	private static String format(String format, Object... args) {
 		return args.length > 0 ? String.format(format, args) : format;
 	}
-}
\ No newline at end of file
+}
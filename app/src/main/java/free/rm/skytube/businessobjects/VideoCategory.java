@@ -19,6 +19,8 @@ package free.rm.skytube.businessobjects;
 
 import android.util.Log;
 
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.YouTube.CachedFeed;
 import free.rm.skytube.businessobjects.YouTube.GetBookmarksVideos;
 import free.rm.skytube.businessobjects.YouTube.GetChannelVideosFull;
 import free.rm.skytube.businessobjects.YouTube.GetChannelVideosInterface;
@@ -27,6 +29,7 @@ import free.rm.skytube.businessobjects.YouTube.GetDownloadedVideos;
 import free.rm.skytube.businessobjects.YouTube.GetFeaturedVideos;
 import free.rm.skytube.businessobjects.YouTube.GetMostPopularVideos;
 import free.rm.skytube.businessobjects.YouTube.GetYouTubeVideos;
+import free.rm.skytube.businessobjects.YouTube.LocalVideoSearch;
 import free.rm.skytube.businessobjects.YouTube.NewPipeChannelVideos;
 import free.rm.skytube.businessobjects.YouTube.NewPipePlaylistVideos;
 import free.rm.skytube.businessobjects.YouTube.NewPipeVideoBySearch;
@@ -43,7 +46,7 @@ public enum VideoCategory {
 	FEATURED,
 	/** Most popular videos */
 	MOST_POPULAR,
-	/** Videos related to a search query */
+	/** Videos related to a search query - the matching local videos first, then the online results */
 	SEARCH_QUERY ,
 	/** Videos that are owned by a channel */
 	CHANNEL_VIDEOS ,
@@ -80,10 +83,10 @@ public enum VideoCategory {
 	 */
 	public GetYouTubeVideos createGetYouTubeVideos() {
 		switch (this) {
-			case FEATURED: return new GetFeaturedVideos();
-			case MOST_POPULAR: return new NewPipeTrendingItems(); //new GetMostPopularVideos();
-			case SEARCH_QUERY: return new NewPipeVideoBySearch();
-			case CHANNEL_VIDEOS: return (GetYouTubeVideos) createChannelVideosFetcher();
+			case FEATURED: return new CachedFeed(name(), GetFeaturedVideos.getPreferredRegion(), GetFeaturedVideos::new);
+			case MOST_POPULAR: return new CachedFeed(name(), SkyTubeApp.getSettings().getPreferredContentCountry(), NewPipeTrendingItems::new); //new GetMostPopularVideos();
+			case SEARCH_QUERY: return new LocalVideoSearch(new NewPipeVideoBySearch());
+			case CHANNEL_VIDEOS: return (GetYouTubeVideos) createChannelVideosFetcher(true);
 			case SUBSCRIPTIONS_FEED_VIDEOS: return new GetSubscriptionsVideosFromDb();
 			case BOOKMARKS_VIDEOS: return new GetBookmarksVideos();
 			case MIXED_PLAYLIST_VIDEOS:
@@ -107,15 +110,24 @@ public enum VideoCategory {
 	 * {@link GetChannelVideosLite}.</p>
 	 */
 	public static GetChannelVideosInterface createChannelVideosFetcher() {
+		return createChannelVideosFetcher(false);
+	}
+
+
+	/**
+	 * Same as {@link #createChannelVideosFetcher()}, with the first page optionally displayed from
+	 * the cache of {@link NewPipeChannelVideos}.
+	 */
+	public static GetChannelVideosInterface createChannelVideosFetcher(boolean cachedFirstPage) {
 		if (NewPipeService.isPreferred()) {
-			return new NewPipeChannelVideos();
+			return new NewPipeChannelVideos(cachedFirstPage);
 		}
 		if (YouTubeAPIKey.get().isUserApiKeySet()) {
 			Log.d(VideoCategory.class.getName(), "Using GetChannelVideosFull...");
 			return new GetChannelVideosFull();
 		} else {
 			Log.d(VideoCategory.class.getName(), "Using NewPipeChannelVideos...");
-			return new NewPipeChannelVideos();
+			return new NewPipeChannelVideos(cachedFirstPage);
 		}
 
 	}
@@ -0,0 +1,198 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.db.DatabaseRuntime;
+import free.rm.skytube.businessobjects.db.FeedCacheDb;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * A feed which is the same for every user of a region - like the trending videos - returned from
+ * {@link FeedCacheDb} first, then continued online, skipping the videos already shown.
+ *
+ * <p>The first page of the feed is saved, whenever it's downloaded.  If the cached page is older
+ * than {@link #MAX_AGE}, it's still displayed, but it's refreshed in the background, for the next
+ * time.  Swipe to refresh skips the cache.  The feeds are cached by their category, so the NewPipe
+ * and the YouTube API based variants share their cache.</p>
+ */
+public class CachedFeed extends GetYouTubeVideos {
+	/** The age, after which the cached page is refreshed - these feeds change on a scale of hours */
+	private static final long MAX_AGE = 2 * 3600 * 1000L;
+	/** The feeds being refreshed in the background - the same feed is refreshed only once at a time */
+	private static final ConcurrentMap<String, Boolean> REFRESHING = new ConcurrentHashMap<>();
+
+	private final String feed;
+	private final String region;
+	private final Supplier<GetYouTubeVideos> onlineFeedFactory;
+	private final GetYouTubeVideos onlineFeed;
+	/** The videos returned from the cache, which are skipped from the online pages */
+	private final Set<String> cachedVideoIds = new HashSet<>();
+	private boolean cacheChecked;
+	private boolean skipCache;
+	private boolean firstOnlinePage = true;
+
+	/**
+	 * @param feed The name of the feed in the cache.
+	 * @param region The region of the feed, null for the default region.
+	 * @param onlineFeedFactory Creates the online feed - it's called for the background refresh too.
+	 */
+	public CachedFeed(String feed, String region, Supplier<GetYouTubeVideos> onlineFeedFactory) {
+		this.feed = feed;
+		this.region = region != null ? region : "";
+		this.onlineFeedFactory = onlineFeedFactory;
+		this.onlineFeed = onlineFeedFactory.get();
+	}
+
+	@Override
+	public void init() throws IOException {
+		onlineFeed.init();
+	}
+
+	@Override
+	public List<CardData> getNextVideos() {
+		if (!cacheChecked) {
+			cacheChecked = true;
+			final List<CardData> cachedVideos = getCachedVideos();
+			if (cachedVideos != null) {
+				return cachedVideos;
+			}
+		}
+		while (true) {
+			final List<CardData> videos = onlineFeed.getNextVideos();
+			noMoreVideoPages = onlineFeed.noMoreVideoPages();
+			if (videos == null || videos.isEmpty()) {
+				return new ArrayList<>();
+			}
+			if (firstOnlinePage) {
+				firstOnlinePage = false;
+				save(feed, region, videos);
+			}
+			final List<CardData> result = skipCachedVideos(videos);
+			// if the page only has the cached videos, continue with the next one
+			if (!result.isEmpty() || noMoreVideoPages) {
+				return result;
+			}
+		}
+	}
+
+	private List<CardData> getCachedVideos() {
+		if (skipCache) {
+			return null;
+		}
+		final FeedCacheDb.Snapshot snapshot = FeedCacheDb.getFeedCacheDb().getSnapshot(feed, region);
+		if (snapshot == null) {
+			return null;
+		}
+		final boolean online = SkyTubeApp.isConnected(SkyTubeApp.getContext());
+		if (!online) {
+			noMoreVideoPages = true;
+		} else if (snapshot.isOlderThan(MAX_AGE)) {
+			refreshInBackground();
+		}
+		for (CardData video : snapshot.getVideos()) {
+			cachedVideoIds.add(video.getId());
+		}
+		Logger.d(this, "Returning %s cached videos of %s/%s", cachedVideoIds.size(), feed, region);
+		return new ArrayList<>(snapshot.getVideos());
+	}
+
+	private List<CardData> skipCachedVideos(List<CardData> videos) {
+		if (cachedVideoIds.isEmpty()) {
+			return videos;
+		}
+		final List<CardData> result = new ArrayList<>(videos.size());
+		for (CardData video : videos) {
+			if (!cachedVideoIds.contains(video.getId())) {
+				result.add(video);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Download the first page of the feed with a separate online feed, as the one of this feed could
+	 * be used meanwhile.
+	 */
+	private void refreshInBackground() {
+		final String key = feed + '/' + region;
+		if (REFRESHING.putIfAbsent(key, Boolean.TRUE) != null) {
+			return;
+		}
+		Completable.fromAction(() -> {
+			final GetYouTubeVideos refresh = onlineFeedFactory.get();
+			try {
+				refresh.init();
+				final List<CardData> videos = refresh.getNextVideos();
+				if (videos != null && !videos.isEmpty()) {
+					save(feed, region, videos);
+				}
+			} finally {
+				refresh.close();
+			}
+		})
+				.subscribeOn(Schedulers.io())
+				.doFinally(() -> REFRESHING.remove(key))
+				.subscribe(() -> {}, error -> Logger.e(CachedFeed.class, "Unable to refresh " + key + ": " + error.getMessage(), error));
+	}
+
+	private static void save(String feed, String region, List<CardData> videos) {
+		final List<CardData> copy = new ArrayList<>(videos);
+		DatabaseRuntime.get().write(FeedCacheDb.getFeedCacheDb(), "feed cache", () -> {
+			return FeedCacheDb.getFeedCacheDb().saveSnapshot(feed, region, copy);
+		}).subscribe(count -> Logger.d(CachedFeed.class, "Cached %s videos of %s/%s", count, feed, region),
+				error -> Logger.e(CachedFeed.class, "Unable to cache " + feed + ": " + error.getMessage(), error));
+	}
+
+	@Override
+	public void resetKey() {
+		onlineFeed.resetKey();
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		// swipe to refresh: download the feed, instead of displaying the cached one again
+		skipCache = true;
+		cacheChecked = false;
+		firstOnlinePage = true;
+		cachedVideoIds.clear();
+		onlineFeed.reset();
+	}
+
+	@Override
+	public void close() {
+		onlineFeed.close();
+	}
+
+	@Override
+	public Exception getLastException() {
+		return onlineFeed.getLastException();
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeException;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.YouTube.newpipe.VideoPagerWithChannel;
+import free.rm.skytube.businessobjects.db.DatabaseRuntime;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Extracts the channel page - the channel details, with the first page of its videos - once, for
+ * both the channel browser and its videos tab: they share the extraction in progress, and the videos
+ * tab continues paging with the same pager.  The results are saved into {@link SubscriptionsDb}, so
+ * the next time the channel is displayed from there, while it's revalidated.
+ */
+public class ChannelPageLoader {
+    private static final ChannelPageLoader INSTANCE = new ChannelPageLoader();
+
+    /** The extractions in progress, by the channel id */
+    private final Map<String, Single<ChannelPage>> inFlight = new HashMap<>();
+    /**
+     * The last extracted page, until its pager is taken - the videos tab usually asks for it, right
+     * after the browser loaded the channel.  Only one is kept, as a pager holds the whole extractor.
+     */
+    private ChannelPage lastPage;
+
+    /**
+     * The details and the first page of videos of a channel, with the pager of the following pages.
+     */
+    public static class ChannelPage {
+        private final YouTubeChannel channel;
+        private final NewPipeException firstPageError;
+        private VideoPagerWithChannel pager;
+
+        ChannelPage(YouTubeChannel channel, VideoPagerWithChannel pager, NewPipeException firstPageError) {
+            this.channel = channel;
+            this.pager = pager;
+            this.firstPageError = firstPageError;
+        }
+
+        /**
+         * @return The channel, with the first page of its videos.
+         */
+        public YouTubeChannel getChannel() {
+            return channel;
+        }
+
+        public List<CardData> getFirstPage() {
+            return new ArrayList<>(channel.getYouTubeVideos());
+        }
+
+        /**
+         * @return The error of the extraction of the first page of videos, or null - the channel
+         * details are available even then, but the pager can't be continued.
+         */
+        public NewPipeException getFirstPageError() {
+            return firstPageError;
+        }
+
+        /**
+         * @return The pager positioned after the first page, or null, if it's already taken - it
+         * can be used only once, as it's not thread safe.
+         */
+        public synchronized VideoPagerWithChannel takePager() {
+            final VideoPagerWithChannel result = pager;
+            pager = null;
+            return result;
+        }
+    }
+
+    private ChannelPageLoader() {
+    }
+
+    public static ChannelPageLoader get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return The channel page, from the extraction in progress, or from a new one, which also
+     * saves the channel into the database.
+     */
+    public synchronized Single<ChannelPage> load(String channelId) {
+        Single<ChannelPage> result = inFlight.get(channelId);
+        if (result == null) {
+            result = Single.fromCallable(() -> extract(channelId))
+                    .subscribeOn(Schedulers.io())
+                    .doOnSuccess(page -> onLoaded(channelId, page))
+                    .doOnError(error -> onLoaded(channelId, null))
+                    .cache();
+            inFlight.put(channelId, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return The channel page of the last extraction - which is in progress, or just finished, and
+     * its pager is not taken yet - otherwise a new one.
+     */
+    public synchronized Single<ChannelPage> loadRecent(String channelId) {
+        if (lastPage != null && lastPage.channel.getId().equals(channelId)) {
+            return Single.just(lastPage);
+        }
+        return load(channelId);
+    }
+
+    private synchronized void onLoaded(String channelId, ChannelPage page) {
+        inFlight.remove(channelId);
+        if (page != null) {
+            lastPage = page;
+        }
+    }
+
+    /**
+     * Forget the last extraction, if it's of the given channel, so its pager is released.
+     */
+    public synchronized void release(String channelId) {
+        if (lastPage != null && lastPage.channel.getId().equals(channelId)) {
+            lastPage = null;
+        }
+    }
+
+    private static ChannelPage extract(String channelId) throws NewPipeException {
+        final VideoPagerWithChannel pager = NewPipeService.get().getChannelPager(channelId);
+        // get the channel, and add all the videos from the first page
+        final YouTubeChannel channel = pager.getChannel();
+        NewPipeException firstPageError = null;
+        try {
+            final List<YouTubeVideo> videos = pager.getNextPageAsVideos();
+            channel.getYouTubeVideos().addAll(videos);
+            Logger.i(ChannelPageLoader.class, "Loaded %s(%s) with %s videos", channel.getTitle(), channelId, videos.size());
+        } catch (NewPipeException e) {
+            Logger.e(ChannelPageLoader.class, "Unable to retrieve videos for " + channelId + ", error: " + e.getMessage(), e);
+            firstPageError = e;
+        }
+        final SubscriptionsDb db = SubscriptionsDb.getSubscriptionsDb();
+        DatabaseRuntime.get().write(db, "cache channel page", () -> db.cacheChannelWithVideos(channel))
+                .subscribe(() -> {}, error -> Logger.e(ChannelPageLoader.class, "Unable to cache " + channelId + ": " + error.getMessage(), error));
+        return new ChannelPage(channel, pager, firstPageError);
+    }
+}
@@ -33,7 +33,7 @@ import free.rm.skytube.businessobjects.db.BookmarksDb;
  */
 public class GetBookmarksVideos extends GetYouTubeVideos {
 
-    Integer minOrder;
+    volatile Integer minOrder;
 
     @Override
     public void init() {
@@ -46,6 +46,14 @@ public class GetBookmarksVideos extends GetYouTubeVideos {
         noMoreVideoPages = false;
     }
 
+    @Override
+    public void onItemMoved(int newOrder) {
+        // only a video dropped below the last loaded one gets an order number lower than the keyset
+        if (minOrder != null) {
+            minOrder = Utils.min(newOrder, minOrder);
+        }
+    }
+
     @Override
     public List<CardData> getNextVideos() {
         if (!noMoreVideoPages()) {
@@ -17,10 +17,14 @@
 
 package free.rm.skytube.businessobjects.YouTube;
 
+import androidx.core.util.Pair;
+
 import java.util.ArrayList;
 import java.util.List;
 
+import free.rm.skytube.app.Utils;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
 
 
@@ -29,16 +33,37 @@ import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
  */
 public class GetDownloadedVideos extends GetYouTubeVideos {
 
+	private volatile Integer minOrder;
+
 	@Override
 	public void init() {
+		reset();
+	}
+
+	@Override
+	public void reset() {
+		minOrder = null;
 		noMoreVideoPages = false;
 	}
 
+	@Override
+	public void onItemMoved(int newOrder) {
+		// only a video dropped below the last loaded one gets an order number lower than the keyset
+		if (minOrder != null) {
+			minOrder = Utils.min(newOrder, minOrder);
+		}
+	}
+
 	@Override
 	public List<CardData> getNextVideos() {
 		if (!noMoreVideoPages()) {
-			noMoreVideoPages = true;
-			return new ArrayList<>(DownloadedVideosDb.getVideoDownloadsDb().getDownloadedVideos());
+			Pair<List<YouTubeVideo>, Integer> downloadedVideos = DownloadedVideosDb.getVideoDownloadsDb().getDownloadedVideos(20, minOrder);
+			if (!downloadedVideos.first.isEmpty()) {
+				minOrder = Utils.min(downloadedVideos.second, minOrder);
+			} else {
+				noMoreVideoPages = true;
+			}
+			return new ArrayList<>(downloadedVideos.first);
 		}
 
 		return null;
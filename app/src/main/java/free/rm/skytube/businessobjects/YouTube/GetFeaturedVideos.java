@@ -118,7 +118,10 @@ public class GetFeaturedVideos extends GetYouTubeVideos {
 	}
 
 
-	private String getPreferredRegion() {
+	/**
+	 * @return The region of the featured and the most popular videos, or null for the default one.
+	 */
+	public static String getPreferredRegion() {
 		String region = SkyTubeApp.getPreferenceManager()
 				.getString(SkyTubeApp.getStr(R.string.pref_key_preferred_region), "").trim();
 		return (region.isEmpty() ? null : region);
@@ -77,6 +77,13 @@ public abstract class GetYouTubeVideos {
 	public void resetKey() {
 	}
 
+	/**
+	 * A video was moved by drag & drop, and got the given order number - the keyset of the ordered
+	 * lists has to skip it, otherwise the next page would return it again.
+	 */
+	public void onItemMoved(int newOrder) {
+	}
+
 	/**
 	 * Reset the fetching of videos. This will be called when a swipe to refresh is done.
 	 */
@@ -86,6 +93,12 @@ public abstract class GetYouTubeVideos {
 		lastException = null;
 	}
 
+	/**
+	 * Stop fetching the pages in the background - the videos are not displayed anymore.
+	 */
+	public void close() {
+	}
+
 	public Exception getLastException() {
 		return lastException;
 	}
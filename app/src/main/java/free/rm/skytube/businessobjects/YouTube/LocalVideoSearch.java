@@ -0,0 +1,126 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.db.BookmarksDb;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
+
+/**
+ * Search the videos stored on the device - the downloaded and bookmarked ones, and the
+ * subscriptions feed - through their full-text indexes.  These are returned as the first page,
+ * then the search continues online, skipping the videos already shown.  Without network, only the
+ * local results are returned.
+ */
+public class LocalVideoSearch extends GetYouTubeVideos {
+	/** The maximum number of videos returned from each local source */
+	private static final int LOCAL_LIMIT = 50;
+
+	private final GetYouTubeVideos onlineSearch;
+	private final Set<String> localVideoIds = new HashSet<>();
+	private String query;
+	private boolean localSearchDone;
+
+	public LocalVideoSearch(GetYouTubeVideos onlineSearch) {
+		this.onlineSearch = onlineSearch;
+	}
+
+	@Override
+	public void init() throws IOException {
+		onlineSearch.init();
+	}
+
+	@Override
+	public void setQuery(String query) {
+		this.query = query;
+		onlineSearch.setQuery(query);
+	}
+
+	@Override
+	public List<CardData> getNextVideos() {
+		if (!localSearchDone) {
+			localSearchDone = true;
+			final List<CardData> localVideos = searchLocally(query);
+			final boolean online = SkyTubeApp.isConnected(SkyTubeApp.getContext());
+			if (!online) {
+				noMoreVideoPages = true;
+			}
+			if (!localVideos.isEmpty() || !online) {
+				return localVideos;
+			}
+		}
+		final List<CardData> videos = onlineSearch.getNextVideos();
+		noMoreVideoPages = onlineSearch.noMoreVideoPages();
+		if (videos == null || localVideoIds.isEmpty()) {
+			return videos;
+		}
+		final List<CardData> result = new ArrayList<>(videos.size());
+		for (CardData video : videos) {
+			if (!localVideoIds.contains(video.getId())) {
+				result.add(video);
+			}
+		}
+		return result;
+	}
+
+	private List<CardData> searchLocally(String query) {
+		final long start = System.currentTimeMillis();
+		final List<CardData> result = new ArrayList<>();
+		addAll(result, DownloadedVideosDb.getVideoDownloadsDb().searchVideos(query, LOCAL_LIMIT));
+		addAll(result, BookmarksDb.getBookmarksDb().searchVideos(query, LOCAL_LIMIT));
+		addAll(result, SubscriptionsDb.getSubscriptionsDb().searchVideos(query, LOCAL_LIMIT));
+		Logger.i(this, "Found %s videos locally for '%s' in %s ms", result.size(), query, System.currentTimeMillis() - start);
+		return result;
+	}
+
+	private void addAll(List<CardData> result, List<YouTubeVideo> videos) {
+		for (YouTubeVideo video : videos) {
+			// the same video could be downloaded, bookmarked and in the feed too
+			if (localVideoIds.add(video.getId())) {
+				result.add(video);
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		localSearchDone = false;
+		localVideoIds.clear();
+		onlineSearch.reset();
+	}
+
+	@Override
+	public void close() {
+		onlineSearch.close();
+	}
+
+	@Override
+	public Exception getLastException() {
+		return onlineSearch.getLastException();
+	}
+}
@@ -18,18 +18,49 @@
 
 import org.schabi.newpipe.extractor.stream.StreamInfoItem;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeException;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.YouTube.newpipe.ReadAheadPager;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoPager;
+import free.rm.skytube.businessobjects.YouTube.newpipe.VideoPagerWithChannel;
+import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 
 /**
  * Adapter class to get list of videos from a channel.
+ *
+ * <p>The first page is the one cached in {@link SubscriptionsDb}, if there is one, while the channel
+ * is extracted in the background by {@link ChannelPageLoader} - the following pages are fetched by
+ * its pager, skipping the videos already shown.</p>
  */
 public class NewPipeChannelVideos extends NewPipeVideos<StreamInfoItem> implements GetChannelVideosInterface {
 
     private String channelId;
+    /** The videos returned from the cache, which are skipped from the downloaded pages */
+    private final Set<String> cachedVideoIds = new HashSet<>();
+    private boolean cacheChecked;
+    private boolean skipCache;
+
+    public NewPipeChannelVideos() {
+        this(false);
+    }
+
+    /**
+     * @param cachedFirstPage If the first page can be returned from the cache - when the channel is
+     *                        browsed, but not when its latest videos are needed.
+     */
+    public NewPipeChannelVideos(boolean cachedFirstPage) {
+        this.skipCache = !cachedFirstPage;
+    }
 
     @Override
     public void setChannelQuery(String channelId, boolean filterSubscribedVideos) {
@@ -47,8 +78,91 @@ public class NewPipeChannelVideos extends NewPipeVideos<StreamInfoItem> implemen
 
     }
 
+    @Override
+    public List<CardData> getNextVideos() {
+        if (!cacheChecked) {
+            cacheChecked = true;
+            final List<CardData> cachedVideos = getCachedVideos();
+            if (!cachedVideos.isEmpty()) {
+                return cachedVideos;
+            }
+        }
+        while (true) {
+            final List<CardData> videos = super.getNextVideos();
+            if (videos.isEmpty() || cachedVideoIds.isEmpty()) {
+                return videos;
+            }
+            final List<CardData> result = new ArrayList<>(videos.size());
+            for (CardData video : videos) {
+                if (!cachedVideoIds.contains(video.getId())) {
+                    result.add(video);
+                }
+            }
+            // if the page only has the cached videos, continue with the next one
+            if (!result.isEmpty() || noMoreVideoPages) {
+                return result;
+            }
+        }
+    }
+
+    private List<CardData> getCachedVideos() {
+        final List<CardData> result = new ArrayList<>();
+        if (skipCache || channelId == null) {
+            return result;
+        }
+        for (YouTubeVideo video : SubscriptionsDb.getSubscriptionsDb().getCachedChannelVideos(channelId)) {
+            cachedVideoIds.add(video.getId());
+            result.add(video);
+        }
+        if (result.isEmpty()) {
+            return result;
+        }
+        if (SkyTubeApp.isConnected(SkyTubeApp.getContext())) {
+            // revalidate the channel, and have the pager ready for the next page
+            ChannelPageLoader.get().loadRecent(channelId)
+                    .subscribe(page -> {}, error -> Logger.e(this, "Unable to load " + channelId + ": " + error.getMessage(), error));
+        } else {
+            noMoreVideoPages = true;
+        }
+        Logger.d(this, "Returning %s cached videos of %s", result.size(), channelId);
+        return result;
+    }
+
+    @Override
+    protected ReadAheadPager<CardData> createReadAheadPager() throws NewPipeException {
+        if (!skipCache) {
+            // continue with the extraction of the channel browser, or the one started for the cached page
+            final ChannelPageLoader.ChannelPage page = ChannelPageLoader.get().loadRecent(channelId).blockingGet();
+            final VideoPagerWithChannel pager = page.takePager();
+            // after a failed first page, a new pager is started, so the error is reported, and
+            // the grid is not seeded with an empty page
+            if (pager != null && page.getFirstPageError() == null) {
+                // the cached page is displayed instead of the first page
+                return new ReadAheadPager<>(pager, READ_AHEAD_PAGES, cachedVideoIds.isEmpty() ? page.getFirstPage() : null);
+            }
+        }
+        return super.createReadAheadPager();
+    }
+
     @Override
     protected VideoPager createNewPager() throws NewPipeException {
         return NewPipeService.get().getChannelPager(Objects.requireNonNull(channelId, "channelId missing"));
     }
+
+    @Override
+    public void reset() {
+        super.reset();
+        // swipe to refresh: download the channel, instead of displaying the cached page again
+        skipCache = true;
+        cacheChecked = false;
+        cachedVideoIds.clear();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (channelId != null) {
+            ChannelPageLoader.get().release(channelId);
+        }
+    }
 }
@@ -29,6 +29,8 @@ public class NewPipeVideoBySearch extends NewPipeVideos<InfoItem> {
     @Override
     public void setQuery(String query) {
         this.query = query;
+        // the pages of the previous query are not needed anymore
+        close();
     }
 
     @Override
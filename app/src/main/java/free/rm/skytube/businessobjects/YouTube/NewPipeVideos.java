@@ -24,19 +24,31 @@ import java.util.List;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeException;
+import free.rm.skytube.businessobjects.YouTube.newpipe.ReadAheadPager;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoPager;
 
 /**
- * Base class to adapt the UI to the NewPipe based paging.
+ * Base class to adapt the UI to the NewPipe based paging. The next page is fetched in the background,
+ * while the current one is displayed.
  *
  * @param <ITEM>
  */
 public abstract class NewPipeVideos<ITEM extends InfoItem> extends GetYouTubeVideos {
 
-    private VideoPager pager;
+    /** The number of pages fetched ahead - each one is a network request, and a few dozen cards */
+    protected static final int READ_AHEAD_PAGES = 1;
+
+    private volatile ReadAheadPager<CardData> pager;
 
     protected abstract VideoPager createNewPager() throws NewPipeException;
 
+    /**
+     * @return The pager, which fetches the pages ahead - from {@link #createNewPager()} by default.
+     */
+    protected ReadAheadPager<CardData> createReadAheadPager() throws NewPipeException {
+        return new ReadAheadPager<>(createNewPager(), READ_AHEAD_PAGES);
+    }
+
     @Override
     public void init() {
     }
@@ -45,28 +57,41 @@ public abstract class NewPipeVideos<ITEM extends InfoItem> extends GetYouTubeVid
     public List<CardData> getNextVideos() {
         if (pager == null) {
             try {
-                pager = createNewPager();
+                pager = createReadAheadPager();
             } catch (Exception e) {
                 Logger.e(this, "An error has occurred while getting videos:" + e.getMessage(), e);
                 setLastException(e);
                 return Collections.emptyList();
             }
         }
+        // the pager could be closed meanwhile, from the main thread
+        final ReadAheadPager<CardData> currentPager = pager;
         try {
-            return pager.getNextPage();
+            return currentPager.getNextPage();
         } catch (Exception e) {
             Logger.e(this, "An error has occurred while getting videos:" + e.getMessage(), e);
             setLastException(e);
             return Collections.emptyList();
         } finally {
-            noMoreVideoPages = !pager.isHasNextPage();
+            // after a refresh, the closed pager must not end the paging of the new one
+            if (pager == currentPager) {
+                noMoreVideoPages = !currentPager.isHasNextPage();
+            }
         }
     }
 
     @Override
     public void reset() {
          noMoreVideoPages = false;
-         pager = null;
+         close();
+    }
+
+    @Override
+    public void close() {
+        if (pager != null) {
+            pager.close();
+            pager = null;
+        }
     }
 
 }
@@ -1,9 +1,11 @@
 package free.rm.skytube.businessobjects.YouTube.POJOs;
 
-import org.ocpsoft.prettytime.PrettyTime;
-
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+
+import free.rm.skytube.app.RelativeTimeFormatter;
 
 public class CardData implements Serializable {
     protected String              id;
@@ -18,12 +20,18 @@ public class CardData implements Serializable {
      */
     private transient String      publishDatePretty;
     /**
-     * The time when the publishDatePretty was calculated.
+     * The time until the publishDatePretty is valid - when "17 hours ago" becomes "18 hours ago".
      */
-    private transient long        publishDatePrettyCalculationTime;
-
-    /** publishDate will remain valid for 1 hour. */
-    private final static long     PUBLISH_DATE_VALIDITY_TIME = 60 * 60 * 1000L;
+    private transient long        publishDatePrettyValidUntil;
+    /**
+     * The texts of the card in the video grid, see {@link CardDisplay}.
+     */
+    private transient CardDisplay display;
+    /**
+     * The UTF-8 bytes of the description, as it's stored in the database - it's only decoded, when
+     * it's needed, as the cards don't display it.
+     */
+    private transient byte[]      encodedDescription;
 
     public final String getId() {
         return id;
@@ -42,11 +50,24 @@ public class CardData implements Serializable {
     }
 
     public final String getDescription() {
+        if (description == null && encodedDescription != null) {
+            description = new String(encodedDescription, StandardCharsets.UTF_8);
+            encodedDescription = null;
+        }
         return description;
     }
 
     public final void setDescription(String description) {
         this.description = description;
+        this.encodedDescription = null;
+    }
+
+    /**
+     * Set the description, which is decoded on the first {@link #getDescription()} call.
+     */
+    final void setEncodedDescription(byte[] encodedDescription) {
+        this.description = null;
+        this.encodedDescription = encodedDescription;
     }
 
     public void setPublishTimestampExact(boolean publishTimestampExact) {
@@ -75,15 +96,17 @@ public class CardData implements Serializable {
     }
 
     /**
-     * Gets the {@link #publishTimestamp} as a pretty string.
+     * Gets the {@link #publishTimestamp} as a pretty string.  The string is shared with the other
+     * cards, published in the same period, and it's only looked up again, when it becomes outdated -
+     * so binding a card doesn't allocate.
      */
     public final String getPublishDatePretty() {
         long now = System.currentTimeMillis();
-        // if pretty is not yet calculated, or the publish date was generated more than (1 hour) PUBLISH_DATE_VALIDITY_TIME ago...
-        if (publishTimestamp != null && (publishDatePretty == null ||
-                PUBLISH_DATE_VALIDITY_TIME < now - publishDatePrettyCalculationTime)) {
-            this.publishDatePretty = new PrettyTime().format(Instant.ofEpochMilli(publishTimestamp));
-            this.publishDatePrettyCalculationTime = now;
+        // if pretty is not yet calculated, or the elapsed time moved to the next period since...
+        if (publishTimestamp != null && (publishDatePretty == null || now >= publishDatePrettyValidUntil)) {
+            final RelativeTimeFormatter formatter = RelativeTimeFormatter.get();
+            this.publishDatePretty = formatter.format(publishTimestamp, now);
+            this.publishDatePrettyValidUntil = formatter.getValidUntil(publishTimestamp, now);
         }
         return publishDatePretty != null ? publishDatePretty : "???";
     }
@@ -100,12 +123,32 @@ public class CardData implements Serializable {
         }
     }
 
+    final CardDisplay getDisplay() {
+        return display;
+    }
+
+    final void setDisplay(CardDisplay display) {
+        this.display = display;
+    }
+
+    /**
+     * Drop the computed {@link CardDisplay} - after the displayed fields are changed.
+     */
+    protected final void invalidateDisplay() {
+        this.display = null;
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + '{' +
                 "id='" + id + '\'' +
                 ", title='" + title + '\'' +
-                ", description='" + description + '\'' +
+                ", description='" + getDescription() + '\'' +
                 '}';
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getDescription();
+        out.defaultWriteObject();
+    }
 }
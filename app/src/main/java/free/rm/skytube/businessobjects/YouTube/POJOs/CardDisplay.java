@@ -0,0 +1,108 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.POJOs;
+
+import java.util.List;
+
+import free.rm.skytube.R;
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
+
+/**
+ * The texts and the playback progress of a card, as displayed in the video grid - computed once, in
+ * the background, when the page of the card is loaded, so binding the card is only a few setText
+ * calls.
+ *
+ * <p>The publish date is not included, as it depends on the current time - it's cached by
+ * {@link CardData#getPublishDatePretty()}.</p>
+ */
+public final class CardDisplay {
+	/** The number of the videos in a playlist, the subscribers of a channel, or the views of a video */
+	public final String views;
+	/** Null, for playlists and channels */
+	public final String channelName;
+	/** Null, for playlists and channels */
+	public final String duration;
+	/** Null, if the likes are hidden, or not a video */
+	public final String thumbsUpPercentage;
+	/** Whether the playback progress of the video is displayed */
+	public final boolean showProgress;
+	public final int progressMax;
+	public final int progress;
+
+	private CardDisplay(String views, String channelName, String duration, String thumbsUpPercentage,
+						boolean showProgress, int progressMax, int progress) {
+		this.views = views;
+		this.channelName = channelName;
+		this.duration = duration;
+		this.thumbsUpPercentage = thumbsUpPercentage;
+		this.showProgress = showProgress;
+		this.progressMax = progressMax;
+		this.progress = progress;
+	}
+
+	/**
+	 * Compute the display of the cards - it reads the playback status database, so it should be
+	 * called in the background.
+	 */
+	public static void prepare(List<? extends CardData> cards) {
+		final boolean playbackStatusEnabled = SkyTubeApp.getSettings().isPlaybackStatusEnabled();
+		for (CardData card : cards) {
+			card.setDisplay(create(card, playbackStatusEnabled));
+		}
+	}
+
+	/**
+	 * @return The display of the card, computed now, if it's not yet prepared.
+	 */
+	public static CardDisplay of(CardData card) {
+		CardDisplay display = card.getDisplay();
+		if (display == null) {
+			display = create(card, SkyTubeApp.getSettings().isPlaybackStatusEnabled());
+			card.setDisplay(display);
+		}
+		return display;
+	}
+
+	private static CardDisplay create(CardData card, boolean playbackStatusEnabled) {
+		if (card instanceof YouTubeVideo) {
+			final YouTubeVideo video = (YouTubeVideo) card;
+			boolean showProgress = false;
+			int progressMax = 0;
+			int progress = 0;
+			if (playbackStatusEnabled) {
+				final PlaybackStatusDb.VideoWatchedStatus status = PlaybackStatusDb.getPlaybackStatusDb().getVideoWatchedStatus(video.getId());
+				if (status.isWatched()) {
+					showProgress = true;
+					progressMax = video.getDurationInSeconds() * 1000;
+					progress = status.isFullyWatched() ? progressMax : (int) status.getPosition();
+				}
+			}
+			return new CardDisplay(video.getViewsCount(), video.getChannel() != null ? video.getChannelName() : null, video.getDuration(),
+					video.getThumbsUpPercentageStr(), showProgress, progressMax, progress);
+		} else if (card instanceof YouTubePlaylist) {
+			final String videos = String.format(SkyTubeApp.getStr(R.string.num_videos), ((YouTubePlaylist) card).getVideoCount());
+			return new CardDisplay(videos, null, null, null, false, 0, 0);
+		} else if (card instanceof YouTubeChannel) {
+			final YouTubeChannel channel = (YouTubeChannel) card;
+			// the subscriber count could be hidden/disabled
+			final String subscribers = channel.getSubscriberCount() >= 0 ? channel.getTotalSubscribers() : null;
+			return new CardDisplay(subscribers, null, null, null, false, 0, 0);
+		}
+		return new CardDisplay(null, null, null, null, false, 0, 0);
+	}
+}
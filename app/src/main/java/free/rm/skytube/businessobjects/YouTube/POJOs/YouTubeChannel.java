@@ -168,10 +168,26 @@ public class YouTubeChannel extends CardData implements Serializable {
 		return bannerUrl;
 	}
 
+	void setBannerUrl(String bannerUrl) {
+		this.bannerUrl = bannerUrl;
+	}
+
 	public String getTotalSubscribers() {
+		if (totalSubscribers == null && subscriberCount > 0) {
+			totalSubscribers = getFormattedSubscribers(subscriberCount);
+		}
 		return totalSubscribers;
 	}
 
+	/**
+	 * Set the subscriber count, as it was stored by {@link YouTubeVideoCodec} - the text is generated,
+	 * when it's displayed.
+	 */
+	void setStoredSubscriberCount(long subscriberCount) {
+		this.subscriberCount = subscriberCount;
+		this.totalSubscribers = null;
+	}
+
 	public boolean isUserSubscribed() {
 		return isUserSubscribed;
 	}
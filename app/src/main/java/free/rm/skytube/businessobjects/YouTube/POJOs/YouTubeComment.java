@@ -20,9 +20,7 @@ package free.rm.skytube.businessobjects.YouTube.POJOs;
 import com.google.api.client.util.ArrayMap;
 import com.google.api.client.util.DateTime;
 
-import org.ocpsoft.prettytime.PrettyTime;
-
-import java.time.Instant;
+import free.rm.skytube.app.RelativeTimeFormatter;
 
 /**
  * A YouTube comment.
@@ -44,7 +42,7 @@ public class YouTubeComment {
 				this.authorChannelId = channelIdMap.get("value");
 			this.comment = comment.getSnippet().getTextDisplay();
 			final DateTime publishedAt = comment.getSnippet().getPublishedAt();
-			this.datePublished = new PrettyTime().format(Instant.ofEpochMilli(publishedAt.getValue()));
+			this.datePublished = RelativeTimeFormatter.get().format(publishedAt.getValue(), System.currentTimeMillis());
 			this.likeCount = comment.getSnippet().getLikeCount();
 			this.thumbnailUrl = comment.getSnippet().getAuthorProfileImageUrl();
 		}
@@ -33,6 +33,8 @@ public class YouTubeCommentThread {
 	private YouTubeComment			comment;
 	/** Replies. */
 	private List<YouTubeComment>	repliesList = new ArrayList<>();
+	/** Replies from the YouTube API, which are converted when they are first displayed. */
+	private List<Comment>			pendingReplies = Collections.emptyList();
 
 	public YouTubeCommentThread(CommentThread commentThread) {
 		if (isCommentThreadOkay(commentThread)) {
@@ -41,10 +43,7 @@ public class YouTubeCommentThread {
 			if (hasAnyReplies(commentThread)) {
 				List<Comment> commentRepliesList = commentThread.getReplies().getComments();
 				Collections.reverse(commentRepliesList);	// reverse as the newest comments are put at the front of the list -- so we need to invert it
-
-				for (Comment comment : commentRepliesList) {
-					repliesList.add(new YouTubeComment(comment));
-				}
+				pendingReplies = commentRepliesList;
 			}
 		}
 
@@ -70,12 +69,18 @@ public class YouTubeCommentThread {
 		return comment;
 	}
 
-	public List<YouTubeComment> getRepliesList() {
+	public synchronized List<YouTubeComment> getRepliesList() {
+		if (!pendingReplies.isEmpty()) {
+			for (Comment comment : pendingReplies) {
+				repliesList.add(new YouTubeComment(comment));
+			}
+			pendingReplies = Collections.emptyList();
+		}
 		return repliesList;
 	}
 
-	public int getTotalReplies() {
-		return repliesList.size();
+	public synchronized int getTotalReplies() {
+		return repliesList.size() + pendingReplies.size();
 	}
 
 }
@@ -17,7 +17,6 @@
 
 package free.rm.skytube.businessobjects.YouTube.POJOs;
 
-import android.app.DownloadManager;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
@@ -34,9 +33,7 @@ import com.google.api.services.youtube.model.VideoSnippet;
 import com.google.api.services.youtube.model.VideoStatistics;
 
 import org.ocpsoft.prettytime.PrettyTime;
-import org.schabi.newpipe.extractor.stream.Stream;
 import org.schabi.newpipe.extractor.stream.StreamInfo;
-import org.schabi.newpipe.extractor.stream.VideoStream;
 
 import java.io.File;
 import java.io.Serializable;
@@ -52,7 +49,6 @@ import free.rm.skytube.R;
 import free.rm.skytube.app.Settings;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.app.StreamSelectionPolicy;
-import free.rm.skytube.businessobjects.FileDownloader;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeUtils;
@@ -60,7 +56,11 @@ import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
 import free.rm.skytube.businessobjects.db.BookmarksDb;
 import free.rm.skytube.businessobjects.db.DatabaseResult;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import free.rm.skytube.businessobjects.download.DownloadEngine;
+import free.rm.skytube.businessobjects.download.QueuedDownload;
+import free.rm.skytube.businessobjects.download.TrackMuxer;
 import free.rm.skytube.businessobjects.interfaces.GetDesiredStreamListener;
+import free.rm.skytube.gui.activities.PermissionsActivity;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Maybe;
@@ -136,6 +136,12 @@ public class YouTubeVideo extends CardData implements Serializable {
 	private Long retrievalTimestamp;
 
 
+	/**
+	 * Constructor for {@link YouTubeVideoCodec}.
+	 */
+	YouTubeVideo() {
+	}
+
 	/**
 	 * Constructor.
 	 */
@@ -186,6 +192,7 @@ public class YouTubeVideo extends CardData implements Serializable {
 	public void setViewCount(BigInteger viewsCountInt) {
 		this.viewsCountInt = viewsCountInt;
 		this.viewsCount = String.format(getStr(R.string.views), viewsCountInt);
+		invalidateDisplay();
 	}
 
         public YouTubeVideo(String id, String title, String description, long durationInSeconds,
@@ -240,6 +247,7 @@ public class YouTubeVideo extends CardData implements Serializable {
 		}
 		this.likeCountNumber = likedCountInt;
 		this.dislikeCountNumber = dislikedCountInt;
+		invalidateDisplay();
 	}
 
 	/**
@@ -354,6 +362,9 @@ public class YouTubeVideo extends CardData implements Serializable {
 	}
 
 	public String getViewsCount() {
+		if (viewsCount == null && viewsCountInt != null) {
+			viewsCount = String.format(getStr(R.string.views), viewsCountInt);
+		}
 		return viewsCount;
 	}
 
@@ -485,6 +496,43 @@ public class YouTubeVideo extends CardData implements Serializable {
 		this.setDescription(NewPipeUtils.filterHtml(streamInfo.getDescription()));
 	}
 
+	/**
+	 * Set the like counts, as they were stored by {@link YouTubeVideoCodec}.
+	 */
+	void setStoredLikes(Long likeCountNumber, Long dislikeCountNumber, int thumbsUpPercentage) {
+		this.likeCountNumber = likeCountNumber;
+		this.dislikeCountNumber = dislikeCountNumber;
+		this.thumbsUpPercentage = thumbsUpPercentage;
+	}
+
+	/**
+	 * Set the duration, as it was stored by {@link YouTubeVideoCodec} - the text can be e.g. 'LIVE'.
+	 */
+	void setStoredDuration(String duration, int durationInSeconds) {
+		this.duration = duration;
+		this.durationInSeconds = durationInSeconds;
+	}
+
+	/**
+	 * Set the view count - the 'views' text is generated, when it's displayed.
+	 */
+	void setStoredViewCount(BigInteger viewsCountInt) {
+		this.viewsCountInt = viewsCountInt;
+		this.viewsCount = null;
+	}
+
+	void setThumbnailMaxResUrl(String thumbnailMaxResUrl) {
+		this.thumbnailMaxResUrl = thumbnailMaxResUrl;
+	}
+
+	void setLanguage(String language) {
+		this.language = language;
+	}
+
+	void setLiveStream(boolean liveStream) {
+		this.isLiveStream = liveStream;
+	}
+
 	public Long getRetrievalTimestamp() {
 		return retrievalTimestamp;
 	}
@@ -510,32 +558,21 @@ public class YouTubeVideo extends CardData implements Serializable {
 					public void onGetDesiredStream(StreamInfo streamInfo, YouTubeVideo video) {
 
 						final Settings settings = SkyTubeApp.getSettings();
-						StreamSelectionPolicy selectionPolicy = settings.getDesiredVideoResolution(true);
+						// video-only streams are muxed with the audio after download
+						StreamSelectionPolicy selectionPolicy = settings.getDesiredVideoResolution(true)
+								.withAllowVideoOnly(TrackMuxer.isAvailable())
+								.withMuxableAudio(true);
 						StreamSelectionPolicy.StreamSelection streamSelection = selectionPolicy.select(streamInfo);
 						if (streamSelection != null) {
-							VideoStream videoStream = streamSelection.getVideoStream();
-							// download the video
-							downloadTheVideo(videoStream, settings);
+							// queue the video for download
+							new VideoDownloader(QueuedDownload.create(YouTubeVideo.this, streamSelection,
+									settings.getDownloadParentFolder(), settings.isDownloadToSeparateFolders(), 0))
+									.displayPermissionsActivity(context);
 						} else {
 							Toast.makeText(context, selectionPolicy.getErrorMessage(context), Toast.LENGTH_LONG).show();
 						}
 					}
 
-					private void downloadTheVideo(Stream stream, Settings settings) {
-						new VideoDownloader()
-								.setRemoteFileUrl(stream.getUrl())
-								.setDirType(Environment.DIRECTORY_MOVIES)
-								.setTitle(getTitle())
-								.setDescription(getStr(R.string.video) + " ― " + getChannelName())
-								.setOutputFileName(getId() + " - " + getTitle())
-								.setOutputDirectoryName(getChannelName())
-								.setParentDirectory(settings.getDownloadParentFolder())
-								.setOutputFileExtension(stream.getFormat().suffix)
-								.setAllowedOverRoaming(false)
-								.setAllowedNetworkTypesFlags(DownloadManager.Request.NETWORK_WIFI | DownloadManager.Request.NETWORK_MOBILE)
-								.displayPermissionsActivity(context);
-					}
-
 					@Override
 					public void onGetDesiredStreamError(Throwable throwable) {
 						Logger.e(YouTubeVideo.this, "Stream error: " + throwable.getMessage(), throwable);
@@ -577,35 +614,45 @@ public class YouTubeVideo extends CardData implements Serializable {
 	////////////////////////////////////////////////////////////////////////////////////////////////
 
 	/**
-	 * Downloads a YouTube video.
+	 * Queues a YouTube video for download, once the storage permission is granted.
 	 */
-	private class VideoDownloader extends FileDownloader implements Serializable {
+	private static class VideoDownloader implements PermissionsActivity.PermissionsTask, Serializable {
+		private final QueuedDownload download;
 
-		@Override
-		public void onFileDownloadStarted() {
-			Toast.makeText(getContext(),
-					String.format(getContext().getString(R.string.starting_video_download), getTitle()),
-					Toast.LENGTH_LONG).show();
+		VideoDownloader(QueuedDownload download) {
+			this.download = download;
 		}
 
-		@Override
-		public void onFileDownloadCompleted(boolean success, Uri localFileUri) {
-			if (success) {
-				success = DownloadedVideosDb.getVideoDownloadsDb().add(YouTubeVideo.this, localFileUri, null);
-			}
-
-			Toast.makeText(getContext(),
-					String.format(getContext().getString(success ? R.string.video_downloaded : R.string.video_download_stream_error), getTitle()),
-					Toast.LENGTH_LONG).show();
+		/**
+		 * Displays the {@link PermissionsActivity} which will first ask the user to give us permissions
+		 * to write to external storage and once that permission is granted, the video is queued.
+		 */
+		void displayPermissionsActivity(Context context) {
+			Intent i = new Intent(getContext(), PermissionsActivity.class);
+			i.putExtra(PermissionsActivity.PERMISSIONS_TASK_OBJ, this);
+			context.startActivity(i);
 		}
 
 		@Override
-		public void onExternalStorageNotAvailable() {
-			Toast.makeText(getContext(),
-					R.string.external_storage_not_available,
-					Toast.LENGTH_LONG).show();
+		public void onExternalStoragePermissionsGranted() {
+			final Context context = getContext();
+			final String title = download.getVideo().getTitle();
+			if (!Environment.MEDIA_MOUNTED.equals(Environment.getExternalStorageState())) {
+				Toast.makeText(context, R.string.external_storage_not_available, Toast.LENGTH_LONG).show();
+				return;
+			}
+			DownloadEngine.get().enqueue(download)
+					.observeOn(AndroidSchedulers.mainThread())
+					.subscribe(added -> Toast.makeText(context,
+							String.format(context.getString(added ? R.string.starting_video_download : R.string.video_already_queued_for_download), title),
+							Toast.LENGTH_LONG).show(),
+							error -> {
+								Logger.e(download, "Unable to queue " + download + ": " + error.getMessage(), error);
+								Toast.makeText(context,
+										String.format(context.getString(R.string.video_download_stream_error), title),
+										Toast.LENGTH_LONG).show();
+							});
 		}
-
 	}
 
 }
@@ -0,0 +1,316 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.POJOs;
+
+import com.google.gson.Gson;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import free.rm.skytube.businessobjects.Logger;
+
+/**
+ * Serializes {@link YouTubeVideo}s - with their {@link YouTubeChannel} - into the compact binary
+ * blobs, stored in the databases.
+ *
+ * A blob starts with a zero byte - which can't start a JSON document, so the blobs written by the
+ * earlier Gson based serialization can be still read - followed by the format version, and the
+ * fields in a fixed order.  Numbers are stored as variable length integers, strings as their length
+ * and UTF-8 bytes.  New fields must be appended to the end, with a new version:  older readers just
+ * ignore them, newer readers don't read them from older blobs.
+ */
+public final class YouTubeVideoCodec {
+	private static final byte MARKER = 0;
+	public static final int VERSION = 1;
+
+	private static final int FLAG_PUBLISH_TIMESTAMP_EXACT = 1;
+	private static final int FLAG_LIVE_STREAM = 1 << 1;
+	private static final int FLAG_PUBLISH_TIMESTAMP = 1 << 2;
+	private static final int FLAG_LIKE_COUNT = 1 << 3;
+	private static final int FLAG_DISLIKE_COUNT = 1 << 4;
+	private static final int FLAG_VIEWS_COUNT = 1 << 5;
+	private static final int FLAG_RETRIEVAL_TIMESTAMP = 1 << 6;
+	private static final int FLAG_CHANNEL = 1 << 7;
+
+	private static final Gson GSON = new Gson();
+
+	private YouTubeVideoCodec() {
+	}
+
+	/**
+	 * @return True, if the blob is in the legacy JSON format.
+	 */
+	public static boolean isLegacy(byte[] blob) {
+		return blob.length == 0 || blob[0] != MARKER;
+	}
+
+	public static byte[] encode(YouTubeVideo video) {
+		final String description = video.getDescription();
+		final Writer writer = new Writer(256 + length(description));
+		writer.writeByte(MARKER);
+		writer.writeVarLong(VERSION);
+
+		final YouTubeChannel channel = video.getChannel();
+		final Long publishTimestamp = video.getPublishTimestamp();
+		final Long likeCount = video.getLikeCountNumber();
+		final Long dislikeCount = video.getDislikeCountNumber();
+		final BigInteger viewsCount = video.getViewsCountInt();
+		final Long retrievalTimestamp = video.getRetrievalTimestamp();
+		int flags = 0;
+		flags |= video.getPublishTimestampExact() ? FLAG_PUBLISH_TIMESTAMP_EXACT : 0;
+		flags |= video.isLiveStream() ? FLAG_LIVE_STREAM : 0;
+		flags |= publishTimestamp != null ? FLAG_PUBLISH_TIMESTAMP : 0;
+		flags |= likeCount != null ? FLAG_LIKE_COUNT : 0;
+		flags |= dislikeCount != null ? FLAG_DISLIKE_COUNT : 0;
+		flags |= viewsCount != null ? FLAG_VIEWS_COUNT : 0;
+		flags |= retrievalTimestamp != null ? FLAG_RETRIEVAL_TIMESTAMP : 0;
+		flags |= channel != null ? FLAG_CHANNEL : 0;
+		writer.writeVarLong(flags);
+
+		writer.writeString(video.getId());
+		writer.writeString(video.getTitle());
+		writer.writeString(video.getThumbnailUrl());
+		writer.writeString(video.getThumbnailMaxResUrl());
+		writer.writeString(video.getDuration());
+		writer.writeString(video.getLanguage());
+		writer.writeSignedVarLong(video.getDurationInSeconds());
+		writer.writeSignedVarLong(video.getThumbsUpPercentage());
+		if (publishTimestamp != null) {
+			writer.writeSignedVarLong(publishTimestamp);
+		}
+		if (likeCount != null) {
+			writer.writeSignedVarLong(likeCount);
+		}
+		if (dislikeCount != null) {
+			writer.writeSignedVarLong(dislikeCount);
+		}
+		if (viewsCount != null) {
+			writer.writeSignedVarLong(viewsCount.longValue());
+		}
+		if (retrievalTimestamp != null) {
+			writer.writeSignedVarLong(retrievalTimestamp);
+		}
+		if (channel != null) {
+			writer.writeString(channel.getId());
+			writer.writeString(channel.getTitle());
+			writer.writeString(channel.getThumbnailUrl());
+			writer.writeString(channel.getBannerUrl());
+			writer.writeString(channel.getDescription());
+			writer.writeSignedVarLong(channel.getSubscriberCount());
+		}
+		// the description is the biggest, and the least often needed field
+		writer.writeString(description);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Decode a blob, either in the binary, or in the legacy JSON format.  The descriptions are only
+	 * decoded into strings, when they are first needed.
+	 */
+	public static YouTubeVideo decode(byte[] blob) {
+		if (isLegacy(blob)) {
+			return decodeJson(blob);
+		}
+		final Reader reader = new Reader(blob, 1);
+		final long version = reader.readVarLong();
+		if (version < 1) {
+			throw new IllegalArgumentException("Unsupported video blob version: " + version);
+		}
+		final YouTubeVideo video = new YouTubeVideo();
+		final int flags = (int) reader.readVarLong();
+		video.setPublishTimestampExact((flags & FLAG_PUBLISH_TIMESTAMP_EXACT) != 0);
+		video.setLiveStream((flags & FLAG_LIVE_STREAM) != 0);
+
+		video.setId(reader.readString());
+		video.setTitle(reader.readString());
+		video.setThumbnailUrl(reader.readString());
+		video.setThumbnailMaxResUrl(reader.readString());
+		final String duration = reader.readString();
+		video.setLanguage(reader.readString());
+		video.setStoredDuration(duration, (int) reader.readSignedVarLong());
+		final int thumbsUpPercentage = (int) reader.readSignedVarLong();
+		if ((flags & FLAG_PUBLISH_TIMESTAMP) != 0) {
+			video.setPublishTimestamp(reader.readSignedVarLong());
+		}
+		final Long likeCount = (flags & FLAG_LIKE_COUNT) != 0 ? reader.readSignedVarLong() : null;
+		final Long dislikeCount = (flags & FLAG_DISLIKE_COUNT) != 0 ? reader.readSignedVarLong() : null;
+		video.setStoredLikes(likeCount, dislikeCount, thumbsUpPercentage);
+		if ((flags & FLAG_VIEWS_COUNT) != 0) {
+			// the formatted 'views' text is generated on demand
+			video.setStoredViewCount(BigInteger.valueOf(reader.readSignedVarLong()));
+		}
+		if ((flags & FLAG_RETRIEVAL_TIMESTAMP) != 0) {
+			video.setRetrievalTimestamp(reader.readSignedVarLong());
+		}
+		if ((flags & FLAG_CHANNEL) != 0) {
+			final YouTubeChannel channel = new YouTubeChannel(reader.readString(), reader.readString());
+			channel.setThumbnailUrl(reader.readString());
+			channel.setBannerUrl(reader.readString());
+			channel.setEncodedDescription(reader.readBytes());
+			channel.setStoredSubscriberCount(reader.readSignedVarLong());
+			video.setChannel(channel);
+		}
+		video.setEncodedDescription(reader.readBytes());
+		// fields of later versions would follow here
+		return video;
+	}
+
+	private static YouTubeVideo decodeJson(byte[] blob) {
+		final String videoJson = new String(blob, StandardCharsets.UTF_8);
+		final YouTubeVideo video = GSON.fromJson(videoJson, YouTubeVideo.class).updatePublishTimestampFromDate();
+
+		// due to upgrade to YouTubeVideo (by changing channel{Id,Name} to YouTubeChannel)
+		// from version 2.82 to 2.90
+		if (video.getChannel() == null) {
+			try {
+				JSONObject videoJsonObj = new JSONObject(videoJson);
+				final String channelId   = videoJsonObj.get("channelId").toString();
+				final String channelName = videoJsonObj.get("channelName").toString();
+				video.setChannel(new YouTubeChannel(channelId, channelName));
+			} catch (JSONException e) {
+				Logger.e(YouTubeVideoCodec.class, "Error occurred while extracting channel{Id,Name} from JSON", e);
+			}
+		}
+		return video;
+	}
+
+	private static int length(String str) {
+		return str != null ? str.length() : 0;
+	}
+
+	private static class Writer {
+		private byte[] buffer;
+		private int count;
+
+		Writer(int initialSize) {
+			buffer = new byte[initialSize];
+		}
+
+		private void ensureCapacity(int extra) {
+			if (count + extra > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+			}
+		}
+
+		void writeByte(int b) {
+			ensureCapacity(1);
+			buffer[count++] = (byte) b;
+		}
+
+		void writeVarLong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[count++] = (byte) value;
+		}
+
+		void writeSignedVarLong(long value) {
+			// zig-zag encoding, so small negative numbers are short too
+			writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		/**
+		 * Write the string as its length + 1 (0 means null), and its UTF-8 bytes.
+		 */
+		void writeString(String str) {
+			if (str == null) {
+				writeVarLong(0);
+				return;
+			}
+			final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(bytes.length + 1L);
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, buffer, count, bytes.length);
+			count += bytes.length;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(buffer, count);
+		}
+	}
+
+	private static class Reader {
+		private final byte[] buffer;
+		private int position;
+
+		Reader(byte[] buffer, int position) {
+			this.buffer = buffer;
+			this.position = position;
+		}
+
+		long readVarLong() {
+			long result = 0;
+			int shift = 0;
+			while (true) {
+				if (position >= buffer.length) {
+					throw new IllegalArgumentException("Truncated video blob");
+				}
+				final byte b = buffer[position++];
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+				shift += 7;
+				if (shift > 63) {
+					throw new IllegalArgumentException("Malformed number in video blob");
+				}
+			}
+		}
+
+		long readSignedVarLong() {
+			final long value = readVarLong();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		String readString() {
+			final int length = readLength();
+			if (length < 0) {
+				return null;
+			}
+			final String result = new String(buffer, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return result;
+		}
+
+		/**
+		 * @return The UTF-8 bytes of a string - or null - without decoding them.
+		 */
+		byte[] readBytes() {
+			final int length = readLength();
+			if (length < 0) {
+				return null;
+			}
+			final byte[] result = Arrays.copyOfRange(buffer, position, position + length);
+			position += length;
+			return result;
+		}
+
+		private int readLength() {
+			final long length = readVarLong() - 1;
+			if (length > buffer.length - position) {
+				throw new IllegalArgumentException("Truncated video blob");
+			}
+			return (int) length;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+
+/**
+ * The videos played one after the other by the player - the clicked video, and the ones following it
+ * in the grid, e.g. in a playlist, the bookmarks, or a channel.
+ *
+ * <p>The queue is handed over to the player activity through {@link #set(List, YouTubeVideo)} and
+ * {@link #take(String)}, as the videos are too many to put in the intent.</p>
+ */
+public class PlayQueue {
+	/** The maximum number of videos in a queue - the following ones are not played automatically */
+	private static final int MAX_SIZE = 100;
+
+	private static PlayQueue pending;
+
+	private final List<YouTubeVideo> videos;
+	private int position;
+
+	PlayQueue(List<YouTubeVideo> videos) {
+		this.videos = videos;
+	}
+
+	/**
+	 * Create the queue for the player, which is going to be launched.
+	 *
+	 * @param cards The cards of the grid - only the videos are played.
+	 * @param start The clicked video, which is played first.
+	 */
+	public static synchronized void set(List<? extends CardData> cards, YouTubeVideo start) {
+		final List<YouTubeVideo> videos = new ArrayList<>();
+		videos.add(start);
+		final int startIndex = cards.indexOf(start);
+		if (startIndex >= 0) {
+			for (int i = startIndex + 1; i < cards.size() && videos.size() < MAX_SIZE; i++) {
+				final CardData card = cards.get(i);
+				if (card instanceof YouTubeVideo && !((YouTubeVideo) card).isLiveStream()) {
+					videos.add((YouTubeVideo) card);
+				}
+			}
+		}
+		pending = new PlayQueue(videos);
+	}
+
+	/**
+	 * @return The queue created for the player of the given video, or null - it can be taken only
+	 * once.
+	 */
+	@Nullable
+	public static synchronized PlayQueue take(String videoId) {
+		final PlayQueue result = pending;
+		pending = null;
+		if (result != null && result.getCurrent().getId().equals(videoId)) {
+			return result;
+		}
+		return null;
+	}
+
+	/**
+	 * @return A queue, which only has the given video.
+	 */
+	public static PlayQueue of(YouTubeVideo video) {
+		final List<YouTubeVideo> videos = new ArrayList<>(1);
+		videos.add(video);
+		return new PlayQueue(videos);
+	}
+
+	public synchronized YouTubeVideo getCurrent() {
+		return videos.get(position);
+	}
+
+	/**
+	 * @return The video after the given one, or null, if it's the last.
+	 */
+	@Nullable
+	public synchronized YouTubeVideo getNext(YouTubeVideo video) {
+		final int index = videos.indexOf(video);
+		return index >= 0 && index + 1 < videos.size() ? videos.get(index + 1) : null;
+	}
+
+	/**
+	 * Move to the next video.
+	 *
+	 * @return The new current video, or null, if the current one was the last.
+	 */
+	@Nullable
+	public synchronized YouTubeVideo moveToNext() {
+		if (position + 1 >= videos.size()) {
+			return null;
+		}
+		position++;
+		return videos.get(position);
+	}
+
+	public synchronized boolean hasNext() {
+		return position + 1 < videos.size();
+	}
+}
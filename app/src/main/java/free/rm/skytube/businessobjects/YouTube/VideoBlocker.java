@@ -112,7 +112,7 @@ public class VideoBlocker {
 	/**
 	 * @return True if the user wants to use the video blocker, false otherwise.
 	 */
-	private boolean isVideoBlockerEnabled() {
+	public static boolean isVideoBlockerEnabled() {
 		return SkyTubeApp.getPreferenceManager().getBoolean(getStr(R.string.pref_key_enable_video_blocker), true);
 	}
 
@@ -0,0 +1,183 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeComment;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeCommentThread;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.YouTube.newpipe.PagerBackend;
+import free.rm.skytube.businessobjects.YouTube.newpipe.ReadAheadPager;
+import free.rm.skytube.gui.businessobjects.views.Linker;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * The comment threads of a video, loaded page by page - they are kept in memory for the recently
+ * viewed videos, so reopening the comments continues from where they were, without downloading the
+ * first pages again.
+ *
+ * <p>With NewPipe, the next page is read ahead, while the current one is displayed.  The YouTube
+ * API is not read ahead, as every page costs quota.</p>
+ */
+public class VideoComments {
+	/** The number of videos, whose comments are kept */
+	private static final int CACHED_VIDEOS = 8;
+	private static final Map<String, VideoComments> CACHE = new LinkedHashMap<String, VideoComments>(CACHED_VIDEOS * 2, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, VideoComments> eldest) {
+			if (size() > CACHED_VIDEOS) {
+				eldest.getValue().close();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private final String videoId;
+	private final List<YouTubeCommentThread> threads = new ArrayList<>();
+	/** Created by the first page request, as it needs the network */
+	private PagerBackend<YouTubeCommentThread> pager;
+	private Single<List<YouTubeCommentThread>> loading;
+	private boolean hasMore = true;
+	private Exception lastException;
+
+	private VideoComments(String videoId) {
+		this.videoId = videoId;
+	}
+
+	/**
+	 * @return The comments of the video - the cached ones, or new ones, without any loaded page.
+	 */
+	public static VideoComments get(String videoId) {
+		synchronized (CACHE) {
+			VideoComments result = CACHE.get(videoId);
+			if (result == null) {
+				result = new VideoComments(videoId);
+				CACHE.put(videoId, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * @return The comment threads loaded so far.
+	 */
+	public synchronized List<YouTubeCommentThread> getThreads() {
+		return Collections.unmodifiableList(new ArrayList<>(threads));
+	}
+
+	/**
+	 * @return True, if there could be more comment threads to load.
+	 */
+	public synchronized boolean hasMore() {
+		return hasMore;
+	}
+
+	/**
+	 * @return The error of the last page request, or null.
+	 */
+	public synchronized Exception getLastException() {
+		return lastException;
+	}
+
+	/**
+	 * Load the next page of the comment threads in the background - if it's already being loaded,
+	 * the same request is returned.
+	 *
+	 * @return The comment threads of the next page, on the main thread.
+	 */
+	public synchronized Single<List<YouTubeCommentThread>> loadNextPage() {
+		if (loading == null) {
+			loading = Single.fromCallable(this::fetchNextPage)
+					.subscribeOn(Schedulers.io())
+					.observeOn(AndroidSchedulers.mainThread())
+					.cache();
+		}
+		return loading;
+	}
+
+	private List<YouTubeCommentThread> fetchNextPage() {
+		List<YouTubeCommentThread> page = null;
+		Exception error = null;
+		try {
+			page = getPager().getSafeNextPage();
+			error = getPager().getLastException();
+		} catch (Exception e) {
+			Logger.e(this, "Unable to get the comments of " + videoId + ": " + e.getMessage(), e);
+			error = e;
+		}
+		if (page == null) {
+			page = Collections.emptyList();
+		}
+		// find the links, before the comments are displayed
+		for (YouTubeCommentThread thread : page) {
+			if (thread.getTopLevelComment() != null) {
+				Linker.getSpanned(thread.getTopLevelComment().getComment());
+			}
+			for (YouTubeComment reply : thread.getRepliesList()) {
+				Linker.getSpanned(reply.getComment());
+			}
+		}
+		final boolean failed;
+		synchronized (this) {
+			threads.addAll(page);
+			lastException = error;
+			// after an error, the next request tries again
+			hasMore = !page.isEmpty() || error != null;
+			loading = null;
+			failed = threads.isEmpty() && error != null;
+		}
+		if (failed) {
+			// don't keep the failure for the next time
+			evict();
+		}
+		return page;
+	}
+
+	private synchronized PagerBackend<YouTubeCommentThread> getPager() throws Exception {
+		if (pager == null) {
+			if (NewPipeService.isPreferred()) {
+				pager = new ReadAheadPager<>(NewPipeService.get().getCommentPager(videoId), 1);
+			} else {
+				pager = new GetCommentThreads(videoId);
+			}
+		}
+		return pager;
+	}
+
+	private void evict() {
+		synchronized (CACHE) {
+			if (CACHE.get(videoId) == this) {
+				CACHE.remove(videoId);
+			}
+		}
+	}
+
+	private synchronized void close() {
+		if (pager instanceof ReadAheadPager) {
+			((ReadAheadPager<?>) pager).close();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.VideoStream;
+
+import java.net.HttpURLConnection;
+
+import free.rm.skytube.app.Utils;
+
+/**
+ * HTTP cache validators (ETag and Last-Modified) of a previously downloaded resource, used to send
+ * conditional requests, so unchanged content is not downloaded - and parsed - again.
+ */
+public class HttpCacheValidators {
+    private String etag;
+    private String lastModified;
+
+    public HttpCacheValidators(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return true, if there is no validator, so a conditional request can't be sent.
+     */
+    public boolean isEmpty() {
+        return Utils.isEmpty(etag) && Utils.isEmpty(lastModified);
+    }
+
+    /**
+     * Add the 'If-None-Match' and 'If-Modified-Since' headers to the request.
+     */
+    void applyTo(HttpURLConnection connection) {
+        if (!Utils.isEmpty(etag)) {
+            connection.setRequestProperty("If-None-Match", etag);
+        }
+        if (!Utils.isEmpty(lastModified)) {
+            connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+    }
+
+    /**
+     * Remember the validators sent by the server, so the next request can be conditional.
+     */
+    void updateFrom(HttpURLConnection connection) {
+        etag = connection.getHeaderField("ETag");
+        lastModified = connection.getHeaderField("Last-Modified");
+    }
+
+    @Override
+    public String toString() {
+        return "HttpCacheValidators{etag='" + etag + "', lastModified='" + lastModified + "'}";
+    }
+}
@@ -32,8 +32,9 @@ import org.schabi.newpipe.extractor.exceptions.ReCaptchaException;
 import org.schabi.newpipe.extractor.localization.Localization;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
@@ -49,12 +50,36 @@ public class HttpDownloader extends Downloader {
 	/** Mimic the Mozilla user agent */
 	private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; WOW64; rv:68.0) Gecko/20100101 Firefox/68.0";
 
+	/** At most this many large pages (e.g. watch pages) are read into memory at the same time */
+	private static final int MAX_LARGE_RESPONSES_IN_FLIGHT = 2;
+
+	/** Validators for the conditional GET requests executed by the current thread, if any */
+	private static final ThreadLocal<HttpCacheValidators> conditionalRequest = new ThreadLocal<>();
+
+	private final ResponseBodyReader bodyReader = new ResponseBodyReader(MAX_LARGE_RESPONSES_IN_FLIGHT);
+
+	/**
+	 * Turn the GET requests executed by the current thread into conditional requests, using the given
+	 * validators.  If the server responds with 'HTTP 304 Not Modified', a {@link NotModifiedException}
+	 * is thrown, otherwise the validators are updated from the response headers.
+	 *
+	 * @param validators The validators to use, or null to turn off the conditional requests.
+	 */
+	public static void setConditionalRequest(HttpCacheValidators validators) {
+		if (validators != null) {
+			conditionalRequest.set(validators);
+		} else {
+			conditionalRequest.remove();
+		}
+	}
+
 	@Override
 	public Response execute(Request request) throws IOException, ReCaptchaException {
 		final String httpMethod = request.httpMethod();
 		final String url = request.url();
 		final Map<String, List<String>> headers = request.headers();
 		final Localization localization = request.localization();
+		final HttpCacheValidators validators = "GET".equals(httpMethod) ? conditionalRequest.get() : null;
 
 		final HttpsURLConnection connection = (HttpsURLConnection) new URL(url).openConnection();
 
@@ -79,15 +104,31 @@ public class HttpDownloader extends Downloader {
 			}
 		}
 
+		if (validators != null) {
+			validators.applyTo(connection);
+		}
+
 		try(OutputStream outputStream = sendOutput(request, connection)) {
 
+			if (validators != null) {
+				if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+					throw new NotModifiedException(url);
+				}
+			}
+
 			final String response = readResponse(connection);
 
 			final int responseCode = connection.getResponseCode();
+			// only a successful response can be revalidated later - an error keeps the previous validators
+			if (validators != null && responseCode >= 200 && responseCode < 300) {
+				validators.updateFrom(connection);
+			}
 			final String responseMessage = connection.getResponseMessage();
 			final Map<String, List<String>> responseHeaders = connection.getHeaderFields();
 			final URL latestUrl = connection.getURL();
 			return new Response(responseCode, responseMessage, responseHeaders, response, latestUrl.toString());
+		} catch (NotModifiedException e) {
+			throw e;
 		} catch (Exception e) {
 			/*
 			 * HTTP 429 == Too Many Request
@@ -115,15 +156,19 @@ public class HttpDownloader extends Downloader {
 	}
 
 	private String readResponse(HttpsURLConnection connection) throws IOException {
-		try (InputStreamReader input = new InputStreamReader(connection.getInputStream())) {
-			final StringBuilder response = new StringBuilder();
+		try (InputStream input = connection.getInputStream()) {
+			return bodyReader.read(input, connection.getContentLength(),
+					ResponseBodyReader.getCharset(connection.getContentType()));
+		}
+	}
 
-			int readCount;
-			char[] buffer = new char[32 * 1024];
-			while ((readCount = input.read(buffer)) != -1) {
-				response.append(buffer, 0, readCount);
-			}
-			return response.toString();
+	/**
+	 * Thrown when a conditional request is answered with 'HTTP 304 Not Modified', i.e. the content
+	 * hasn't changed since the validators were recorded.
+	 */
+	public static class NotModifiedException extends IOException {
+		public NotModifiedException(String url) {
+			super("Not modified: " + url);
 		}
 	}
 
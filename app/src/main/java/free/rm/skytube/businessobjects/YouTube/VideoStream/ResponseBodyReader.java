@@ -0,0 +1,161 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.VideoStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reads HTTP response bodies into strings, with as few intermediate copies as possible.
+ *
+ * The raw bytes are collected into a reusable, pooled buffer - sized from the Content-Length, if
+ * it's known - and decoded into the final string once.  As a 1-2 MB watch page would otherwise need
+ * several times its size during decoding, the number of large bodies read at the same time is capped.
+ */
+public class ResponseBodyReader {
+	/** Bodies above this size are counted as 'large' */
+	static final int LARGE_BODY_THRESHOLD = 256 * 1024;
+	private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+	/** Buffers above this size are not kept in the pool */
+	private static final int MAX_POOLED_BUFFER_SIZE = 256 * 1024;
+	/** The total size of the pooled buffers */
+	private static final int MAX_POOLED_BYTES = 1024 * 1024;
+
+	private final ArrayDeque<byte[]> pool = new ArrayDeque<>();
+	private int pooledBytes;
+	private final Semaphore largeBodies;
+
+	/**
+	 * @param maxLargeBodies How many large bodies can be read at the same time.
+	 */
+	public ResponseBodyReader(int maxLargeBodies) {
+		this.largeBodies = new Semaphore(maxLargeBodies, true);
+	}
+
+	/**
+	 * Read the whole input stream, and decode it.
+	 *
+	 * @param input The stream to read, it's not closed.
+	 * @param contentLength The expected length of the body, or -1 if it's not known.
+	 * @param charset The charset of the body.
+	 * @return The decoded body.
+	 */
+	public String read(InputStream input, long contentLength, Charset charset) throws IOException {
+		boolean large = contentLength >= LARGE_BODY_THRESHOLD;
+		if (large) {
+			acquireLargeBody();
+		}
+		byte[] buffer = acquireBuffer(contentLength > 0 && contentLength < Integer.MAX_VALUE
+				? (int) contentLength + 1 : DEFAULT_BUFFER_SIZE);
+		try {
+			int count = 0;
+			int readCount;
+			while ((readCount = input.read(buffer, count, buffer.length - count)) != -1) {
+				count += readCount;
+				if (count == buffer.length) {
+					if (!large && count >= LARGE_BODY_THRESHOLD) {
+						acquireLargeBody();
+						large = true;
+					}
+					final byte[] bigger = acquireBuffer(buffer.length * 2);
+					System.arraycopy(buffer, 0, bigger, 0, count);
+					releaseBuffer(buffer);
+					buffer = bigger;
+				}
+			}
+			return new String(buffer, 0, count, charset);
+		} finally {
+			releaseBuffer(buffer);
+			if (large) {
+				largeBodies.release();
+			}
+		}
+	}
+
+	private void acquireLargeBody() throws InterruptedIOException {
+		try {
+			largeBodies.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to read a large response");
+		}
+	}
+
+	private byte[] acquireBuffer(int minSize) {
+		synchronized (pool) {
+			// the smallest one, which is big enough, so the small responses don't take the big buffers
+			byte[] result = null;
+			for (byte[] buffer : pool) {
+				if (buffer.length >= minSize && (result == null || buffer.length < result.length)) {
+					result = buffer;
+				}
+			}
+			if (result != null) {
+				pool.remove(result);
+				pooledBytes -= result.length;
+				return result;
+			}
+		}
+		return new byte[Math.max(minSize, DEFAULT_BUFFER_SIZE)];
+	}
+
+	private void releaseBuffer(byte[] buffer) {
+		if (buffer.length > MAX_POOLED_BUFFER_SIZE) {
+			return;
+		}
+		synchronized (pool) {
+			if (pooledBytes + buffer.length <= MAX_POOLED_BYTES) {
+				pool.add(buffer);
+				pooledBytes += buffer.length;
+			}
+		}
+	}
+
+	/**
+	 * @return The total size of the buffers in the pool.
+	 */
+	int getPooledBytes() {
+		synchronized (pool) {
+			return pooledBytes;
+		}
+	}
+
+	/**
+	 * @param contentType The value of the Content-Type header, e.g. 'text/html; charset=utf-8'.
+	 * @return The charset from the header, or UTF-8 if it's missing or unknown.
+	 */
+	public static Charset getCharset(String contentType) {
+		if (contentType != null) {
+			for (String param : contentType.split(";")) {
+				final String trimmed = param.trim();
+				if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+					try {
+						return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+					} catch (IllegalArgumentException e) {
+						break;
+					}
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+}
@@ -30,19 +30,23 @@ import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.app.Utils;
 import free.rm.skytube.businessobjects.VideoCategory;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardDisplay;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
 import free.rm.skytube.businessobjects.YouTube.Tasks.GetSubscriptionVideosTaskListener;
+import free.rm.skytube.businessobjects.YouTube.VideoStream.HttpCacheValidators;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeException;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
 import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeUtils;
 import free.rm.skytube.businessobjects.YouTube.newpipe.PlaylistPager;
+import free.rm.skytube.businessobjects.db.DatabaseRuntime;
 import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 import free.rm.skytube.businessobjects.interfaces.GetDesiredStreamListener;
 import free.rm.skytube.gui.businessobjects.adapters.PlaylistsGridAdapter;
 import free.rm.skytube.gui.businessobjects.adapters.VideoGridAdapter;
+import free.rm.skytube.gui.businessobjects.views.Linker;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
@@ -94,8 +98,15 @@ public class YouTubeTasks {
                 .flatMapSingle(channelId ->
                         Single.fromCallable(() -> {
                             SkyTubeApp.nonUiThread();
-                            Map<String, Long> alreadyKnownVideos = subscriptionsDb.getSubscribedChannelVideosByChannelToTimestamp(channelId);
-                            List<YouTubeVideo> newVideos = fetchVideos(subscriptionsDb, alreadyKnownVideos, channelId);
+                            final HttpCacheValidators validators = subscriptionsDb.getFeedValidators(channelId);
+                            List<YouTubeVideo> newVideos = fetchVideos(subscriptionsDb, validators, channelId);
+                            if (newVideos == null) {
+                                // the feed hasn't changed since the last refresh
+                                DatabaseRuntime.get().write(subscriptionsDb, "feed not modified", () -> {
+                                    subscriptionsDb.updateLastCheckTime(channelId);
+                                }).blockingAwait();
+                                return 0;
+                            }
                             List<YouTubeVideo> detailedList = new ArrayList<>();
                             if (!newVideos.isEmpty()) {
                                 YouTubeChannel dbChannel = subscriptionsDb.getCachedSubscribedChannel(channelId);
@@ -114,8 +125,16 @@ public class YouTubeTasks {
                                     }
                                 }
                                 changed.compareAndSet(false, true);
-                                subscriptionsDb.insertVideosForChannel(detailedList, channelId);
                             }
+                            // the writes of the channels, refreshed in parallel, are committed together,
+                            // on the writer thread - so the readers of the feed are not blocked meanwhile
+                            DatabaseRuntime.get().write(subscriptionsDb, "feed refresh", () -> {
+                                subscriptionsDb.insertVideosForChannel(detailedList, channelId);
+                                // only trust the validators, if every new video is stored, otherwise the
+                                // missing ones would be skipped until the feed changes again
+                                subscriptionsDb.updateFeedValidators(channelId,
+                                        detailedList.size() == newVideos.size() ? validators : null);
+                            }).blockingAwait();
                             return detailedList.size();
                         })
                                 .subscribeOn(scheduler)
@@ -135,11 +154,20 @@ public class YouTubeTasks {
                 });
     }
 
+    /**
+     * @return the videos of the channel, which are not yet stored, or null if the channel's feed hasn't
+     * changed since the given validators were recorded.
+     */
+    @Nullable
     private static List<YouTubeVideo> fetchVideos(@NonNull SubscriptionsDb subscriptionsDb,
-                                                  @NonNull Map<String, Long> alreadyKnownVideos,
+                                                  @NonNull HttpCacheValidators validators,
                                                   @NonNull String channelId) {
         try {
-            List<YouTubeVideo> videos = NewPipeService.get().getVideosFromFeedOrFromChannel(channelId);
+            List<YouTubeVideo> videos = NewPipeService.get().getVideosFromFeedOrFromChannel(channelId, validators);
+            if (videos == null) {
+                return null;
+            }
+            Map<String, Long> alreadyKnownVideos = subscriptionsDb.getSubscribedChannelVideosByChannelToTimestamp(channelId);
             // If we found a video which is already added to the db, no need to check the videos after,
             // assume, they are older, and already seen
             videos.removeIf(video -> {
@@ -278,6 +306,7 @@ public class YouTubeTasks {
                                                       @NonNull ContentId content) {
         return Maybe.fromCallable(() -> NewPipeService.get().getDetails(content.getId()))
                 .subscribeOn(Schedulers.io())
+                .doOnSuccess(video -> Linker.getSpanned(video.getDescription()))
                 .observeOn(AndroidSchedulers.mainThread())
                 .doOnError(throwable -> {
                     Log.e(TAG, "Unable to get video details, where id=" + content, throwable);
@@ -308,6 +337,7 @@ public class YouTubeTasks {
                 .onErrorComplete()
                 .map(streamInfo -> {
                     youTubeVideo.updateFromStreamInfo(streamInfo);
+                    Linker.getSpanned(youTubeVideo.getDescription());
                     return streamInfo;
                 })
                 .observeOn(AndroidSchedulers.mainThread())
@@ -370,6 +400,9 @@ public class YouTubeTasks {
                     }
                     SubscriptionsDb.getSubscriptionsDb().saveChannelVideos(channel.getYouTubeVideos(), channel.getId());
                 }
+
+                // format the texts of the cards here, not while they are bound
+                CardDisplay.prepare(videosList);
             }
 
             return videosList;
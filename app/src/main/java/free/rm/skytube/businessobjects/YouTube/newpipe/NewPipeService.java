@@ -56,6 +56,7 @@ import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.VideoStream.HttpCacheValidators;
 import free.rm.skytube.businessobjects.YouTube.VideoStream.HttpDownloader;
 import free.rm.skytube.businessobjects.YouTube.VideoStream.StreamMetaData;
 
@@ -149,11 +150,14 @@ public class NewPipeService {
     /**
      * Return the most recent videos for the given channel from a dedicated feed (with a {@link FeedExtractor}).
      * @param channelId the id of the channel
+     * @param validators the cache validators from the previous download of the feed, which are updated
+     *                   from the response - or null, to download the feed unconditionally.
      * @return list of recent {@link YouTubeVideo}, or null, if there is no feed.
+     * @throws HttpDownloader.NotModifiedException if the feed hasn't changed since the validators were recorded.
      * @throws ExtractionException
      * @throws IOException
      */
-    private List<YouTubeVideo> getFeedVideos(String channelId) throws ExtractionException, IOException, NewPipeException {
+    private List<YouTubeVideo> getFeedVideos(String channelId, HttpCacheValidators validators) throws ExtractionException, IOException, NewPipeException {
         SkyTubeApp.nonUiThread();
         final String url = getListLinkHandler(channelId).getUrl();
         final FeedExtractor feedExtractor = streamingService.getFeedExtractor(url);
@@ -161,7 +165,12 @@ public class NewPipeService {
             Logger.i(this, "getFeedExtractor doesn't return anything for %s -> %s", channelId, url);
             return null;
         }
-        feedExtractor.fetchPage();
+        HttpDownloader.setConditionalRequest(validators);
+        try {
+            feedExtractor.fetchPage();
+        } finally {
+            HttpDownloader.setConditionalRequest(null);
+        }
         return new VideoPagerWithChannel(streamingService, (ListExtractor)feedExtractor, createInternalChannelFromFeed(feedExtractor)).getNextPageAsVideos();
     }
 
@@ -174,13 +183,31 @@ public class NewPipeService {
      * @throws IOException
      */
     public List<YouTubeVideo> getVideosFromFeedOrFromChannel(String channelId) throws NewPipeException {
+        return getVideosFromFeedOrFromChannel(channelId, null);
+    }
+
+    /**
+     * Return the most recent videos for the given channel, either from a dedicated feed (with a {@link FeedExtractor} or from
+     * the generic {@link ChannelExtractor}. The feed is requested conditionally, if validators are known from the
+     * previous refresh.
+     * @param channelId the id of the channel
+     * @param validators the cache validators of the feed, updated from the response, or null.
+     * @return list of recent {@link YouTubeVideo}, or null, if the feed hasn't changed since the validators were recorded.
+     * @throws NewPipeException
+     */
+    public List<YouTubeVideo> getVideosFromFeedOrFromChannel(String channelId, HttpCacheValidators validators) throws NewPipeException {
         try {
             SkyTubeApp.nonUiThread();
 
-            List<YouTubeVideo> videos = getFeedVideos(channelId);
+            List<YouTubeVideo> videos = getFeedVideos(channelId, validators);
             if (videos != null) {
                 return videos;
             }
+        } catch (HttpDownloader.NotModifiedException e) {
+            if (DEBUG_LOG) {
+                Logger.d(this, "Feed not modified for %s", channelId);
+            }
+            return null;
         } catch (IOException | ExtractionException | RuntimeException | NewPipeException e) {
             Logger.e(this, "Unable to get videos from a feed " + channelId + " : "+ e.getMessage(), e);
         }
@@ -318,7 +345,7 @@ public class NewPipeService {
         extractor.fetchPage();
 
         DateInfo uploadDate = new DateInfo(extractor.getUploadDate());
-        Logger.i(this, "getDetails for %s -> %s %s", videoId, url.getUrl(), uploadDate);
+        Logger.d(this, "getDetails for %s -> %s %s", videoId, url.getUrl(), uploadDate);
 
         long viewCount;
         try {
@@ -386,6 +413,18 @@ public class NewPipeService {
         }
     }
 
+    /**
+     * @return The search suggestions of YouTube for the partially typed query.
+     */
+    public List<String> getSearchSuggestions(String query) throws NewPipeException {
+        SkyTubeApp.nonUiThread();
+        try {
+            return streamingService.getSuggestionExtractor().suggestionList(query);
+        } catch (ExtractionException | IOException | RuntimeException e) {
+            throw new NewPipeException("Getting search suggestions for " + query + " fails:" + e.getMessage(), e);
+        }
+    }
+
     /**
      * Given video ID it will return the video's page URL.
      *
@@ -22,10 +22,17 @@ import org.jsoup.safety.Whitelist;
 import org.schabi.newpipe.extractor.stream.Description;
 
 public class NewPipeUtils {
+    /** It's only read by the cleaner, so it can be shared */
+    private static final Whitelist WHITELIST = Whitelist.basic();
+
     private NewPipeUtils() {}
 
     public static String filterHtml(String content) {
-        return Jsoup.clean(content, "", Whitelist.basic(), new Document.OutputSettings().prettyPrint(false));
+        if (content == null || (content.indexOf('<') < 0 && content.indexOf('&') < 0)) {
+            // there is nothing to clean
+            return content;
+        }
+        return Jsoup.clean(content, "", WHITELIST, new Document.OutputSettings().prettyPrint(false));
     }
 
     public static String filterHtml(Description description) {
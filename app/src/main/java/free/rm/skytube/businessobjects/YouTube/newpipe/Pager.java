@@ -102,7 +102,7 @@ public abstract class Pager<I extends InfoItem, O> implements PagerBackend<O> {
             return getNextPage();
         } catch (NewPipeException e) {
             lastException = e;
-            Logger.e(this.getClass().getSimpleName(), "Error: " + e.getMessage(), e);
+            Logger.e(this, "Error: " + e.getMessage(), e);
             return Collections.emptyList();
         }
     }
@@ -0,0 +1,174 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.YouTube.newpipe;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import free.rm.skytube.businessobjects.Logger;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Reads the pages of a {@link Pager} ahead: once a page is returned, the following one is fetched in
+ * the background, so it's returned immediately, when the user scrolls to the end of the list.
+ *
+ * <p>At most {@code window} pages are fetched ahead, and only one at a time - the pages depend on
+ * the previous ones, and the pager is not thread safe.  The pages are fetched only after the first
+ * one is requested, and the fetching is stopped by {@link #close()}.</p>
+ */
+public class ReadAheadPager<O> implements PagerBackend<O> {
+    private final Pager<?, O> pager;
+    private final int window;
+    /** The pages fetched ahead, the next one first */
+    private final Deque<PageResult<O>> pages = new ArrayDeque<>(2);
+    private Disposable inFlight;
+    private boolean closed;
+    private Exception lastException;
+
+    private static class PageResult<O> {
+        private final List<O> items;
+        private final NewPipeException error;
+
+        PageResult(List<O> items, NewPipeException error) {
+            this.items = items;
+            this.error = error;
+        }
+    }
+
+    /**
+     * @param pager The pager, which must not be used directly anymore.
+     * @param window The number of pages fetched ahead.
+     */
+    public ReadAheadPager(Pager<?, O> pager, int window) {
+        this(pager, window, null);
+    }
+
+    /**
+     * @param pager The pager, which must not be used directly anymore.
+     * @param window The number of pages fetched ahead.
+     * @param fetchedPage The page already fetched from the pager, which is returned first - or null.
+     */
+    public ReadAheadPager(Pager<?, O> pager, int window, List<O> fetchedPage) {
+        this.pager = pager;
+        this.window = Math.max(1, window);
+        if (fetchedPage != null) {
+            pages.add(new PageResult<>(fetchedPage, null));
+        }
+    }
+
+    /**
+     * @return The next page - from the pages read ahead, or if it's not yet fetched, after it's
+     * fetched.
+     */
+    public synchronized List<O> getNextPage() throws NewPipeException {
+        fetchAhead();
+        while (pages.isEmpty() && inFlight != null && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Collections.emptyList();
+            }
+        }
+        final PageResult<O> page = pages.poll();
+        if (page == null) {
+            return Collections.emptyList();
+        }
+        // the following page is fetched, while this one is displayed
+        fetchAhead();
+        if (page.error != null) {
+            throw page.error;
+        }
+        return page.items;
+    }
+
+    @Override
+    public List<O> getSafeNextPage() {
+        lastException = null;
+        try {
+            return getNextPage();
+        } catch (NewPipeException e) {
+            lastException = e;
+            Logger.e(this, "Error: " + e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public synchronized Exception getLastException() {
+        return lastException;
+    }
+
+    /**
+     * @return True, if there could be more pages - either read ahead already, or still to be fetched.
+     */
+    public synchronized boolean isHasNextPage() {
+        return !pages.isEmpty() || inFlight != null || (!closed && pager.isHasNextPage());
+    }
+
+    /**
+     * Stop fetching the pages, and drop the ones read ahead - when the list is not displayed
+     * anymore, or its query is changed.
+     */
+    public synchronized void close() {
+        closed = true;
+        pages.clear();
+        if (inFlight != null) {
+            inFlight.dispose();
+            inFlight = null;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Start fetching the next page, if it's needed, and no page is being fetched.
+     */
+    private void fetchAhead() {
+        if (closed || inFlight != null || pages.size() >= window || !pager.isHasNextPage()) {
+            return;
+        }
+        // onFetched() waits for the lock, so it can't run before inFlight is set
+        inFlight = Completable.fromAction(() -> {
+            List<O> items = null;
+            NewPipeException error = null;
+            try {
+                items = pager.getNextPage();
+            } catch (NewPipeException e) {
+                error = e;
+            }
+            onFetched(new PageResult<>(items, error));
+        })
+                .subscribeOn(Schedulers.io())
+                .subscribe(() -> {}, error -> Logger.e(this, "Unable to read ahead: " + error.getMessage(), error));
+    }
+
+    private synchronized void onFetched(PageResult<O> page) {
+        if (closed) {
+            return;
+        }
+        inFlight = null;
+        pages.add(page);
+        notifyAll();
+        if (page.error == null) {
+            fetchAhead();
+        }
+    }
+}
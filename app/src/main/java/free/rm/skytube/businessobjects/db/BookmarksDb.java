@@ -19,46 +19,39 @@ package free.rm.skytube.businessobjects.db;
 
 import android.content.ContentValues;
 import android.content.Context;
-import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
 import androidx.core.util.Pair;
 
-import com.google.gson.Gson;
-
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import free.rm.skytube.app.SkyTubeApp;
-import free.rm.skytube.app.Utils;
 import free.rm.skytube.businessobjects.Logger;
-import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
-import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
-import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
 
 /**
  * A database (DB) that stores user's bookmarked videos.
  */
-public class BookmarksDb extends SQLiteOpenHelperEx implements OrderableDatabase {
+public class BookmarksDb extends OrderableVideosDb {
 	private static volatile BookmarksDb bookmarksDb = null;
 	private static boolean hasUpdated = false;
 
-	private static final int DATABASE_VERSION = 1;
+	private static final int DATABASE_VERSION = 3;
 	private static final String DATABASE_NAME = "bookmarks.db";
 
 	private final Set<BookmarksDbListener> listeners = new HashSet<>();
+	private final VideoSearchIndex searchIndex = new VideoSearchIndex(BookmarksTable.TABLE_NAME,
+			BookmarksTable.COL_YOUTUBE_VIDEO_ID, BookmarksTable.COL_YOUTUBE_VIDEO);
 
 	private BookmarksDb(Context context) {
-		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		super(context, DATABASE_NAME, DATABASE_VERSION, BookmarksTable.TABLE_NAME,
+				BookmarksTable.COL_YOUTUBE_VIDEO_ID, BookmarksTable.COL_YOUTUBE_VIDEO, BookmarksTable.COL_ORDER);
 	}
 
 
@@ -79,11 +72,18 @@ public class BookmarksDb extends SQLiteOpenHelperEx implements OrderableDatabase
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		db.execSQL(BookmarksTable.getCreateStatement());
+		searchIndex.create(db);
 	}
 
 
 	@Override
 	public void onUpgrade(SQLiteDatabase sqLiteDatabase, int oldVersion, int newVersion) {
+		if (oldVersion < 2 && newVersion >= 2) {
+			spreadOrderNumbers(sqLiteDatabase);
+		}
+		if (oldVersion < 3 && newVersion >= 3) {
+			searchIndex.create(sqLiteDatabase);
+		}
 	}
 
 
@@ -97,19 +97,18 @@ public class BookmarksDb extends SQLiteOpenHelperEx implements OrderableDatabase
 	 * @return True if the video was successfully saved/bookmarked to the DB.
 	 */
 	public DatabaseResult add(YouTubeVideo video) {
-		Gson gson = new Gson();
 		ContentValues values = new ContentValues();
 		values.put(BookmarksTable.COL_YOUTUBE_VIDEO_ID, video.getId());
-		values.put(BookmarksTable.COL_YOUTUBE_VIDEO, gson.toJson(video).getBytes());
+		values.put(BookmarksTable.COL_YOUTUBE_VIDEO, YouTubeVideoCodec.encode(video));
 
-		int order = getMaximumOrderNumber();
-		order++;
-		values.put(BookmarksTable.COL_ORDER, order);
+		values.put(BookmarksTable.COL_ORDER, getNextOrderNumber());
 
 		try {
-			long result = getWritableDatabase().insertWithOnConflict(BookmarksTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+			final SQLiteDatabase db = getWritableDatabase();
+			long result = db.insertWithOnConflict(BookmarksTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE);
 			Logger.i(this, "Result for adding "+ video+ " IS "+ result);
 			if (result >= 1) {
+				searchIndex.update(db, video);
 				onBookmarkAdded(video);
 				return DatabaseResult.SUCCESS;
 			}
@@ -138,28 +137,7 @@ public class BookmarksDb extends SQLiteOpenHelperEx implements OrderableDatabase
 					new String[]{video.getId()});
 
 			if (rowsDeleted > 0) {
-				// Since we've removed a video, we will need to update the order column for all the videos.
-				int order = 1;
-				Cursor cursor = getReadableDatabase().query(
-						BookmarksTable.TABLE_NAME,
-						new String[]{BookmarksTable.COL_YOUTUBE_VIDEO, BookmarksTable.COL_ORDER},
-						null,
-						null, null, null, BookmarksTable.COL_ORDER + " ASC");
-				if (cursor.moveToNext()) {
-					Gson gson = new Gson();
-					do {
-						byte[] blob = cursor.getBlob(cursor.getColumnIndex(BookmarksTable.COL_YOUTUBE_VIDEO));
-						YouTubeVideo uvideo = gson.fromJson(new String(blob), YouTubeVideo.class).updatePublishTimestampFromDate();
-						ContentValues contentValues = new ContentValues();
-						contentValues.put(BookmarksTable.COL_ORDER, order++);
-
-						getWritableDatabase().update(BookmarksTable.TABLE_NAME, contentValues, BookmarksTable.COL_YOUTUBE_VIDEO_ID + " = ?",
-								new String[]{uvideo.getId()});
-					} while (cursor.moveToNext());
-				}
-
-				cursor.close();
-
+				// the order numbers are sparse anyway, so the rest of the videos are not renumbered
 				onBookmarkDeleted(video);
 				return DatabaseResult.SUCCESS;
 			}
@@ -171,24 +149,6 @@ public class BookmarksDb extends SQLiteOpenHelperEx implements OrderableDatabase
 	}
 
 
-	/**
-	 * When a Video in the Bookmarks tab is drag & dropped to a new position, this will be
-	 * called with the new updated list of videos. Since the videos are displayed in descending order,
-	 * the first video in the list will have the highest number.
-	 *
-	 * @param videos List of Videos to update their order.
-	 */
-	@Override
-	public void updateOrder(List<CardData> videos) {
-		int order = getMaximumOrderNumber();
-
-		for(CardData video : videos) {
-			ContentValues cv = new ContentValues();
-			cv.put(BookmarksTable.COL_ORDER, order--);
-			getWritableDatabase().update(BookmarksTable.TABLE_NAME, cv, BookmarksTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{video.getId()});
-		}
-	}
-
 	/**
 	 * Check if the specified Video has been bookmarked.
 	 *
@@ -208,71 +168,29 @@ public class BookmarksDb extends SQLiteOpenHelperEx implements OrderableDatabase
 	}
 
 	/**
-	 * @return The maximum of the order number - which could be different from the number of bookmarked videos, in case some of them are deleted.
+	 * Get a page of the Videos that have been bookmarked, in descending order.
+	 *
+	 * @param limit The maximum number of videos to return.
+	 * @param maxOrderLimit Only the videos with lower order number are returned, or null for the first page.
+	 * @return List of Videos, and the lowest order number among them.
 	 */
-	public int getMaximumOrderNumber() {
-		return executeQueryForInteger(BookmarksTable.MAXIMUM_ORDER_QUERY, 0);
+	public @NonNull Pair<List<YouTubeVideo>, Integer> getBookmarkedVideos(int limit, Integer maxOrderLimit) {
+		return getVideoPage(limit, maxOrderLimit);
 	}
 
-
 	/**
-	 * Get the list of Videos that have been bookmarked.
-	 *
-	 * @return List of Videos
+	 * Search the bookmarked videos by their title, description or channel name.
 	 */
-	public @NonNull Pair<List<YouTubeVideo>, Integer> getBookmarkedVideos(int limit, Integer maxOrderLimit) {
-        //Logger.i(this, "getBookmarkedVideos " + limit + ',' + maxOrderLimit +
-        //        " - " + (maxOrderLimit != null ? BookmarksTable.PAGED_QUERY : BookmarksTable.PAGED_QUERY_UNBOUNDED));
-
-        SQLiteDatabase db = getReadableDatabase();
-        Cursor	cursor = maxOrderLimit != null ?
-                db.rawQuery(
-                        BookmarksTable.PAGED_QUERY, new String[] { String.valueOf(maxOrderLimit), String.valueOf(limit)}) :
-                db.rawQuery(
-                        BookmarksTable.PAGED_QUERY_UNBOUNDED, new String[] { String.valueOf(limit)});
-
-		List<YouTubeVideo> videos = new ArrayList<>();
-
-		final Gson gson = new Gson();
-		Integer minOrder = null;
-		if(cursor.moveToNext()) {
-			final int colOrder = cursor.getColumnIndex(BookmarksTable.COL_ORDER);
-			final int colVideo = cursor.getColumnIndex(BookmarksTable.COL_YOUTUBE_VIDEO);
-			do {
-				final byte[] blob = cursor.getBlob(colVideo);
-				final int currentOrder = cursor.getInt(colOrder);
-
-                minOrder = Utils.min(currentOrder, minOrder);
-
-				final String videoJson = new String(blob);
-
-				// convert JSON into YouTubeVideo
-				YouTubeVideo video = gson.fromJson(videoJson, YouTubeVideo.class).updatePublishTimestampFromDate();
-
-                // Logger.i(this, "Order "+cursor.getInt(colOrder)+ ", id="+video.getId()+","+video.getTitle());
-
-                // due to upgrade to YouTubeVideo (by changing channel{Id,Name} to YouTubeChannel)
-				// from version 2.82 to 2.90
-				if (video.getChannel() == null) {
-					try {
-						JSONObject videoJsonObj = new JSONObject(videoJson);
-						final String channelId   = videoJsonObj.get("channelId").toString();
-						final String channelName = videoJsonObj.get("channelName").toString();
-						video.setChannel(new YouTubeChannel(channelId, channelName));
-					} catch (JSONException e) {
-						Logger.e(this, "Error occurred while extracting channel{Id,Name} from JSON", e);
-					}
-				}
-
-				// regenerate the video's PublishDatePretty (e.g. 5 hours ago)
-				//video.forceRefreshPublishDatePretty();
-				// add the video to the list
-				videos.add(video);
-			} while(cursor.moveToNext());
-		}
+	public @NonNull List<YouTubeVideo> searchVideos(String query, int limit) {
+		SkyTubeApp.nonUiThread();
+		return searchIndex.search(getReadableDatabase(), query, BookmarksTable.COL_ORDER + " DESC", limit);
+	}
 
-		cursor.close();
-		return Pair.create(videos, minOrder);
+	/**
+	 * Convert the bookmarked videos, stored in the legacy JSON format, into the binary format.
+	 */
+	public int migrateVideoBlobs() {
+		return migrateVideoBlobs(BookmarksTable.TABLE_NAME, BookmarksTable.COL_YOUTUBE_VIDEO);
 	}
 
 
@@ -0,0 +1,38 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The first page of videos of the channels in {@link LocalChannelTable}, as it was downloaded with
+ * the channel details - so the channel can be displayed without waiting for the network.
+ */
+public class ChannelPageTable {
+    public static final String TABLE_NAME = "ChannelPage";
+    public static final String COL_CHANNEL_ID = "Channel_Id";
+    public static final String COL_POSITION = "Position";
+    public static final String COL_VIDEO = "Video";
+
+    public static String getCreateStatement() {
+        return "CREATE TABLE " + TABLE_NAME + " (" +
+                COL_CHANNEL_ID + " TEXT NOT NULL, " +
+                COL_POSITION   + " INTEGER NOT NULL, " +
+                COL_VIDEO      + " BLOB NOT NULL, " +
+                "PRIMARY KEY (" + COL_CHANNEL_ID + ", " + COL_POSITION + ")" +
+                " )";
+    }
+
+}
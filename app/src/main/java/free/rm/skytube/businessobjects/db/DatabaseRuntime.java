@@ -0,0 +1,350 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import free.rm.skytube.businessobjects.Logger;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleEmitter;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * The threads shared by the databases of the app:
+ * <ul>
+ *     <li>a pool of reader threads, sized to the number of cores - the databases are in WAL mode
+ *     (see {@link SQLiteOpenHelperEx}), so these reads run in parallel with each other, and with
+ *     the writes,</li>
+ *     <li>a single writer thread, which executes the queued writes one after the other - the writes,
+ *     queued for the same database in the meantime, are committed in one transaction, so a bulk
+ *     feed refresh doesn't pay a disk sync for every row,</li>
+ *     <li>and the timing of the queries and writes, to find the slow ones.</li>
+ * </ul>
+ */
+public final class DatabaseRuntime {
+	/** The maximum number of writes, committed together */
+	private static final int MAX_BATCH_SIZE = 64;
+	/** The queries and writes running longer are logged */
+	private static final long SLOW_OPERATION_MS = 100;
+	/** Queries with values baked into the SQL would fill up the metrics, so they are capped */
+	private static final int MAX_METRICS = 256;
+	private static final String OTHER_QUERIES = "(other)";
+
+	private static final DatabaseRuntime INSTANCE = new DatabaseRuntime();
+
+	private final Scheduler readScheduler;
+	private final BlockingQueue<WriteTask<?>> writeQueue = new LinkedBlockingQueue<>();
+	private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+	private DatabaseRuntime() {
+		final int readers = Math.max(2, Runtime.getRuntime().availableProcessors());
+		final AtomicInteger threadCount = new AtomicInteger();
+		readScheduler = Schedulers.from(Executors.newFixedThreadPool(readers, runnable -> {
+			final Thread thread = new Thread(runnable, "db-reader-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}));
+		final Thread writer = new Thread(this::runWriter, "db-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	public static DatabaseRuntime get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return The scheduler for the database reads - bounded, so the readers don't starve each other
+	 * of the connections.
+	 */
+	public Scheduler reads() {
+		return readScheduler;
+	}
+
+	/**
+	 * Queue a write for the database - the returned Single completes, after the write is committed.
+	 *
+	 * <p>The action must not swallow the failure of a transaction it started, as the queued writes
+	 * run nested in a shared transaction - it should throw an exception instead.</p>
+	 *
+	 * @param database The database to write into.
+	 * @param name The name of the write, for the metrics.
+	 * @param action The write.
+	 */
+	public <T> Single<T> write(SQLiteOpenHelperEx database, String name, Callable<T> action) {
+		return Single.create(emitter -> writeQueue.add(new WriteTask<>(database, name, action, emitter)));
+	}
+
+	/**
+	 * Same as {@link #write(SQLiteOpenHelperEx, String, Callable)}, for actions without a result.
+	 */
+	public Completable write(SQLiteOpenHelperEx database, String name, Runnable action) {
+		return write(database, name, () -> {
+			action.run();
+			return Boolean.TRUE;
+		}).ignoreElement();
+	}
+
+	private void runWriter() {
+		final List<WriteTask<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+		while (true) {
+			try {
+				batch.add(writeQueue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			// this is the only consumer of the queue, so the peeked task is the one which is polled
+			WriteTask<?> next;
+			while (batch.size() < MAX_BATCH_SIZE
+					&& (next = writeQueue.peek()) != null
+					&& next.database == batch.get(0).database) {
+				batch.add(writeQueue.poll());
+			}
+			try {
+				executeBatch(batch);
+			} catch (Throwable e) {
+				// opening the database failed - the writer thread keeps running for the next writes
+				for (WriteTask<?> task : batch) {
+					task.emitter.tryOnError(e);
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	private void executeBatch(List<WriteTask<?>> batch) {
+		final SQLiteDatabase db = batch.get(0).database.getWritableDatabase();
+		if (batch.size() > 1) {
+			final long start = System.nanoTime();
+			final Object[] results = new Object[batch.size()];
+			boolean committed = false;
+			db.beginTransaction();
+			try {
+				for (int i = 0; i < batch.size(); i++) {
+					final WriteTask<?> task = batch.get(i);
+					if (!task.emitter.isDisposed()) {
+						results[i] = task.action.call();
+					}
+				}
+				db.setTransactionSuccessful();
+				committed = true;
+			} catch (Throwable e) {
+				Logger.w(this, "Batch of %s writes failed, retrying them one by one: %s", batch.size(), e.getMessage());
+			} finally {
+				db.endTransaction();
+			}
+			if (committed) {
+				record("batch of " + batch.size() + " writes", System.nanoTime() - start);
+				for (int i = 0; i < batch.size(); i++) {
+					batch.get(i).onSuccess(results[i]);
+				}
+				return;
+			}
+		}
+		// a single write, or a failed batch: every write in its own transaction, so one failure
+		// doesn't roll back the others
+		for (WriteTask<?> task : batch) {
+			if (task.emitter.isDisposed()) {
+				continue;
+			}
+			final long start = System.nanoTime();
+			Object result = null;
+			Throwable error = null;
+			db.beginTransaction();
+			try {
+				result = task.action.call();
+				db.setTransactionSuccessful();
+			} catch (Throwable e) {
+				// even an Error only fails its own write, otherwise the callers waiting for the
+				// queued writes would hang
+				error = e;
+			} finally {
+				try {
+					db.endTransaction();
+				} catch (Throwable e) {
+					// the commit failed
+					if (error == null) {
+						error = e;
+					}
+				}
+			}
+			if (error == null) {
+				record(task.name, System.nanoTime() - start);
+				task.onSuccess(result);
+			} else {
+				task.emitter.tryOnError(error);
+			}
+		}
+	}
+
+	/**
+	 * Record the time of an operation.
+	 *
+	 * @param name The SQL query, or the name of the operation.
+	 * @param nanos The elapsed time, in nanoseconds.
+	 */
+	void record(String name, long nanos) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			final String key = metrics.size() < MAX_METRICS ? name : OTHER_QUERIES;
+			final Metric newMetric = new Metric(key);
+			metric = metrics.putIfAbsent(key, newMetric);
+			if (metric == null) {
+				metric = newMetric;
+			}
+		}
+		metric.add(nanos);
+		final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		if (millis >= SLOW_OPERATION_MS) {
+			Logger.w(this, "Slow database operation (%s ms) on %s: %s", millis, Thread.currentThread().getName(), name);
+		}
+	}
+
+	/**
+	 * @return The metrics of the queries and writes, the most time consuming first.
+	 */
+	public List<Metric> getMetrics() {
+		final List<Metric> result = new ArrayList<>(metrics.values());
+		Collections.sort(result, (a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+		return result;
+	}
+
+	/**
+	 * Log the most time consuming queries and writes.
+	 */
+	public void logMetrics(int limit) {
+		final List<Metric> all = getMetrics();
+		for (Metric metric : all.subList(0, Math.min(limit, all.size()))) {
+			Logger.i(this, "%s", metric);
+		}
+	}
+
+	/**
+	 * The cursor factory of the databases, which measures the execution of the queries.
+	 */
+	static final SQLiteDatabase.CursorFactory CURSOR_FACTORY = (db, driver, editTable, query) -> new TimedCursor(driver, editTable, query);
+
+	/**
+	 * A cursor, which measures its query - it's executed, when the rows are first accessed.
+	 */
+	private static class TimedCursor extends SQLiteCursor {
+		private final String sql;
+		private boolean executed;
+
+		TimedCursor(SQLiteCursorDriver driver, String editTable, SQLiteQuery query) {
+			super(driver, editTable, query);
+			// SQLiteQuery doesn't expose the SQL, only in its description
+			final String description = query.toString();
+			final int colon = description.indexOf(": ");
+			this.sql = colon >= 0 ? description.substring(colon + 2) : description;
+		}
+
+		@Override
+		public int getCount() {
+			if (executed) {
+				return super.getCount();
+			}
+			executed = true;
+			final long start = System.nanoTime();
+			final int count = super.getCount();
+			INSTANCE.record(sql, System.nanoTime() - start);
+			return count;
+		}
+	}
+
+	private static class WriteTask<T> {
+		private final SQLiteOpenHelperEx database;
+		private final String name;
+		private final Callable<T> action;
+		private final SingleEmitter<T> emitter;
+
+		WriteTask(SQLiteOpenHelperEx database, String name, Callable<T> action, SingleEmitter<T> emitter) {
+			this.database = database;
+			this.name = name;
+			this.action = action;
+			this.emitter = emitter;
+		}
+
+		@SuppressWarnings("unchecked")
+		void onSuccess(Object result) {
+			if (result != null) {
+				emitter.onSuccess((T) result);
+			} else {
+				emitter.tryOnError(new NullPointerException("Write " + name + " returned null"));
+			}
+		}
+	}
+
+	/**
+	 * The number, total and maximum time of the executions of a query or write.
+	 */
+	public static class Metric {
+		private final String name;
+		private int count;
+		private long totalNanos;
+		private long maxNanos;
+
+		Metric(String name) {
+			this.name = name;
+		}
+
+		synchronized void add(long nanos) {
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public synchronized int getCount() {
+			return count;
+		}
+
+		public synchronized long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public synchronized long getMaxNanos() {
+			return maxNanos;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return String.format("%s: %d times, %d ms total, %d ms max",
+					name, count, TimeUnit.NANOSECONDS.toMillis(totalNanos), TimeUnit.NANOSECONDS.toMillis(maxNanos));
+		}
+	}
+}
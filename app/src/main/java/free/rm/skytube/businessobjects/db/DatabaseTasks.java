@@ -10,17 +10,24 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.EventBus;
+import free.rm.skytube.app.Settings;
 import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.ChannelPageLoader;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.ChannelView;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
 import free.rm.skytube.businessobjects.YouTube.VideoBlocker;
-import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
 import free.rm.skytube.gui.businessobjects.views.SubscribeButton;
 import free.rm.skytube.gui.fragments.SubscriptionsFeedFragment;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
@@ -36,6 +43,8 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
  */
 public class DatabaseTasks {
     private static final String TAG = DatabaseTasks.class.getSimpleName();
+    /** The number of channels loaded at the same time by {@link #getLoadChannelInfo(Context, List)} */
+    public static final int CHANNEL_INFO_CONCURRENCY = 4;
 
     private DatabaseTasks() {}
 
@@ -64,31 +73,13 @@ public class DatabaseTasks {
 
     /**
      * Task to retrieve channel information - from the local cache, or from the remote service if the
-     * value is old or doesn't exist.
+     * value doesn't exist.  If the cached value is old, it's returned, while it's refreshed in the
+     * background - sharing the extraction with the videos tab of the channel.
      */
     public static Maybe<YouTubeChannel> getChannelInfo(@NonNull Context context,
                                                        @NonNull String channelId,
                                                        boolean staleAcceptable) {
-        return Maybe.fromCallable(() -> {
-            final SubscriptionsDb db = SubscriptionsDb.getSubscriptionsDb();
-            YouTubeChannel channel = db.getCachedChannel(channelId);
-            final boolean needsRefresh;
-            if (channel == null || TextUtils.isEmpty(channel.getTitle())) {
-                needsRefresh = true;
-            } else if (staleAcceptable) {
-                needsRefresh = false;
-            } else {
-                needsRefresh = channel.getLastCheckTime() < System.currentTimeMillis() - (24 * 60 * 60 * 1000L);
-            }
-            if (needsRefresh && SkyTubeApp.isConnected(context)) {
-                channel = NewPipeService.get().getChannelDetails(channelId);
-                db.cacheChannel(channel);
-            }
-            if (channel != null) {
-                channel.setUserSubscribed(db.isUserSubscribedToChannel(channelId));
-            }
-            return channel;
-        })
+        return loadChannelInfo(context, channelId, staleAcceptable)
                 .observeOn(AndroidSchedulers.mainThread())
                 .doOnError(throwable -> {
                     Log.e(TAG, "Error: " + throwable.getMessage(), throwable);
@@ -101,18 +92,63 @@ public class DatabaseTasks {
                 .subscribeOn(Schedulers.io());
     }
 
+    private static Maybe<YouTubeChannel> loadChannelInfo(@NonNull Context context,
+                                                         @NonNull String channelId,
+                                                         boolean staleAcceptable) {
+        return Maybe.fromCallable(() -> {
+            final SubscriptionsDb db = SubscriptionsDb.getSubscriptionsDb();
+            YouTubeChannel channel = db.getCachedChannel(channelId);
+            final boolean missing = channel == null || TextUtils.isEmpty(channel.getTitle());
+            final boolean stale = !missing && !staleAcceptable
+                    && channel.getLastCheckTime() < System.currentTimeMillis() - (24 * 60 * 60 * 1000L);
+            if (SkyTubeApp.isConnected(context)) {
+                if (missing) {
+                    channel = ChannelPageLoader.get().load(channelId).blockingGet().getChannel();
+                } else if (stale) {
+                    ChannelPageLoader.get().load(channelId)
+                            .subscribe(page -> {}, error -> Log.e(TAG, "Unable to refresh " + channelId, error));
+                }
+            }
+            if (channel != null) {
+                channel.setUserSubscribed(db.isUserSubscribedToChannel(channelId));
+            }
+            return channel;
+        });
+    }
+
     /**
      * Gets a flow of channels (from the DB) that the user is subscribed to and then
-     * tries to refresh it from the network.
+     * tries to refresh it from the network - at most {@link #CHANNEL_INFO_CONCURRENCY} at a time.
      */
     public static Flowable<YouTubeChannel> getLoadChannelInfo(@NonNull Context context, List<String> channelIds) {
+        return getLoadChannelInfo(context, channelIds, CHANNEL_INFO_CONCURRENCY);
+    }
+
+    /**
+     * Gets a flow of channels (from the DB) that the user is subscribed to and then
+     * tries to refresh it from the network.
+     *
+     * <p>Each channel is loaded once, even if it's listed multiple times, and the extractions in
+     * progress are shared with the other callers by {@link ChannelPageLoader}.  The downloaded
+     * channels are saved through {@link DatabaseRuntime}, which commits the queued writes together.
+     * The channels which can't be loaded are skipped, without a toast for each.</p>
+     *
+     * @param maxConcurrency The maximum number of the channels loaded at the same time - as each can
+     *                       be an extraction with several requests.
+     */
+    private static Flowable<YouTubeChannel> getLoadChannelInfo(@NonNull Context context, List<String> channelIds,
+                                                               int maxConcurrency) {
         // TODO, add bookmark and downloaded videos channel id too...
-        return Flowable.fromIterable(channelIds)
-                .flatMapMaybe(channelId -> getChannelInfo(context, channelId, true))
+        final Set<String> uniqueChannelIds = new LinkedHashSet<>(channelIds);
+        return Flowable.fromIterable(uniqueChannelIds)
+                .flatMapMaybe(channelId -> loadChannelInfo(context, channelId, true)
+                        .subscribeOn(Schedulers.io())
+                        .doOnError(throwable -> Log.e(TAG, "Unable to load channel " + channelId + ": " + throwable.getMessage(), throwable))
+                        .onErrorComplete(),
+                        false, Math.max(1, maxConcurrency))
                 // This shouldn't be null, but could happen in rare scenarios where the app is offline
                 // and the info was not previously saved
                 .filter(Objects::nonNull)
-                .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .doOnError(throwable -> Log.e(TAG, "An error has occurred while refreshing channels", throwable));
     }
@@ -128,7 +164,7 @@ public class DatabaseTasks {
         // filter out for any whitelisted/blacklisted channels
         return Single.fromCallable(() -> new VideoBlocker().filterChannels(SubscriptionsDb.getSubscriptionsDb()
                 .getSubscribedChannelsByText(searchText, sortChannelsAlphabetically)))
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(DatabaseRuntime.get().reads())
                 .observeOn(AndroidSchedulers.mainThread())
                 .doOnSuccess(list -> {
                     if (progressBar != null) {
@@ -144,7 +180,7 @@ public class DatabaseTasks {
      */
     public static Disposable isVideoBookmarked(@NonNull String videoId, @NonNull Menu menu) {
         return Single.fromCallable(() -> BookmarksDb.getBookmarksDb().isBookmarked(videoId))
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(DatabaseRuntime.get().reads())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(videoIsBookmarked -> {
                     // if this video has been bookmarked, hide the bookmark option and show the unbookmark option.
@@ -158,7 +194,7 @@ public class DatabaseTasks {
      */
     public static Disposable isVideoWatched(@NonNull String videoId, @NonNull Menu menu) {
         return Single.fromCallable(() -> PlaybackStatusDb.getPlaybackStatusDb().getVideoWatchedStatus(videoId).isFullyWatched())
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(DatabaseRuntime.get().reads())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(videoIsWatched -> {
                     // if this video has been watched, hide the set watched option and show the set unwatched option.
@@ -181,14 +217,14 @@ public class DatabaseTasks {
                                                             @NonNull Context context,
                                                             @NonNull YouTubeChannel channel,
                                                             boolean displayToastMessage) {
-        return Single.fromCallable(() -> {
+        final SubscriptionsDb subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
+        return DatabaseRuntime.get().write(subscriptionsDb, subscribeToChannel ? "subscribe" : "unsubscribe", () -> {
             if (subscribeToChannel) {
-                return SubscriptionsDb.getSubscriptionsDb().subscribe(channel);
+                return subscriptionsDb.subscribe(channel);
             } else {
-                return SubscriptionsDb.getSubscriptionsDb().unsubscribe(channel.getId());
+                return subscriptionsDb.unsubscribe(channel.getId());
             }
         })
-                .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .doOnSuccess(databaseResult -> {
                     if (databaseResult == DatabaseResult.SUCCESS) {
@@ -238,9 +274,43 @@ public class DatabaseTasks {
      * A task that unsubscribes the user from all the channels at once.
      */
     public static Disposable unsubscribeFromAllChannels() {
-        return Completable.fromAction(() -> SubscriptionsDb.getSubscriptionsDb().unsubscribeFromAllChannels())
-                .subscribeOn(Schedulers.io())
+        final SubscriptionsDb subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
+        return DatabaseRuntime.get().write(subscriptionsDb, "unsubscribe from all", subscriptionsDb::unsubscribeFromAllChannels)
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe();
     }
+
+    /**
+     * A task that stores the new position of a video, after it was drag & dropped.
+     *
+     * @return The new order number of the video, emitted on the main thread - or empty, if the
+     * video couldn't be moved.
+     */
+    public static Maybe<Integer> moveItem(@NonNull OrderableDatabase database, @NonNull CardData video, @Nullable CardData previous) {
+        return Maybe.fromCallable(() -> database.moveItem(video, previous))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doOnError(error -> Logger.e(DatabaseTasks.class, "Unable to move " + video + ": " + error.getMessage(), error))
+                .onErrorComplete();
+    }
+
+    /**
+     * A task that converts the videos, stored in the older serialization format, into the current
+     * {@link YouTubeVideoCodec} format.  It runs only once, after an upgrade.
+     */
+    public static Completable migrateVideoBlobs() {
+        final Settings settings = SkyTubeApp.getSettings();
+        if (settings.getVideoBlobFormatVersion() >= YouTubeVideoCodec.VERSION) {
+            return Completable.complete();
+        }
+        return Completable.fromAction(() -> {
+                    final long start = System.currentTimeMillis();
+                    final int converted = BookmarksDb.getBookmarksDb().migrateVideoBlobs()
+                            + DownloadedVideosDb.getVideoDownloadsDb().migrateVideoBlobs()
+                            + SubscriptionsDb.getSubscriptionsDb().migrateVideoBlobs();
+                    settings.setVideoBlobFormatVersion(YouTubeVideoCodec.VERSION);
+                    Logger.i(DatabaseTasks.class, "Converted %s videos in %s ms", converted, System.currentTimeMillis() - start);
+                })
+                .subscribeOn(Schedulers.io());
+    }
 }
@@ -0,0 +1,36 @@
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The byte ranges of the queued downloads, and how far each of them got - so interrupted downloads
+ * can be resumed.
+ */
+public class DownloadChunksTable {
+	public static final String TABLE_NAME = "DownloadChunks";
+	public static final String COL_YOUTUBE_VIDEO_ID = "YouTube_Video_Id";
+	public static final String COL_TRACK = "Track";
+	public static final String COL_CHUNK_INDEX = "Chunk_Index";
+	public static final String COL_START = "Start_Pos";
+	public static final String COL_END = "End_Pos";
+	public static final String COL_POSITION = "Position";
+
+	public static final String[] ALL_COLUMNS = new String[]{
+			COL_CHUNK_INDEX,
+			COL_START,
+			COL_END,
+			COL_POSITION};
+
+	static final String WHERE_TRACK = COL_YOUTUBE_VIDEO_ID + " = ? AND " + COL_TRACK + " = ?";
+	static final String WHERE_CHUNK = WHERE_TRACK + " AND " + COL_CHUNK_INDEX + " = ?";
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_YOUTUBE_VIDEO_ID + " TEXT NOT NULL, " +
+						COL_TRACK + " INTEGER NOT NULL, " +
+						COL_CHUNK_INDEX + " INTEGER NOT NULL, " +
+						COL_START + " INTEGER NOT NULL, " +
+						COL_END + " INTEGER NOT NULL, " +
+						COL_POSITION + " INTEGER NOT NULL, " +
+						"PRIMARY KEY (" + COL_YOUTUBE_VIDEO_ID + ", " + COL_TRACK + ", " + COL_CHUNK_INDEX + ")" +
+						" )";
+	}
+}
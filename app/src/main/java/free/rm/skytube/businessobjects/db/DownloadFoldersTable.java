@@ -0,0 +1,20 @@
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The folders containing downloaded videos, with their modification time when they were last
+ * checked - a folder whose modification time hasn't changed doesn't need to be checked again.
+ */
+public class DownloadFoldersTable {
+	public static final String TABLE_NAME = "DownloadFolders";
+	public static final String COL_FOLDER = "Folder";
+	public static final String COL_MODIFIED = "Modified";
+
+	static final String[] ALL_COLUMNS = {COL_FOLDER, COL_MODIFIED};
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_FOLDER + " TEXT PRIMARY KEY NOT NULL, " +
+						COL_MODIFIED + " INTEGER NOT NULL" +
+						" )";
+	}
+}
@@ -0,0 +1,56 @@
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * Queue of the videos which are being downloaded, or waiting for it.
+ */
+public class DownloadQueueTable {
+	public static final String TABLE_NAME = "DownloadQueue";
+	public static final String COL_YOUTUBE_VIDEO_ID = "YouTube_Video_Id";
+	public static final String COL_YOUTUBE_VIDEO = "YouTube_Video";
+	public static final String COL_STATUS = "Status";
+	public static final String COL_PRIORITY = "Priority";
+	public static final String COL_VIDEO_URL = "Video_Url";
+	public static final String COL_AUDIO_URL = "Audio_Url";
+	public static final String COL_VIDEO_FILE = "Video_File";
+	public static final String COL_AUDIO_FILE = "Audio_File";
+	public static final String COL_TOTAL_BYTES = "Total_Bytes";
+	public static final String COL_DOWNLOADED_BYTES = "Downloaded_Bytes";
+	public static final String COL_RETRY_COUNT = "Retry_Count";
+	public static final String COL_ERROR = "Error";
+	public static final String COL_CREATED_TS = "Created_TS";
+
+	public static final String[] ALL_COLUMNS = new String[]{
+			COL_YOUTUBE_VIDEO_ID,
+			COL_YOUTUBE_VIDEO,
+			COL_STATUS,
+			COL_PRIORITY,
+			COL_VIDEO_URL,
+			COL_AUDIO_URL,
+			COL_VIDEO_FILE,
+			COL_AUDIO_FILE,
+			COL_TOTAL_BYTES,
+			COL_DOWNLOADED_BYTES,
+			COL_RETRY_COUNT,
+			COL_ERROR};
+
+	/** Highest priority first, then in the order of the requests */
+	static final String QUEUE_ORDER = COL_PRIORITY + " DESC, " + COL_CREATED_TS + " ASC";
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+						COL_YOUTUBE_VIDEO_ID + " TEXT PRIMARY KEY NOT NULL, " +
+						COL_YOUTUBE_VIDEO + " BLOB, " +
+						COL_STATUS + " TEXT NOT NULL, " +
+						COL_PRIORITY + " INTEGER DEFAULT 0, " +
+						COL_VIDEO_URL + " TEXT, " +
+						COL_AUDIO_URL + " TEXT, " +
+						COL_VIDEO_FILE + " TEXT, " +
+						COL_AUDIO_FILE + " TEXT, " +
+						COL_TOTAL_BYTES + " INTEGER DEFAULT -1, " +
+						COL_DOWNLOADED_BYTES + " INTEGER DEFAULT 0, " +
+						COL_RETRY_COUNT + " INTEGER DEFAULT 0, " +
+						COL_ERROR + " TEXT, " +
+						COL_CREATED_TS + " INTEGER " +
+						" )";
+	}
+}
@@ -9,17 +9,15 @@ import android.util.Log;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-
-import com.google.gson.Gson;
-
-import org.json.JSONException;
-import org.json.JSONObject;
+import androidx.core.util.Pair;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import free.rm.skytube.R;
@@ -27,11 +25,11 @@ import free.rm.skytube.app.Settings;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.AsyncTaskParallel;
 import free.rm.skytube.businessobjects.Logger;
-import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
-import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
 import free.rm.skytube.businessobjects.YouTube.newpipe.VideoId;
-import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
+import free.rm.skytube.businessobjects.download.DownloadChunk;
+import free.rm.skytube.businessobjects.download.QueuedDownload;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
@@ -40,7 +38,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 /**
  * A database (DB) that stores user's downloaded videos.
  */
-public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableDatabase {
+public class DownloadedVideosDb extends OrderableVideosDb {
 	private final static String TAG = "DownloadedVideosDb";
 
 	public static class Status {
@@ -121,10 +119,14 @@ public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableD
 	private static volatile DownloadedVideosDb downloadsDb = null;
 	private static boolean hasUpdated = false;
 
-	private static final int DATABASE_VERSION = 2;
+	private static final int DATABASE_VERSION = 6;
+	/** Folders modified in the last few seconds are checked again next time, as the timestamp might not catch all the changes */
+	private static final long FOLDER_MODIFICATION_GRACE_MS = 5 * 1000;
 	private static final String DATABASE_NAME = "videodownloads.db";
 
 	private final Set<DownloadedVideosListener> listeners = new HashSet<>();
+	private final VideoSearchIndex searchIndex = new VideoSearchIndex(DownloadedVideosTable.TABLE_NAME,
+			DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, DownloadedVideosTable.COL_YOUTUBE_VIDEO);
 
 	public static synchronized DownloadedVideosDb getVideoDownloadsDb() {
 		if (downloadsDb == null) {
@@ -135,7 +137,8 @@ public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableD
 	}
 
 	private DownloadedVideosDb(Context context) {
-		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		super(context, DATABASE_NAME, DATABASE_VERSION, DownloadedVideosTable.TABLE_NAME,
+				DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, DownloadedVideosTable.COL_YOUTUBE_VIDEO, DownloadedVideosTable.COL_ORDER);
 	}
 
 	@Override
@@ -146,6 +149,10 @@ public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableD
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		db.execSQL(DownloadedVideosTable.getCreateStatement());
+		db.execSQL(DownloadQueueTable.getCreateStatement());
+		db.execSQL(DownloadChunksTable.getCreateStatement());
+		db.execSQL(DownloadFoldersTable.getCreateStatement());
+		searchIndex.create(db);
 	}
 
 	@Override
@@ -153,83 +160,255 @@ public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableD
 		if(oldVersion == 1 && newVersion >= 2) {
 			db.execSQL(DownloadedVideosTable.getAddAudioUriColumn());
 		}
-
+		if (oldVersion <= 2 && newVersion >= 3) {
+			db.execSQL(DownloadQueueTable.getCreateStatement());
+			db.execSQL(DownloadChunksTable.getCreateStatement());
+		}
+		if (oldVersion <= 3 && newVersion >= 4) {
+			for (String statement : DownloadedVideosTable.getAddFileStatColumns()) {
+				db.execSQL(statement);
+			}
+			db.execSQL(DownloadFoldersTable.getCreateStatement());
+		}
+		if (oldVersion <= 4 && newVersion >= 5) {
+			spreadOrderNumbers(db);
+		}
+		if (oldVersion <= 5 && newVersion >= 6) {
+			searchIndex.create(db);
+		}
 	}
 
 	/**
-	 * Get the list of Videos that have been downloaded.
+	 * Get a page of the Videos that have been downloaded, in descending order.
 	 *
-	 * @return List of Videos
+	 * @param limit The maximum number of videos to return.
+	 * @param maxOrderLimit Only the videos with lower order number are returned, or null for the first page.
+	 * @return List of Videos, and the lowest order number among them.
 	 */
-	public List<YouTubeVideo> getDownloadedVideos() {
-		SkyTubeApp.nonUiThread();
-		return getDownloadedVideos(DownloadedVideosTable.COL_ORDER + " DESC");
+	public @NonNull Pair<List<YouTubeVideo>, Integer> getDownloadedVideos(int limit, Integer maxOrderLimit) {
+		return getVideoPage(limit, maxOrderLimit);
 	}
 
 	/**
-	 * Get the list of Videos that have been downloaded in the given order.
-	 *
-	 * @return List of Videos
+	 * Search the downloaded videos by their title, description or channel name.
 	 */
-	private List<YouTubeVideo> getDownloadedVideos(String ordering) {
-		Cursor	cursor = getReadableDatabase().query(
-						DownloadedVideosTable.TABLE_NAME,
-						new String[]{DownloadedVideosTable.COL_YOUTUBE_VIDEO, DownloadedVideosTable.COL_FILE_URI},
-						null,
-						null, null, null, ordering);
-		List<YouTubeVideo> videos = new ArrayList<>();
-
-		Gson gson = new Gson();
-		if(cursor.moveToNext()) {
-			do {
-				final byte[] blob = cursor.getBlob(cursor.getColumnIndex(DownloadedVideosTable.COL_YOUTUBE_VIDEO));
-				final String videoJson = new String(blob);
-
-				// convert JSON into YouTubeVideo
-				YouTubeVideo video = gson.fromJson(videoJson, YouTubeVideo.class).updatePublishTimestampFromDate();
-
-				// due to upgrade to YouTubeVideo (by changing channel{Id,Name} to YouTubeChannel)
-				// from version 2.82 to 2.90
-				if (video.getChannel() == null) {
-					try {
-						JSONObject videoJsonObj = new JSONObject(videoJson);
-						final String channelId   = videoJsonObj.get("channelId").toString();
-						final String channelName = videoJsonObj.get("channelName").toString();
-						video.setChannel(new YouTubeChannel(channelId, channelName));
-					} catch (JSONException e) {
-						Logger.e(this, "Error occurred while extracting channel{Id,Name} from JSON", e);
-					}
-				}
-				video.forceRefreshPublishDatePretty();
-				videos.add(video);
-			} while(cursor.moveToNext());
-		}
-		cursor.close();
+	public @NonNull List<YouTubeVideo> searchVideos(String query, int limit) {
+		SkyTubeApp.nonUiThread();
+		return searchIndex.search(getReadableDatabase(), query, DownloadedVideosTable.COL_ORDER + " DESC", limit);
+	}
 
-		return videos;
+	/**
+	 * Convert the downloaded and the queued videos, stored in the legacy JSON format, into the
+	 * binary format.
+	 */
+	public int migrateVideoBlobs() {
+		return migrateVideoBlobs(DownloadedVideosTable.TABLE_NAME, DownloadedVideosTable.COL_YOUTUBE_VIDEO)
+				+ migrateVideoBlobs(DownloadQueueTable.TABLE_NAME, DownloadQueueTable.COL_YOUTUBE_VIDEO);
 	}
 
 	public boolean add(YouTubeVideo video, Uri fileUri, Uri audioUri) {
-		Gson gson = new Gson();
 		ContentValues values = new ContentValues();
 		values.put(DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, video.getId());
-		values.put(DownloadedVideosTable.COL_YOUTUBE_VIDEO, gson.toJson(video).getBytes());
+		values.put(DownloadedVideosTable.COL_YOUTUBE_VIDEO, YouTubeVideoCodec.encode(video));
 		if (fileUri != null) {
 			values.put(DownloadedVideosTable.COL_FILE_URI, fileUri.toString());
 		}
 		if (audioUri != null) {
 			values.put(DownloadedVideosTable.COL_AUDIO_FILE_URI, audioUri.toString());
 		}
+		if (fileUri != null && fileUri.getPath() != null) {
+			putFileStat(values, new File(fileUri.getPath()));
+		}
 
-		int order = getMaximumOrderNumber();
-		order++;
-		values.put(DownloadedVideosTable.COL_ORDER, order);
+		values.put(DownloadedVideosTable.COL_ORDER, getNextOrderNumber());
 
-		boolean addSuccessful = getWritableDatabase().replace(DownloadedVideosTable.TABLE_NAME, null, values) != -1;
+		final SQLiteDatabase db = getWritableDatabase();
+		// the replaced row gets a new rowid, without firing the delete trigger
+		searchIndex.remove(db, video.getId());
+		boolean addSuccessful = db.replace(DownloadedVideosTable.TABLE_NAME, null, values) != -1;
+		if (addSuccessful) {
+			searchIndex.update(db, video);
+		}
 		onUpdated();
 		return addSuccessful;
 	}
 
+	/**
+	 * Add the downloaded video, and remove it from the download queue - in one transaction.
+	 */
+	public boolean completeDownload(YouTubeVideo video, Uri fileUri, Uri audioUri) {
+		SQLiteDatabase db = getWritableDatabase();
+		boolean addSuccessful;
+		db.beginTransaction();
+		try {
+			addSuccessful = add(video, fileUri, audioUri);
+			if (addSuccessful) {
+				removeQueuedDownload(db, video.getId());
+				db.setTransactionSuccessful();
+			}
+		} finally {
+			db.endTransaction();
+		}
+		return addSuccessful;
+	}
+
+	/**
+	 * Put the video into the download queue.
+	 *
+	 * @return true, if it's added; false if it's already in the queue.
+	 */
+	public boolean enqueueDownload(QueuedDownload download) {
+		SkyTubeApp.nonUiThread();
+		ContentValues values = createQueueValues(download);
+		values.put(DownloadQueueTable.COL_YOUTUBE_VIDEO_ID, download.getVideoId());
+		values.put(DownloadQueueTable.COL_YOUTUBE_VIDEO, YouTubeVideoCodec.encode(download.getVideo()));
+		values.put(DownloadQueueTable.COL_PRIORITY, download.getPriority());
+		values.put(DownloadQueueTable.COL_VIDEO_FILE, download.getVideoFile().getAbsolutePath());
+		if (download.getAudioFile() != null) {
+			values.put(DownloadQueueTable.COL_AUDIO_FILE, download.getAudioFile().getAbsolutePath());
+		}
+		values.put(DownloadQueueTable.COL_CREATED_TS, System.currentTimeMillis());
+		return getWritableDatabase().insertWithOnConflict(DownloadQueueTable.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE) != -1;
+	}
+
+	/**
+	 * Store the status, the stream URLs and the progress of the queued download.
+	 */
+	public void updateQueuedDownload(QueuedDownload download) {
+		getWritableDatabase().update(DownloadQueueTable.TABLE_NAME, createQueueValues(download),
+				DownloadQueueTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{download.getVideoId()});
+	}
+
+	private ContentValues createQueueValues(QueuedDownload download) {
+		ContentValues values = new ContentValues();
+		values.put(DownloadQueueTable.COL_STATUS, download.getStatus().name());
+		values.put(DownloadQueueTable.COL_VIDEO_URL, download.getVideoUrl());
+		values.put(DownloadQueueTable.COL_AUDIO_URL, download.getAudioUrl());
+		values.put(DownloadQueueTable.COL_TOTAL_BYTES, download.getTotalBytes());
+		values.put(DownloadQueueTable.COL_DOWNLOADED_BYTES, download.getDownloadedBytes());
+		values.put(DownloadQueueTable.COL_RETRY_COUNT, download.getRetryCount());
+		values.put(DownloadQueueTable.COL_ERROR, download.getError());
+		return values;
+	}
+
+	/**
+	 * Downloads which were running when the app was stopped are queued again.
+	 */
+	public void requeueRunningDownloads() {
+		ContentValues values = new ContentValues();
+		values.put(DownloadQueueTable.COL_STATUS, QueuedDownload.Status.QUEUED.name());
+		getWritableDatabase().update(DownloadQueueTable.TABLE_NAME, values,
+				DownloadQueueTable.COL_STATUS + " = ?", new String[]{QueuedDownload.Status.RUNNING.name()});
+	}
+
+	/**
+	 * @return All the queued downloads, in the order they should be started.
+	 */
+	public List<QueuedDownload> getQueuedDownloads() {
+		return getQueuedDownloads(null, null);
+	}
+
+	/**
+	 * @return The queued download of the video, or null.
+	 */
+	public QueuedDownload getQueuedDownload(String videoId) {
+		List<QueuedDownload> result = getQueuedDownloads(DownloadQueueTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{videoId});
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	private List<QueuedDownload> getQueuedDownloads(String selection, String[] selectionArgs) {
+		SkyTubeApp.nonUiThread();
+		List<QueuedDownload> result = new ArrayList<>();
+		try (Cursor cursor = getReadableDatabase().query(DownloadQueueTable.TABLE_NAME,
+				DownloadQueueTable.ALL_COLUMNS, selection, selectionArgs, null, null, DownloadQueueTable.QUEUE_ORDER)) {
+			while (cursor.moveToNext()) {
+				final YouTubeVideo video = YouTubeVideoCodec.decode(cursor.getBlob(1));
+				final String audioFile = cursor.getString(7);
+				result.add(new QueuedDownload(video,
+						QueuedDownload.Status.valueOf(cursor.getString(2)),
+						cursor.getInt(3),
+						cursor.getString(4),
+						cursor.getString(5),
+						new File(cursor.getString(6)),
+						audioFile != null ? new File(audioFile) : null,
+						cursor.getLong(8),
+						cursor.getLong(9),
+						cursor.getInt(10),
+						cursor.getString(11)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the video from the download queue, with the progress of its chunks.
+	 */
+	public void removeQueuedDownload(String videoId) {
+		SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			removeQueuedDownload(db, videoId);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	private void removeQueuedDownload(SQLiteDatabase db, String videoId) {
+		db.delete(DownloadChunksTable.TABLE_NAME, DownloadChunksTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{videoId});
+		db.delete(DownloadQueueTable.TABLE_NAME, DownloadQueueTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{videoId});
+	}
+
+	/**
+	 * @return The chunks of the given track of the queued download, or an empty list, if the
+	 * download of the track is not yet started.
+	 */
+	public List<DownloadChunk> getDownloadChunks(String videoId, int track) {
+		List<DownloadChunk> result = new ArrayList<>();
+		try (Cursor cursor = getReadableDatabase().query(DownloadChunksTable.TABLE_NAME,
+				DownloadChunksTable.ALL_COLUMNS, DownloadChunksTable.WHERE_TRACK,
+				new String[]{videoId, String.valueOf(track)}, null, null, DownloadChunksTable.COL_CHUNK_INDEX)) {
+			while (cursor.moveToNext()) {
+				result.add(new DownloadChunk(cursor.getInt(0), cursor.getLong(1), cursor.getLong(2), cursor.getLong(3)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replace the chunks of the given track.
+	 */
+	public void setDownloadChunks(String videoId, int track, List<DownloadChunk> chunks) {
+		SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			db.delete(DownloadChunksTable.TABLE_NAME, DownloadChunksTable.WHERE_TRACK, new String[]{videoId, String.valueOf(track)});
+			for (DownloadChunk chunk : chunks) {
+				ContentValues values = new ContentValues();
+				values.put(DownloadChunksTable.COL_YOUTUBE_VIDEO_ID, videoId);
+				values.put(DownloadChunksTable.COL_TRACK, track);
+				values.put(DownloadChunksTable.COL_CHUNK_INDEX, chunk.getIndex());
+				values.put(DownloadChunksTable.COL_START, chunk.getStart());
+				values.put(DownloadChunksTable.COL_END, chunk.getEnd());
+				values.put(DownloadChunksTable.COL_POSITION, chunk.getPosition());
+				db.insert(DownloadChunksTable.TABLE_NAME, null, values);
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Store how far the download of the chunk got.
+	 */
+	public void updateDownloadChunk(String videoId, int track, DownloadChunk chunk) {
+		ContentValues values = new ContentValues();
+		values.put(DownloadChunksTable.COL_POSITION, chunk.getPosition());
+		getWritableDatabase().update(DownloadChunksTable.TABLE_NAME, values, DownloadChunksTable.WHERE_CHUNK,
+				new String[]{videoId, String.valueOf(track), String.valueOf(chunk.getIndex())});
+	}
+
 	/**
 	 * Remove the filenames of the downloaded video from the database
 	 * @param videoId
@@ -454,45 +633,126 @@ public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableD
 		this.listeners.remove(listener);
 	}
 
-	/**
-	 * When a Video in the Downloads tab is drag & dropped to a new position, this will be
-	 * called with the new updated list of videos. Since the videos are displayed in descending order,
-	 * the first video in the list will have the highest number.
-	 *
-	 * @param videos List of Videos to update their order.
-	 */
-	@Override
-	public void updateOrder(List<CardData> videos) {
-		int order = videos.size();
+	public static boolean isHasUpdated() {
+		return hasUpdated;
+	}
 
-		for(CardData video : videos) {
-			ContentValues cv = new ContentValues();
-			cv.put(DownloadedVideosTable.COL_ORDER, order--);
-			getWritableDatabase().update(DownloadedVideosTable.TABLE_NAME, cv, DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{video.getId()});
-		}
+	public static void setHasUpdated(boolean hasUpdated) {
+		DownloadedVideosDb.hasUpdated = hasUpdated;
 	}
 
 	/**
-	 * @return The maximum of the order number - which could be different from the number of downloaded files, in case some of them are deleted.
+	 * Remove the videos whose local files have gone missing.
+	 *
+	 * Only the folders, which were modified since the last check are scanned:  as deleting or
+	 * replacing a file changes the modification time of its folder, the files in an unchanged folder
+	 * don't need to be checked one by one.  All the changes are written in one transaction.
+	 *
+	 * @return The number of removed videos.
 	 */
-	public int getMaximumOrderNumber() {
-		Cursor	cursor = getReadableDatabase().rawQuery(DownloadedVideosTable.MAXIMUM_ORDER_QUERY, null);
-		int		totalDownloads = 0;
+	public int removeMissingVideos() {
+		SkyTubeApp.nonUiThread();
+		final Map<String, List<DownloadedFile>> filesByFolder = new HashMap<>();
+		final SQLiteDatabase db = getWritableDatabase();
+		try (Cursor cursor = db.query(DownloadedVideosTable.TABLE_NAME, DownloadedVideosTable.FILE_COLUMNS,
+				null, null, null, null, null)) {
+			while (cursor.moveToNext()) {
+				final String fileUri = cursor.getString(1);
+				final Uri uri = fileUri != null ? Uri.parse(fileUri) : null;
+				if (uri == null || uri.getPath() == null) {
+					continue;
+				}
+				final DownloadedFile file = new DownloadedFile(cursor.getString(0), new File(uri.getPath()),
+						getUri(cursor, 2), cursor.isNull(3) ? -1 : cursor.getLong(3), cursor.isNull(4) ? -1 : cursor.getLong(4));
+				final File folder = file.file.getParentFile();
+				final String folderPath = folder != null ? folder.getAbsolutePath() : "";
+				List<DownloadedFile> files = filesByFolder.get(folderPath);
+				if (files == null) {
+					files = new ArrayList<>();
+					filesByFolder.put(folderPath, files);
+				}
+				files.add(file);
+			}
+		}
 
-		if (cursor.moveToFirst()) {
-			totalDownloads = cursor.getInt(0);
+		final Map<String, Long> checkedFolders = getCheckedFolders(db);
+		final long now = System.currentTimeMillis();
+		int removed = 0;
+		int checked = 0;
+		db.beginTransaction();
+		try {
+			db.delete(DownloadFoldersTable.TABLE_NAME, null, null);
+			for (Map.Entry<String, List<DownloadedFile>> entry : filesByFolder.entrySet()) {
+				final File folder = new File(entry.getKey());
+				final long modified = folder.lastModified();
+				final Long lastChecked = checkedFolders.get(entry.getKey());
+				if (modified == 0 || lastChecked == null || lastChecked != modified) {
+					checked += entry.getValue().size();
+					for (DownloadedFile file : entry.getValue()) {
+						if (!file.exists()) {
+							db.delete(DownloadedVideosTable.TABLE_NAME, DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{file.videoId});
+							removed++;
+						} else if (file.file.length() != file.size || file.file.lastModified() != file.modified) {
+							ContentValues values = new ContentValues();
+							putFileStat(values, file.file);
+							db.update(DownloadedVideosTable.TABLE_NAME, values, DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?", new String[]{file.videoId});
+						}
+					}
+				}
+				if (modified != 0 && now - modified > FOLDER_MODIFICATION_GRACE_MS) {
+					ContentValues values = new ContentValues();
+					values.put(DownloadFoldersTable.COL_FOLDER, entry.getKey());
+					values.put(DownloadFoldersTable.COL_MODIFIED, modified);
+					db.insert(DownloadFoldersTable.TABLE_NAME, null, values);
+				}
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		Logger.i(this, "Checked %s downloaded files in %s folders, removed %s", checked, filesByFolder.size(), removed);
+		if (removed > 0) {
+			onUpdated();
 		}
+		return removed;
+	}
 
-		cursor.close();
-		return totalDownloads;
+	private Map<String, Long> getCheckedFolders(SQLiteDatabase db) {
+		final Map<String, Long> result = new HashMap<>();
+		try (Cursor cursor = db.query(DownloadFoldersTable.TABLE_NAME, DownloadFoldersTable.ALL_COLUMNS, null, null, null, null, null)) {
+			while (cursor.moveToNext()) {
+				result.put(cursor.getString(0), cursor.getLong(1));
+			}
+		}
+		return result;
 	}
 
-	public static boolean isHasUpdated() {
-		return hasUpdated;
+	private static void putFileStat(ContentValues values, File file) {
+		values.put(DownloadedVideosTable.COL_FILE_SIZE, file.length());
+		values.put(DownloadedVideosTable.COL_FILE_MODIFIED, file.lastModified());
 	}
 
-	public static void setHasUpdated(boolean hasUpdated) {
-		DownloadedVideosDb.hasUpdated = hasUpdated;
+	/**
+	 * The local files of a downloaded video, with the stored size and modification time.
+	 */
+	private static class DownloadedFile {
+		final String videoId;
+		final File file;
+		final Uri audioUri;
+		final long size;
+		final long modified;
+
+		DownloadedFile(String videoId, File file, Uri audioUri, long size, long modified) {
+			this.videoId = videoId;
+			this.file = file;
+			this.audioUri = audioUri;
+			this.size = size;
+			this.modified = modified;
+		}
+
+		boolean exists() {
+			return file.exists() && (audioUri == null || audioUri.getPath() == null || new File(audioUri.getPath()).exists());
+		}
 	}
 
 	/**
@@ -501,23 +761,7 @@ public class DownloadedVideosDb extends SQLiteOpenHelperEx implements OrderableD
 	public static class RemoveMissingVideosTask extends AsyncTaskParallel<Void, Void, Void> {
 		@Override
 		protected Void doInBackground(Void... voids) {
-			Cursor	cursor = getVideoDownloadsDb().getReadableDatabase().query(
-							DownloadedVideosTable.TABLE_NAME,
-							new String[]{DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID, DownloadedVideosTable.COL_FILE_URI},
-							null,
-							null, null, null, null);
-
-			if(cursor.moveToNext()) {
-				do {
-					String videoId = cursor.getString(cursor.getColumnIndex(DownloadedVideosTable.COL_YOUTUBE_VIDEO_ID));
-					Uri uri = Uri.parse(cursor.getString(cursor.getColumnIndex(DownloadedVideosTable.COL_FILE_URI)));
-					File file = new File(uri.getPath());
-					if(!file.exists()) {
-						getVideoDownloadsDb().remove(videoId);
-					}
-				} while(cursor.moveToNext());
-			}
-			cursor.close();
+			getVideoDownloadsDb().removeMissingVideos();
 			return null;
 		}
 	}
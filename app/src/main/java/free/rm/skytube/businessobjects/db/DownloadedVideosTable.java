@@ -10,9 +10,12 @@ public class DownloadedVideosTable {
 	public static final String COL_FILE_URI = "File_URI";
 	public static final String COL_AUDIO_FILE_URI = "Audio_URI";
 	public static final String COL_ORDER = "Order_Index";
+	/** Size of the video file, when it was last checked */
+	public static final String COL_FILE_SIZE = "File_Size";
+	/** Modification time of the video file, when it was last checked */
+	public static final String COL_FILE_MODIFIED = "File_Modified";
 
-	static final String MAXIMUM_ORDER_QUERY = String.format("SELECT MAX(%s) FROM %s", COL_ORDER, TABLE_NAME);
-	static final String PAGED_QUERY = String.format("SELECT %1$s,%2$s FROM %3$s WHERE %2$s > ? ORDER BY %2$s DESC LIMIT ?", COL_YOUTUBE_VIDEO, COL_ORDER, TABLE_NAME);
+	static final String[] FILE_COLUMNS = {COL_YOUTUBE_VIDEO_ID, COL_FILE_URI, COL_AUDIO_FILE_URI, COL_FILE_SIZE, COL_FILE_MODIFIED};
 
 	private static final String ADD_COLUMN = "ALTER TABLE " + TABLE_NAME + " ADD COLUMN ";
 
@@ -22,11 +25,20 @@ public class DownloadedVideosTable {
 						COL_YOUTUBE_VIDEO + " BLOB, " +
 						COL_FILE_URI + " TEXT, " +
 						COL_AUDIO_FILE_URI + " TEXT, " +
-						COL_ORDER + " INTEGER " +
+						COL_ORDER + " INTEGER, " +
+						COL_FILE_SIZE + " INTEGER, " +
+						COL_FILE_MODIFIED + " INTEGER " +
 						" )";
 	}
 
 	public static String getAddAudioUriColumn() {
 		return ADD_COLUMN + COL_AUDIO_FILE_URI + " TEXT";
 	}
+
+	public static String[] getAddFileStatColumns() {
+		return new String[] {
+				ADD_COLUMN + COL_FILE_SIZE + " INTEGER",
+				ADD_COLUMN + COL_FILE_MODIFIED + " INTEGER"
+		};
+	}
 }
@@ -0,0 +1,163 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
+
+/**
+ * A database (DB) that caches the first page of the regional feeds, so they can be displayed
+ * immediately, while they are refreshed.  It's only a cache:  it's not backed up, and it's dropped
+ * on upgrade.
+ */
+public class FeedCacheDb extends SQLiteOpenHelperEx {
+	private static final String GET_SNAPSHOT = String.format("SELECT %s,%s FROM %s WHERE %s = ? AND %s = ? ORDER BY %s",
+			FeedCacheTable.COL_VIDEO, FeedCacheTable.COL_RETRIEVAL_TS, FeedCacheTable.TABLE_NAME,
+			FeedCacheTable.COL_FEED, FeedCacheTable.COL_REGION, FeedCacheTable.COL_POSITION);
+	private static final String INSERT_VIDEO = String.format("INSERT INTO %s (%s,%s,%s,%s,%s) VALUES (?,?,?,?,?)",
+			FeedCacheTable.TABLE_NAME, FeedCacheTable.COL_FEED, FeedCacheTable.COL_REGION, FeedCacheTable.COL_POSITION,
+			FeedCacheTable.COL_VIDEO, FeedCacheTable.COL_RETRIEVAL_TS);
+	private static final String DELETE_SNAPSHOT = FeedCacheTable.COL_FEED + " = ? AND " + FeedCacheTable.COL_REGION + " = ?";
+
+	private static volatile FeedCacheDb feedCacheDb = null;
+
+	private static final int DATABASE_VERSION = 1;
+	private static final String DATABASE_NAME = "feedCache.db";
+
+	/**
+	 * The cached videos of a feed.
+	 */
+	public static class Snapshot {
+		private final List<CardData> videos;
+		private final long retrievalTimestamp;
+
+		Snapshot(List<CardData> videos, long retrievalTimestamp) {
+			this.videos = videos;
+			this.retrievalTimestamp = retrievalTimestamp;
+		}
+
+		public List<CardData> getVideos() {
+			return videos;
+		}
+
+		/**
+		 * @return True, if the videos were retrieved more than maxAge milliseconds ago.
+		 */
+		public boolean isOlderThan(long maxAge) {
+			return System.currentTimeMillis() - retrievalTimestamp > maxAge;
+		}
+	}
+
+	private FeedCacheDb(Context context) {
+		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+	}
+
+	public static synchronized FeedCacheDb getFeedCacheDb() {
+		if (feedCacheDb == null) {
+			feedCacheDb = new FeedCacheDb(SkyTubeApp.getContext());
+		}
+		return feedCacheDb;
+	}
+
+	@Override
+	protected void clearDatabaseInstance() {
+		feedCacheDb = null;
+	}
+
+	@Override
+	public void onCreate(SQLiteDatabase db) {
+		db.execSQL(FeedCacheTable.getCreateStatement());
+	}
+
+	@Override
+	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+		db.execSQL("DROP TABLE IF EXISTS " + FeedCacheTable.TABLE_NAME);
+		onCreate(db);
+	}
+
+	/**
+	 * @param feed The name of the feed.
+	 * @param region The region of the feed, or empty for the default region.
+	 * @return The cached videos of the feed, or null, if the feed is not cached.
+	 */
+	@Nullable
+	public Snapshot getSnapshot(String feed, String region) {
+		SkyTubeApp.nonUiThread();
+		final List<CardData> videos = new ArrayList<>();
+		long retrievalTimestamp = Long.MAX_VALUE;
+		try (Cursor cursor = getReadableDatabase().rawQuery(GET_SNAPSHOT, new String[]{feed, region})) {
+			while (cursor.moveToNext()) {
+				try {
+					videos.add(YouTubeVideoCodec.decode(cursor.getBlob(0)));
+					retrievalTimestamp = Math.min(retrievalTimestamp, cursor.getLong(1));
+				} catch (RuntimeException e) {
+					Logger.e(this, "Unable to read cached video of " + feed + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		return videos.isEmpty() ? null : new Snapshot(Collections.unmodifiableList(videos), retrievalTimestamp);
+	}
+
+	/**
+	 * Replace the cached videos of the feed - the playlists and channels are not cached.
+	 *
+	 * @return The number of the cached videos.
+	 */
+	public int saveSnapshot(String feed, String region, List<CardData> cards) {
+		SkyTubeApp.nonUiThread();
+		final long now = System.currentTimeMillis();
+		final SQLiteDatabase db = getWritableDatabase();
+		int position = 0;
+		db.beginTransaction();
+		try {
+			db.delete(FeedCacheTable.TABLE_NAME, DELETE_SNAPSHOT, new String[]{feed, region});
+			final SQLiteStatement insert = db.compileStatement(INSERT_VIDEO);
+			try {
+				for (CardData card : cards) {
+					if (card instanceof YouTubeVideo) {
+						insert.bindString(1, feed);
+						insert.bindString(2, region);
+						insert.bindLong(3, position++);
+						insert.bindBlob(4, YouTubeVideoCodec.encode((YouTubeVideo) card));
+						insert.bindLong(5, now);
+						insert.executeInsert();
+					}
+				}
+			} finally {
+				insert.close();
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		return position;
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+/**
+ * The last downloaded first page of the feeds, which are the same for every user of a region - like
+ * the trending and the featured videos.
+ */
+public class FeedCacheTable {
+	public static final String TABLE_NAME = "FeedCache";
+	public static final String COL_FEED = "Feed";
+	public static final String COL_REGION = "Region";
+	public static final String COL_POSITION = "Position";
+	public static final String COL_VIDEO = "Video";
+	public static final String COL_RETRIEVAL_TS = "Retrieval_Ts";
+
+	public static String getCreateStatement() {
+		return "CREATE TABLE " + TABLE_NAME + " (" +
+				COL_FEED + " TEXT NOT NULL, " +
+				COL_REGION + " TEXT NOT NULL, " +
+				COL_POSITION + " INTEGER NOT NULL, " +
+				COL_VIDEO + " BLOB NOT NULL, " +
+				COL_RETRIEVAL_TS + " INTEGER NOT NULL, " +
+				"PRIMARY KEY (" + COL_FEED + ", " + COL_REGION + ", " + COL_POSITION + ")" +
+				" )";
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import androidx.annotation.Nullable;
+
+import free.rm.skytube.businessobjects.Logger;
+
+/**
+ * A read-only connection to the subscriptions database, with the playback status and the channel
+ * filtering databases attached - so the queries can join across them in SQL.
+ *
+ * <p>The databases are attached to a separate connection, as attaching a database to the
+ * connections of the helpers would turn off their WAL mode, and with it, the parallel reads.  The
+ * files are still in WAL mode, so this connection sees the committed writes of the helpers.</p>
+ *
+ * <p>The store is optional: if the databases can't be attached, {@link #getDatabase()} returns null,
+ * and the callers fall back to the queries of the individual databases.</p>
+ */
+public final class LocalStore {
+	/** The schema name of the attached {@link PlaybackStatusDb} */
+	static final String PLAYBACK = "playback";
+	/** The schema name of the attached {@link ChannelFilteringDb} */
+	static final String FILTERING = "filtering";
+
+	private static final LocalStore INSTANCE = new LocalStore();
+
+	private SQLiteDatabase database;
+	/** Set, if opening the store failed - it's not retried until the store is closed */
+	private boolean unavailable;
+
+	private LocalStore() {
+	}
+
+	public static LocalStore get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return The connection with the attached databases, or null if it couldn't be opened.
+	 */
+	@Nullable
+	synchronized SQLiteDatabase getDatabase() {
+		if (database != null && database.isOpen()) {
+			return database;
+		}
+		if (unavailable) {
+			return null;
+		}
+		try {
+			// open the databases through their helpers first, so they are created, upgraded and
+			// switched to WAL mode - this connection is read-only, it can't do any of these
+			final SubscriptionsDb subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
+			final PlaybackStatusDb playbackStatusDb = PlaybackStatusDb.getPlaybackStatusDb();
+			final ChannelFilteringDb channelFilteringDb = ChannelFilteringDb.getChannelFilteringDb();
+			subscriptionsDb.getReadableDatabase();
+			playbackStatusDb.getReadableDatabase();
+			channelFilteringDb.getReadableDatabase();
+
+			final SQLiteDatabase db = SQLiteDatabase.openDatabase(subscriptionsDb.getDatabasePath(),
+					DatabaseRuntime.CURSOR_FACTORY, SQLiteDatabase.OPEN_READONLY);
+			try {
+				db.execSQL("ATTACH DATABASE ? AS " + PLAYBACK, new Object[]{playbackStatusDb.getDatabasePath()});
+				db.execSQL("ATTACH DATABASE ? AS " + FILTERING, new Object[]{channelFilteringDb.getDatabasePath()});
+			} catch (SQLiteException e) {
+				db.close();
+				throw e;
+			}
+			database = db;
+			return database;
+		} catch (SQLiteException e) {
+			Logger.e(this, "Unable to attach the databases, falling back to separate queries: " + e.getMessage(), e);
+			unavailable = true;
+			return null;
+		}
+	}
+
+	/**
+	 * Close the connection - before the database files are replaced, e.g. by restoring a backup.
+	 */
+	public synchronized void close() {
+		if (database != null) {
+			database.close();
+			database = null;
+		}
+		unavailable = false;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.app.Utils;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
+import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
+
+/**
+ * A database, where the user can reorder the stored videos.  The videos are displayed in the
+ * descending order of their order number.
+ *
+ * <p>The order numbers are sparse - {@link #ORDER_GAP} apart - so moving a video only needs a new
+ * number between its new neighbours, and the other rows are only renumbered when there is no free
+ * number left between them.</p>
+ */
+public abstract class OrderableVideosDb extends SQLiteOpenHelperEx implements OrderableDatabase {
+	/** The distance between the order numbers of the newly added videos */
+	static final int ORDER_GAP = 1024;
+
+	private final String tableName;
+	private final String idColumn;
+	private final String orderColumn;
+
+	private final String maximumOrderQuery;
+	private final String orderQuery;
+	private final String nextLowerOrderQuery;
+	private final String pagedQuery;
+	private final String pagedQueryUnbounded;
+
+	OrderableVideosDb(Context context, String name, int version, String tableName, String idColumn, String videoColumn, String orderColumn) {
+		super(context, name, null, version);
+		this.tableName = tableName;
+		this.idColumn = idColumn;
+		this.orderColumn = orderColumn;
+		this.maximumOrderQuery = String.format("SELECT MAX(%s) FROM %s", orderColumn, tableName);
+		this.orderQuery = String.format("SELECT %s FROM %s WHERE %s = ?", orderColumn, tableName, idColumn);
+		this.nextLowerOrderQuery = String.format("SELECT MAX(%1$s) FROM %2$s WHERE %1$s < ? AND %3$s <> ?", orderColumn, tableName, idColumn);
+		this.pagedQuery = String.format("SELECT %1$s,%2$s FROM %3$s WHERE %2$s < ? ORDER BY %2$s DESC LIMIT ?", videoColumn, orderColumn, tableName);
+		this.pagedQueryUnbounded = String.format("SELECT %1$s,%2$s FROM %3$s ORDER BY %2$s DESC LIMIT ?", videoColumn, orderColumn, tableName);
+	}
+
+	/**
+	 * @return The highest order number, or 0 if the table is empty.
+	 */
+	public int getMaximumOrderNumber() {
+		return executeQueryForInteger(maximumOrderQuery, 0);
+	}
+
+	/**
+	 * @return The order number for a new video, which will be displayed at the top of the list.
+	 */
+	int getNextOrderNumber() {
+		return getMaximumOrderNumber() + ORDER_GAP;
+	}
+
+	/**
+	 * Get a page of videos, in descending order.  The pages are addressed by the order number of
+	 * the last video on the previous page (keyset pagination), so loading a page only reads its
+	 * own rows, wherever it is in the list.
+	 *
+	 * @param limit The maximum number of videos to return.
+	 * @param maxOrderLimit Only the videos with lower order number are returned, or null for the first page.
+	 * @return List of Videos, and the lowest order number among them.
+	 */
+	@NonNull Pair<List<YouTubeVideo>, Integer> getVideoPage(int limit, Integer maxOrderLimit) {
+		SkyTubeApp.nonUiThread();
+		final SQLiteDatabase db = getReadableDatabase();
+		final List<YouTubeVideo> videos = new ArrayList<>(limit);
+		Integer minOrder = null;
+		try (Cursor cursor = maxOrderLimit != null ?
+				db.rawQuery(pagedQuery, new String[]{String.valueOf(maxOrderLimit), String.valueOf(limit)}) :
+				db.rawQuery(pagedQueryUnbounded, new String[]{String.valueOf(limit)})) {
+			while (cursor.moveToNext()) {
+				minOrder = Utils.min(cursor.getInt(1), minOrder);
+				videos.add(YouTubeVideoCodec.decode(cursor.getBlob(0)));
+			}
+		}
+		return Pair.create(videos, minOrder);
+	}
+
+	/**
+	 * Move the video right below the other video, in one transaction.
+	 *
+	 * <p>If there is no free order number between the two neighbours, the videos above the new
+	 * position are shifted up - the ones below are never renumbered, so the keyset of the already
+	 * loaded pages stays valid.</p>
+	 */
+	@Override
+	public Integer moveItem(@NonNull CardData video, @Nullable CardData previous) {
+		SkyTubeApp.nonUiThread();
+		final SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			final Integer newOrder;
+			if (previous == null) {
+				newOrder = getMaximumOrderNumber() + ORDER_GAP;
+			} else {
+				newOrder = getOrderBelow(db, video.getId(), previous.getId());
+			}
+			if (newOrder != null) {
+				db.execSQL(String.format("UPDATE %s SET %s = ? WHERE %s = ?", tableName, orderColumn, idColumn),
+						new Object[]{newOrder, video.getId()});
+				db.setTransactionSuccessful();
+			}
+			return newOrder;
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * @return A free order number between the previous video and the one below it, or null, if the
+	 * previous video doesn't exist anymore.
+	 */
+	private Integer getOrderBelow(SQLiteDatabase db, String videoId, String previousId) {
+		final Integer upper = queryInteger(db, orderQuery, previousId);
+		if (upper == null) {
+			Logger.w(this, "Video %s not found in %s", previousId, tableName);
+			return null;
+		}
+		final Integer lowerOrNull = queryInteger(db, nextLowerOrderQuery, String.valueOf(upper), videoId);
+		final int lower = lowerOrNull != null ? lowerOrNull : 0;
+		if (upper - lower >= 2) {
+			return lower + (upper - lower) / 2;
+		}
+		db.execSQL(String.format("UPDATE %1$s SET %2$s = %2$s + %3$d WHERE %2$s >= ? AND %4$s <> ?", tableName, orderColumn, ORDER_GAP, idColumn),
+				new Object[]{upper, videoId});
+		return lower + (upper + ORDER_GAP - lower) / 2;
+	}
+
+	private static Integer queryInteger(SQLiteDatabase db, String query, String... args) {
+		try (Cursor cursor = db.rawQuery(query, args)) {
+			if (cursor.moveToFirst() && !cursor.isNull(0)) {
+				return cursor.getInt(0);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Spread the order numbers of the existing rows {@link #ORDER_GAP} apart - used when upgrading
+	 * from the version, where the numbers were consecutive.
+	 */
+	void spreadOrderNumbers(SQLiteDatabase db) {
+		db.execSQL(String.format("UPDATE %1$s SET %2$s = %2$s * %3$d", tableName, orderColumn, ORDER_GAP));
+	}
+}
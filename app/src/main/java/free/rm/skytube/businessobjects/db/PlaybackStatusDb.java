@@ -52,7 +52,7 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 
 	}
 
-	public void deleteAllPlaybackHistory() {
+	public synchronized void deleteAllPlaybackHistory() {
 		getWritableDatabase().delete(PlaybackStatusTable.TABLE_NAME, null, null);
 		playbackHistoryMap = null;
 		updateCounter++;
@@ -78,7 +78,7 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 	 * @return {@link VideoWatchedStatus} of the passed video, which contains the position (in ms) and whether or not the video
 	 * 					has been (completely) watched.
 	 */
-	public VideoWatchedStatus getVideoWatchedStatus(@NonNull String videoId) {
+	public synchronized VideoWatchedStatus getVideoWatchedStatus(@NonNull String videoId) {
 		if(playbackHistoryMap == null) {
 			Cursor cursor = getReadableDatabase().query(
 							PlaybackStatusTable.TABLE_NAME,
@@ -167,7 +167,7 @@ public class PlaybackStatusDb extends SQLiteOpenHelperEx {
 		}
 	}
 
-	private boolean saveVideoWatchStatus(String videoId, long position, boolean watched) {
+	private synchronized boolean saveVideoWatchStatus(String videoId, long position, boolean watched) {
 		ContentValues values = new ContentValues();
 		values.put(PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID, videoId);
 		values.put(PlaybackStatusTable.COL_YOUTUBE_VIDEO_POSITION, (int)position);
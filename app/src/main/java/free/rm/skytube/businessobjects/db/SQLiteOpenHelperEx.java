@@ -17,24 +17,55 @@
 
 package free.rm.skytube.businessobjects.db;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
+
+import androidx.core.util.Pair;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
 
 /**
  * An extended {@link SQLiteOpenHelper} with extra goodies.
  *
  * <p>Class assumes that sub-classes shall make use of the singleton design pattern.</p>
+ *
+ * <p>The databases are opened in write-ahead logging (WAL) mode, so the readers don't wait for the
+ * writers - and the queries are measured by {@link DatabaseRuntime}.</p>
  */
 public abstract class SQLiteOpenHelperEx extends SQLiteOpenHelper {
+	private static final int MIGRATION_BATCH_SIZE = 100;
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
 	public SQLiteOpenHelperEx(Context context, String name, android.database.sqlite.SQLiteDatabase.CursorFactory factory, int version) {
-		super(context, name, factory, version);
+		super(context, name, factory != null ? factory : DatabaseRuntime.CURSOR_FACTORY, version);
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+			setWriteAheadLoggingEnabled(true);
+		}
+	}
+
+
+	@Override
+	public void onOpen(SQLiteDatabase db) {
+		super.onOpen(db);
+		// before Jelly Bean, WAL can only be turned on for the opened database
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN && !db.isReadOnly()) {
+			db.enableWriteAheadLogging();
+		}
 	}
 
 
@@ -62,6 +93,73 @@ public abstract class SQLiteOpenHelperEx extends SQLiteOpenHelper {
 	}
 
 
+	/**
+	 * Delete the write-ahead log of the closed database, so it's not applied to a restored database
+	 * file.
+	 */
+	public void deleteWriteAheadLog() {
+		new File(getDatabasePath() + "-wal").delete();
+		new File(getDatabasePath() + "-shm").delete();
+	}
+
+
+	/**
+	 * Write a consistent copy of the database into the given file, without closing it - the readers
+	 * and the writers can keep using the database meanwhile.
+	 *
+	 * <p>From Android 11, the copy is made by <code>VACUUM INTO</code>.  On the earlier versions,
+	 * the database file and its write-ahead log are copied, while the write lock is held - SQLite
+	 * recovers the log, when the copy is opened.</p>
+	 *
+	 * @param target The file of the copy - the log is written next to it, with the "-wal" suffix.
+	 * @return The written files.
+	 */
+	public List<File> snapshot(File target) throws IOException {
+		SkyTubeApp.nonUiThread();
+		final List<File> files = new ArrayList<>(2);
+		final File targetLog = new File(target.getPath() + "-wal");
+		target.delete();
+		targetLog.delete();
+		final SQLiteDatabase db = getWritableDatabase();
+		// Android 11 ships SQLite 3.28, the first with VACUUM INTO
+		if (Build.VERSION.SDK_INT >= 30) {
+			db.execSQL("VACUUM INTO ?", new Object[]{target.getPath()});
+			files.add(target);
+			return files;
+		}
+		// keep the log short, so there is less to copy
+		try (Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null)) {
+			cursor.moveToFirst();
+		}
+		// the transaction is never committed, it's only needed for the write lock
+		db.beginTransaction();
+		try {
+			copyFile(new File(getDatabasePath()), target);
+			files.add(target);
+			final File log = new File(getDatabasePath() + "-wal");
+			if (log.length() > 0) {
+				copyFile(log, targetLog);
+				files.add(targetLog);
+			}
+		} finally {
+			db.endTransaction();
+		}
+		return files;
+	}
+
+
+	private static void copyFile(File source, File target) throws IOException {
+		try (InputStream input = new FileInputStream(source);
+			 OutputStream output = new FileOutputStream(target)) {
+			final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+			int count;
+			while ((count = input.read(buffer)) != -1) {
+				output.write(buffer, 0, count);
+			}
+		}
+	}
+
+
 	/**
 	 * @return The database directory (as a {@link File}).
 	 */
@@ -69,6 +167,58 @@ public abstract class SQLiteOpenHelperEx extends SQLiteOpenHelper {
 		return SkyTubeApp.getContext().getDatabasePath(getDatabaseName()).getParentFile();
 	}
 
+	/**
+	 * Convert the videos stored in the legacy JSON format into the binary format of
+	 * {@link YouTubeVideoCodec}.  The rows are converted in small batches - each in its own
+	 * transaction - so the database is not locked for long.
+	 *
+	 * @param table The table to convert.
+	 * @param blobColumn The column holding the serialized video.
+	 * @return The number of converted rows.
+	 */
+	protected int migrateVideoBlobs(String table, String blobColumn) {
+		SkyTubeApp.nonUiThread();
+		final String query = String.format("SELECT rowid,%s FROM %s WHERE rowid > ? AND substr(%s,1,1) <> X'00' ORDER BY rowid LIMIT %d",
+				blobColumn, table, blobColumn, MIGRATION_BATCH_SIZE);
+		final SQLiteDatabase db = getWritableDatabase();
+		long lastRowId = -1;
+		int converted = 0;
+		while (true) {
+			final List<Pair<Long, byte[]>> batch = new ArrayList<>(MIGRATION_BATCH_SIZE);
+			try (Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(lastRowId)})) {
+				while (cursor.moveToNext()) {
+					lastRowId = cursor.getLong(0);
+					final byte[] blob = cursor.getBlob(1);
+					if (blob == null) {
+						continue;
+					}
+					try {
+						batch.add(Pair.create(lastRowId, YouTubeVideoCodec.encode(YouTubeVideoCodec.decode(blob))));
+					} catch (RuntimeException e) {
+						Logger.e(this, "Unable to convert video in " + table + " at " + lastRowId + ": " + e.getMessage(), e);
+					}
+				}
+				if (cursor.getCount() == 0) {
+					break;
+				}
+			}
+			db.beginTransaction();
+			try {
+				for (Pair<Long, byte[]> row : batch) {
+					ContentValues values = new ContentValues();
+					values.put(blobColumn, row.second);
+					db.update(table, values, "rowid = ?", new String[]{String.valueOf(row.first)});
+				}
+				db.setTransactionSuccessful();
+			} finally {
+				db.endTransaction();
+			}
+			converted += batch.size();
+		}
+		Logger.i(this, "Converted %s videos in %s", converted, table);
+		return converted;
+	}
+
 	/**
 	 * Execute a <b>constant</b> query, and return the number in the first row, first column.
 	 *
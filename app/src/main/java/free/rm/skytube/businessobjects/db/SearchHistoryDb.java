@@ -3,14 +3,21 @@ package free.rm.skytube.businessobjects.db;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.businessobjects.Logger;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * A database (DB) that stores user's searches (for use in Search Suggestions).
@@ -20,10 +27,22 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 
 	private static volatile SearchHistoryDb searchHistoryDb = null;
 
-	private static final int DATABASE_VERSION = 2;
+	private static final int DATABASE_VERSION = 3;
+	private static final int MAX_SUGGESTIONS = 10;
 	private static final String DATABASE_NAME = "searchHistory.db";
 
-	private static final String UPDATE_SEARCH_TEXT_TIMESTAMP = String.format("UPDATE %s SET %s = datetime('now','localtime') WHERE %s = ?", SearchHistoryTable.TABLE_NAME, SearchHistoryTable.COL_SEARCH_DATE, SearchHistoryTable.COL_SEARCH_TEXT);
+	private static final String UPDATE_SEARCH_TEXT_TIMESTAMP = String.format("UPDATE %1$s SET %2$s = datetime('now','localtime'), %3$s = %3$s + 1 WHERE %4$s = ?",
+			SearchHistoryTable.TABLE_NAME, SearchHistoryTable.COL_SEARCH_DATE, SearchHistoryTable.COL_SEARCH_COUNT, SearchHistoryTable.COL_SEARCH_TEXT);
+	/** Insert the text, or increment its counter, if it's already stored - in one statement, keeping the _id of the existing row */
+	private static final String UPSERT_SEARCH_TEXT = String.format("INSERT OR REPLACE INTO %1$s (%2$s,%3$s,%4$s,%5$s) VALUES ((SELECT %2$s FROM %1$s WHERE %3$s = ?1), ?1, datetime('now','localtime'), COALESCE((SELECT %5$s FROM %1$s WHERE %3$s = ?1), 0) + 1)",
+			SearchHistoryTable.TABLE_NAME, SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT, SearchHistoryTable.COL_SEARCH_DATE, SearchHistoryTable.COL_SEARCH_COUNT);
+	private static final String LOAD_SUGGESTIONS = String.format("SELECT %s,%s,%s,strftime('%%s',%s) FROM %s",
+			SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT, SearchHistoryTable.COL_SEARCH_COUNT, SearchHistoryTable.COL_SEARCH_DATE, SearchHistoryTable.TABLE_NAME);
+	private static final String[] SUGGESTION_COLUMNS = {SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT, SearchHistoryTable.COL_REMOTE};
+
+	private final SearchSuggestionIndex suggestionIndex = new SearchSuggestionIndex();
+	/** Set, once the suggestion index is loaded - until then, the suggestions are queried from the database */
+	private volatile boolean suggestionIndexLoaded = false;
 
 
 	private SearchHistoryDb(Context context) {
@@ -34,6 +53,7 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	public static synchronized SearchHistoryDb getSearchHistoryDb() {
 		if (searchHistoryDb == null) {
 			searchHistoryDb = new SearchHistoryDb(SkyTubeApp.getContext());
+			searchHistoryDb.loadSuggestionIndex();
 		}
 
 		return searchHistoryDb;
@@ -48,6 +68,7 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		db.execSQL(SearchHistoryTable.getCreateStatement());
+		db.execSQL(SearchHistoryTable.getCreateTextIndex());
 	}
 
 	@Override
@@ -55,7 +76,7 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	    // Version 2 introduced the date the search term was searched for. If the user already has version 1,
         // grab all the values from the database, recreate it with the new column, and add the search terms back in.
         // The current timestamp will be used.
-		if(oldVersion == 1 && newVersion == 2) {
+		if(oldVersion == 1 && newVersion >= 2) {
 			Cursor cursor = db.query(SearchHistoryTable.TABLE_NAME,
 					new String[] {SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT},
 					null,
@@ -70,19 +91,43 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 					String text = cursor.getString(cursor.getColumnIndex(SearchHistoryTable.COL_SEARCH_TEXT));
 					history.add(new HashMap<Integer, String>(){{put(id, text); }});
 				} while (cursor.moveToNext());
-				db.execSQL("DROP TABLE " + SearchHistoryTable.TABLE_NAME);
-				onCreate(db);
-				for(Map<Integer, String> entry : history) {
-					for(Map.Entry<Integer, String> e : entry.entrySet()) {
-						String text = e.getValue();
-						ContentValues values = new ContentValues();
-						values.put(SearchHistoryTable.COL_SEARCH_ID, e.getKey());
-						values.put(SearchHistoryTable.COL_SEARCH_TEXT, text);
-						db.insert(SearchHistoryTable.TABLE_NAME, null, values);
-					}
+			}
+			cursor.close();
+			// the table is recreated with the current structure, so the later upgrade steps are skipped
+			db.execSQL("DROP TABLE " + SearchHistoryTable.TABLE_NAME);
+			onCreate(db);
+			for(Map<Integer, String> entry : history) {
+				for(Map.Entry<Integer, String> e : entry.entrySet()) {
+					String text = e.getValue();
+					ContentValues values = new ContentValues();
+					values.put(SearchHistoryTable.COL_SEARCH_ID, e.getKey());
+					values.put(SearchHistoryTable.COL_SEARCH_TEXT, text);
+					db.insert(SearchHistoryTable.TABLE_NAME, null, values);
 				}
 			}
 		}
+		// Version 3 counts the searches, to rank the suggestions
+		if (oldVersion == 2 && newVersion >= 3) {
+			db.execSQL(SearchHistoryTable.getAddSearchCountColumn());
+			db.execSQL(SearchHistoryTable.getCreateTextIndex());
+		}
+	}
+
+	/**
+	 * Load the search history into the in-memory suggestion index, in the background.
+	 */
+	private void loadSuggestionIndex() {
+		Completable.fromAction(() -> {
+			final long start = System.currentTimeMillis();
+			try (Cursor cursor = getReadableDatabase().rawQuery(LOAD_SUGGESTIONS, null)) {
+				while (cursor.moveToNext()) {
+					suggestionIndex.put(cursor.getLong(0), cursor.getString(1), cursor.getInt(2), cursor.getLong(3) * 1000);
+				}
+			}
+			suggestionIndexLoaded = true;
+			Logger.i(this, "Loaded %s searches in %s ms", suggestionIndex.size(), System.currentTimeMillis() - start);
+		}).subscribeOn(Schedulers.io())
+				.subscribe(() -> {}, error -> Logger.e(this, "Unable to load the search history: " + error.getMessage(), error));
 	}
 
 	/**
@@ -90,6 +135,7 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	 */
 	public void deleteAllSearchHistory() {
 		getWritableDatabase().delete(SearchHistoryTable.TABLE_NAME, null, null);
+		suggestionIndex.clear();
 	}
 
 
@@ -99,87 +145,91 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 	 * @param text  Text the user just searched for.
 	 */
 	public void insertSearchText(String text) {
-		if (!isSearchTextAlreadyStored(text)) {
-			ContentValues values = new ContentValues();
-			values.put(SearchHistoryTable.COL_SEARCH_TEXT, text);
-			getWritableDatabase().insert(SearchHistoryTable.TABLE_NAME, null, values);
-		} else {
-			updateSearchTextTimestamp(text);
+		final long id;
+		try (SQLiteStatement statement = getWritableDatabase().compileStatement(UPSERT_SEARCH_TEXT)) {
+			statement.bindString(1, text);
+			id = statement.executeInsert();
+		}
+		if (id != -1) {
+			suggestionIndex.use(id, text, System.currentTimeMillis());
 		}
 	}
 
 	/**
-	 * Update the datetime field to the current date/time for the passed search text string
+	 * Update the datetime field to the current date/time for the passed search text string, and
+	 * increment the number of its searches.
 	 *
 	 * @param text   Text the user searched for.
 	 */
 	public void updateSearchTextTimestamp(String text) {
-		try (Cursor cursor = getWritableDatabase().rawQuery(UPDATE_SEARCH_TEXT_TIMESTAMP, new String[]{ text })) {
-			cursor.moveToFirst();
+		try (SQLiteStatement statement = getWritableDatabase().compileStatement(UPDATE_SEARCH_TEXT_TIMESTAMP)) {
+			statement.bindString(1, text);
+			if (statement.executeUpdateDelete() > 0) {
+				// the id is only used, if the text is not yet indexed - then the index is still loading, and will read it from the database
+				suggestionIndex.use(-1, text, System.currentTimeMillis());
+			}
 		}
 	}
 
-
 	/**
-	 * Return true if the given search text has already been stored in the database.
+	 * Given a search string, it will return a cursor containing the previous searches, where a
+	 * word starts with the given searchText, the most frequently and recently used first.
 	 *
-	 * @param text  Search text
-	 * @return True if the given search text has already been stored in the database; false otherwise.
+	 * @param searchText    Text the user has typed.
+	 * @return              A cursor with the {@link SearchHistoryTable#COL_SEARCH_ID}, {@link SearchHistoryTable#COL_SEARCH_TEXT}
+	 * 						and {@link SearchHistoryTable#COL_REMOTE} columns.
 	 */
-	private boolean isSearchTextAlreadyStored(String text) {
-		try(Cursor cursor =  getSearchCursor(text, true)) {
-			return cursor.moveToNext();
-		}
+	public Cursor getSearchCursor(String searchText) {
+		return getSearchCursor(searchText, null);
 	}
 
 
 	/**
-	 * Given a search string, it will return a cursor contain text strings which start as the given
-	 * searchText.
-	 *
-	 * @param searchText    Text the user has typed.
-	 * @return              A cursor containing texts which starts with the contents of searchText.
+	 * Same as {@link #getSearchCursor(String)}, with the given remote suggestions appended, which
+	 * are not already in the search history.
 	 */
-	public Cursor getSearchCursor(String searchText) {
-		return getSearchCursor(searchText, false);
+	public Cursor getSearchCursor(String searchText, List<String> remoteSuggestions) {
+		final MatrixCursor cursor = new MatrixCursor(SUGGESTION_COLUMNS);
+		final Set<String> texts = new HashSet<>();
+		if (suggestionIndexLoaded) {
+			for (SearchSuggestionIndex.Suggestion suggestion : suggestionIndex.suggest(searchText, MAX_SUGGESTIONS, System.currentTimeMillis())) {
+				cursor.addRow(new Object[]{suggestion.getId(), suggestion.getText(), 0});
+				texts.add(suggestion.getText());
+			}
+		} else {
+			try (Cursor dbCursor = queryHistory(searchText)) {
+				while (dbCursor.moveToNext()) {
+					cursor.addRow(new Object[]{dbCursor.getLong(0), dbCursor.getString(1), 0});
+					texts.add(dbCursor.getString(1));
+				}
+			}
+		}
+		if (remoteSuggestions != null) {
+			// negative ids, so they don't collide with the rows of the history
+			long id = -1;
+			for (String suggestion : remoteSuggestions) {
+				if (texts.add(suggestion)) {
+					cursor.addRow(new Object[]{id--, suggestion, 1});
+				}
+			}
+		}
+		return cursor;
 	}
 
 
 	/**
-	 * Given a search string, it will return a cursor contain text strings which start as the given
-	 * searchText.
-	 *
-	 * @param searchText        Text the user has typed.
-	 * @param exactTextSearch   If set to true, it will only return items whose COL_SEARCH_TEXT's
-	 *                          data is identical to the given searchText.
-	 *
-	 * @return                  A cursor containing texts which starts with the contents of searchText.
+	 * Query the database directly, while the suggestion index is not yet loaded.
 	 */
-	private Cursor getSearchCursor(String searchText, boolean exactTextSearch) {
-		if(searchText.length() <= 1) {
-			return getReadableDatabase().query(SearchHistoryTable.TABLE_NAME,
-					new String[] {SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT},
-					null,
-					null,
-					null,
-					null,
-					SearchHistoryTable.COL_SEARCH_DATE + " DESC, " + SearchHistoryTable.COL_SEARCH_ID + " DESC",
-					"10");
-		} else {
-			// if the user input "'" it was causing the app to crash, hence replace "'" with "\''"
-			String searchClause = exactTextSearch
-					? " = ?"
-					: " LIKE ?";
-			String params = exactTextSearch ? searchText : "%" + searchText + '%';
-
-			return getReadableDatabase().query(SearchHistoryTable.TABLE_NAME,
-					new String[]{SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT},
-					SearchHistoryTable.COL_SEARCH_TEXT + searchClause,
-					new String[] {params},
-					null,
-					null,
-					SearchHistoryTable.COL_SEARCH_TEXT + " ASC");
-		}
+	private Cursor queryHistory(String searchText) {
+		final String normalized = SearchSuggestionIndex.normalize(searchText);
+		return getReadableDatabase().query(SearchHistoryTable.TABLE_NAME,
+				new String[]{SearchHistoryTable.COL_SEARCH_ID, SearchHistoryTable.COL_SEARCH_TEXT},
+				normalized.isEmpty() ? null : SearchHistoryTable.COL_SEARCH_TEXT + " LIKE ?",
+				normalized.isEmpty() ? null : new String[]{"%" + normalized + '%'},
+				null,
+				null,
+				SearchHistoryTable.COL_SEARCH_DATE + " DESC, " + SearchHistoryTable.COL_SEARCH_ID + " DESC",
+				String.valueOf(MAX_SUGGESTIONS));
 	}
 
 	/**
@@ -191,6 +241,7 @@ public class SearchHistoryDb extends SQLiteOpenHelperEx {
 		getWritableDatabase().delete(SearchHistoryTable.TABLE_NAME,
 				SearchHistoryTable.COL_SEARCH_TEXT + " = ?",
 				new String[]{text});
+		suggestionIndex.remove(text);
 	}
 
 }
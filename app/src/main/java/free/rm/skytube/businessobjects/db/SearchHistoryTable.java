@@ -8,13 +8,25 @@ public class SearchHistoryTable {
 	public static final String COL_SEARCH_ID = "_id";
 	public static final String COL_SEARCH_TEXT = "Search_Text";
 	public static final String COL_SEARCH_DATE = "Search_Date";
+	public static final String COL_SEARCH_COUNT = "Search_Count";
+	/** Not a real column:  set to 1 in the suggestion cursor for the suggestions from YouTube */
+	public static final String COL_REMOTE = "Remote";
 
 	public static String getCreateStatement() {
 		return "CREATE TABLE " + TABLE_NAME + " (" +
 						COL_SEARCH_ID + " INTEGER PRIMARY KEY NOT NULL, " +
 						COL_SEARCH_TEXT + " TEXT, " +
-						COL_SEARCH_DATE + " DATETIME default (datetime('now','localtime'))" +
+						COL_SEARCH_DATE + " DATETIME default (datetime('now','localtime')), " +
+						COL_SEARCH_COUNT + " INTEGER default 1" +
 						" )";
 	}
 
+	public static String getAddSearchCountColumn() {
+		return "ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COL_SEARCH_COUNT + " INTEGER default 1";
+	}
+
+	public static String getCreateTextIndex() {
+		return "CREATE INDEX " + TABLE_NAME + "_Text ON " + TABLE_NAME + "(" + COL_SEARCH_TEXT + ")";
+	}
+
 }
@@ -0,0 +1,193 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An in-memory index of the search history, which returns the previous searches containing a word
+ * starting with the typed text, ranked by frecency - how often and how recently they were used.
+ *
+ * <p>Every search is stored under the keys starting at each of its words ("linus tech tips",
+ * "tech tips", "tips") in a sorted map, so a lookup is a range scan over the keys starting with the
+ * typed text, instead of a scan of the whole history.</p>
+ */
+public class SearchSuggestionIndex {
+	/** The weight of a search halves in every two weeks */
+	private static final double HALF_LIFE_MS = 14 * 24 * 60 * 60 * 1000.0;
+
+	public static class Suggestion {
+		private final long id;
+		private final String text;
+		private int useCount;
+		private long lastUsed;
+
+		Suggestion(long id, String text, int useCount, long lastUsed) {
+			this.id = id;
+			this.text = text;
+			this.useCount = useCount;
+			this.lastUsed = lastUsed;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public int getUseCount() {
+			return useCount;
+		}
+
+		double getScore(long now) {
+			final long age = Math.max(0, now - lastUsed);
+			return useCount * Math.pow(0.5, age / HALF_LIFE_MS);
+		}
+
+		@Override
+		public String toString() {
+			return text + " (" + useCount + ')';
+		}
+	}
+
+	private final TreeMap<String, Set<Suggestion>> keys = new TreeMap<>();
+	private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+	/**
+	 * Add a search to the index, or update its usage, if it's already indexed.
+	 */
+	public synchronized void put(long id, String text, int useCount, long lastUsed) {
+		final Suggestion existing = suggestions.get(text);
+		if (existing != null) {
+			existing.useCount = useCount;
+			existing.lastUsed = lastUsed;
+			return;
+		}
+		final Suggestion suggestion = new Suggestion(id, text, useCount, lastUsed);
+		suggestions.put(text, suggestion);
+		for (String key : getKeys(text)) {
+			Set<Suggestion> set = keys.get(key);
+			if (set == null) {
+				set = new HashSet<>(2);
+				keys.put(key, set);
+			}
+			set.add(suggestion);
+		}
+	}
+
+	/**
+	 * Record a new search for the text - add it to the index, or increment its counter.
+	 */
+	public synchronized void use(long id, String text, long now) {
+		final Suggestion existing = suggestions.get(text);
+		if (existing != null) {
+			existing.useCount++;
+			existing.lastUsed = now;
+		} else {
+			put(id, text, 1, now);
+		}
+	}
+
+	public synchronized void remove(String text) {
+		final Suggestion suggestion = suggestions.remove(text);
+		if (suggestion == null) {
+			return;
+		}
+		for (String key : getKeys(text)) {
+			final Set<Suggestion> set = keys.get(key);
+			if (set != null) {
+				set.remove(suggestion);
+				if (set.isEmpty()) {
+					keys.remove(key);
+				}
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		keys.clear();
+		suggestions.clear();
+	}
+
+	public synchronized int size() {
+		return suggestions.size();
+	}
+
+	/**
+	 * @param prefix The text typed by the user - if it's empty, the most used searches are returned.
+	 * @param limit The maximum number of suggestions.
+	 * @param now The current time, in milliseconds.
+	 * @return The matching searches, the highest ranked first.
+	 */
+	public synchronized List<Suggestion> suggest(String prefix, int limit, long now) {
+		final String normalized = normalize(prefix);
+		final Collection<Suggestion> candidates;
+		if (normalized.isEmpty()) {
+			candidates = suggestions.values();
+		} else {
+			final Set<Suggestion> matches = new HashSet<>();
+			for (Set<Suggestion> set : keys.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+				matches.addAll(set);
+			}
+			candidates = matches;
+		}
+		final List<Suggestion> result = new ArrayList<>(candidates);
+		// the score is computed once per candidate, not once per comparison
+		final Map<Suggestion, Double> scores = new HashMap<>(result.size() * 2);
+		for (Suggestion suggestion : result) {
+			scores.put(suggestion, suggestion.getScore(now));
+		}
+		Collections.sort(result, (a, b) -> {
+			final int cmp = Double.compare(scores.get(b), scores.get(a));
+			return cmp != 0 ? cmp : a.text.compareTo(b.text);
+		});
+		return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+	}
+
+	static String normalize(String text) {
+		return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * @return The suffixes of the text, starting at each word.
+	 */
+	static Set<String> getKeys(String text) {
+		final String normalized = normalize(text);
+		final Set<String> result = new HashSet<>();
+		if (normalized.isEmpty()) {
+			return result;
+		}
+		result.add(normalized);
+		int index = normalized.indexOf(' ');
+		while (index >= 0) {
+			result.add(normalized.substring(index + 1));
+			index = normalized.indexOf(' ', index + 1);
+		}
+		return result;
+	}
+}
@@ -22,14 +22,9 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSerializer;
-
-import org.json.JSONException;
-import org.json.JSONObject;
+import androidx.annotation.Nullable;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -49,6 +44,8 @@ import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.ChannelView;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
+import free.rm.skytube.businessobjects.YouTube.VideoStream.HttpCacheValidators;
 import free.rm.skytube.gui.fragments.SubscriptionsFeedFragment;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -74,18 +71,32 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 			SubscriptionsVideosTable.COL_PUBLISH_TS, SubscriptionsVideosTable.TABLE_NAME, SubscriptionsVideosTable.COL_CHANNEL_ID);
 	private static final String SUBSCRIBED_CHANNEL_INFO_ORDER_BY = " ORDER BY "+sortChannelsASC;
 	private static final String SUBSCRIBED_CHANNEL_LIMIT_BY_TITLE = " WHERE LOWER(" +SubscriptionsTable.COL_TITLE + ") like ?";
+	private static final String SUBSCRIBED_CHANNEL_MATCH_TITLE = String.format(" WHERE subs.%s IN (SELECT docid FROM %s WHERE %s MATCH ?)",
+			SubscriptionsTable.COL_ID, SubscriptionsTable.SEARCH_TABLE_NAME, SubscriptionsTable.SEARCH_TABLE_NAME);
+
+	private static final String GET_CHANNEL_PAGE = String.format("SELECT %s FROM %s WHERE %s = ? ORDER BY %s",
+			ChannelPageTable.COL_VIDEO, ChannelPageTable.TABLE_NAME, ChannelPageTable.COL_CHANNEL_ID, ChannelPageTable.COL_POSITION);
+	private static final String INSERT_CHANNEL_PAGE_VIDEO = String.format("INSERT INTO %s (%s,%s,%s) VALUES (?,?,?)",
+			ChannelPageTable.TABLE_NAME, ChannelPageTable.COL_CHANNEL_ID, ChannelPageTable.COL_POSITION, ChannelPageTable.COL_VIDEO);
+	/** The number of channels, whose first page is cached - every browsed channel is cached, and they are backed up too */
+	private static final int MAX_CACHED_CHANNEL_PAGES = 50;
+	/** The rows are inserted with increasing rowids, so the pages cached last have the highest ones */
+	private static final String EVICT_CHANNEL_PAGES = String.format("DELETE FROM %1$s WHERE %2$s NOT IN (SELECT %2$s FROM %1$s GROUP BY %2$s ORDER BY MAX(rowid) DESC LIMIT %3$d)",
+			ChannelPageTable.TABLE_NAME, ChannelPageTable.COL_CHANNEL_ID, MAX_CACHED_CHANNEL_PAGES);
 
 	private static final String IS_SUBSCRIBED_QUERY = String.format("SELECT EXISTS(SELECT %s FROM %s WHERE %s =?) AS VAL ", SubscriptionsTable.COL_ID, SubscriptionsTable.TABLE_NAME, SubscriptionsTable.COL_CHANNEL_ID);
+	/** The number of channel ids bound to one query - SQLite allows 999 parameters by default */
+	private static final int MAX_QUERY_PARAMETERS = 500;
 	private static volatile SubscriptionsDb subscriptionsDb = null;
 
-	private static final int DATABASE_VERSION = 5;
+	private static final int DATABASE_VERSION = 8;
 	private static final String DATABASE_NAME = "subs.db";
 
-	private Gson gson;
+	private final VideoSearchIndex searchIndex = new VideoSearchIndex(SubscriptionsVideosTable.TABLE_NAME,
+			SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID, SubscriptionsVideosTable.COL_YOUTUBE_VIDEO);
 
 	private SubscriptionsDb(Context context) {
 		super(context, DATABASE_NAME, null, DATABASE_VERSION);
-		this.gson = createGson();
 	}
 
 
@@ -107,6 +118,9 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		db.execSQL(SubscriptionsTable.getCreateStatement());
 		db.execSQL(SubscriptionsVideosTable.getCreateStatement());
 		db.execSQL(LocalChannelTable.getCreateStatement());
+		db.execSQL(ChannelPageTable.getCreateStatement());
+		SubscriptionsTable.createSearchIndex(db);
+		searchIndex.create(db);
 	}
 
 
@@ -140,6 +154,17 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 				Logger.e(this, "Unable to load subscribed channels to populate cache:" + ex.getMessage(), ex);
 			}
 		}
+		if (oldVersion <= 5 && newVersion >= 6) {
+			execSQLUpdates(db, SubscriptionsTable.getFeedValidatorColumns());
+		}
+		if (oldVersion <= 6 && newVersion >= 7) {
+			SubscriptionsTable.createSearchIndex(db);
+			db.execSQL(SubscriptionsTable.getSearchBackfillStatement());
+			searchIndex.create(db);
+		}
+		if (oldVersion <= 7 && newVersion >= 8) {
+			db.execSQL(ChannelPageTable.getCreateStatement());
+		}
 	}
 
 	private static void execSQLUpdates(SQLiteDatabase db, String[] sqlUpdates) {
@@ -163,11 +188,11 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
                         values,
                         SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID_EQUALS_TO,
                         new String[]{video.getId()});
-                Logger.i(this,"updating " + video.getId() + " with publish date:" + dateTime + " -> " + updateCount);
+                Logger.d(this, "updating %s with publish date: %s -> %s", video.getId(), dateTime, updateCount);
                 count += updateCount;
             }
         }
-        Logger.i(this, "From " + videos.size() + ", retrieval timestamp filled for " + count);
+        Logger.i(this, "From %s, retrieval timestamp filled for %s", videos.size(), count);
     }
 
 	/**
@@ -307,6 +332,76 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		}
 	}
 
+	/**
+	 * @param channelIds The channels to check, e.g. the ones in an imported file.
+	 * @return The channels from the given ones, the user is already subscribed to - queried in
+	 * chunks, instead of one query per channel.
+	 */
+	public Set<String> getSubscribedChannelIds(Collection<String> channelIds) {
+		SkyTubeApp.nonUiThread();
+		final Set<String> result = new HashSet<>();
+		final List<String> chunk = new ArrayList<>(MAX_QUERY_PARAMETERS);
+		for (String channelId : channelIds) {
+			chunk.add(Utils.removeChannelIdPrefix(channelId));
+			if (chunk.size() == MAX_QUERY_PARAMETERS) {
+				addSubscribedChannelIds(chunk, result);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			addSubscribedChannelIds(chunk, result);
+		}
+		return result;
+	}
+
+	private void addSubscribedChannelIds(List<String> channelIds, Set<String> result) {
+		final StringBuilder sql = new StringBuilder(String.format("SELECT %s FROM %s WHERE %s IN (",
+				SubscriptionsTable.COL_CHANNEL_ID, SubscriptionsTable.TABLE_NAME, SubscriptionsTable.COL_CHANNEL_ID));
+		for (int i = 0; i < channelIds.size(); i++) {
+			sql.append(i == 0 ? "?" : ",?");
+		}
+		sql.append(')');
+		try (Cursor cursor = getReadableDatabase().rawQuery(sql.toString(), channelIds.toArray(new String[0]))) {
+			while (cursor.moveToNext()) {
+				result.add(cursor.getString(0));
+			}
+		}
+	}
+
+	/**
+	 * Subscribe to the channels - in one transaction, so importing thousands of subscriptions doesn't
+	 * pay a disk sync for each of them.  The channels already subscribed to are skipped.
+	 *
+	 * @param channels The channels, only their id and title is needed, the rest can be filled later
+	 *                 with {@link #updateChannel(YouTubeChannel)}.
+	 * @return The number of the new subscriptions.
+	 */
+	public int subscribeAll(Collection<YouTubeChannel> channels) {
+		SkyTubeApp.nonUiThread();
+		final SQLiteDatabase db = getWritableDatabase();
+		int count = 0;
+		db.beginTransaction();
+		try (SQLiteStatement insert = db.compileStatement(String.format("INSERT OR IGNORE INTO %s (%s,%s,%s) VALUES (?,?,?)",
+				SubscriptionsTable.TABLE_NAME, SubscriptionsTable.COL_CHANNEL_ID, SubscriptionsTable.COL_TITLE,
+				SubscriptionsTable.COL_LAST_VISIT_TIME))) {
+			for (YouTubeChannel channel : channels) {
+				insert.clearBindings();
+				insert.bindString(1, Utils.removeChannelIdPrefix(channel.getId()));
+				if (channel.getTitle() != null) {
+					insert.bindString(2, channel.getTitle());
+				}
+				insert.bindLong(3, channel.getLastVisitTime());
+				if (insert.executeInsert() != -1) {
+					count++;
+				}
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		return count;
+	}
+
 	public Single<List<String>> getSubscribedChannelIdsAsync() {
 		return Single.fromCallable(() -> getSubscribedChannelIds())
 				.subscribeOn(Schedulers.io());
@@ -403,7 +498,7 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 
 
 	public Single<Boolean> getUserSubscribedToChannel(String channelId) {
-		return Single.fromCallable(() -> isUserSubscribedToChannel(channelId)).subscribeOn(Schedulers.io());
+		return Single.fromCallable(() -> isUserSubscribedToChannel(channelId)).subscribeOn(DatabaseRuntime.get().reads());
 	}
 
     /**
@@ -452,6 +547,51 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         return (count > 0 ? currentTime : -1);
     }
 
+	/**
+	 * @param channelId	Channel ID
+	 * @return the validators recorded during the last download of the channel's feed; never null, but
+	 * they might be empty.
+	 */
+	public HttpCacheValidators getFeedValidators(String channelId) {
+		SkyTubeApp.nonUiThread();
+
+		try (Cursor cursor = getReadableDatabase().query(SubscriptionsTable.TABLE_NAME,
+				new String[]{SubscriptionsTable.COL_FEED_ETAG, SubscriptionsTable.COL_FEED_LAST_MODIFIED},
+				SubscriptionsTable.COL_CHANNEL_ID + " = ?", new String[]{channelId},
+				null, null, null)) {
+			if (cursor.moveToNext()) {
+				return new HttpCacheValidators(cursor.getString(0), cursor.getString(1));
+			}
+			return new HttpCacheValidators(null, null);
+		}
+	}
+
+	/**
+	 * Updates the given channel's feed validators, and the last check time.
+	 *
+	 * @param channelId	Channel ID
+	 * @param validators the validators of the last successfully processed feed, or null to clear them.
+	 *
+	 * @return	last check time, if the update was successful;  -1 otherwise.
+	 */
+	public long updateFeedValidators(String channelId, HttpCacheValidators validators) {
+		SkyTubeApp.nonUiThread();
+		long			currentTime = System.currentTimeMillis();
+
+		ContentValues values = new ContentValues();
+		values.put(SubscriptionsTable.COL_LAST_CHECK_TIME, currentTime);
+		values.put(SubscriptionsTable.COL_FEED_ETAG, validators != null ? validators.getEtag() : null);
+		values.put(SubscriptionsTable.COL_FEED_LAST_MODIFIED, validators != null ? validators.getLastModified() : null);
+
+		int count = getWritableDatabase().update(
+				SubscriptionsTable.TABLE_NAME,
+				values,
+				SubscriptionsTable.COL_CHANNEL_ID + " = ?",
+				new String[]{channelId});
+
+		return (count > 0 ? currentTime : -1);
+	}
+
 	/**
 	 * Update channel informations in the database from the Object.
 	 *
@@ -507,7 +647,10 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		for (YouTubeVideo video : videos) {
 			if(video.getPublishDate() != null && !hasVideo(video)) {
                 ContentValues values = createContentValues(video, channelId);
-                getWritableDatabase().insert(SubscriptionsVideosTable.TABLE_NAME, null, values);
+                final SQLiteDatabase db = getWritableDatabase();
+                if (db.insert(SubscriptionsVideosTable.TABLE_NAME, null, values) != -1) {
+                    searchIndex.update(db, video);
+                }
 			}
 		}
 	}
@@ -531,6 +674,7 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 				} else {
 					db.insert(SubscriptionsVideosTable.TABLE_NAME, null, values);
 				}
+				searchIndex.update(db, video);
 			}
 		}
 	}
@@ -544,7 +688,9 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		for (YouTubeVideo video : videos) {
 			if (video.getPublishDate() != null) {
 				ContentValues values = createContentValues(video, channelId);
-				db.insert(SubscriptionsVideosTable.TABLE_NAME, null, values);
+				if (db.insert(SubscriptionsVideosTable.TABLE_NAME, null, values) != -1) {
+					searchIndex.update(db, video);
+				}
 			}
 		}
 	}
@@ -554,7 +700,7 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         ContentValues values = new ContentValues();
         values.put(SubscriptionsVideosTable.COL_CHANNEL_ID, channelId);
         values.put(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID, video.getId());
-        values.put(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO, gson.toJson(video).getBytes());
+        values.put(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO, YouTubeVideoCodec.encode(video));
         final ZonedDateTime publishDate = video.getPublishDate();
         final long publishInstant = publishDate.toInstant().toEpochMilli();
         values.put(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_DATE,
@@ -575,6 +721,22 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		return result > 0;
 	}
 
+	/**
+	 * Search the stored videos of the subscribed channels by their title, description or channel name.
+	 */
+	public List<YouTubeVideo> searchVideos(String query, int limit) {
+		SkyTubeApp.nonUiThread();
+		return searchIndex.search(getReadableDatabase(), query, SubscriptionsVideosTable.COL_PUBLISH_TS + " DESC", limit);
+	}
+
+	/**
+	 * Convert the videos of the subscribed channels, stored in the legacy JSON format, into the
+	 * binary format.
+	 */
+	public int migrateVideoBlobs() {
+		return migrateVideoBlobs(SubscriptionsVideosTable.TABLE_NAME, SubscriptionsVideosTable.COL_YOUTUBE_VIDEO);
+	}
+
 	/**
 	 * Query the database to retrieve all videos for subscribed channels.
 	 * @return
@@ -596,6 +758,56 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         return getSubscriptionVideoPage(limit, videoId, beforeTimestamp, SubscriptionsVideosTable.COL_PUBLISH_TS);
     }
 
+    /**
+     * Query the database to retrieve number of displayable videos for subscribed channels starting from the
+     * given video - the videos of the filtered channels, and the watched videos are skipped in SQL, by joining
+     * the playback status and the channel filtering databases through {@link LocalStore}.  If that's not
+     * available, the videos are returned unfiltered.
+     *
+     * @param channelFilter The list of the channels to filter by - blacklisted channels are skipped, only the
+     *                      whitelisted channels are returned - or null, to return all channels.
+     * @param hideWatched Skip the fully watched videos.
+     * @return a list of {@link YouTubeVideo}
+     */
+    public List<YouTubeVideo> getSubscriptionVideoPage(int limit, String videoId, long beforeTimestamp,
+                                                       @Nullable ChannelListTable channelFilter, boolean hideWatched) {
+        if (channelFilter == null && !hideWatched) {
+            return getSubscriptionVideoPage(limit, videoId, beforeTimestamp);
+        }
+        final SQLiteDatabase store = LocalStore.get().getDatabase();
+        if (store == null) {
+            return getSubscriptionVideoPage(limit, videoId, beforeTimestamp);
+        }
+        final String sortingColumn = SubscriptionsVideosTable.COL_PUBLISH_TS;
+        final StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < SubscriptionsVideosTable.ALL_COLUMNS_FOR_EXTRACT.length; i++) {
+            sql.append(i > 0 ? ",v." : "v.").append(SubscriptionsVideosTable.ALL_COLUMNS_FOR_EXTRACT[i]);
+        }
+        sql.append(" FROM ").append(SubscriptionsVideosTable.TABLE_NAME).append(" v WHERE 1");
+        final List<String> arguments = new ArrayList<>(3);
+        if (videoId != null) {
+            sql.append(" AND ((v.").append(sortingColumn).append(" < ?) OR (v.").append(sortingColumn)
+                    .append(" = ? AND v.").append(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID).append(" > ?))");
+            String formatted = String.valueOf(beforeTimestamp);
+            arguments.add(formatted);
+            arguments.add(formatted);
+            arguments.add(videoId);
+        }
+        if (channelFilter != null) {
+            sql.append(channelFilter == ChannelListTable.BLACKLIST ? " AND NOT EXISTS" : " AND EXISTS")
+                    .append(String.format(" (SELECT 1 FROM %s.%s f WHERE f.%s = v.%s)", LocalStore.FILTERING,
+                            channelFilter.getTableName(), ChannelListTable.COL_CHANNEL_ID, SubscriptionsVideosTable.COL_CHANNEL_ID));
+        }
+        if (hideWatched) {
+            sql.append(String.format(" AND NOT EXISTS (SELECT 1 FROM %s.%s p WHERE p.%s = v.%s AND p.%s = 1)", LocalStore.PLAYBACK,
+                    PlaybackStatusTable.TABLE_NAME, PlaybackStatusTable.COL_YOUTUBE_VIDEO_ID, SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID,
+                    PlaybackStatusTable.COL_YOUTUBE_VIDEO_WATCHED));
+        }
+        sql.append(" ORDER BY v.").append(sortingColumn).append(" DESC, v.").append(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID)
+                .append(" ASC LIMIT ").append(limit);
+        return extractVideos(store.rawQuery(sql.toString(), arguments.toArray(new String[0])), true);
+    }
+
     /**
      * Query the database to retrieve number of videos for subscribed channels starting from the given video.
      * @return a list of {@link YouTubeVideo}
@@ -620,22 +832,10 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         return extractVideos(cursor, true);
     }
 
-    private Gson createGson() {
-    	return new GsonBuilder().registerTypeAdapter(YouTubeChannel.class, (JsonSerializer<YouTubeChannel>) (src, typeOfSrc, context) -> {
-			JsonObject obj = new JsonObject();
-			obj.addProperty("id", src.getId());
-			obj.addProperty("title", src.getTitle());
-			obj.addProperty("description", src.getDescription());
-			obj.addProperty("thumbnailNormalUrl", src.getThumbnailUrl());
-			obj.addProperty("bannerUrl", src.getBannerUrl());
-			return obj;
-		}).create();
-	}
-
     /**
      * Load YouTubeVideo objects from a cursor, only SubscriptionsVideosTable.COL_YOUTUBE_VIDEO column is needed.
      * @param cursor the cursor to process
-     * @param fullColumnList get all the columns, not just the JSON blob - set to false only for db
+     * @param fullColumnList get all the columns, not just the video blob - set to false only for db
      *                       maintenance queries!
      */
     private List<YouTubeVideo> extractVideos(Cursor cursor, boolean fullColumnList) {
@@ -645,40 +845,23 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
         try {
 
             if (cursor.moveToNext()) {
-                final int jsonIdx = cursor.getColumnIndex(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO);
+                final int videoIdx = cursor.getColumnIndex(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO);
                 final int idIdx = cursor.getColumnIndex(SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID);
                 final int retrievalIdx = fullColumnList ? cursor.getColumnIndex(SubscriptionsVideosTable.COL_RETRIEVAL_TS) : -1;
                 final int publishTsIdx = fullColumnList ? cursor.getColumnIndex(SubscriptionsVideosTable.COL_PUBLISH_TS) : -1;
 
                 do {
                     final String id = cursor.getString(idIdx);
-                    final byte[] blob = cursor.getBlob(jsonIdx);
-                    final String videoJson = new String(blob);
+                    final byte[] blob = cursor.getBlob(videoIdx);
 
-                    // convert JSON into YouTubeVideo
-                    YouTubeVideo video = gson.fromJson(videoJson, YouTubeVideo.class);
+                    YouTubeVideo video = YouTubeVideoCodec.decode(blob);
                     if (fullColumnList) {
                         video.setRetrievalTimestamp(cursor.getLong(retrievalIdx));
                         video.setPublishTimestamp(cursor.getLong(publishTsIdx));
                     }
                     video.updatePublishTimestampFromDate();
 
-                    // due to upgrade to YouTubeVideo (by changing channel{Id,Name} to
-                    // YouTubeChannel)
-                    // from version 2.82 to 2.90
-                    if (video.getChannel() == null) {
-                        try {
-                            JSONObject videoJsonObj = new JSONObject(videoJson);
-                            final String channelId = videoJsonObj.get("channelId").toString();
-                            final String channelName = videoJsonObj.get("channelName").toString();
-                            video.setChannel(new YouTubeChannel(channelId, channelName));
-                        } catch (JSONException e) {
-                            Logger.e(this, "Error occurred while extracting channel{Id,Name} from JSON", e);
-                        }
-                    }
                     if (video.getChannel() != null) {
-                        // regenerate the video's PublishDatePretty (e.g. 5 hours ago)
-                        video.forceRefreshPublishDatePretty();
                         // add the video to the list
                         videos.add(video);
                     } else {
@@ -697,11 +880,11 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 
     private void deleteVideosByIds(Set<String> ids) {
         for (String id: ids) {
-            Logger.w(this, "delete video by id: "+ id);
+            Logger.w(this, "delete video by id: %s", id);
             int rowsDeleted = getWritableDatabase().delete(SubscriptionsVideosTable.TABLE_NAME,
                         SubscriptionsVideosTable.COL_YOUTUBE_VIDEO_ID + " = ?",
                         new String[]{id});
-            Logger.w(this, "result "+rowsDeleted+" deleted");
+            Logger.w(this, "result %s deleted", rowsDeleted);
         }
     }
 
@@ -787,6 +970,57 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		return false;
 	}
 
+	/**
+	 * Save the channel details, and replace the cached first page of its videos with the videos of
+	 * the channel, if it has any - in one transaction.  Only the pages of the last
+	 * {@link #MAX_CACHED_CHANNEL_PAGES} channels are kept.
+	 *
+	 * @param channel which contains all the recent informations, and the first page of its videos.
+	 */
+	public void cacheChannelWithVideos(YouTubeChannel channel) {
+		SQLiteDatabase db = getWritableDatabase();
+		db.beginTransaction();
+		try {
+			cacheChannel(channel);
+			if (channel.getYouTubeVideos().isEmpty()) {
+				// the videos couldn't be downloaded, keep the previous ones
+				db.setTransactionSuccessful();
+				return;
+			}
+			db.delete(ChannelPageTable.TABLE_NAME, ChannelPageTable.COL_CHANNEL_ID + " = ?", new String[]{channel.getId()});
+			try (SQLiteStatement insert = db.compileStatement(INSERT_CHANNEL_PAGE_VIDEO)) {
+				int position = 0;
+				for (YouTubeVideo video : channel.getYouTubeVideos()) {
+					insert.bindString(1, channel.getId());
+					insert.bindLong(2, position++);
+					insert.bindBlob(3, YouTubeVideoCodec.encode(video));
+					insert.executeInsert();
+				}
+			}
+			db.execSQL(EVICT_CHANNEL_PAGES);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * @return The cached first page of the videos of the channel, or an empty list.
+	 */
+	public List<YouTubeVideo> getCachedChannelVideos(String channelId) {
+		List<YouTubeVideo> result = new ArrayList<>();
+		try (Cursor cursor = getReadableDatabase().rawQuery(GET_CHANNEL_PAGE, new String[]{channelId})) {
+			while (cursor.moveToNext()) {
+				try {
+					result.add(YouTubeVideoCodec.decode(cursor.getBlob(0)));
+				} catch (RuntimeException e) {
+					Logger.e(this, "Unable to read cached video of " + channelId + ": " + e.getMessage(), e);
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Removes the given channel from the local channel cache.
 	 *
@@ -796,6 +1030,9 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 	 */
 	public boolean removeCachedChannel(String channelId) {
 		// remove this channel from the subscriptions DB
+		getWritableDatabase().delete(ChannelPageTable.TABLE_NAME,
+				ChannelPageTable.COL_CHANNEL_ID + " = ?",
+				new String[]{channelId});
 		int rowsDeleted = getWritableDatabase().delete(LocalChannelTable.TABLE_NAME,
 				LocalChannelTable.COL_CHANNEL_ID + " = ?",
 				new String[]{channelId});
@@ -824,10 +1061,16 @@ public class SubscriptionsDb extends SQLiteOpenHelperEx {
 		if (Utils.isEmpty(searchText)) {
 			return getReadableDatabase().rawQuery(SUBSCRIBED_CHANNEL_INFO +
 					(sortChannelsAlphabetically ? SUBSCRIBED_CHANNEL_INFO_ORDER_BY : ""), null);
-		} else {
-			return getReadableDatabase().rawQuery(SUBSCRIBED_CHANNEL_INFO + SUBSCRIBED_CHANNEL_LIMIT_BY_TITLE +
+		}
+		final String matchQuery = VideoSearchIndex.toMatchQuery(searchText);
+		if (matchQuery != null) {
+			// every word of the text has to start a word of the title
+			return getReadableDatabase().rawQuery(SUBSCRIBED_CHANNEL_INFO + SUBSCRIBED_CHANNEL_MATCH_TITLE +
 							(sortChannelsAlphabetically ? SUBSCRIBED_CHANNEL_INFO_ORDER_BY : ""),
-					new String[]{"%"+searchText.toLowerCase()+"%"});
+					new String[]{matchQuery});
 		}
+		return getReadableDatabase().rawQuery(SUBSCRIBED_CHANNEL_INFO + SUBSCRIBED_CHANNEL_LIMIT_BY_TITLE +
+						(sortChannelsAlphabetically ? SUBSCRIBED_CHANNEL_INFO_ORDER_BY : ""),
+				new String[]{"%"+searchText.toLowerCase()+"%"});
 	}
 }
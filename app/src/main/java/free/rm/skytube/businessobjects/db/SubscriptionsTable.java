@@ -17,12 +17,16 @@
 
 package free.rm.skytube.businessobjects.db;
 
+import android.database.sqlite.SQLiteDatabase;
+
 /**
  * YouTube channels subscriptions table.
  */
 public class SubscriptionsTable {
 
 	public static final String TABLE_NAME = "Subs";
+	/** Full-text index of the channel titles, maintained by triggers */
+	public static final String SEARCH_TABLE_NAME = "Subs_Search";
 	public static final String COL_ID  = "_id";
 	public static final String COL_CHANNEL_ID = "Channel_Id";
 	public static final String COL_LAST_VISIT_TIME = "Last_Visit_Time";
@@ -32,6 +36,8 @@ public class SubscriptionsTable {
 	public static final String COL_THUMBNAIL_NORMAL_URL = "Thumbnail_Normal_Url";
 	public static final String COL_BANNER_URL = "Banner_Url";
 	public static final String COL_SUBSCRIBER_COUNT = "Subscriber_Count";
+	public static final String COL_FEED_ETAG = "Feed_ETag";
+	public static final String COL_FEED_LAST_MODIFIED = "Feed_Last_Modified";
 	public static final String[] ALL_COLUMNS = new String[]{
 			SubscriptionsTable.COL_CHANNEL_ID,
 			SubscriptionsTable.COL_TITLE,
@@ -54,7 +60,9 @@ public class SubscriptionsTable {
 				COL_BANNER_URL      	+ " TEXT, " +
 				COL_SUBSCRIBER_COUNT	+ " INTEGER, " +
 				COL_LAST_VISIT_TIME 	+ " TIMESTAMP DEFAULT (strftime('%s', 'now')), " +
-				COL_LAST_CHECK_TIME 	+ " INTEGER " +
+				COL_LAST_CHECK_TIME 	+ " INTEGER, " +
+				COL_FEED_ETAG       	+ " TEXT, " +
+				COL_FEED_LAST_MODIFIED	+ " TEXT " +
 		" )";
 	}
 
@@ -72,4 +80,36 @@ public class SubscriptionsTable {
 	public static String[] getLastCheckTimeColumn() {
 		return new String[] { ADD_COLUMN + COL_LAST_CHECK_TIME + " INTEGER "};
 	}
+
+	public static String[] getFeedValidatorColumns() {
+		return new String[] {
+				ADD_COLUMN + COL_FEED_ETAG + " TEXT",
+				ADD_COLUMN + COL_FEED_LAST_MODIFIED + " TEXT"
+		};
+	}
+
+	/**
+	 * Create the full-text index of the channel titles, and the triggers keeping it up to date.
+	 */
+	static void createSearchIndex(SQLiteDatabase db) {
+		VideoSearchIndex.createFtsTable(db, SEARCH_TABLE_NAME, COL_TITLE);
+		for (String statement : getSearchTriggers()) {
+			db.execSQL(statement);
+		}
+	}
+
+	private static String[] getSearchTriggers() {
+		return new String[] {
+				"CREATE TRIGGER " + SEARCH_TABLE_NAME + "_Insert AFTER INSERT ON " + TABLE_NAME + " BEGIN " +
+						"INSERT INTO " + SEARCH_TABLE_NAME + "(docid, " + COL_TITLE + ") VALUES (new." + COL_ID + ", new." + COL_TITLE + "); END",
+				"CREATE TRIGGER " + SEARCH_TABLE_NAME + "_Update AFTER UPDATE OF " + COL_TITLE + " ON " + TABLE_NAME + " BEGIN " +
+						"UPDATE " + SEARCH_TABLE_NAME + " SET " + COL_TITLE + " = new." + COL_TITLE + " WHERE docid = new." + COL_ID + "; END",
+				"CREATE TRIGGER " + SEARCH_TABLE_NAME + "_Delete AFTER DELETE ON " + TABLE_NAME + " BEGIN " +
+						"DELETE FROM " + SEARCH_TABLE_NAME + " WHERE docid = old." + COL_ID + "; END"
+		};
+	}
+
+	public static String getSearchBackfillStatement() {
+		return "INSERT INTO " + SEARCH_TABLE_NAME + "(docid, " + COL_TITLE + ") SELECT " + COL_ID + ", " + COL_TITLE + " FROM " + TABLE_NAME;
+	}
 }
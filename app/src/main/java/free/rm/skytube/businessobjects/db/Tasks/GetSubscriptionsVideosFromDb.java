@@ -21,9 +21,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.YouTube.GetYouTubeVideos;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.VideoBlocker;
+import free.rm.skytube.businessobjects.db.ChannelListTable;
 import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 
 
@@ -44,7 +47,11 @@ public class GetSubscriptionsVideosFromDb extends GetYouTubeVideos {
 	@Override
 	public synchronized List<CardData> getNextVideos() {
 		if (!noMoreVideoPages()) {
-			List<YouTubeVideo> result = SubscriptionsDb.getSubscriptionsDb().getSubscriptionVideoPage(20, lastVideoId, lastVideoPublishTimestamp);
+			// the channel filters and the watched videos are applied in the query, so only displayable videos are loaded
+			final ChannelListTable channelFilter = VideoBlocker.isVideoBlockerEnabled() ?
+					(VideoBlocker.isChannelBlacklistEnabled() ? ChannelListTable.BLACKLIST : ChannelListTable.WHITELIST) : null;
+			List<YouTubeVideo> result = SubscriptionsDb.getSubscriptionsDb().getSubscriptionVideoPage(20, lastVideoId, lastVideoPublishTimestamp,
+					channelFilter, SkyTubeApp.getSettings().isHideWatchedFeedVideos());
 			if (result.isEmpty()) {
 				noMoreVideoPages = true;
 				lastVideoId = null;
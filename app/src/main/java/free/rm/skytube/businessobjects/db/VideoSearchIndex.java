@@ -0,0 +1,177 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.os.Build;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideoCodec;
+
+/**
+ * A full-text (FTS4) index over the title, description and channel name of the videos stored in a
+ * table.
+ *
+ * <p>The rows of the index share the rowid of the video rows.  As the fields are inside the video
+ * blob, new and updated videos are indexed by the owner database, while the deleted ones are removed
+ * by a trigger - so every delete statement, present and future, keeps the index up to date.</p>
+ */
+class VideoSearchIndex {
+	static final String COL_TITLE = "Title";
+	static final String COL_DESCRIPTION = "Description";
+	static final String COL_CHANNEL_NAME = "Channel_Name";
+
+	private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private final String tableName;
+	private final String idColumn;
+	private final String videoColumn;
+	private final String indexName;
+
+	VideoSearchIndex(String tableName, String idColumn, String videoColumn) {
+		this.tableName = tableName;
+		this.idColumn = idColumn;
+		this.videoColumn = videoColumn;
+		this.indexName = tableName + "_Search";
+	}
+
+	/**
+	 * Create an FTS4 table.  The default 'simple' tokenizer only folds the case of the ASCII letters,
+	 * so the 'unicode61' tokenizer is used, where the SQLite of the device has it - otherwise the
+	 * indexed text has to be lower cased with {@link #normalize(String)}.
+	 */
+	static void createFtsTable(SQLiteDatabase db, String name, String... columns) {
+		final String statement = String.format("CREATE VIRTUAL TABLE %s USING fts4(%s", name, TextUtils.join(", ", columns));
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+			try {
+				db.execSQL(statement + ", tokenize=unicode61)");
+				return;
+			} catch (SQLiteException e) {
+				Logger.w(VideoSearchIndex.class, "The unicode61 tokenizer is not available for %s: %s", name, e.getMessage());
+			}
+		}
+		db.execSQL(statement + ")");
+	}
+
+	/**
+	 * @return The text in lower case, so the words are found with any tokenizer.
+	 */
+	static String normalize(String text) {
+		return text != null ? text.toLowerCase(Locale.ROOT) : null;
+	}
+
+	/**
+	 * Create the index, and fill it with the existing videos.
+	 */
+	void create(SQLiteDatabase db) {
+		createFtsTable(db, indexName, COL_TITLE, COL_DESCRIPTION, COL_CHANNEL_NAME);
+		db.execSQL(String.format("CREATE TRIGGER %1$s_Delete AFTER DELETE ON %2$s BEGIN DELETE FROM %1$s WHERE docid = old.rowid; END", indexName, tableName));
+		int count = 0;
+		try (Cursor cursor = db.rawQuery(String.format("SELECT rowid,%s FROM %s", videoColumn, tableName), null)) {
+			while (cursor.moveToNext()) {
+				final byte[] blob = cursor.getBlob(1);
+				if (blob != null) {
+					insert(db, cursor.getLong(0), YouTubeVideoCodec.decode(blob));
+					count++;
+				}
+			}
+		}
+		Logger.i(this, "Indexed %s videos in %s", count, tableName);
+	}
+
+	/**
+	 * Index the video, after it's inserted into, or updated in the table.
+	 */
+	void update(SQLiteDatabase db, YouTubeVideo video) {
+		remove(db, video.getId());
+		db.execSQL(String.format("INSERT INTO %s(docid,%s,%s,%s) SELECT rowid,?,?,? FROM %s WHERE %s = ?",
+				indexName, COL_TITLE, COL_DESCRIPTION, COL_CHANNEL_NAME, tableName, idColumn),
+				new Object[]{normalize(video.getTitle()), normalize(video.getDescription()), normalize(getChannelName(video)), video.getId()});
+	}
+
+	/**
+	 * Remove the video from the index - only needed before it's replaced, as the deletes are handled
+	 * by the trigger.
+	 */
+	void remove(SQLiteDatabase db, String videoId) {
+		db.execSQL(String.format("DELETE FROM %s WHERE docid IN (SELECT rowid FROM %s WHERE %s = ?)", indexName, tableName, idColumn),
+				new Object[]{videoId});
+	}
+
+	private void insert(SQLiteDatabase db, long rowId, YouTubeVideo video) {
+		db.execSQL(String.format("INSERT INTO %s(docid,%s,%s,%s) VALUES (?,?,?,?)", indexName, COL_TITLE, COL_DESCRIPTION, COL_CHANNEL_NAME),
+				new Object[]{rowId, normalize(video.getTitle()), normalize(video.getDescription()), normalize(getChannelName(video))});
+	}
+
+	private static String getChannelName(YouTubeVideo video) {
+		return video.getChannel() != null ? video.getChannelName() : null;
+	}
+
+	/**
+	 * Search the videos in the table.
+	 *
+	 * @param query The text, as typed by the user.
+	 * @param orderBy The sorting of the result.
+	 * @param limit The maximum number of videos returned.
+	 */
+	List<YouTubeVideo> search(SQLiteDatabase db, String query, String orderBy, int limit) {
+		final String matchQuery = toMatchQuery(query);
+		final List<YouTubeVideo> result = new ArrayList<>();
+		if (matchQuery == null) {
+			return result;
+		}
+		final String sql = String.format("SELECT t.%1$s FROM %2$s t JOIN %3$s i ON i.docid = t.rowid WHERE i.%3$s MATCH ? ORDER BY %4$s LIMIT %5$d",
+				videoColumn, tableName, indexName, orderBy, limit);
+		try (Cursor cursor = db.rawQuery(sql, new String[]{matchQuery})) {
+			while (cursor.moveToNext()) {
+				result.add(YouTubeVideoCodec.decode(cursor.getBlob(0)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Convert the text typed by the user to an FTS query, where every word must match as a prefix -
+	 * so the results are shown while the user is still typing.
+	 *
+	 * @return The query, or null, if the text doesn't contain any word.
+	 */
+	static String toMatchQuery(String text) {
+		if (text == null) {
+			return null;
+		}
+		final StringBuilder query = new StringBuilder();
+		for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+			if (!token.isEmpty()) {
+				if (query.length() > 0) {
+					query.append(' ');
+				}
+				query.append(token).append('*');
+			}
+		}
+		return query.length() > 0 ? query.toString() : null;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Handles the pause / resume / cancel actions of the download notifications.
+ */
+public class DownloadActionReceiver extends BroadcastReceiver {
+	static final String ACTION_PAUSE = "free.rm.skytube.download.PAUSE";
+	static final String ACTION_RESUME = "free.rm.skytube.download.RESUME";
+	static final String ACTION_CANCEL = "free.rm.skytube.download.CANCEL";
+	static final String VIDEO_ID = "DownloadActionReceiver.VIDEO_ID";
+
+	@Override
+	public void onReceive(Context context, Intent intent) {
+		final String videoId = intent.getStringExtra(VIDEO_ID);
+		if (videoId == null || intent.getAction() == null) {
+			return;
+		}
+		switch (intent.getAction()) {
+			case ACTION_PAUSE:
+				DownloadEngine.get().pause(videoId);
+				break;
+			case ACTION_RESUME:
+				DownloadEngine.get().resume(videoId);
+				break;
+			case ACTION_CANCEL:
+				DownloadEngine.get().cancel(videoId);
+				break;
+		}
+	}
+}
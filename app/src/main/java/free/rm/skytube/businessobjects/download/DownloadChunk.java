@@ -0,0 +1,106 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A byte range of a downloaded file, which is fetched with a separate HTTP Range request.
+ */
+public class DownloadChunk {
+	private final int index;
+	private final long start;
+	/** The last byte of the range (inclusive), or -1 if the length of the file is not known */
+	private final long end;
+	/** The next byte to download */
+	private volatile long position;
+
+	public DownloadChunk(int index, long start, long end, long position) {
+		this.index = index;
+		this.start = start;
+		this.end = end;
+		this.position = position;
+	}
+
+	/**
+	 * Split a file into chunks.
+	 *
+	 * @param length The length of the file, or -1 if it's not known - in which case it's downloaded in
+	 *               one piece.
+	 * @param maxChunks The maximum number of chunks.
+	 * @param minChunkSize The chunks are at least this big (except the last one).
+	 */
+	public static List<DownloadChunk> split(long length, int maxChunks, long minChunkSize) {
+		final List<DownloadChunk> chunks = new ArrayList<>(maxChunks);
+		if (length <= 0) {
+			chunks.add(new DownloadChunk(0, 0, -1, 0));
+			return chunks;
+		}
+		final int count = (int) Math.max(1, Math.min(maxChunks, length / minChunkSize));
+		final long chunkSize = length / count;
+		for (int i = 0; i < count; i++) {
+			final long start = i * chunkSize;
+			final long end = (i == count - 1) ? length - 1 : start + chunkSize - 1;
+			chunks.add(new DownloadChunk(i, start, end, start));
+		}
+		return chunks;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+
+	void advance(long bytes) {
+		position += bytes;
+	}
+
+	/**
+	 * Restart the download of this chunk - only possible when the server doesn't support ranges.
+	 */
+	void reset() {
+		position = start;
+	}
+
+	public boolean isComplete() {
+		return end >= 0 && position > end;
+	}
+
+	/**
+	 * @return The number of downloaded bytes in this chunk.
+	 */
+	public long getDownloaded() {
+		return position - start;
+	}
+
+	@Override
+	public String toString() {
+		return "DownloadChunk{" + index + ": " + start + '-' + end + " @" + position + '}';
+	}
+}
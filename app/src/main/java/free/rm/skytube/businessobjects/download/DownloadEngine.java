@@ -0,0 +1,711 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.net.Uri;
+import android.os.Environment;
+
+import androidx.annotation.NonNull;
+
+import org.schabi.newpipe.extractor.exceptions.ExtractionException;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.app.StreamSelectionPolicy;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Downloads videos in the background, from a persistent queue stored in {@link DownloadedVideosDb}.
+ *
+ * Every file is split into chunks, which are downloaded in parallel with HTTP Range requests, and their
+ * progress is saved, so an interrupted download - due to a network error, or because the app was
+ * killed - is resumed, instead of being restarted.  Expired stream URLs are resolved again.
+ * Separately downloaded video and audio tracks are muxed into one file by {@link TrackMuxer}.
+ */
+public class DownloadEngine {
+	private static final int MAX_PARALLEL_DOWNLOADS = 2;
+	private static final int CHUNKS_PER_FILE = 4;
+	private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+	private static final int MAX_RETRIES = 5;
+	private static final int MAX_URL_RESOLUTIONS = 2;
+	private static final long RETRY_DELAY_MS = 5 * 1000;
+	/** Progress of the chunks is stored after every this many bytes */
+	private static final long PROGRESS_SAVE_INTERVAL = 512 * 1024;
+	/** Listeners are notified about the progress at most this often */
+	private static final long PROGRESS_NOTIFY_INTERVAL_MS = 1000;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final String MUXED_SUFFIX = ".muxing";
+
+	/** Mimic the Mozilla user agent */
+	private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; WOW64; rv:68.0) Gecko/20100101 Firefox/68.0";
+
+	private static DownloadEngine instance;
+
+	/**
+	 * Notified about the changes of the queued downloads - on a background thread.
+	 */
+	public interface DownloadListener {
+		/**
+		 * The status or the progress of the download has changed.
+		 */
+		void onDownloadUpdated(@NonNull QueuedDownload download);
+
+		/**
+		 * The download has finished, and removed from the queue if it was successful.
+		 */
+		void onDownloadFinished(@NonNull QueuedDownload download, boolean success);
+
+		/**
+		 * The download was cancelled, and removed from the queue.
+		 */
+		void onDownloadRemoved(@NonNull QueuedDownload download);
+	}
+
+	private final DownloadedVideosDb db;
+	private final ExecutorService downloadExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_DOWNLOADS);
+	private final ExecutorService chunkExecutor = Executors.newFixedThreadPool(MAX_PARALLEL_DOWNLOADS * CHUNKS_PER_FILE);
+	private final Map<String, RunningDownload> running = new HashMap<>();
+	private final Set<DownloadListener> listeners = new CopyOnWriteArraySet<>();
+
+	private DownloadEngine(DownloadedVideosDb db) {
+		this.db = db;
+	}
+
+	public static synchronized DownloadEngine get() {
+		if (instance == null) {
+			instance = new DownloadEngine(DownloadedVideosDb.getVideoDownloadsDb());
+		}
+		return instance;
+	}
+
+	public void addListener(@NonNull DownloadListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(@NonNull DownloadListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Continue the downloads, which were queued or running when the app was stopped.
+	 */
+	public void resumeQueue() {
+		Schedulers.io().scheduleDirect(() -> {
+			db.requeueRunningDownloads();
+			schedule();
+		});
+	}
+
+	/**
+	 * Add the download to the queue, and start it, if there is a free slot.
+	 *
+	 * @return true, if it's added; false, if the video is already in the queue.
+	 */
+	public Single<Boolean> enqueue(@NonNull QueuedDownload download) {
+		return Single.fromCallable(() -> {
+			final boolean added = db.enqueueDownload(download);
+			if (added) {
+				notifyUpdated(download);
+				schedule();
+			}
+			return added;
+		}).subscribeOn(Schedulers.io());
+	}
+
+	/**
+	 * Stop the download, it can be continued later with {@link #resume(String)}.
+	 */
+	public void pause(@NonNull String videoId) {
+		Schedulers.io().scheduleDirect(() -> {
+			synchronized (this) {
+				RunningDownload runningDownload = running.get(videoId);
+				if (runningDownload != null) {
+					runningDownload.stop(false);
+					return;
+				}
+			}
+			QueuedDownload download = db.getQueuedDownload(videoId);
+			if (download != null && download.getStatus() == QueuedDownload.Status.QUEUED) {
+				download.setStatus(QueuedDownload.Status.PAUSED);
+				db.updateQueuedDownload(download);
+				notifyUpdated(download);
+			}
+		});
+	}
+
+	/**
+	 * Continue a paused download, or retry a failed one.
+	 */
+	public void resume(@NonNull String videoId) {
+		Schedulers.io().scheduleDirect(() -> {
+			QueuedDownload download = db.getQueuedDownload(videoId);
+			if (download != null && download.getStatus() != QueuedDownload.Status.RUNNING) {
+				download.setStatus(QueuedDownload.Status.QUEUED);
+				download.setRetryCount(0);
+				download.setError(null);
+				db.updateQueuedDownload(download);
+				notifyUpdated(download);
+				schedule();
+			}
+		});
+	}
+
+	/**
+	 * Stop the download, remove it from the queue, and delete the partially downloaded files.
+	 */
+	public void cancel(@NonNull String videoId) {
+		Schedulers.io().scheduleDirect(() -> {
+			synchronized (this) {
+				RunningDownload runningDownload = running.get(videoId);
+				if (runningDownload != null) {
+					// the cleanup is done by the download thread
+					runningDownload.stop(true);
+					return;
+				}
+			}
+			QueuedDownload download = db.getQueuedDownload(videoId);
+			if (download != null) {
+				removeDownload(download);
+			}
+		});
+	}
+
+	/**
+	 * Start the queued downloads, while there are free download slots.
+	 */
+	private synchronized void schedule() {
+		SkyTubeApp.nonUiThread();
+		if (running.size() >= MAX_PARALLEL_DOWNLOADS) {
+			return;
+		}
+		if (!Environment.MEDIA_MOUNTED.equals(Environment.getExternalStorageState())) {
+			Logger.w(this, "External storage is not available, downloads are not started");
+			return;
+		}
+		for (QueuedDownload download : db.getQueuedDownloads()) {
+			if (running.size() >= MAX_PARALLEL_DOWNLOADS) {
+				break;
+			}
+			if (download.getStatus() == QueuedDownload.Status.QUEUED && !running.containsKey(download.getVideoId())) {
+				download.setStatus(QueuedDownload.Status.RUNNING);
+				db.updateQueuedDownload(download);
+				final RunningDownload runningDownload = new RunningDownload(download);
+				running.put(download.getVideoId(), runningDownload);
+				downloadExecutor.execute(() -> run(runningDownload));
+			}
+		}
+	}
+
+	private void run(RunningDownload runningDownload) {
+		final QueuedDownload download = runningDownload.download;
+		Logger.i(this, "Starting download %s", download);
+		notifyUpdated(download);
+		try {
+			download(runningDownload);
+			finish(download);
+		} catch (DownloadStoppedException e) {
+			if (runningDownload.cancelled) {
+				removeDownload(download);
+			} else {
+				download.setStatus(QueuedDownload.Status.PAUSED);
+				db.updateQueuedDownload(download);
+				notifyUpdated(download);
+			}
+		} catch (Exception e) {
+			Logger.e(this, "Download failed for " + download.getVideoId() + ": " + e.getMessage(), e);
+			download.setStatus(QueuedDownload.Status.FAILED);
+			download.setError(e.getMessage());
+			db.updateQueuedDownload(download);
+			notifyFinished(download, false);
+		} finally {
+			synchronized (this) {
+				running.remove(download.getVideoId());
+			}
+			schedule();
+		}
+	}
+
+	/**
+	 * Download all the tracks of the video, retrying after network errors, and resolving the stream
+	 * URLs again, if they are expired.
+	 */
+	private void download(RunningDownload runningDownload) throws IOException, ExtractionException {
+		final QueuedDownload download = runningDownload.download;
+		int urlResolutions = 0;
+		boolean verifyLength = false;
+		while (true) {
+			try {
+				final List<Track> tracks = new ArrayList<>(download.getTrackCount());
+				for (int track = 0; track < download.getTrackCount(); track++) {
+					tracks.add(prepareTrack(download, track, verifyLength));
+				}
+				updateTotals(download, tracks);
+				db.updateQueuedDownload(download);
+				for (Track track : tracks) {
+					downloadTrack(runningDownload, track);
+				}
+				return;
+			} catch (StreamUrlExpiredException e) {
+				if (++urlResolutions > MAX_URL_RESOLUTIONS) {
+					throw e;
+				}
+				Logger.i(this, "Stream URL expired for %s, resolving it again", download.getVideoId());
+				resolveStreamUrls(download);
+				verifyLength = true;
+			} catch (DownloadStoppedException e) {
+				throw e;
+			} catch (IOException e) {
+				download.setRetryCount(download.getRetryCount() + 1);
+				if (download.getRetryCount() > MAX_RETRIES) {
+					throw e;
+				}
+				Logger.w(this, "Download of %s failed (%s), retrying #%s", download.getVideoId(), e.getMessage(), download.getRetryCount());
+				download.setError(e.getMessage());
+				db.updateQueuedDownload(download);
+				notifyUpdated(download);
+				runningDownload.sleep(RETRY_DELAY_MS * download.getRetryCount());
+			}
+		}
+	}
+
+	/**
+	 * Load the chunks of the track, or split it into chunks, if its download is not yet started.
+	 *
+	 * @param verifyLength Check that the length of the stream hasn't changed, as the URL is
+	 *                     resolved again; and restart the download of the track if it has.
+	 */
+	private Track prepareTrack(QueuedDownload download, int trackId, boolean verifyLength) throws IOException {
+		final String videoId = download.getVideoId();
+		final Track track = new Track(trackId, download.getUrl(trackId), download.getFile(trackId));
+		List<DownloadChunk> chunks = db.getDownloadChunks(videoId, trackId);
+		if (!chunks.isEmpty() && !track.partFile.exists()) {
+			Logger.w(this, "Partially downloaded file %s is gone, restart it", track.partFile);
+			chunks = new ArrayList<>();
+		}
+		if (chunks.isEmpty() && track.file.exists()) {
+			// already completed, in an earlier run
+			track.length = track.file.length();
+			track.complete = true;
+			return track;
+		}
+		if (chunks.isEmpty() || verifyLength) {
+			final RangeSupport rangeSupport = probe(track.url);
+			if (!chunks.isEmpty() && getLength(chunks) != rangeSupport.length) {
+				Logger.w(this, "Length of %s changed from %s to %s, restart it", track.file, getLength(chunks), rangeSupport.length);
+				chunks = new ArrayList<>();
+				track.partFile.delete();
+			}
+			if (chunks.isEmpty()) {
+				chunks = DownloadChunk.split(rangeSupport.length, rangeSupport.acceptsRanges ? CHUNKS_PER_FILE : 1, MIN_CHUNK_SIZE);
+				db.setDownloadChunks(videoId, trackId, chunks);
+			}
+		}
+		track.chunks = chunks;
+		track.length = getLength(chunks);
+		return track;
+	}
+
+	private static long getLength(List<DownloadChunk> chunks) {
+		final long end = chunks.get(chunks.size() - 1).getEnd();
+		return end >= 0 ? end + 1 : -1;
+	}
+
+	private void updateTotals(QueuedDownload download, List<Track> tracks) {
+		long total = 0;
+		long downloaded = 0;
+		for (Track track : tracks) {
+			if (track.length < 0) {
+				total = -1;
+			} else if (total >= 0) {
+				total += track.length;
+			}
+			downloaded += track.getDownloaded();
+		}
+		download.setTotalBytes(total);
+		download.setDownloadedBytes(downloaded);
+	}
+
+	private void downloadTrack(RunningDownload runningDownload, Track track) throws IOException {
+		if (track.complete) {
+			return;
+		}
+		final File parent = track.file.getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Unable to create folder " + parent);
+		}
+		try (RandomAccessFile file = new RandomAccessFile(track.partFile, "rw")) {
+			if (track.length > 0 && file.length() != track.length) {
+				file.setLength(track.length);
+			}
+			final FileChannel channel = file.getChannel();
+			final List<Future<?>> futures = new ArrayList<>();
+			for (DownloadChunk chunk : track.chunks) {
+				if (!chunk.isComplete()) {
+					futures.add(chunkExecutor.submit(() -> {
+						try {
+							downloadChunk(runningDownload, track, channel, chunk);
+						} catch (IOException e) {
+							// stop the other chunks too
+							runningDownload.chunkFailed = true;
+							throw e;
+						}
+						return null;
+					}));
+				}
+			}
+			waitForChunks(runningDownload, futures);
+		}
+		if (!track.partFile.renameTo(track.file)) {
+			throw new IOException("Unable to rename " + track.partFile + " to " + track.file);
+		}
+		db.setDownloadChunks(runningDownload.download.getVideoId(), track.id, new ArrayList<>());
+	}
+
+	/**
+	 * Wait until all the chunks are finished; if one of them fails, the others are stopped too.
+	 */
+	private void waitForChunks(RunningDownload runningDownload, List<Future<?>> futures) throws IOException {
+		IOException failure = null;
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				if (failure == null || failure instanceof DownloadStoppedException) {
+					failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				runningDownload.stop(false);
+				failure = new DownloadStoppedException();
+			}
+		}
+		runningDownload.chunkFailed = false;
+		if (failure != null) {
+			throw runningDownload.stopped ? new DownloadStoppedException() : failure;
+		}
+	}
+
+	private void downloadChunk(RunningDownload runningDownload, Track track, FileChannel channel, DownloadChunk chunk) throws IOException {
+		final String videoId = runningDownload.download.getVideoId();
+		final HttpURLConnection connection = openConnection(track.url);
+		try {
+			if (chunk.getEnd() >= 0) {
+				connection.setRequestProperty("Range", "bytes=" + chunk.getPosition() + "-" + chunk.getEnd());
+			}
+			final int responseCode = connection.getResponseCode();
+			if (responseCode == HttpURLConnection.HTTP_FORBIDDEN || responseCode == HttpURLConnection.HTTP_GONE) {
+				throw new StreamUrlExpiredException(track.url, responseCode);
+			}
+			if (responseCode == HttpURLConnection.HTTP_OK) {
+				if (chunk.getStart() != 0 || track.chunks.size() > 1) {
+					throw new IOException("Server ignored the range request for " + track.file);
+				}
+				// the whole file is sent, start again
+				runningDownload.addProgress(-chunk.getDownloaded());
+				chunk.reset();
+			} else if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+				throw new IOException("HTTP " + responseCode + " " + connection.getResponseMessage());
+			}
+
+			long lastSaved = chunk.getPosition();
+			final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			try (InputStream input = connection.getInputStream()) {
+				int readCount;
+				while ((readCount = input.read(buffer.array())) != -1) {
+					buffer.position(0).limit(readCount);
+					long position = chunk.getPosition();
+					while (buffer.hasRemaining()) {
+						position += channel.write(buffer, position);
+					}
+					chunk.advance(readCount);
+					runningDownload.addProgress(readCount);
+					if (chunk.getPosition() - lastSaved >= PROGRESS_SAVE_INTERVAL) {
+						db.updateDownloadChunk(videoId, track.id, chunk);
+						lastSaved = chunk.getPosition();
+					}
+					if (runningDownload.stopped || runningDownload.chunkFailed) {
+						throw new DownloadStoppedException();
+					}
+					if (chunk.isComplete()) {
+						break;
+					}
+				}
+			}
+			if (chunk.getEnd() >= 0 && !chunk.isComplete()) {
+				throw new IOException("Connection closed at " + chunk.getPosition() + " instead of " + chunk.getEnd() + " for " + track.file);
+			}
+		} finally {
+			db.updateDownloadChunk(videoId, track.id, chunk);
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Find out the length of the stream, and whether it supports HTTP Range requests.
+	 */
+	private RangeSupport probe(String url) throws IOException {
+		final HttpURLConnection connection = openConnection(url);
+		try {
+			connection.setRequestProperty("Range", "bytes=0-0");
+			final int responseCode = connection.getResponseCode();
+			if (responseCode == HttpURLConnection.HTTP_FORBIDDEN || responseCode == HttpURLConnection.HTTP_GONE) {
+				throw new StreamUrlExpiredException(url, responseCode);
+			}
+			if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+				// Content-Range: bytes 0-0/12345
+				final String contentRange = connection.getHeaderField("Content-Range");
+				final int slash = contentRange != null ? contentRange.lastIndexOf('/') : -1;
+				if (slash > 0) {
+					try {
+						return new RangeSupport(Long.parseLong(contentRange.substring(slash + 1).trim()), true);
+					} catch (NumberFormatException e) {
+						Logger.w(this, "Unexpected Content-Range: %s", contentRange);
+					}
+				}
+				return new RangeSupport(-1, false);
+			}
+			if (responseCode == HttpURLConnection.HTTP_OK) {
+				return new RangeSupport(connection.getContentLength(), false);
+			}
+			throw new IOException("HTTP " + responseCode + " " + connection.getResponseMessage());
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private HttpURLConnection openConnection(String url) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setConnectTimeout(30 * 1000); // 30s
+		connection.setReadTimeout(30 * 1000); // 30s
+		connection.setRequestProperty("User-Agent", USER_AGENT);
+		return connection;
+	}
+
+	/**
+	 * The stream URLs are only valid for a couple of hours, get new ones through {@link NewPipeService}.
+	 */
+	private void resolveStreamUrls(QueuedDownload download) throws IOException, ExtractionException {
+		final StreamInfo streamInfo = NewPipeService.get().getStreamInfoByVideoId(download.getVideoId());
+		final StreamSelectionPolicy policy = SkyTubeApp.getSettings().getDesiredVideoResolution(true)
+				.withAllowVideoOnly(download.getTrackCount() > 1)
+				.withMuxableAudio(true);
+		final StreamSelectionPolicy.StreamSelection selection = policy.select(streamInfo);
+		if (selection == null) {
+			throw new IOException("No stream found for " + download.getVideoId() + " with " + policy);
+		}
+		download.setStreamUrls(selection.getVideoStream().getUrl(),
+				download.getTrackCount() > 1 && selection.getAudioStream() != null ? selection.getAudioStream().getUrl() : null);
+		db.updateQueuedDownload(download);
+	}
+
+	private void finish(QueuedDownload download) {
+		final boolean separateAudio = download.getTrackCount() > 1 && !mux(download);
+		final Uri videoUri = Uri.fromFile(download.getVideoFile());
+		final Uri audioUri = separateAudio ? Uri.fromFile(download.getAudioFile()) : null;
+		final boolean success = db.completeDownload(download.getVideo(), videoUri, audioUri);
+		Logger.i(this, "Download finished %s -> %s", download, success);
+		notifyFinished(download, success);
+	}
+
+	/**
+	 * Combine the downloaded video and audio tracks into one file, which replaces the video file.
+	 *
+	 * @return True, if the tracks are muxed; false if they have to be played separately.
+	 */
+	private boolean mux(QueuedDownload download) {
+		final File videoFile = download.getVideoFile();
+		final File audioFile = download.getAudioFile();
+		final File muxedFile = new File(videoFile.getPath() + MUXED_SUFFIX);
+		try {
+			final long start = System.currentTimeMillis();
+			if (!TrackMuxer.mux(videoFile, audioFile, muxedFile)) {
+				return false;
+			}
+			// rename replaces the video-only file atomically
+			if (!muxedFile.renameTo(videoFile)) {
+				throw new IOException("Unable to replace " + videoFile + " with " + muxedFile);
+			}
+			if (!audioFile.delete()) {
+				Logger.w(this, "Unable to delete %s", audioFile);
+			}
+			Logger.i(this, "Muxed %s in %s ms", videoFile, System.currentTimeMillis() - start);
+			return true;
+		} catch (IOException e) {
+			Logger.e(this, "Unable to mux " + download + ": " + e.getMessage(), e);
+			muxedFile.delete();
+			return false;
+		}
+	}
+
+	private void removeDownload(QueuedDownload download) {
+		for (int track = 0; track < download.getTrackCount(); track++) {
+			new File(download.getFile(track).getPath() + Track.PART_SUFFIX).delete();
+		}
+		db.removeQueuedDownload(download.getVideoId());
+		for (DownloadListener listener : listeners) {
+			listener.onDownloadRemoved(download);
+		}
+	}
+
+	private void notifyUpdated(QueuedDownload download) {
+		for (DownloadListener listener : listeners) {
+			listener.onDownloadUpdated(download);
+		}
+	}
+
+	private void notifyFinished(QueuedDownload download, boolean success) {
+		for (DownloadListener listener : listeners) {
+			listener.onDownloadFinished(download, success);
+		}
+	}
+
+	/**
+	 * A file of the download - either the video, or the separate audio track.
+	 */
+	private static class Track {
+		static final String PART_SUFFIX = ".part";
+
+		final int id;
+		final String url;
+		final File file;
+		final File partFile;
+		List<DownloadChunk> chunks = new ArrayList<>();
+		long length;
+		boolean complete;
+
+		Track(int id, String url, File file) {
+			this.id = id;
+			this.url = url;
+			this.file = file;
+			this.partFile = new File(file.getPath() + PART_SUFFIX);
+		}
+
+		long getDownloaded() {
+			if (complete) {
+				return length;
+			}
+			long downloaded = 0;
+			for (DownloadChunk chunk : chunks) {
+				downloaded += chunk.getDownloaded();
+			}
+			return downloaded;
+		}
+	}
+
+	private static class RangeSupport {
+		final long length;
+		final boolean acceptsRanges;
+
+		RangeSupport(long length, boolean acceptsRanges) {
+			this.length = length;
+			this.acceptsRanges = acceptsRanges;
+		}
+	}
+
+	/**
+	 * State of a download, which is currently running.
+	 */
+	private class RunningDownload {
+		final QueuedDownload download;
+		volatile boolean stopped;
+		volatile boolean cancelled;
+		/** Set, when one of the chunks has failed, so the others should stop too */
+		volatile boolean chunkFailed;
+		private long lastNotified;
+
+		RunningDownload(QueuedDownload download) {
+			this.download = download;
+		}
+
+		synchronized void stop(boolean cancel) {
+			stopped = true;
+			cancelled |= cancel;
+			notifyAll();
+		}
+
+		synchronized void sleep(long millis) throws DownloadStoppedException {
+			final long until = System.currentTimeMillis() + millis;
+			long remaining = millis;
+			while (!stopped && remaining > 0) {
+				try {
+					wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					stopped = true;
+				}
+				remaining = until - System.currentTimeMillis();
+			}
+			if (stopped) {
+				throw new DownloadStoppedException();
+			}
+		}
+
+		void addProgress(long bytes) {
+			final long now;
+			synchronized (this) {
+				download.setDownloadedBytes(download.getDownloadedBytes() + bytes);
+				now = System.currentTimeMillis();
+				if (now - lastNotified < PROGRESS_NOTIFY_INTERVAL_MS) {
+					return;
+				}
+				lastNotified = now;
+			}
+			notifyUpdated(download);
+		}
+	}
+
+	/**
+	 * The download was paused, or cancelled by the user.
+	 */
+	static class DownloadStoppedException extends IOException {
+		DownloadStoppedException() {
+			super("Download stopped");
+		}
+	}
+
+	/**
+	 * The stream URL is not valid anymore.
+	 */
+	static class StreamUrlExpiredException extends IOException {
+		StreamUrlExpiredException(String url, int responseCode) {
+			super("HTTP " + responseCode + " for " + url);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+
+import free.rm.skytube.R;
+import free.rm.skytube.app.SkyTubeApp;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+
+/**
+ * Shows the progress of the queued downloads in notifications, with pause and resume actions.
+ */
+public class DownloadNotifier implements DownloadEngine.DownloadListener {
+	/** Notification ids of the downloads start from here, to not collide with the other notifications */
+	private static final int NOTIFICATION_ID_BASE = 0x1000;
+
+	private final Context context;
+	private final NotificationManager notificationManager;
+
+	public DownloadNotifier(@NonNull Context context) {
+		this.context = context.getApplicationContext();
+		this.notificationManager = ContextCompat.getSystemService(this.context, NotificationManager.class);
+	}
+
+	@Override
+	public void onDownloadUpdated(@NonNull QueuedDownload download) {
+		final NotificationCompat.Builder builder = createBuilder(download);
+		switch (download.getStatus()) {
+			case QUEUED:
+			case RUNNING:
+				final int progress = download.getProgress();
+				builder.setOngoing(true)
+						.setProgress(100, Math.max(progress, 0), progress < 0)
+						.addAction(0, context.getString(R.string.pause_download), createAction(DownloadActionReceiver.ACTION_PAUSE, download));
+				if (download.getError() != null) {
+					builder.setContentText(download.getError());
+				}
+				break;
+			case PAUSED:
+				builder.setContentText(context.getString(R.string.download_paused))
+						.addAction(0, context.getString(R.string.resume_download), createAction(DownloadActionReceiver.ACTION_RESUME, download))
+						.addAction(0, context.getString(R.string.cancel), createAction(DownloadActionReceiver.ACTION_CANCEL, download));
+				break;
+			case FAILED:
+				builder.setContentText(download.getError())
+						.addAction(0, context.getString(R.string.retry_download), createAction(DownloadActionReceiver.ACTION_RESUME, download))
+						.addAction(0, context.getString(R.string.cancel), createAction(DownloadActionReceiver.ACTION_CANCEL, download));
+				break;
+		}
+		notificationManager.notify(getNotificationId(download), builder.build());
+	}
+
+	@Override
+	public void onDownloadFinished(@NonNull QueuedDownload download, boolean success) {
+		if (download.getStatus() == QueuedDownload.Status.FAILED) {
+			// keep the notification, so the download can be retried
+			onDownloadUpdated(download);
+			AndroidSchedulers.mainThread().scheduleDirect(() -> Toast.makeText(context,
+					String.format(context.getString(R.string.video_download_stream_error), download.getVideo().getTitle()),
+					Toast.LENGTH_LONG).show());
+			return;
+		}
+		notificationManager.cancel(getNotificationId(download));
+		if (success) {
+			AndroidSchedulers.mainThread().scheduleDirect(() -> Toast.makeText(context,
+					String.format(context.getString(R.string.video_downloaded), download.getVideo().getTitle()),
+					Toast.LENGTH_LONG).show());
+		}
+	}
+
+	@Override
+	public void onDownloadRemoved(@NonNull QueuedDownload download) {
+		notificationManager.cancel(getNotificationId(download));
+	}
+
+	private NotificationCompat.Builder createBuilder(QueuedDownload download) {
+		return new NotificationCompat.Builder(context, SkyTubeApp.DOWNLOADS_NOTIFICATION_CHANNEL)
+				.setSmallIcon(R.drawable.ic_notification_icon)
+				.setContentTitle(download.getVideo().getTitle())
+				.setOnlyAlertOnce(true)
+				.setPriority(NotificationCompat.PRIORITY_LOW);
+	}
+
+	private PendingIntent createAction(String action, QueuedDownload download) {
+		final Intent intent = new Intent(context, DownloadActionReceiver.class)
+				.setAction(action)
+				.putExtra(DownloadActionReceiver.VIDEO_ID, download.getVideoId());
+		return PendingIntent.getBroadcast(context, getNotificationId(download), intent, PendingIntent.FLAG_UPDATE_CURRENT);
+	}
+
+	private static int getNotificationId(QueuedDownload download) {
+		return NOTIFICATION_ID_BASE + (download.getVideoId().hashCode() & 0xFFFFF);
+	}
+}
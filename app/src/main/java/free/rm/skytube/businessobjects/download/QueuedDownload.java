@@ -0,0 +1,227 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import org.schabi.newpipe.extractor.stream.AudioStream;
+import org.schabi.newpipe.extractor.stream.VideoStream;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.regex.Pattern;
+
+import free.rm.skytube.app.StreamSelectionPolicy;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+
+/**
+ * A video in the download queue:  the stream URLs, the local files they are saved into and the
+ * progress of the download.
+ */
+public class QueuedDownload implements Serializable {
+
+	public enum Status {
+		/** Waiting for a free download slot */
+		QUEUED,
+		/** Being downloaded */
+		RUNNING,
+		/** Paused by the user */
+		PAUSED,
+		/** Failed, even after the retries - it can be restarted by the user */
+		FAILED
+	}
+
+	public static final int TRACK_VIDEO = 0;
+	public static final int TRACK_AUDIO = 1;
+
+	private static final Pattern INVALID_CHARACTERS = Pattern.compile("[^\\w\\d]+");
+
+	private final YouTubeVideo video;
+	private Status status;
+	private int priority;
+	private String videoUrl;
+	private String audioUrl;
+	private final File videoFile;
+	private final File audioFile;
+	private long totalBytes;
+	private volatile long downloadedBytes;
+	private int retryCount;
+	private String error;
+
+	public QueuedDownload(YouTubeVideo video, Status status, int priority, String videoUrl, String audioUrl,
+						  File videoFile, File audioFile, long totalBytes, long downloadedBytes, int retryCount, String error) {
+		this.video = video;
+		this.status = status;
+		this.priority = priority;
+		this.videoUrl = videoUrl;
+		this.audioUrl = audioUrl;
+		this.videoFile = videoFile;
+		this.audioFile = audioFile;
+		this.totalBytes = totalBytes;
+		this.downloadedBytes = downloadedBytes;
+		this.retryCount = retryCount;
+		this.error = error;
+	}
+
+	/**
+	 * Create a new download for the selected streams.
+	 *
+	 * @param video The video to download.
+	 * @param selection The selected streams.
+	 * @param parentFolder The download folder.
+	 * @param toSeparateFolders If true, the files are saved into a folder named after the channel.
+	 * @param priority Downloads with higher priority are started first.
+	 */
+	public static QueuedDownload create(YouTubeVideo video, StreamSelectionPolicy.StreamSelection selection,
+										File parentFolder, boolean toSeparateFolders, int priority) {
+		File folder = parentFolder;
+		if (toSeparateFolders && video.getChannelName() != null) {
+			final String folderName = sanitize(video.getChannelName());
+			if (!folderName.isEmpty()) {
+				folder = new File(parentFolder, folderName);
+			}
+		}
+		final String fileName = sanitize(video.getId() + " - " + video.getTitle());
+		final VideoStream videoStream = selection.getVideoStream();
+		final AudioStream audioStream = selection.getAudioStream();
+		final File videoFile = new File(folder, fileName + "." + videoStream.getFormat().suffix);
+		final File audioFile = audioStream != null ? new File(folder, fileName + " audio." + audioStream.getFormat().suffix) : null;
+
+		return new QueuedDownload(video, Status.QUEUED, priority, videoStream.getUrl(),
+				audioStream != null ? audioStream.getUrl() : null, videoFile, audioFile, -1, 0, 0, null);
+	}
+
+	private static String sanitize(String name) {
+		return INVALID_CHARACTERS.matcher(name).replaceAll(" ").trim();
+	}
+
+	public String getVideoId() {
+		return video.getId();
+	}
+
+	public YouTubeVideo getVideo() {
+		return video;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public String getVideoUrl() {
+		return videoUrl;
+	}
+
+	public String getAudioUrl() {
+		return audioUrl;
+	}
+
+	/**
+	 * Update the stream URLs, after they expired.
+	 */
+	public void setStreamUrls(String videoUrl, String audioUrl) {
+		this.videoUrl = videoUrl;
+		this.audioUrl = audioUrl;
+	}
+
+	public File getVideoFile() {
+		return videoFile;
+	}
+
+	public File getAudioFile() {
+		return audioFile;
+	}
+
+	public String getUrl(int track) {
+		return track == TRACK_AUDIO ? audioUrl : videoUrl;
+	}
+
+	public File getFile(int track) {
+		return track == TRACK_AUDIO ? audioFile : videoFile;
+	}
+
+	/**
+	 * @return The number of tracks:  2, if the audio is downloaded separately, otherwise 1.
+	 */
+	public int getTrackCount() {
+		return audioUrl != null && audioFile != null ? 2 : 1;
+	}
+
+	/**
+	 * @return The size of all the tracks, or -1 if it's not yet known.
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public void setTotalBytes(long totalBytes) {
+		this.totalBytes = totalBytes;
+	}
+
+	public long getDownloadedBytes() {
+		return downloadedBytes;
+	}
+
+	public void setDownloadedBytes(long downloadedBytes) {
+		this.downloadedBytes = downloadedBytes;
+	}
+
+	/**
+	 * @return The progress in percent, or -1 if it's not known.
+	 */
+	public int getProgress() {
+		if (totalBytes <= 0) {
+			return -1;
+		}
+		return (int) Math.min(100, downloadedBytes * 100 / totalBytes);
+	}
+
+	public int getRetryCount() {
+		return retryCount;
+	}
+
+	public void setRetryCount(int retryCount) {
+		this.retryCount = retryCount;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	@Override
+	public String toString() {
+		return "QueuedDownload{" +
+				"videoId=" + getVideoId() +
+				", status=" + status +
+				", priority=" + priority +
+				", videoFile=" + videoFile +
+				", audioFile=" + audioFile +
+				", " + downloadedBytes + '/' + totalBytes +
+				", retryCount=" + retryCount +
+				(error != null ? ", error=" + error : "") +
+				'}';
+	}
+}
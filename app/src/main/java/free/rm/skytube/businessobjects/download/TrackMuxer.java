@@ -0,0 +1,166 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.businessobjects.download;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import free.rm.skytube.businessobjects.Logger;
+
+/**
+ * Combines a downloaded video-only file and the separately downloaded audio track into one file.
+ *
+ * The samples are copied one by one - interleaved by their timestamps - through a single reused
+ * buffer, so the files are never loaded into memory.  Only the container is rewritten, nothing is
+ * re-encoded.
+ */
+public class TrackMuxer {
+	private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+	private TrackMuxer() {
+	}
+
+	/**
+	 * @return True, if the device can mux at least MP4 files.
+	 */
+	public static boolean isAvailable() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+	}
+
+	/**
+	 * Mux the video and the audio track into the output file.
+	 *
+	 * @return True, if the output is written; false if the codecs of the tracks can't be stored in one
+	 * container on this device - in which case the files are kept separately.
+	 */
+	public static boolean mux(File videoFile, File audioFile, File outputFile) throws IOException {
+		if (!isAvailable()) {
+			return false;
+		}
+		return muxTracks(videoFile, audioFile, outputFile);
+	}
+
+	@RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN_MR2)
+	private static boolean muxTracks(File videoFile, File audioFile, File outputFile) throws IOException {
+		final MediaExtractor video = new MediaExtractor();
+		final MediaExtractor audio = new MediaExtractor();
+		MediaMuxer muxer = null;
+		try {
+			video.setDataSource(videoFile.getAbsolutePath());
+			audio.setDataSource(audioFile.getAbsolutePath());
+			final MediaFormat videoFormat = selectTrack(video, "video/");
+			final MediaFormat audioFormat = selectTrack(audio, "audio/");
+			if (videoFormat == null || audioFormat == null) {
+				Logger.w(TrackMuxer.class, "Missing track in %s or %s", videoFile, audioFile);
+				return false;
+			}
+			final Integer outputFormat = getOutputFormat(videoFormat.getString(MediaFormat.KEY_MIME), audioFormat.getString(MediaFormat.KEY_MIME));
+			if (outputFormat == null) {
+				Logger.i(TrackMuxer.class, "Unable to mux %s and %s on this device", videoFormat, audioFormat);
+				return false;
+			}
+
+			muxer = new MediaMuxer(outputFile.getAbsolutePath(), outputFormat);
+			final int videoTrack = muxer.addTrack(videoFormat);
+			final int audioTrack = muxer.addTrack(audioFormat);
+			muxer.start();
+
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(getMaxInputSize(videoFormat), getMaxInputSize(audioFormat)));
+			final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+			while (true) {
+				final long videoTime = video.getSampleTime();
+				final long audioTime = audio.getSampleTime();
+				if (videoTime < 0 && audioTime < 0) {
+					break;
+				}
+				// write the sample with the lower timestamp first, so the output is interleaved
+				final boolean fromVideo = audioTime < 0 || (videoTime >= 0 && videoTime <= audioTime);
+				final MediaExtractor extractor = fromVideo ? video : audio;
+				final int size = extractor.readSampleData(buffer, 0);
+				if (size >= 0) {
+					final int flags = (extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0 ? MediaCodec.BUFFER_FLAG_SYNC_FRAME : 0;
+					info.set(0, size, extractor.getSampleTime(), flags);
+					muxer.writeSampleData(fromVideo ? videoTrack : audioTrack, buffer, info);
+				}
+				extractor.advance();
+			}
+			muxer.stop();
+			return true;
+		} catch (IllegalStateException | IllegalArgumentException e) {
+			throw new IOException("Muxing " + videoFile + " and " + audioFile + " failed: " + e.getMessage(), e);
+		} finally {
+			if (muxer != null) {
+				try {
+					muxer.release();
+				} catch (IllegalStateException e) {
+					Logger.w(TrackMuxer.class, "Unable to release the muxer: %s", e.getMessage());
+				}
+			}
+			video.release();
+			audio.release();
+		}
+	}
+
+	@RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN_MR2)
+	private static MediaFormat selectTrack(MediaExtractor extractor, String mimePrefix) {
+		for (int i = 0; i < extractor.getTrackCount(); i++) {
+			final MediaFormat format = extractor.getTrackFormat(i);
+			final String mime = format.getString(MediaFormat.KEY_MIME);
+			if (mime != null && mime.startsWith(mimePrefix)) {
+				extractor.selectTrack(i);
+				return format;
+			}
+		}
+		return null;
+	}
+
+	private static int getMaxInputSize(MediaFormat format) {
+		if (format.containsKey(MediaFormat.KEY_MAX_INPUT_SIZE)) {
+			return Math.max(format.getInteger(MediaFormat.KEY_MAX_INPUT_SIZE), DEFAULT_BUFFER_SIZE);
+		}
+		return DEFAULT_BUFFER_SIZE;
+	}
+
+	/**
+	 * @return The {@link MediaMuxer.OutputFormat}, which can hold both codecs on this device, or null.
+	 */
+	@RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN_MR2)
+	private static Integer getOutputFormat(String videoMime, String audioMime) {
+		final int sdk = Build.VERSION.SDK_INT;
+		if ((MediaFormat.MIMETYPE_VIDEO_AVC.equals(videoMime) || MediaFormat.MIMETYPE_VIDEO_MPEG4.equals(videoMime))
+				&& MediaFormat.MIMETYPE_AUDIO_AAC.equals(audioMime)) {
+			return MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4;
+		}
+		final boolean webmVideo = (MediaFormat.MIMETYPE_VIDEO_VP8.equals(videoMime) && sdk >= Build.VERSION_CODES.LOLLIPOP)
+				|| (MediaFormat.MIMETYPE_VIDEO_VP9.equals(videoMime) && sdk >= Build.VERSION_CODES.N);
+		final boolean webmAudio = (MediaFormat.MIMETYPE_AUDIO_VORBIS.equals(audioMime) && sdk >= Build.VERSION_CODES.LOLLIPOP)
+				|| (MediaFormat.MIMETYPE_AUDIO_OPUS.equals(audioMime) && sdk >= Build.VERSION_CODES.Q);
+		if (webmVideo && webmAudio) {
+			return MediaMuxer.OutputFormat.MUXER_OUTPUT_WEBM;
+		}
+		return null;
+	}
+}
@@ -1,6 +1,7 @@
 package free.rm.skytube.businessobjects.interfaces;
 
-import java.util.List;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
 
@@ -8,5 +9,12 @@ import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
  * An interface to be used by a SQLiteOpenHelperEx database object, indicating that the videos in the database may be reordered.
  */
 public interface OrderableDatabase {
-	void updateOrder(List<CardData> videos);
+	/**
+	 * Move the video to a new position - must be called from a background thread.
+	 *
+	 * @param video The moved video.
+	 * @param previous The video displayed right above its new position, or null, if it's moved to the top.
+	 * @return The new order number of the video, or null, if it couldn't be moved.
+	 */
+	Integer moveItem(@NonNull CardData video, @Nullable CardData previous);
 }
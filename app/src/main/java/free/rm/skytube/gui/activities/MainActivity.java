@@ -59,6 +59,7 @@ import free.rm.skytube.businessobjects.TLSSocketFactory;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.VideoBlocker;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
 import free.rm.skytube.businessobjects.db.SearchHistoryDb;
 import free.rm.skytube.businessobjects.db.SearchHistoryTable;
@@ -71,6 +72,10 @@ import free.rm.skytube.gui.fragments.MainFragment;
 import free.rm.skytube.gui.fragments.PlaylistVideosFragment;
 import free.rm.skytube.gui.fragments.SearchVideoGridFragment;
 import free.rm.skytube.gui.fragments.SubscriptionsFeedFragment;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Main activity (launcher).  This activity holds {@link free.rm.skytube.gui.fragments.VideosGridFragment}.
@@ -85,12 +90,18 @@ public class MainActivity extends BaseActivity {
 	/** Fragment that shows Videos from a specific Playlist */
 	private VideoBlockerPlugin      videoBlockerPlugin;
 
+	/** The pending request for the search suggestions of YouTube */
+	private Disposable remoteSuggestionsRequest;
+
 	/** Set to true of the UpdatesCheckerTask has run; false otherwise. */
 	private static boolean updatesCheckerTaskRan = false;
 
 	public static final String ACTION_VIEW_CHANNEL = "MainActivity.ViewChannel";
 	public static final String ACTION_VIEW_FEED = "MainActivity.ViewFeed";
 	public static final String ACTION_VIEW_PLAYLIST = "MainActivity.ViewPlaylist";
+	/** The minimum length of the search text, to ask YouTube for suggestions */
+	private static final int MIN_REMOTE_SUGGESTION_LENGTH = 2;
+
 	private static final String MAIN_FRAGMENT   = "MainActivity.MainFragment";
 	private static final String SEARCH_FRAGMENT = "MainActivity.SearchFragment";
 	private static final String CHANNEL_BROWSER_FRAGMENT = "MainActivity.ChannelBrowserFragment";
@@ -233,6 +244,14 @@ public class MainActivity extends BaseActivity {
 		}
 	}
 
+	@Override
+	protected void onDestroy() {
+		if (remoteSuggestionsRequest != null) {
+			remoteSuggestionsRequest.dispose();
+		}
+		super.onDestroy();
+	}
+
 	private ChannelBrowserFragment getChannelBrowserFragment() {
 		Fragment fragment = getSupportFragmentManager().findFragmentByTag(CHANNEL_BROWSER_FRAGMENT_TAG);
 		if (fragment != null) {
@@ -302,20 +321,26 @@ public class MainActivity extends BaseActivity {
 					return false;
 				}
 
-				Cursor cursor = SearchHistoryDb.getSearchHistoryDb().getSearchCursor(newText);
-
-				// if the adapter has not been created, then create it
-				SearchHistoryCursorAdapter searchHistoryCursorAdapter = new SearchHistoryCursorAdapter(getBaseContext(),
-						R.layout.search_hint,
-						cursor,
-						new String[]{SearchHistoryTable.COL_SEARCH_TEXT},
-						new int[]{android.R.id.text1},
-						0);
-				searchHistoryCursorAdapter.setSearchHistoryClickListener(query -> displaySearchResults(query, searchView));
-				searchView.setSuggestionsAdapter(searchHistoryCursorAdapter);
+				setSearchSuggestions(searchView, newText, SearchHistoryDb.getSearchHistoryDb().getSearchCursor(newText));
 
-				// update the current search string
-				searchHistoryCursorAdapter.setSearchBarString(newText);
+				// the previous request is outdated
+				if (remoteSuggestionsRequest != null) {
+					remoteSuggestionsRequest.dispose();
+					remoteSuggestionsRequest = null;
+				}
+				if (newText.trim().length() >= MIN_REMOTE_SUGGESTION_LENGTH
+						&& SkyTubeApp.getSettings().isRemoteSearchSuggestionsEnabled()
+						&& SkyTubeApp.isConnected(MainActivity.this)) {
+					remoteSuggestionsRequest = Single.fromCallable(() -> NewPipeService.get().getSearchSuggestions(newText))
+							.subscribeOn(Schedulers.io())
+							.observeOn(AndroidSchedulers.mainThread())
+							.subscribe(suggestions -> {
+								// ignore the suggestions, if the user kept typing in the meantime
+								if (newText.equals(searchView.getQuery().toString())) {
+									setSearchSuggestions(searchView, newText, SearchHistoryDb.getSearchHistoryDb().getSearchCursor(newText, suggestions));
+								}
+							}, error -> Logger.w(MainActivity.this, "Unable to get search suggestions for %s: %s", newText, error.getMessage()));
+				}
 
 				return true;
 			}
@@ -337,6 +362,22 @@ public class MainActivity extends BaseActivity {
 	}
 
 
+	private void setSearchSuggestions(SearchView searchView, String searchText, Cursor cursor) {
+		// if the adapter has not been created, then create it
+		SearchHistoryCursorAdapter searchHistoryCursorAdapter = new SearchHistoryCursorAdapter(getBaseContext(),
+				R.layout.search_hint,
+				cursor,
+				new String[]{SearchHistoryTable.COL_SEARCH_TEXT},
+				new int[]{android.R.id.text1},
+				0);
+		searchHistoryCursorAdapter.setSearchHistoryClickListener(query -> displaySearchResults(query, searchView));
+		searchView.setSuggestionsAdapter(searchHistoryCursorAdapter);
+
+		// update the current search string
+		searchHistoryCursorAdapter.setSearchBarString(searchText);
+	}
+
+
 	@Override
 	public boolean onOptionsItemSelected(MenuItem item) {
 		switch (item.getItemId()) {
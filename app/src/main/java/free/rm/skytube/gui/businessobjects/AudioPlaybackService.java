@@ -0,0 +1,416 @@
+/*
+ * SkyTube
+ * Copyright (C) 2021  Zsombor Gegesy
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (version 3 of the License).
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package free.rm.skytube.gui.businessobjects;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.IBinder;
+import android.support.v4.media.MediaMetadataCompat;
+import android.support.v4.media.session.MediaSessionCompat;
+import android.support.v4.media.session.PlaybackStateCompat;
+import android.widget.Toast;
+
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+import androidx.media.session.MediaButtonReceiver;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultRenderersFactory;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.ExoPlayerFactory;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.audio.AudioAttributes;
+import com.google.android.exoplayer2.drm.DrmSessionManager;
+import com.google.android.exoplayer2.drm.FrameworkMediaCrypto;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
+import com.google.android.exoplayer2.video.VideoRendererEventListener;
+
+import org.schabi.newpipe.extractor.stream.AudioStream;
+import org.schabi.newpipe.extractor.stream.StreamInfo;
+
+import java.util.ArrayList;
+
+import free.rm.skytube.R;
+import free.rm.skytube.app.SkyTubeApp;
+import free.rm.skytube.app.StreamSelectionPolicy;
+import free.rm.skytube.businessobjects.Logger;
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
+import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
+import free.rm.skytube.gui.activities.YouTubePlayerActivity;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import static free.rm.skytube.gui.activities.YouTubePlayerActivity.YOUTUBE_VIDEO_OBJ;
+
+/**
+ * A foreground service, which plays only the audio of a video - when the player is left, or the
+ * screen is turned off - so the video stream is neither downloaded, nor decoded.  It's controlled
+ * from its notification, and through its media session, e.g. from the lock screen or a headset.
+ *
+ * <p>The player continues the video from the position of the service, when it's displayed again,
+ * see {@link #start(Context, YouTubeVideo, long)} and {@link #stop(String)}.</p>
+ */
+public class AudioPlaybackService extends Service {
+	private static final String ACTION_PLAY = "free.rm.skytube.AUDIO_PLAY";
+	private static final String EXTRA_VIDEO = "AudioPlaybackService.video";
+	private static final String EXTRA_POSITION = "AudioPlaybackService.position";
+	private static final int NOTIFICATION_ID = 2;
+	private static final long SUPPORTED_ACTIONS = PlaybackStateCompat.ACTION_PLAY | PlaybackStateCompat.ACTION_PAUSE
+			| PlaybackStateCompat.ACTION_PLAY_PAUSE | PlaybackStateCompat.ACTION_STOP | PlaybackStateCompat.ACTION_SEEK_TO;
+
+	/** The running service - it's only accessed from the main thread */
+	private static AudioPlaybackService instance;
+	/**
+	 * The video, whose playback is requested, but not yet started by the service - it's cleared,
+	 * when it's stopped before that, so the service doesn't start to play it.
+	 */
+	private static String pendingVideoId;
+	private static long pendingPosition;
+	/** The video, whose playback was stopped last - by the user, an error, or as it ended */
+	private static String stoppedVideoId;
+	/** The position, where {@link #stoppedVideoId} was stopped, or {@link C#TIME_END_OF_SOURCE} */
+	private static long stoppedPosition;
+
+	private SimpleExoPlayer player;
+	private DatasourceBuilder datasourceBuilder;
+	private MediaSessionCompat mediaSession;
+	private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+
+	private YouTubeVideo video;
+	/** The position, where the playback is started, until the stream is resolved */
+	private long startPosition;
+	private boolean prepared;
+
+	/**
+	 * Play the audio of the video in the background, from the given position.
+	 */
+	public static void start(Context context, YouTubeVideo video, long position) {
+		pendingVideoId = video.getId();
+		pendingPosition = position;
+		stoppedVideoId = null;
+		final Intent intent = new Intent(context, AudioPlaybackService.class)
+				.setAction(ACTION_PLAY)
+				.putExtra(EXTRA_VIDEO, video)
+				.putExtra(EXTRA_POSITION, position);
+		ContextCompat.startForegroundService(context, intent);
+	}
+
+	/**
+	 * Stop the audio playback, if it's playing the given video - so the caller can continue the
+	 * video from there.
+	 *
+	 * @return The position of the audio playback, or -1 if the video is not played.
+	 */
+	public static long stop(String videoId) {
+		if (videoId.equals(pendingVideoId)) {
+			// the service is starting, it won't play the video
+			pendingVideoId = null;
+			return pendingPosition;
+		}
+		final AudioPlaybackService service = instance;
+		if (service == null || service.video == null || !service.video.getId().equals(videoId)) {
+			return -1;
+		}
+		final long position = service.getPosition();
+		service.stopPlayback(false);
+		return position;
+	}
+
+	/**
+	 * @return The position, where the audio playback of the video was stopped, before the player
+	 * was displayed again - {@link C#TIME_END_OF_SOURCE}, if it was played to the end, or -1, if
+	 * it's not known.
+	 */
+	public static long getStoppedPosition(String videoId) {
+		return videoId.equals(stoppedVideoId) ? stoppedPosition : -1;
+	}
+
+	@Override
+	public void onCreate() {
+		super.onCreate();
+		instance = this;
+		player = ExoPlayerFactory.newSimpleInstance(this, new AudioRenderersFactory(this), new DefaultTrackSelector());
+		player.setAudioAttributes(new AudioAttributes.Builder()
+				.setUsage(C.USAGE_MEDIA)
+				.setContentType(C.CONTENT_TYPE_MUSIC)
+				.build(), true);
+		player.addListener(new Player.EventListener() {
+			@Override
+			public void onPlayerStateChanged(boolean playWhenReady, int playbackState) {
+				if (playbackState == Player.STATE_ENDED) {
+					onPlaybackEnded();
+				} else {
+					updateSession();
+				}
+			}
+
+			@Override
+			public void onPlayerError(ExoPlaybackException error) {
+				Logger.e(AudioPlaybackService.this, "Audio playback error: " + error.getMessage(), error);
+				Toast.makeText(AudioPlaybackService.this, error.getMessage(), Toast.LENGTH_LONG).show();
+				stopPlayback(true);
+			}
+		});
+		datasourceBuilder = new DatasourceBuilder(this, player);
+
+		mediaSession = new MediaSessionCompat(this, "SkyTubeAudio");
+		mediaSession.setFlags(MediaSessionCompat.FLAG_HANDLES_MEDIA_BUTTONS | MediaSessionCompat.FLAG_HANDLES_TRANSPORT_CONTROLS);
+		mediaSession.setCallback(new MediaSessionCompat.Callback() {
+			@Override
+			public void onPlay() {
+				player.setPlayWhenReady(true);
+			}
+
+			@Override
+			public void onPause() {
+				player.setPlayWhenReady(false);
+			}
+
+			@Override
+			public void onStop() {
+				stopPlayback(true);
+			}
+
+			@Override
+			public void onSeekTo(long pos) {
+				player.seekTo(pos);
+			}
+		});
+		mediaSession.setActive(true);
+	}
+
+	@Override
+	public int onStartCommand(Intent intent, int flags, int startId) {
+		if (intent != null && ACTION_PLAY.equals(intent.getAction())) {
+			final YouTubeVideo newVideo = (YouTubeVideo) intent.getSerializableExtra(EXTRA_VIDEO);
+			if (newVideo.getId().equals(pendingVideoId)) {
+				pendingVideoId = null;
+				play(newVideo, intent.getLongExtra(EXTRA_POSITION, 0));
+			} else if (video == null) {
+				// the player was displayed again, before the service started
+				stopStartedService();
+			}
+		} else if (video == null) {
+			// a media button, after the playback is stopped
+			stopStartedService();
+		} else {
+			MediaButtonReceiver.handleIntent(mediaSession, intent);
+		}
+		return START_NOT_STICKY;
+	}
+
+	/**
+	 * Stop the service, which was started with startForegroundService, without anything to play -
+	 * it still has to call startForeground, otherwise the app is killed.
+	 */
+	private void stopStartedService() {
+		startForeground(NOTIFICATION_ID, new NotificationCompat.Builder(this, SkyTubeApp.PLAYBACK_NOTIFICATION_CHANNEL)
+				.setSmallIcon(R.drawable.ic_notification_icon)
+				.setContentTitle(getString(R.string.app_name))
+				.build());
+		stopForeground(true);
+		stopSelf();
+	}
+
+	@Nullable
+	@Override
+	public IBinder onBind(Intent intent) {
+		return null;
+	}
+
+	@Override
+	public void onDestroy() {
+		instance = null;
+		compositeDisposable.clear();
+		// the media buttons shouldn't start the service again, after the playback is finished
+		mediaSession.setMediaButtonReceiver(null);
+		mediaSession.setActive(false);
+		mediaSession.release();
+		player.release();
+		super.onDestroy();
+	}
+
+	private void play(YouTubeVideo newVideo, long position) {
+		compositeDisposable.clear();
+		player.stop();
+		video = newVideo;
+		startPosition = position;
+		prepared = false;
+		mediaSession.setMetadata(new MediaMetadataCompat.Builder()
+				.putString(MediaMetadataCompat.METADATA_KEY_TITLE, video.getTitle())
+				.putString(MediaMetadataCompat.METADATA_KEY_ARTIST, video.getChannelName())
+				.putLong(MediaMetadataCompat.METADATA_KEY_DURATION, video.getDurationInSeconds() * 1000L)
+				.build());
+		// the service has to be in the foreground, right after it's started
+		startForeground(NOTIFICATION_ID, buildNotification(true));
+
+		compositeDisposable.add(resolveAudioUri(video)
+				.subscribe(uri -> {
+					Logger.i(this, "Playing the audio of %s from %s: %s", video.getId(), startPosition, uri);
+					datasourceBuilder.play(uri, null);
+					player.seekTo(startPosition);
+					player.setPlayWhenReady(true);
+					prepared = true;
+				}, error -> {
+					Logger.e(this, "Unable to play the audio of " + video.getId() + ": " + error.getMessage(), error);
+					Toast.makeText(this, error.getMessage(), Toast.LENGTH_LONG).show();
+					stopPlayback(true);
+				}));
+	}
+
+	/**
+	 * @return The downloaded audio, or the smallest audio stream of the video.  If the video doesn't
+	 * have separate audio streams, the selected video stream is used - its video track is not
+	 * decoded, but it's still downloaded.
+	 */
+	private Single<Uri> resolveAudioUri(YouTubeVideo video) {
+		final StreamSelectionPolicy selectionPolicy = SkyTubeApp.getSettings().getDesiredVideoResolution(false);
+		return DownloadedVideosDb.getVideoDownloadsDb().getDownloadedFileStatus(this, video.getVideoId())
+				.observeOn(Schedulers.io())
+				.map(downloadStatus -> {
+					if (downloadStatus.getAudioUri() != null) {
+						return downloadStatus.getAudioUri();
+					}
+					if (downloadStatus.getUri() != null) {
+						return downloadStatus.getUri();
+					}
+					final StreamInfo streamInfo = NewPipeService.get().getStreamInfoByVideoId(video.getId());
+					final AudioStream audioStream = selectionPolicy.selectAudioOnly(streamInfo);
+					if (audioStream != null) {
+						return Uri.parse(audioStream.getUrl());
+					}
+					final StreamSelectionPolicy.StreamSelection selection = selectionPolicy.select(streamInfo);
+					if (selection == null) {
+						throw new IllegalStateException(selectionPolicy.getErrorMessage(SkyTubeApp.getContext()));
+					}
+					return selection.getAudioStreamUri() != null ? selection.getAudioStreamUri() : selection.getVideoStreamUri();
+				})
+				.observeOn(AndroidSchedulers.mainThread());
+	}
+
+	private long getPosition() {
+		return prepared ? player.getCurrentPosition() : startPosition;
+	}
+
+	private void onPlaybackEnded() {
+		final YouTubeVideo endedVideo = video;
+		// not disposed with the service, which is destroyed right after this
+		PlaybackStatusDb.getPlaybackStatusDb().setVideoWatchedStatusInBackground(endedVideo, true)
+				.subscribe(updated -> {}, error -> Logger.e(this, "Unable to mark " + endedVideo.getId() + " watched: " + error.getMessage(), error));
+		stopPlayback(false);
+		stoppedPosition = C.TIME_END_OF_SOURCE;
+	}
+
+	/**
+	 * Stop the playback, and the service.
+	 *
+	 * @param savePosition True, if the position should be saved, as the player doesn't continue from it.
+	 */
+	private void stopPlayback(boolean savePosition) {
+		if (video != null) {
+			stoppedVideoId = video.getId();
+			stoppedPosition = getPosition();
+			if (savePosition) {
+				// not disposed with the service, which is destroyed right after this
+				PlaybackStatusDb.getPlaybackStatusDb().setVideoPositionInBackground(video, stoppedPosition);
+			}
+		}
+		video = null;
+		player.stop();
+		mediaSession.setPlaybackState(new PlaybackStateCompat.Builder()
+				.setState(PlaybackStateCompat.STATE_STOPPED, 0, 0)
+				.build());
+		stopForeground(true);
+		stopSelf();
+	}
+
+	private void updateSession() {
+		if (video == null) {
+			return;
+		}
+		final boolean playing = player.getPlayWhenReady();
+		final int state;
+		if (player.getPlaybackState() == Player.STATE_BUFFERING) {
+			state = PlaybackStateCompat.STATE_BUFFERING;
+		} else {
+			state = playing ? PlaybackStateCompat.STATE_PLAYING : PlaybackStateCompat.STATE_PAUSED;
+		}
+		mediaSession.setPlaybackState(new PlaybackStateCompat.Builder()
+				.setActions(SUPPORTED_ACTIONS)
+				.setState(state, getPosition(), playing ? player.getPlaybackParameters().speed : 0)
+				.build());
+		ContextCompat.getSystemService(this, NotificationManager.class)
+				.notify(NOTIFICATION_ID, buildNotification(playing));
+	}
+
+	private Notification buildNotification(boolean playing) {
+		// tapping the notification continues the video in the player
+		final Intent playerIntent = new Intent(this, YouTubePlayerActivity.class)
+				.putExtra(YOUTUBE_VIDEO_OBJ, video)
+				.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_REORDER_TO_FRONT);
+		final PendingIntent contentIntent = PendingIntent.getActivity(this, 0, playerIntent, PendingIntent.FLAG_UPDATE_CURRENT);
+
+		return new NotificationCompat.Builder(this, SkyTubeApp.PLAYBACK_NOTIFICATION_CHANNEL)
+				.setSmallIcon(R.drawable.ic_notification_icon)
+				.setContentTitle(video.getTitle())
+				.setContentText(video.getChannelName())
+				.setContentIntent(contentIntent)
+				.setDeleteIntent(MediaButtonReceiver.buildMediaButtonPendingIntent(this, PlaybackStateCompat.ACTION_STOP))
+				.setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+				.setOnlyAlertOnce(true)
+				.setShowWhen(false)
+				.addAction(playing ? R.drawable.exo_notification_pause : R.drawable.exo_notification_play,
+						getString(playing ? R.string.pause_audio : R.string.play),
+						MediaButtonReceiver.buildMediaButtonPendingIntent(this, PlaybackStateCompat.ACTION_PLAY_PAUSE))
+				.addAction(R.drawable.exo_notification_stop, getString(R.string.stop_audio),
+						MediaButtonReceiver.buildMediaButtonPendingIntent(this, PlaybackStateCompat.ACTION_STOP))
+				.setStyle(new androidx.media.app.NotificationCompat.MediaStyle()
+						.setMediaSession(mediaSession.getSessionToken())
+						.setShowActionsInCompactView(0, 1))
+				.build();
+	}
+
+	/**
+	 * Creates the renderers without the video ones, so the video track of a downloaded file, or a
+	 * muxed stream is not decoded.
+	 */
+	private static class AudioRenderersFactory extends DefaultRenderersFactory {
+		AudioRenderersFactory(Context context) {
+			super(context);
+		}
+
+		@Override
+		protected void buildVideoRenderers(Context context, @Nullable DrmSessionManager<FrameworkMediaCrypto> drmSessionManager,
+										   long allowedVideoJoiningTimeMs, Handler eventHandler, VideoRendererEventListener eventListener,
+										   int extensionRendererMode, ArrayList<Renderer> out) {
+			// no video
+		}
+	}
+}
@@ -23,6 +23,7 @@ import android.net.Uri;
 import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.ExoPlayer;
 import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
 import com.google.android.exoplayer2.source.ExtractorMediaSource;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.MergingMediaSource;
@@ -67,14 +68,30 @@ public class DatasourceBuilder {
     }
 
     public void play(Uri videoUri, Uri audioUri, StreamInfo streamInfo) {
-        final List<MediaSource> titles;
+        preparePlayer(createSources(videoUri, audioUri, getSubtitles(streamInfo)));
+    }
+
+    /**
+     * Play the sources, one after the other - the sources can be added to it, while playing.
+     */
+    public void play(ConcatenatingMediaSource queue) {
+        player.prepare(queue);
+    }
+
+    /**
+     * @return The media source of the video, with its audio and subtitles, which can be added to a
+     * {@link ConcatenatingMediaSource}.
+     */
+    public MediaSource createMediaSource(Uri videoUri, Uri audioUri, StreamInfo streamInfo) {
+        return merge(createSources(videoUri, audioUri, getSubtitles(streamInfo)));
+    }
+
+    private List<MediaSource> getSubtitles(StreamInfo streamInfo) {
         if (streamInfo != null && streamInfo.getSubtitles() != null) {
-            titles = streamInfo.getSubtitles().stream().map( this::convert).collect(Collectors.toList());
+            return streamInfo.getSubtitles().stream().map( this::convert).collect(Collectors.toList());
         } else {
-            titles = null;
+            return null;
         }
-        List<MediaSource> sources = createSources(videoUri, audioUri, titles);
-        preparePlayer(sources);
     }
 
     private MediaSource convert(SubtitlesStream subtitlesStream) {
@@ -111,11 +128,14 @@ public class DatasourceBuilder {
         if (sources.isEmpty()) {
             return;
         }
+        player.prepare(merge(sources));
+    }
+
+    private static MediaSource merge(List<MediaSource> sources) {
         if (sources.size() == 1) {
-            player.prepare(sources.get(0));
+            return sources.get(0);
         } else {
-            MergingMediaSource merged = new MergingMediaSource(sources.toArray(new MediaSource[sources.size()]));
-            player.prepare(merged);
+            return new MergingMediaSource(sources.toArray(new MediaSource[sources.size()]));
         }
     }
 }
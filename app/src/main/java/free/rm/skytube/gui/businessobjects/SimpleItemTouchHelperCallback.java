@@ -54,6 +54,12 @@ public class SimpleItemTouchHelperCallback extends ItemTouchHelper.Callback {
 		return true;
 	}
 
+	@Override
+	public void clearView(RecyclerView recyclerView, RecyclerView.ViewHolder viewHolder) {
+		super.clearView(recyclerView, viewHolder);
+		adapter.onItemDropped(viewHolder.getAdapterPosition());
+	}
+
 	@Override
 	public void onSwiped(RecyclerView.ViewHolder viewHolder, int direction) {
 	}
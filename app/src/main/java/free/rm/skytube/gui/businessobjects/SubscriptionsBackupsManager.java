@@ -19,11 +19,8 @@ import androidx.core.content.ContextCompat;
 import androidx.core.text.util.LinkifyCompat;
 import androidx.fragment.app.Fragment;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import com.afollestad.materialdialogs.MaterialDialog;
 import com.obsez.android.lib.filechooser.ChooserDialog;
@@ -35,9 +32,14 @@ import org.xmlpull.v1.XmlPullParserFactory;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,12 +48,15 @@ import free.rm.skytube.app.EventBus;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
-import free.rm.skytube.businessobjects.db.DatabaseTasks;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
+import free.rm.skytube.businessobjects.db.DatabaseRuntime;
 import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 import free.rm.skytube.gui.businessobjects.adapters.SubsAdapter;
 import free.rm.skytube.gui.businessobjects.preferences.BackupDatabases;
 import free.rm.skytube.gui.fragments.SubscriptionsFeedFragment;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -67,6 +72,10 @@ public class SubscriptionsBackupsManager {
 	private static final int EXT_STORAGE_PERM_CODE_BACKUP = 1950;
 	private static final int EXT_STORAGE_PERM_CODE_IMPORT = 1951;
 	private static final int IMPORT_SUBSCRIPTIONS_READ_CODE = 42;
+	/** The number of channels, whose details are fetched at the same time, while importing */
+	private static final int CHANNEL_DETAILS_CONCURRENCY = 8;
+	/** The number of fetched channels, saved in one transaction */
+	private static final int CHANNEL_DETAILS_BATCH_SIZE = 50;
 	private static final String TAG = SubscriptionsBackupsManager.class.getSimpleName();
 	private boolean isUnsubsribeAllChecked = false;
 
@@ -236,148 +245,172 @@ public class SubscriptionsBackupsManager {
 	 * Parse the file that the user selected to import subscriptions from. Each channel contained in the file
 	 * that the user is not already subscribed to will appear in a dialog, to allow the user to select individual channels
 	 * to subscribe to, via a new Dialog. Once the user chooses to import the selected channels via the Import Subscriptions
-	 * button, {@link #subscribeToImportedChannels(List)} will be executed with a list of the selected channels.
+	 * button, {@link #subscribeToImportedChannels(List, boolean)} will be executed with a list of the selected channels.
+	 *
+	 * <p>The file is parsed in the background, as a stream, and the channels already subscribed to are
+	 * looked up with a few set based queries, instead of one query per channel.</p>
 	 *
 	 * @param uri The URI pointing to the file containing YouTube Channels to subscribe to.
 	 */
 	private void parseImportedSubscriptions(Uri uri) {
-		ArrayList<MultiSelectListPreferenceItem> channels;
 		String uriString = uri.toString();
 		int lastIndexOf = uriString.lastIndexOf(".");
-		if (lastIndexOf > 0 && uriString.substring(lastIndexOf).equalsIgnoreCase("xml")) {
-			channels = parseChannelsXML(uri);
-		} else {
-			channels = parseChannelsJson(uri);
-		}
+		final boolean isXml = lastIndexOf > 0 && uriString.substring(lastIndexOf + 1).equalsIgnoreCase("xml");
 
-		// Check the channel list for new channels
-		ArrayList<MultiSelectListPreferenceItem> newChannels = new ArrayList<>();
-		for (MultiSelectListPreferenceItem  channel : channels) {
-			if(channel.id != null && !SubscriptionsDb.getSubscriptionsDb().isUserSubscribedToChannel(channel.id)) {
-				newChannels.add(channel);
+		compositeDisposable.add(Single.fromCallable(() -> {
+			final Map<String, MultiSelectListPreferenceItem> channels = new LinkedHashMap<>();
+			try (InputStream input = activity.getContentResolver().openInputStream(uri)) {
+				if (isXml) {
+					parseChannelsXML(input, channels);
+				} else {
+					parseChannelsJson(input, channels);
+				}
 			}
-		}
-
+			// Check the channel list for new channels
+			final Set<String> subscribed = SubscriptionsDb.getSubscriptionsDb().getSubscribedChannelIds(channels.keySet());
+			final ImportedChannels result = new ImportedChannels(channels.size());
+			for (MultiSelectListPreferenceItem channel : channels.values()) {
+				if (!subscribed.contains(channel.id)) {
+					result.newChannels.add(channel);
+				}
+			}
+			return result;
+		})
+				.subscribeOn(Schedulers.io())
+				.observeOn(AndroidSchedulers.mainThread())
+				.subscribe(this::displayImportedChannels, error -> {
+					Logger.e(this, "An error occurred while reading the file", error);
+					Toast.makeText(activity, String.format(activity.getString(R.string.import_subscriptions_parse_error), error.getMessage()), Toast.LENGTH_LONG).show();
+				}));
+	}
 
+	private void displayImportedChannels(ImportedChannels channels) {
+		final List<MultiSelectListPreferenceItem> newChannels = channels.newChannels;
 		if(newChannels.size() > 0) {
 			// display a dialog which allows the user to select the channels to import
 			new MultiSelectListPreferenceDialog(activity, newChannels)
 					.title(R.string.import_subscriptions)
 					.positiveText(R.string.import_subscriptions)
 					.onPositive((dialog, which) -> {
-						// if the user checked the "Unsubscribe to all subscribed channels" checkbox
-						if (isUnsubsribeAllChecked) {
-							compositeDisposable.add(DatabaseTasks.unsubscribeFromAllChannels());
-						}
-
 						List<MultiSelectListPreferenceItem> channelsToSubscribeTo = new ArrayList<>();
 						for(MultiSelectListPreferenceItem channel: newChannels) {
 							if(channel.isChecked)
 								channelsToSubscribeTo.add(channel);
 						}
 
-						// subscribe to the channels selected by the user
-						subscribeToImportedChannels(channelsToSubscribeTo);
+						// subscribe to the channels selected by the user - and if the user checked the
+						// "Unsubscribe to all subscribed channels" checkbox, unsubscribe from the rest
+						subscribeToImportedChannels(channelsToSubscribeTo, isUnsubsribeAllChecked);
 					})
 					.negativeText(R.string.cancel)
 					.build()
 					.show();
 		} else {
 			new AlertDialog.Builder(activity)
-					.setMessage(channels.size() > 0 ? R.string.no_new_channels_found : R.string.no_channels_found)
+					.setMessage(channels.totalChannels > 0 ? R.string.no_new_channels_found : R.string.no_channels_found)
 					.setNeutralButton(R.string.ok, null)
 					.show();
 		}
 	}
 
 	/**
-	 * Parse the JSON file that the user selected to import subscriptions from.
-	 *
-	 * @param uri The URI pointing to the JSON file containing YouTube Channels to subscribe to
-	 * @return The channels found in the given file
+	 * The channels found in the imported file.
 	 */
-	private ArrayList<MultiSelectListPreferenceItem> parseChannelsJson(Uri uri) {
-		JsonArray jsonArray;
-		final ArrayList<MultiSelectListPreferenceItem> channels = new ArrayList<>();
-
-		try {
-			InputStreamReader fileReader = new InputStreamReader(activity.getContentResolver().openInputStream(uri));
-			jsonArray = JsonParser.parseReader(fileReader).getAsJsonArray();
-			fileReader.close();
-		} catch (IOException e) {
-			Logger.e(this, "An error occurred while reading the file", e);
-			Toast.makeText(activity, String.format(activity.getString(R.string.import_subscriptions_parse_error), e.getMessage()), Toast.LENGTH_LONG).show();
-			return channels;
+	private static class ImportedChannels {
+		private final int totalChannels;
+		private final List<MultiSelectListPreferenceItem> newChannels = new ArrayList<>();
+
+		ImportedChannels(int totalChannels) {
+			this.totalChannels = totalChannels;
 		}
+	}
 
-		for (JsonElement obj : jsonArray) {
-			JsonObject snippet = obj.getAsJsonObject().getAsJsonObject("snippet");
-			if (snippet == null) {
-				continue;
-			}
-			JsonPrimitive channelName = snippet.getAsJsonPrimitive("title");
-			JsonObject resourceId = snippet.getAsJsonObject("resourceId");
-			if (resourceId == null) {
-				continue;
+	/**
+	 * Parse the JSON file that the user selected to import subscriptions from - one subscription at a
+	 * time, without loading the whole document into memory.
+	 *
+	 * @param input The content of the JSON file containing YouTube Channels to subscribe to
+	 * @param channels The channels found in the given file are added to this map, by their id
+	 */
+	private void parseChannelsJson(InputStream input, Map<String, MultiSelectListPreferenceItem> channels) throws IOException {
+		final JsonReader reader = new JsonReader(new InputStreamReader(input, "UTF-8"));
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String channelId = null;
+			String channelName = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if ("snippet".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+					reader.beginObject();
+					while (reader.hasNext()) {
+						final String name = reader.nextName();
+						if ("title".equals(name) && reader.peek() == JsonToken.STRING) {
+							channelName = reader.nextString();
+						} else if ("resourceId".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+							reader.beginObject();
+							while (reader.hasNext()) {
+								if ("channelId".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+									channelId = reader.nextString();
+								} else {
+									reader.skipValue();
+								}
+							}
+							reader.endObject();
+						} else {
+							reader.skipValue();
+						}
+					}
+					reader.endObject();
+				} else {
+					reader.skipValue();
+				}
 			}
-			JsonPrimitive channelId = resourceId.getAsJsonPrimitive("channelId");
+			reader.endObject();
 			if (channelId != null && channelName != null) {
-				channels.add(new MultiSelectListPreferenceItem(channelId.getAsString(), channelName.getAsString()));
+				channels.put(channelId, new MultiSelectListPreferenceItem(channelId, channelName));
 			}
 		}
-		return channels;
+		reader.endArray();
 	}
 
 	/**
 	 * Parse the XML file that the user selected to import subscriptions from.
 	 *
-	 * @param uri The URI pointing to the XML file containing YouTube Channels to subscribe to
-	 * @return The channels found in the given file
+	 * @param input The content of the XML file containing YouTube Channels to subscribe to
+	 * @param channels The channels found in the given file are added to this map, by their id
 	 */
-	private ArrayList<MultiSelectListPreferenceItem> parseChannelsXML(Uri uri) {
-		final ArrayList<MultiSelectListPreferenceItem> channels = new ArrayList<>();
+	private void parseChannelsXML(InputStream input, Map<String, MultiSelectListPreferenceItem> channels) throws IOException, XmlPullParserException {
 		Pattern channelPattern = Pattern.compile(".*channel_id=([^&]+)");
 		Matcher matcher;
 
-		try {
-			XmlPullParserFactory xmlFactoryObject = XmlPullParserFactory.newInstance();
-			XmlPullParser parser = xmlFactoryObject.newPullParser();
-			parser.setInput(activity.getContentResolver().openInputStream(uri), null);
-			int event = parser.getEventType();
-			// If channels are found in the XML file but they are all already subscribed to, alert the user with a different
-			// message than if no channels were found at all.
-			while (event != XmlPullParser.END_DOCUMENT) {
-				String name = parser.getName();
-				switch (event) {
-					case XmlPullParser.START_TAG:
-						break;
-
-					case XmlPullParser.END_TAG:
-						if (name.equals("outline")) {
-							String xmlUrl = parser.getAttributeValue(null, "xmlUrl");
-							if (xmlUrl != null) {
-								matcher = channelPattern.matcher(xmlUrl);
-								if (matcher.matches()) {
-									String channelId = matcher.group(1);
-									String channelName = parser.getAttributeValue(null, "title");
-									channels.add(new MultiSelectListPreferenceItem(channelId, channelName));
-								}
-
+		XmlPullParserFactory xmlFactoryObject = XmlPullParserFactory.newInstance();
+		XmlPullParser parser = xmlFactoryObject.newPullParser();
+		parser.setInput(input, null);
+		int event = parser.getEventType();
+		while (event != XmlPullParser.END_DOCUMENT) {
+			String name = parser.getName();
+			switch (event) {
+				case XmlPullParser.START_TAG:
+					break;
+
+				case XmlPullParser.END_TAG:
+					if (name.equals("outline")) {
+						String xmlUrl = parser.getAttributeValue(null, "xmlUrl");
+						if (xmlUrl != null) {
+							matcher = channelPattern.matcher(xmlUrl);
+							if (matcher.matches()) {
+								String channelId = matcher.group(1);
+								String channelName = parser.getAttributeValue(null, "title");
+								channels.put(channelId, new MultiSelectListPreferenceItem(channelId, channelName));
 							}
+
 						}
-						break;
+					}
+					break;
 
-				}
-				event = parser.next();
 			}
-		} catch (IOException e) {
-			Logger.e(this, "An error occurred while reading the file", e);
-			Toast.makeText(activity, String.format(activity.getString(R.string.import_subscriptions_parse_error), e.getMessage()), Toast.LENGTH_LONG).show();
-		} catch (XmlPullParserException e) {
-			Logger.e(this, "An error occurred while attempting to parse the XML file uploaded", e);
-			Toast.makeText(activity, String.format(activity.getString(R.string.import_subscriptions_parse_error), e.getMessage()), Toast.LENGTH_LONG).show();
+			event = parser.next();
 		}
-		return channels;
 	}
 
 
@@ -407,40 +440,85 @@ public class SubscriptionsBackupsManager {
 		}
 	}
 
-	private void subscribeToImportedChannels(final List<MultiSelectListPreferenceItem> channels) {
+	/**
+	 * Subscribe to the imported channels: they are inserted in one transaction, then their details -
+	 * and their recent videos - are fetched in parallel, and saved in batches.
+	 *
+	 * @param channels The channels selected by the user.
+	 * @param unsubscribeFromAll Unsubscribe from the currently subscribed channels, in the same transaction.
+	 */
+	private void subscribeToImportedChannels(final List<MultiSelectListPreferenceItem> channels, final boolean unsubscribeFromAll) {
 		// display the "Subscribing to channels …" dialog
 		final MaterialDialog dialog = new MaterialDialog.Builder(activity)
 				.content(R.string.subscribing_to_channels)
-				.progress(true, 0)
+				.progress(false, channels.size(), true)
+				.cancelable(false)
 				.build();
 		dialog.show();
 
-		compositeDisposable.add(Single.fromCallable(() -> {
-			for (MultiSelectListPreferenceItem channel : channels) {
-				SubscriptionsDb.getSubscriptionsDb().subscribe(new YouTubeChannel(channel.id, null));
-			}
+		final SubscriptionsDb subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
+		final List<YouTubeChannel> importedChannels = new ArrayList<>(channels.size());
+		for (MultiSelectListPreferenceItem channel : channels) {
+			importedChannels.add(new YouTubeChannel(channel.id, channel.text));
+		}
+		final AtomicInteger processed = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
 
-			return channels.size();
+		compositeDisposable.add(DatabaseRuntime.get().write(subscriptionsDb, "import subscriptions", () -> {
+			if (unsubscribeFromAll) {
+				subscriptionsDb.unsubscribeFromAllChannels();
+			}
+			return subscriptionsDb.subscribeAll(importedChannels);
 		})
-				.subscribeOn(Schedulers.io())
 				.observeOn(AndroidSchedulers.mainThread())
+				.doOnSuccess(totalChannelsSubscribedTo -> {
+					// the channels are already listed, while their details are fetched
+					EventBus.getInstance().notifyMainTabChanged(EventBus.SettingChange.SUBSCRIPTION_LIST_CHANGED);
+				})
+				.flatMap(totalChannelsSubscribedTo -> Flowable.fromIterable(importedChannels)
+						.flatMapMaybe(channel -> Maybe.fromCallable(() -> NewPipeService.get().getChannelDetails(channel.getId()))
+								.subscribeOn(Schedulers.io())
+								.doOnEvent((details, error) -> processed.incrementAndGet())
+								.doOnError(error -> {
+									failed.incrementAndGet();
+									Logger.w(this, "Unable to fetch the details of %s: %s", channel.getId(), error.getMessage());
+								})
+								.onErrorComplete(), false, CHANNEL_DETAILS_CONCURRENCY)
+						.buffer(CHANNEL_DETAILS_BATCH_SIZE)
+						.concatMapSingle(batch -> DatabaseRuntime.get().write(subscriptionsDb, "import channel details", () -> {
+							for (YouTubeChannel details : batch) {
+								subscriptionsDb.updateChannel(details);
+								subscriptionsDb.saveChannelVideos(details.getYouTubeVideos(), details.getId());
+							}
+							return processed.get();
+						}))
+						.observeOn(AndroidSchedulers.mainThread())
+						.doOnNext(dialog::setProgress)
+						.ignoreElements()
+						.toSingleDefault(totalChannelsSubscribedTo))
+				.doFinally(dialog::dismiss)
 				.subscribe(totalChannelsSubscribedTo -> {
 					// inform the SubsAdapter that it needs to repopulate the subbed channels list
 					EventBus.getInstance().notifyMainTabChanged(EventBus.SettingChange.SUBSCRIPTION_LIST_CHANGED);
 
-					// hide the dialog
-					dialog.dismiss();
-
 					Toast.makeText(activity,
 							String.format(SkyTubeApp.getStr(R.string.subscriptions_to_channels_imported), totalChannelsSubscribedTo),
 							Toast.LENGTH_SHORT).show();
 
-					// refresh the Feed tab so it shows videos from the newly subscribed channels
-					SubscriptionsFeedFragment.refreshSubsFeedFull();
+					// the recent videos of the channels are saved with their details, so the Feed
+					// tab only needs to be refreshed from the servers, if some of them are missing
+					if (failed.get() > 0) {
+						SubscriptionsFeedFragment.refreshSubsFeedFull();
+					} else {
+						SubscriptionsFeedFragment.refreshSubsFeedFromCache();
+					}
 
 					// if the user imported the subs channels from the Feed tab/fragment, then we
 					// need to refresh the fragment in order for the fragment to update the feed...
 					ActivityCompat.recreate(activity);
+				}, error -> {
+					Logger.e(this, "Unable to import the subscriptions", error);
+					Toast.makeText(activity, R.string.failed_to_import_subscriptions, Toast.LENGTH_LONG).show();
 				}));
 	}
 
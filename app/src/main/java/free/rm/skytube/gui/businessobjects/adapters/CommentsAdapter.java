@@ -18,159 +18,199 @@
 package free.rm.skytube.gui.businessobjects.adapters;
 
 import android.content.Context;
-import android.os.AsyncTask;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.BaseExpandableListAdapter;
-import android.widget.ExpandableListView;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
-import free.rm.skytube.businessobjects.YouTube.GetCommentThreads;
+import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeComment;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeCommentThread;
-import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
-import free.rm.skytube.businessobjects.YouTube.newpipe.PagerBackend;
+import free.rm.skytube.businessobjects.YouTube.VideoComments;
+import free.rm.skytube.gui.businessobjects.views.Linker;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 
 /**
- * An adapter that will display comments in an {@link ExpandableListView}.
+ * An adapter that will display comments in a {@link RecyclerView}.  The replies of a comment thread
+ * are only added as rows, when the thread is expanded.
+ *
+ * <p>The comments are taken from {@link VideoComments}, so when the comments of the same video are
+ * displayed again, the already loaded ones are displayed immediately.</p>
  */
-public class CommentsAdapter extends BaseExpandableListAdapter {
-
-	private PagerBackend<YouTubeCommentThread> commentThreadPager;
-	private List<YouTubeCommentThread>	commentThreadsList = new ArrayList<>();
-	private GetCommentsTask				getCommentsTask = null;
-	private ExpandableListView			expandableListView;
-	private View						commentsProgressBar;
-	private View						noVideoCommentsView;
-	private LayoutInflater				layoutInflater;
-	private Context 					context;
+public class CommentsAdapter extends RecyclerView.Adapter<CommentsAdapter.CommentViewHolder> {
+
+	/** The next page is loaded, when one of the last rows is displayed */
+	private static final int LOAD_AHEAD_ROWS = 5;
+
+	private final VideoComments			comments;
+	private final List<YouTubeCommentThread> commentThreadsList;
+	/** The displayed rows: the top level comments, and the replies of the expanded threads */
+	private final List<Row>				rows = new ArrayList<>();
+	private final Set<Integer>			expandedThreads = new HashSet<>();
+	private final CompositeDisposable	compositeDisposable = new CompositeDisposable();
+	private final View					commentsProgressBar;
+	private final View					noVideoCommentsView;
+	private final Context				context;
+	private boolean						loading;
+	/** After an error, no more pages are loaded automatically */
+	private boolean						loadFailed;
+
+	/**
+	 * A row of the list - a top level comment, or one of its replies.
+	 */
+	private static class Row {
+		private final int threadIndex;
+		/** The index of the reply, or -1 for the top level comment */
+		private final int replyIndex;
+
+		Row(int threadIndex, int replyIndex) {
+			this.threadIndex = threadIndex;
+			this.replyIndex = replyIndex;
+		}
 
-	private static final String TAG = CommentsAdapter.class.getSimpleName();
+		boolean isTopLevelComment() {
+			return replyIndex < 0;
+		}
+	}
 
 
-	public CommentsAdapter(Context context, String videoId, ExpandableListView expandableListView, View commentsProgressBar, View noVideoCommentsView) {
+	public CommentsAdapter(Context context, String videoId, RecyclerView recyclerView, View commentsProgressBar, View noVideoCommentsView) {
 		this.context = context;
-		this.expandableListView = expandableListView;
-		this.expandableListView.setAdapter(this);
-		this.expandableListView.setOnGroupClickListener((parent, v, groupPosition, id) -> true);
 		this.commentsProgressBar = commentsProgressBar;
 		this.noVideoCommentsView = noVideoCommentsView;
-		this.layoutInflater = LayoutInflater.from(expandableListView.getContext());
-		try {
-			this.commentThreadPager = NewPipeService.isPreferred() ? NewPipeService.get().getCommentPager(videoId) : new GetCommentThreads(videoId);
-			this.getCommentsTask = new GetCommentsTask();
-			this.getCommentsTask.execute();
-		} catch (Exception e) {
-			SkyTubeApp.notifyUserOnError(context, e);
+		this.comments = VideoComments.get(videoId);
+		this.commentThreadsList = new ArrayList<>(comments.getThreads());
+		for (int i = 0; i < commentThreadsList.size(); i++) {
+			rows.add(new Row(i, -1));
 		}
-	}
-
-	@Override
-	public int getGroupCount() {
-		return commentThreadsList.size();
-	}
-
-	@Override
-	public int getChildrenCount(int groupPosition) {
-		return commentThreadsList.get(groupPosition).getTotalReplies();
-	}
-
-	@Override
-	public Object getGroup(int groupPosition) {
-		return commentThreadsList.get(groupPosition);
-	}
+		setHasStableIds(true);
+		recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+		recyclerView.setAdapter(this);
 
-	@Override
-	public Object getChild(int groupPosition, int childPosition) {
-		return commentThreadsList.get(groupPosition).getRepliesList().get(childPosition);
+		if (commentThreadsList.isEmpty()) {
+			loadNextPage();
+		}
 	}
 
 	@Override
-	public long getGroupId(int groupPosition) {
-		return groupPosition;
+	public int getItemCount() {
+		return rows.size();
 	}
 
 	@Override
-	public long getChildId(int groupPosition, int childPosition) {
-		return (groupPosition * 1024) + childPosition;
+	public long getItemId(int position) {
+		final Row row = rows.get(position);
+		return ((long) row.threadIndex << 16) | (row.replyIndex + 1);
 	}
 
+	@NonNull
 	@Override
-	public boolean hasStableIds() {
-		return true;
+	public CommentViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+		return new CommentViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.comment, parent, false));
 	}
 
 	@Override
-	public View getGroupView(int groupPosition, boolean isExpanded, View convertView, ViewGroup parent) {
-		return getParentOrChildView(true, groupPosition, 0 /*ignore this*/, convertView, parent);
+	public void onBindViewHolder(@NonNull CommentViewHolder holder, int position) {
+		final Row row = rows.get(position);
+		final YouTubeCommentThread thread = commentThreadsList.get(row.threadIndex);
+		final YouTubeComment comment = row.isTopLevelComment() ? thread.getTopLevelComment() : thread.getRepliesList().get(row.replyIndex);
+		holder.updateInfo(comment, row, thread.getTotalReplies());
+
+		// if it's close to the bottom of the list, then get the next page of comments
+		if (position >= rows.size() - LOAD_AHEAD_ROWS) {
+			loadNextPage();
+		}
 	}
 
-	@Override
-	public View getChildView(int groupPosition, int childPosition, boolean isLastChild, View convertView, ViewGroup parent) {
-		return getParentOrChildView(false, groupPosition, childPosition, convertView, parent);
+	/**
+	 * Stop loading the comments - when the adapter is no longer displayed.
+	 */
+	public void clearBackgroundTasks() {
+		compositeDisposable.clear();
+		loading = false;
 	}
 
-	@Override
-	public boolean isChildSelectable(int groupPosition, int childPosition) {
-		return false;
+	private void loadNextPage() {
+		if (loading || loadFailed || !comments.hasMore()) {
+			return;
+		}
+		Logger.d(this, "Getting next page of comments...");
+		loading = true;
+		commentsProgressBar.setVisibility(View.VISIBLE);
+		noVideoCommentsView.setVisibility(View.GONE);
+		compositeDisposable.add(comments.loadNextPage()
+				.subscribe(this::onPageLoaded, error -> {
+					Logger.e(this, "Unable to load the comments: " + error.getMessage(), error);
+					commentsProgressBar.setVisibility(View.GONE);
+					loading = false;
+				}));
 	}
 
+	private void onPageLoaded(List<YouTubeCommentThread> newComments) {
+		final Exception error = comments.getLastException();
+		SkyTubeApp.notifyUserOnError(context, error);
+		loadFailed = error != null;
 
-	private View getParentOrChildView(boolean getParentView, int groupPosition, int childPosition, View convertView, ViewGroup parent) {
-		View row;
-		CommentViewHolder viewHolder;
-
-		if (convertView == null) {
-			row = layoutInflater.inflate(R.layout.comment, parent, false);
-			viewHolder = new CommentViewHolder(row);
-			row.setTag(viewHolder);
-		} else {
-			row = convertView;
-			viewHolder = (CommentViewHolder) row.getTag();
+		if (!newComments.isEmpty()) {
+			final int firstRow = rows.size();
+			for (YouTubeCommentThread thread : newComments) {
+				rows.add(new Row(commentThreadsList.size(), -1));
+				commentThreadsList.add(thread);
+			}
+			notifyItemRangeInserted(firstRow, newComments.size());
+		}
+		if (commentThreadsList.isEmpty()) {
+			noVideoCommentsView.setVisibility(View.VISIBLE);
 		}
 
-		if (viewHolder != null) {
-			YouTubeComment comment;
-
-			if (getParentView)
-				comment = ((YouTubeCommentThread)getGroup(groupPosition)).getTopLevelComment();
-			else
-				comment = (YouTubeComment)getChild(groupPosition, childPosition);
+		commentsProgressBar.setVisibility(View.GONE);
+		loading = false;
+	}
 
-			viewHolder.updateInfo(comment, getParentView, groupPosition);
+	/**
+	 * Show or hide the replies of the comment thread, displayed at the given position.
+	 */
+	private void toggleReplies(int position) {
+		if (position == RecyclerView.NO_POSITION) {
+			return;
 		}
-
-		// if it reached the bottom of the list, then try to get the next page of videos
-		if (getParentView  &&  groupPosition == getGroupCount() - 1) {
-			synchronized (this) {
-				if (this.getCommentsTask == null) {
-					Log.w(TAG, "Getting next page of comments...");
-					this.getCommentsTask = new GetCommentsTask();
-					this.getCommentsTask.execute();
-				}
+		final int threadIndex = rows.get(position).threadIndex;
+		final int replies = commentThreadsList.get(threadIndex).getTotalReplies();
+		if (expandedThreads.remove(threadIndex)) {
+			rows.subList(position + 1, position + 1 + replies).clear();
+			notifyItemRangeRemoved(position + 1, replies);
+		} else {
+			expandedThreads.add(threadIndex);
+			final List<Row> replyRows = new ArrayList<>(replies);
+			for (int i = 0; i < replies; i++) {
+				replyRows.add(new Row(threadIndex, i));
 			}
+			rows.addAll(position + 1, replyRows);
+			notifyItemRangeInserted(position + 1, replies);
 		}
-
-		return row;
+		notifyItemChanged(position);
 	}
 
 
 	////////////
 
-	private class CommentViewHolder {
-		private View		commentView,
-							paddingView;
+	class CommentViewHolder extends RecyclerView.ViewHolder {
+		private View		paddingView;
 		private TextView	authorTextView,
 							commentTextView,
 							dateTextView,
@@ -178,8 +218,8 @@ public class CommentsAdapter extends BaseExpandableListAdapter {
 							viewRepliesTextView;
 		private ImageView	thumbnailImageView;
 
-		protected CommentViewHolder(View commentView) {
-			this.commentView = commentView;
+		CommentViewHolder(View commentView) {
+			super(commentView);
 			paddingView		= commentView.findViewById(R.id.comment_padding_view);
 			authorTextView	= commentView.findViewById(R.id.author_text_view);
 			commentTextView	= commentView.findViewById(R.id.comment_text_view);
@@ -187,13 +227,19 @@ public class CommentsAdapter extends BaseExpandableListAdapter {
 			upvotesTextView	= commentView.findViewById(R.id.comment_upvotes_text_view);
 			viewRepliesTextView	= commentView.findViewById(R.id.view_all_replies_text_view);
 			thumbnailImageView	= commentView.findViewById(R.id.comment_thumbnail_image_view);
+			Linker.configure(commentTextView);
+			// only the touches of the links are handled by the text, the others click the row
+			commentTextView.setClickable(false);
+			commentTextView.setLongClickable(false);
 		}
 
 
-		protected void updateInfo(final YouTubeComment comment, boolean isTopLevelComment, final int groupPosition) {
+		void updateInfo(final YouTubeComment comment, Row row, int totalReplies) {
+			final boolean isTopLevelComment = row.isTopLevelComment();
 			paddingView.setVisibility(isTopLevelComment ? View.GONE : View.VISIBLE);
 			authorTextView.setText(comment.getAuthor());
-			commentTextView.setText(comment.getComment());
+			// the links of the comments are found when they are loaded
+			Linker.setTextAndLinkify(commentTextView, comment.getComment());
 			dateTextView.setText(comment.getDatePublished());
 			upvotesTextView.setText(String.valueOf(comment.getLikeCount()));
 			Glide.with(context)
@@ -211,59 +257,17 @@ public class CommentsAdapter extends BaseExpandableListAdapter {
 			ViewGroup.LayoutParams lp = thumbnailImageView.getLayoutParams();
 			lp.width = (int) SkyTubeApp.getDimension(isTopLevelComment  ?  R.dimen.top_level_comment_thumbnail_width  :  R.dimen.child_comment_thumbnail_width);
 
-			if (isTopLevelComment  &&  getChildrenCount(groupPosition) > 0) {
+			if (isTopLevelComment  &&  totalReplies > 0) {
 				viewRepliesTextView.setVisibility(View.VISIBLE);
+				viewRepliesTextView.setText(expandedThreads.contains(row.threadIndex) ? R.string.hide_replies : R.string.view_replies);
 
 				// on click, hide/show the comment replies
-				commentView.setOnClickListener(viewReplies -> {
-					if (expandableListView.isGroupExpanded(groupPosition)) {
-						viewRepliesTextView.setText(R.string.view_replies);
-						expandableListView.collapseGroup(groupPosition);
-					} else {
-						viewRepliesTextView.setText(R.string.hide_replies);
-						expandableListView.expandGroup(groupPosition);
-					}
-				});
+				itemView.setOnClickListener(viewReplies -> toggleReplies(getAdapterPosition()));
 			} else {
 				viewRepliesTextView.setVisibility(View.GONE);
+				itemView.setOnClickListener(null);
 			}
 		}
 	}
 
-
-	////////////////////////////////////////////////////////////////////////////////////////////////
-
-	private class GetCommentsTask extends AsyncTask<Void, Void, List<YouTubeCommentThread>> {
-
-		@Override
-		protected void onPreExecute() {
-			commentsProgressBar.setVisibility(View.VISIBLE);
-			noVideoCommentsView.setVisibility(View.GONE);
-		}
-
-		@Override
-		protected  List<YouTubeCommentThread> doInBackground(Void... params) {
-			return commentThreadPager.getSafeNextPage();
-		}
-
-		@Override
-		protected void onPostExecute(List<YouTubeCommentThread> newComments) {
-			SkyTubeApp.notifyUserOnError(expandableListView.getContext(), commentThreadPager.getLastException());
-
-			if (newComments != null) {
-				if (newComments.size() > 0) {
-					CommentsAdapter.this.commentThreadsList.addAll(newComments);
-					CommentsAdapter.this.notifyDataSetChanged();
-				}
-				if (commentThreadsList.isEmpty()) {
-                    noVideoCommentsView.setVisibility(View.VISIBLE);
-                }
-			}
-
-			commentsProgressBar.setVisibility(View.GONE);
-			getCommentsTask = null;
-		}
-
-	}
-
 }
@@ -34,6 +34,8 @@ import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.function.Supplier;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
@@ -41,9 +43,11 @@ import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.app.enums.Policy;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardDisplay;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubePlaylist;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.PlayQueue;
 import free.rm.skytube.businessobjects.db.DatabaseTasks;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
 import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
@@ -59,6 +63,8 @@ import io.reactivex.rxjava3.disposables.CompositeDisposable;
  * A ViewHolder for the videos grid view.
  */
 public class GridViewHolder extends RecyclerView.ViewHolder implements Serializable {
+	private static final RequestOptions THUMBNAIL_OPTIONS = new RequestOptions().placeholder(R.drawable.thumbnail_default);
+
 	/** YouTube video */
 	private CardData currentCard = null;
 	private Context                 context = null;
@@ -105,8 +111,10 @@ public class GridViewHolder extends RecyclerView.ViewHolder implements Serializa
 	 * @param listener          MainActivity listener.
 	 * @param showChannelInfo   True to display channel information (e.g. channel name) and allows
 	 *                          user to open and browse the channel; false to hide such information.
+	 * @param gridCards         The cards of the grid - the videos after the clicked one are queued
+	 *                          in the player.
 	 */
-	GridViewHolder(View view, MainActivityListener listener, boolean showChannelInfo) {
+	GridViewHolder(View view, MainActivityListener listener, boolean showChannelInfo, Supplier<List<CardData>> gridCards) {
 		super(view);
 
 		ButterKnife.bind(this, view);
@@ -117,6 +125,7 @@ public class GridViewHolder extends RecyclerView.ViewHolder implements Serializa
 
 		thumbnailImageView.setOnClickListener(thumbnailView -> {
 			if (currentCard instanceof YouTubeVideo) {
+				PlayQueue.set(gridCards.get(), (YouTubeVideo) currentCard);
 				YouTubePlayer.launch((YouTubeVideo) currentCard, context);
 			} else if (currentCard instanceof YouTubePlaylist) {
 				mainActivityListener.onPlaylistClick((YouTubePlaylist) currentCard);
@@ -160,82 +169,56 @@ public class GridViewHolder extends RecyclerView.ViewHolder implements Serializa
 	/**
 	 * This method will update the {@link View}s of this object reflecting this GridView's video.
 	 *
+	 * <p>The texts are taken from the {@link CardDisplay} of the card, prepared when the card was
+	 * loaded, so nothing is formatted or read from the databases here.  Every view's visibility is
+	 * set, as the holder could have displayed a different type of card before.</p>
 	 */
 	public void updateViewsData() {
+		final CardDisplay display = CardDisplay.of(currentCard);
 		titleTextView.setText(currentCard.getTitle());
-		if (currentCard.getPublishTimestamp() != null) {
+		final boolean hasPublishDate = currentCard.getPublishTimestamp() != null;
+		if (hasPublishDate) {
 			publishDateTextView.setText(currentCard.getPublishDatePretty());
-		} else {
-			publishDateTextView.setVisibility(View.GONE);
-			separatorView.setVisibility(View.GONE);
 		}
+		publishDateTextView.setVisibility(hasPublishDate ? View.VISIBLE : View.GONE);
 		Glide.with(context)
 				.load(currentCard.getThumbnailUrl())
-				.apply(new RequestOptions().placeholder(R.drawable.thumbnail_default))
+				.apply(THUMBNAIL_OPTIONS)
 				.into(thumbnailImageView);
 
-		if (currentCard instanceof YouTubeVideo) {
-			updateViewsData((YouTubeVideo) currentCard);
-		} else if (currentCard instanceof YouTubePlaylist) {
-			updateViewsData((YouTubePlaylist) currentCard);
-		} else if (currentCard instanceof YouTubeChannel) {
-			updateViewsData((YouTubeChannel) currentCard);
-		}
-	}
-
-	private void updateViewsData(@NonNull YouTubeChannel currentCard) {
-		if (currentCard.getSubscriberCount() >= 0) {
-			viewsTextView.setText(currentCard.getTotalSubscribers());
+		if (display.views != null) {
+			viewsTextView.setText(display.views);
+			viewsTextView.setVisibility(View.VISIBLE);
 		} else {
-			// the subscriber count is hidden/disabled
 			viewsTextView.setVisibility(View.GONE);
-			separatorView.setVisibility(View.GONE);
 		}
+		separatorView.setVisibility(hasPublishDate && display.views != null ? View.VISIBLE : View.GONE);
 
-		thumbsUpPercentageTextView.setVisibility(View.GONE);
-		videoDurationTextView.setVisibility(View.GONE);
-		videoPositionProgressBar.setVisibility(View.GONE);
-		channelTextView.setVisibility(View.GONE);
-	}
-
-	private void updateViewsData(@NonNull YouTubePlaylist playlistInfoItem) {
-		viewsTextView.setText(String.format(context.getString(R.string.num_videos), playlistInfoItem.getVideoCount()));
-
-		thumbsUpPercentageTextView.setVisibility(View.GONE);
-		videoDurationTextView.setVisibility(View.GONE);
-		channelTextView.setVisibility(View.GONE);
-		optionsButton.setVisibility(View.GONE);
-
-		videoPositionProgressBar.setVisibility(View.GONE);
-	}
-
-	private void updateViewsData(@NonNull YouTubeVideo youTubeVideo) {
-		channelTextView.setText(showChannelInfo ? youTubeVideo.getChannelName() : "");
-		videoDurationTextView.setText(youTubeVideo.getDuration());
-		viewsTextView.setText(youTubeVideo.getViewsCount());
-
-		if (youTubeVideo.getThumbsUpPercentageStr() != null) {
-			thumbsUpPercentageTextView.setVisibility(View.VISIBLE);
-			thumbsUpPercentageTextView.setText(youTubeVideo.getThumbsUpPercentageStr());
-		} else {
-			thumbsUpPercentageTextView.setVisibility(View.INVISIBLE);
-		}
-
-		if(SkyTubeApp.getPreferenceManager().getBoolean(context.getString(R.string.pref_key_disable_playback_status), false)) {
-			videoPositionProgressBar.setVisibility(View.INVISIBLE);
-		} else {
-			PlaybackStatusDb.VideoWatchedStatus videoWatchedStatus = PlaybackStatusDb.getPlaybackStatusDb().getVideoWatchedStatus(youTubeVideo.getId());
-			if (videoWatchedStatus.isWatched()) {
+		if (currentCard instanceof YouTubeVideo) {
+			channelTextView.setText(showChannelInfo && display.channelName != null ? display.channelName : "");
+			channelTextView.setVisibility(View.VISIBLE);
+			videoDurationTextView.setText(display.duration);
+			videoDurationTextView.setVisibility(View.VISIBLE);
+			if (display.thumbsUpPercentage != null) {
+				thumbsUpPercentageTextView.setText(display.thumbsUpPercentage);
+				thumbsUpPercentageTextView.setVisibility(View.VISIBLE);
+			} else {
+				thumbsUpPercentageTextView.setVisibility(View.INVISIBLE);
+			}
+			if (display.showProgress) {
+				videoPositionProgressBar.setMax(display.progressMax);
+				videoPositionProgressBar.setProgress(display.progress);
 				videoPositionProgressBar.setVisibility(View.VISIBLE);
-				videoPositionProgressBar.setMax(youTubeVideo.getDurationInSeconds() * 1000);
-				if (videoWatchedStatus.isFullyWatched()) {
-					videoPositionProgressBar.setProgress(youTubeVideo.getDurationInSeconds() * 1000);
-				} else {
-					videoPositionProgressBar.setProgress((int) videoWatchedStatus.getPosition());
-				}
 			} else {
 				videoPositionProgressBar.setVisibility(View.INVISIBLE);
 			}
+			optionsButton.setVisibility(View.VISIBLE);
+		} else {
+			channelTextView.setVisibility(View.GONE);
+			videoDurationTextView.setVisibility(View.GONE);
+			thumbsUpPercentageTextView.setVisibility(View.GONE);
+			videoPositionProgressBar.setVisibility(View.GONE);
+			optionsButton.setVisibility(currentCard instanceof YouTubePlaylist ? View.GONE : View.VISIBLE);
 		}
 	}
 
@@ -22,4 +22,9 @@ package free.rm.skytube.gui.businessobjects.adapters;
  */
 public interface ItemTouchHelperAdapter {
 	boolean onItemMove(int fromPosition, int toPosition);
+
+	/**
+	 * Called when the user drops the dragged item at its final position.
+	 */
+	void onItemDropped(int position);
 }
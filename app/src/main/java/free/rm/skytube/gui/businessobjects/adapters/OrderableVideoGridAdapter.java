@@ -17,8 +17,17 @@
 
 package free.rm.skytube.gui.businessobjects.adapters;
 
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import free.rm.skytube.businessobjects.YouTube.GetYouTubeVideos;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.db.DatabaseTasks;
 import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
 
 /**
@@ -26,6 +35,8 @@ import free.rm.skytube.businessobjects.interfaces.OrderableDatabase;
  */
 public class OrderableVideoGridAdapter extends VideoGridAdapter implements ItemTouchHelperAdapter {
 	private final OrderableDatabase database;
+	/** The original position of the dragged item, or NO_POSITION */
+	private int dragStartPosition = RecyclerView.NO_POSITION;
 
 	public OrderableVideoGridAdapter(OrderableDatabase database) {
 		this.database = database;
@@ -33,6 +44,9 @@ public class OrderableVideoGridAdapter extends VideoGridAdapter implements ItemT
 
 	@Override
 	public boolean onItemMove(int fromPosition, int toPosition) {
+		if (dragStartPosition == RecyclerView.NO_POSITION) {
+			dragStartPosition = fromPosition;
+		}
 		if (fromPosition < toPosition) {
 			for (int i = fromPosition; i < toPosition; i++) {
 				Collections.swap(list, i, i + 1);
@@ -43,10 +57,49 @@ public class OrderableVideoGridAdapter extends VideoGridAdapter implements ItemT
 			}
 		}
 		notifyItemMoved(fromPosition, toPosition);
+		return true;
+	}
 
-		if(database != null)
-			database.updateOrder(list);
+	/**
+	 * Store the new position, once the item is dropped - only the moved item gets a new order number,
+	 * between its new neighbours.
+	 */
+	@Override
+	public void onItemDropped(int position) {
+		final int startPosition = dragStartPosition;
+		dragStartPosition = RecyclerView.NO_POSITION;
+		if (database == null || position == RecyclerView.NO_POSITION || position == startPosition || position >= list.size()) {
+			return;
+		}
+		DatabaseTasks.moveItem(database, list.get(position), position > 0 ? list.get(position - 1) : null)
+				.subscribe(newOrder -> {
+					// a video dropped on the last loaded row is ordered before the next page
+					final GetYouTubeVideos getYouTubeVideos = getGetYouTubeVideos();
+					if (getYouTubeVideos != null) {
+						getYouTubeVideos.onItemMoved(newOrder);
+					}
+				});
+	}
 
-		return true;
+	/**
+	 * Skip the videos which are already displayed - a page which was loading during a drag & drop
+	 * could contain the moved video again.
+	 */
+	@Override
+	public void appendList(List<CardData> l) {
+		if (l == null || l.isEmpty()) {
+			return;
+		}
+		final Set<String> displayedIds = new HashSet<>();
+		for (CardData card : list) {
+			displayedIds.add(card.getId());
+		}
+		final List<CardData> newItems = new ArrayList<>(l.size());
+		for (CardData card : l) {
+			if (!displayedIds.contains(card.getId())) {
+				newItems.add(card);
+			}
+		}
+		super.appendList(newItems);
 	}
 }
@@ -66,10 +66,18 @@ public class SearchHistoryCursorAdapter extends SimpleCursorAdapter {
 		super.bindView(view, context, cursor);
 		ImageButton deleteButton = view.findViewById(R.id.delete_button);
 		final TextView textView = view.findViewById(android.R.id.text1);
+		final int remoteColumn = cursor.getColumnIndex(SearchHistoryTable.COL_REMOTE);
+		final boolean remote = remoteColumn >= 0 && cursor.getInt(remoteColumn) == 1;
+		// the suggestions of YouTube are not in the search history, so they can't be deleted
+		deleteButton.setVisibility(remote ? View.GONE : View.VISIBLE);
 		textView.setOnClickListener(v -> {
 			if(searchHistoryClickListener != null)
 				searchHistoryClickListener.onClick(textView.getText().toString());
-			SearchHistoryDb.getSearchHistoryDb().updateSearchTextTimestamp(textView.getText().toString());
+			if (remote) {
+				SearchHistoryDb.getSearchHistoryDb().insertSearchText(textView.getText().toString());
+			} else {
+				SearchHistoryDb.getSearchHistoryDb().updateSearchTextTimestamp(textView.getText().toString());
+			}
 		});
 		deleteButton.setOnClickListener(v -> {
 			// delete the previous search from the search database
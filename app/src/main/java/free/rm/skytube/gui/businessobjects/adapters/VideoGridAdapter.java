@@ -27,17 +27,23 @@ import androidx.annotation.NonNull;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import free.rm.skytube.R;
 import free.rm.skytube.businessobjects.VideoCategory;
 import free.rm.skytube.businessobjects.YouTube.GetYouTubeVideos;
 import free.rm.skytube.businessobjects.YouTube.POJOs.CardData;
+import free.rm.skytube.businessobjects.YouTube.POJOs.CardDisplay;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
 import free.rm.skytube.businessobjects.interfaces.VideoPlayStatusUpdateListener;
 import free.rm.skytube.gui.businessobjects.MainActivityListener;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * An adapter that will display videos in a {@link android.widget.GridView}.
@@ -95,6 +101,9 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 
 	public void onDestroy() {
 		compositeDisposable.clear();
+		if (getYouTubeVideos != null) {
+			getYouTubeVideos.close();
+		}
 		PlaybackStatusDb.getPlaybackStatusDb().removeListener(this);
 		this.listener = null;
 		this.videoGridUpdated = null;
@@ -136,6 +145,9 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 			this.showChannelInfo = !(videoCategory == VideoCategory.CHANNEL_VIDEOS  ||  videoCategory == VideoCategory.PLAYLIST_VIDEOS);
 
 			// create a new instance of GetYouTubeVideos
+			if (this.getYouTubeVideos != null) {
+				this.getYouTubeVideos.close();
+			}
 			this.getYouTubeVideos = videoCategory.createGetYouTubeVideos();
 			this.getYouTubeVideos.init();
 
@@ -161,7 +173,7 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 	public GridViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
 		setContext(parent.getContext());
 		View v = LayoutInflater.from(getContext()).inflate(R.layout.video_cell, parent, false);
-		return new GridViewHolder(v, listener, showChannelInfo);
+		return new GridViewHolder(v, listener, showChannelInfo, this::getList);
 	}
 
 	/**
@@ -218,6 +230,13 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 		holder.clearBackgroundTasks();
 	}
 
+	/**
+	 * @return The object loading the pages of the displayed category, or null.
+	 */
+	protected GetYouTubeVideos getGetYouTubeVideos() {
+		return getYouTubeVideos;
+	}
+
 	public void setSwipeRefreshLayout(SwipeRefreshLayout swipeRefreshLayout) {
 		this.swipeRefreshLayout = swipeRefreshLayout;
 	}
@@ -240,7 +259,12 @@ public class VideoGridAdapter extends RecyclerViewAdapterEx<CardData, GridViewHo
 
 	@Override
 	public void onVideoStatusUpdated() {
-		notifyDataSetChanged();
+		// the playback progress of the cards could have changed, so their display is prepared again
+		final List<CardData> cards = new ArrayList<>(getList());
+		compositeDisposable.add(Completable.fromAction(() -> CardDisplay.prepare(cards))
+				.subscribeOn(Schedulers.io())
+				.observeOn(AndroidSchedulers.mainThread())
+				.subscribe(this::notifyDataSetChanged));
 	}
 }
 
@@ -24,13 +24,18 @@ import android.util.Log;
 import com.google.gson.Gson;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
@@ -39,7 +44,9 @@ import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
 import free.rm.skytube.businessobjects.db.BookmarksDb;
 import free.rm.skytube.businessobjects.db.ChannelFilteringDb;
+import free.rm.skytube.businessobjects.db.LocalStore;
 import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
+import free.rm.skytube.businessobjects.db.SQLiteOpenHelperEx;
 import free.rm.skytube.businessobjects.db.SearchHistoryDb;
 import free.rm.skytube.businessobjects.db.SubscriptionsDb;
 
@@ -52,6 +59,7 @@ public class BackupDatabases {
 	private static final File   EXPORT_DIR  = Environment.getExternalStorageDirectory();
 	private static final String BACKUPS_EXT = ".skytube";
 	public static final String PREFERENCES_JSON = "preferences.json";
+	private static final String MANIFEST_JSON = "backup.json";
 	private static final int[] KEY_IDS = {
 			R.string.pref_use_default_newpipe_backend,
 			R.string.pref_key_subscriptions_alphabetical_order,
@@ -76,43 +84,121 @@ public class BackupDatabases {
 	};
 
 	/**
-	 * Backs up the databases to external storage.
+	 * Backs up the databases to external storage - differentially, if the user enabled it.
 	 *
 	 * @return The path of the archive file generated (containing the backup).
 	 * @throws IOException
 	 */
 	public String backupDbsToSdCard() throws IOException {
-		SubscriptionsDb     subscriptionsDb = SubscriptionsDb.getSubscriptionsDb();
-		BookmarksDb         bookmarksDb = BookmarksDb.getBookmarksDb();
-		PlaybackStatusDb    playbackDb = PlaybackStatusDb.getPlaybackStatusDb();
-		ChannelFilteringDb  channelFilteringDb = ChannelFilteringDb.getChannelFilteringDb();
-		SearchHistoryDb     searchHistoryDb = SearchHistoryDb.getSearchHistoryDb();
+		return backupDbsToSdCard(SkyTubeApp.getSettings().isDifferentialBackupEnabled());
+	}
 
-		final File          backupPath = new File(EXPORT_DIR, generateFileName());
 
-		Gson gson = new Gson();
+	/**
+	 * Backs up the databases to external storage.  The databases are not closed: a consistent
+	 * snapshot of each is taken while they are in use, so the backup can run in the background.
+	 *
+	 * @param differential  If true, and the last full backup still exists, then only the databases
+	 *                      changed since then are included - restoring needs both archives.
+	 *
+	 * @return The path of the archive file generated (containing the backup).
+	 * @throws IOException
+	 */
+	public String backupDbsToSdCard(boolean differential) throws IOException {
+		final Gson          gson = new Gson();
+		final BackupManifest lastFullBackup = differential ? getLastFullBackup(gson) : null;
+		final File          backupPath = new File(EXPORT_DIR, generateFileName());
+		final File          snapshotDir = new File(SkyTubeApp.getContext().getCacheDir(), "backup");
+		final BackupManifest manifest = new BackupManifest(backupPath.getName(), lastFullBackup != null ? lastFullBackup.name : null);
 
-		// close the databases
-		subscriptionsDb.close();
-		bookmarksDb.close();
-		playbackDb.close();
-		channelFilteringDb.close();
-		searchHistoryDb.close();
+		if (!snapshotDir.isDirectory() && !snapshotDir.mkdirs()) {
+			throw new IOException("Unable to create " + snapshotDir);
+		}
 
 		try (ZipOutput databasesZip = new ZipOutput(backupPath)) {
 			// backup the databases inside a zip file
-			databasesZip.addFile(subscriptionsDb.getDatabasePath());
-			databasesZip.addFile(bookmarksDb.getDatabasePath());
-			databasesZip.addFile(playbackDb.getDatabasePath());
-			databasesZip.addFile(channelFilteringDb.getDatabasePath());
-			databasesZip.addFile(searchHistoryDb.getDatabasePath());
+			for (SQLiteOpenHelperEx database : getDatabases()) {
+				final String name = database.getDatabaseName();
+				final List<File> files = database.snapshot(new File(snapshotDir, name));
+				try {
+					final String digest = digest(files);
+					manifest.databases.put(name, digest);
+					if (lastFullBackup != null && digest.equals(lastFullBackup.databases.get(name))) {
+						Log.i(TAG, name + " is unchanged since " + lastFullBackup.name);
+						continue;
+					}
+					for (File file : files) {
+						databasesZip.addFile(file.getPath());
+					}
+					manifest.included.add(name);
+				} finally {
+					for (File file : files) {
+						file.delete();
+					}
+				}
+			}
 
 			databasesZip.addContent(PREFERENCES_JSON, gson.toJson(getImportantKeys()));
+			databasesZip.addContent(MANIFEST_JSON, gson.toJson(manifest));
+		}
+		if (manifest.base == null) {
+			SkyTubeApp.getSettings().setLastFullBackup(gson.toJson(manifest));
 		}
 		return backupPath.getPath();
 	}
 
 
+	private static SQLiteOpenHelperEx[] getDatabases() {
+		return new SQLiteOpenHelperEx[]{
+				SubscriptionsDb.getSubscriptionsDb(),
+				BookmarksDb.getBookmarksDb(),
+				PlaybackStatusDb.getPlaybackStatusDb(),
+				ChannelFilteringDb.getChannelFilteringDb(),
+				SearchHistoryDb.getSearchHistoryDb()
+		};
+	}
+
+
+	/**
+	 * @return The manifest of the last full backup, if its archive still exists.
+	 */
+	private static BackupManifest getLastFullBackup(Gson gson) {
+		final String json = SkyTubeApp.getSettings().getLastFullBackup();
+		if (json == null) {
+			return null;
+		}
+		final BackupManifest manifest = gson.fromJson(json, BackupManifest.class);
+		if (manifest == null || manifest.name == null || !new File(EXPORT_DIR, manifest.name).exists()) {
+			return null;
+		}
+		return manifest;
+	}
+
+
+	private static String digest(List<File> files) throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 is not available", e);
+		}
+		final byte[] buffer = new byte[64 * 1024];
+		for (File file : files) {
+			try (InputStream input = new FileInputStream(file)) {
+				int count;
+				while ((count = input.read(buffer)) != -1) {
+					digest.update(buffer, 0, count);
+				}
+			}
+		}
+		final StringBuilder result = new StringBuilder();
+		for (byte b : digest.digest()) {
+			result.append(String.format("%02x", b));
+		}
+		return result.toString();
+	}
+
+
 	private static Map<String, Object> getImportantKeys() {
 		Map<String, ?> allPreferences = SkyTubeApp.getPreferenceManager().getAll();
 		Map<String, Object> result = new HashMap<>();
@@ -140,20 +226,49 @@ public class BackupDatabases {
 		SearchHistoryDb     searchHistoryDb = SearchHistoryDb.getSearchHistoryDb();
 
         File                databasesDirectory = subscriptionsDb.getDatabaseDirectory();
+		File                backupFile = new File(backupFilePath);
 
 		// close the databases
+		LocalStore.get().close();
 		subscriptionsDb.close();
 		bookmarksDb.close();
 		playbackDb.close();
 		channelFilteringDb.close();
 		searchHistoryDb.close();
 
+		// the logs of the current databases don't belong to the restored ones
+		subscriptionsDb.deleteWriteAheadLog();
+		bookmarksDb.deleteWriteAheadLog();
+		playbackDb.deleteWriteAheadLog();
+		channelFilteringDb.deleteWriteAheadLog();
+		searchHistoryDb.deleteWriteAheadLog();
+
         // extract the databases from the backup zip file
-        ZipFile databasesZip = new ZipFile(new File(backupFilePath));
+        ZipFile databasesZip = new ZipFile(backupFile);
         Map<String, ZipFile.JsonFile> result = databasesZip.unzip(databasesDirectory);
+		ZipFile.JsonFile manifestJson = result.get(MANIFEST_JSON);
+		if (manifestJson != null) {
+			final BackupManifest manifest = new Gson().fromJson(manifestJson.content, BackupManifest.class);
+			if (manifest.base != null) {
+				// a differential backup: the unchanged databases are in the full backup
+				final File baseFile = new File(backupFile.getParentFile(), manifest.base);
+				if (!baseFile.exists()) {
+					throw new IOException("The full backup " + baseFile + " is missing, it's needed to restore " + backupFile);
+				}
+				new ZipFile(baseFile).unzip(databasesDirectory, name -> !manifest.included.contains(getDatabaseName(name)));
+			}
+		}
 		loadPreferencesFromJson(result);
 	}
 
+
+	/**
+	 * @return The name of the database, the file in the backup belongs to.
+	 */
+	private static String getDatabaseName(String fileName) {
+		return fileName.endsWith("-wal") ? fileName.substring(0, fileName.length() - "-wal".length()) : fileName;
+	}
+
 	private void loadPreferencesFromJson(Map<String, ZipFile.JsonFile> result) {
 		ZipFile.JsonFile jsonFile = result.get(PREFERENCES_JSON);
 		if (jsonFile != null) {
@@ -193,6 +308,25 @@ public class BackupDatabases {
 		}
 	}
 
+	/**
+	 * Describes the databases in a backup.
+	 */
+	private static class BackupManifest {
+		/** The file name of the backup */
+		String name;
+		/** The file name of the full backup, this backup is based on - or null, if this is a full backup */
+		String base;
+		/** The digest of each database, at the time of the backup */
+		Map<String, String> databases = new HashMap<>();
+		/** The databases included in this backup */
+		Set<String> included = new HashSet<>();
+
+		BackupManifest(String name, String base) {
+			this.name = name;
+			this.base = base;
+		}
+	}
+
 	private String generateFileName() {
 		TimeZone tz = TimeZone.getTimeZone("UTC");
 		DateFormat df = new SimpleDateFormat("yyyy-MM-dd-HHmmss");
@@ -21,6 +21,7 @@ import android.util.Log;
 
 import org.apache.commons.codec.Charsets;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -29,6 +30,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -48,7 +50,7 @@ public class ZipFile {
 	}
 	private final File zipFilePath;
 
-	private static final int BUFFER_SIZE = 2048;
+	private static final int BUFFER_SIZE = 64 * 1024;
 	private static final String TAG = ZipFile.class.getSimpleName();
 
 	/**
@@ -67,8 +69,19 @@ public class ZipFile {
 	 * @param extractionDirectory   The directory where the files (inside the zip) will be extracted to.
 	 */
 	public Map<String, JsonFile> unzip(File extractionDirectory) throws IOException {
+		return unzip(extractionDirectory, name -> true);
+	}
+
+
+	/**
+	 * Unzips the files accepted by the filter to the specified extraction path.
+	 *
+	 * @param extractionDirectory   The directory where the files (inside the zip) will be extracted to.
+	 * @param filter                Accepts the names of the files to extract - the json files are always read.
+	 */
+	public Map<String, JsonFile> unzip(File extractionDirectory, Predicate<String> filter) throws IOException {
 		try (FileInputStream fin = new FileInputStream(zipFilePath);
-			 ZipInputStream zipInputStream = new ZipInputStream(fin)) {
+			 ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(fin, BUFFER_SIZE))) {
 			ZipEntry zipEntry;
 
 			Map<String, JsonFile> result = new HashMap<>();
@@ -86,7 +99,7 @@ public class ZipFile {
 									zipEntry.getName().toLowerCase(),
 									new JsonFile(zipEntry.getName(), new String(sw.toByteArray(), Charsets.UTF_8)));
 						}
-					} else {
+					} else if (filter.test(zipEntry.getName())) {
 						FileOutputStream fout = new FileOutputStream(new File(extractionDirectory, zipEntry.getName()));
 						copyStream(zipInputStream, fout);
 					}
@@ -20,7 +20,6 @@ import android.util.Log;
 
 import org.apache.commons.codec.Charsets;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
@@ -35,7 +34,7 @@ import java.util.zip.ZipOutputStream;
 public class ZipOutput implements Closeable {
     private static final String TAG = ZipOutput.class.getSimpleName();
 
-    private static final int BUFFER_SIZE = 2048;
+    private static final int BUFFER_SIZE = 64 * 1024;
     private final FileOutputStream dest;
     private final ZipOutputStream outputZipStream;
 
@@ -46,12 +45,12 @@ public class ZipOutput implements Closeable {
      */
     public ZipOutput(File zipFilePath) throws FileNotFoundException {
         this.dest            = new FileOutputStream(zipFilePath);
-        this.outputZipStream = new ZipOutputStream(new BufferedOutputStream(dest));
+        this.outputZipStream = new ZipOutputStream(new BufferedOutputStream(dest, BUFFER_SIZE));
     }
 
     public void addFile(String path) throws IOException {
-        try (FileInputStream fi = new FileInputStream(path);
-             BufferedInputStream origin = new BufferedInputStream(fi, BUFFER_SIZE)) {
+        // the file is read with one large buffer, there is no need for a BufferedInputStream
+        try (FileInputStream origin = new FileInputStream(path)) {
             ZipEntry entry = new ZipEntry(path.substring(path.lastIndexOf("/") + 1));
 
             outputZipStream.putNextEntry(entry);
@@ -61,7 +60,7 @@ public class ZipOutput implements Closeable {
             while ((count = origin.read(buffer, 0, BUFFER_SIZE)) != -1) {
                 outputZipStream.write(buffer, 0, count);
             }
-            outputZipStream.flush();
+            outputZipStream.closeEntry();
         }
 
         Log.d(TAG, "Added: " + path);
@@ -23,6 +23,8 @@ import android.text.SpannableStringBuilder;
 import android.text.Spanned;
 import android.text.style.URLSpan;
 import android.text.util.Linkify;
+import android.util.LruCache;
+import android.view.View;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AlertDialog;
@@ -34,6 +36,7 @@ import org.schabi.newpipe.extractor.StreamingService;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import free.rm.skytube.R;
 import free.rm.skytube.app.SkyTubeApp;
@@ -41,6 +44,10 @@ import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
 import free.rm.skytube.businessobjects.db.BookmarksDb;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * A {@link android.widget.TextView} which is able to handle clicks on links within the set text.
@@ -50,20 +57,141 @@ import free.rm.skytube.businessobjects.db.BookmarksDb;
 public class Linker {
 
 	private final static String TAG = Linker.class.getSimpleName();
+	/** The maximum length of the texts, whose spans are kept */
+	private static final int MAX_CACHED_CHARS = 256 * 1024;
+	private static final Pattern HTML_MARKUP = Pattern.compile("<a |<br", Pattern.CASE_INSENSITIVE);
+	private static final Pattern HTML_LINE_BREAK = Pattern.compile("<br\\s*/?>", Pattern.CASE_INSENSITIVE);
+	private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+	/** The spans of the recently displayed descriptions and comments, by their text */
+	private static final LruCache<String, Spanned> SPANNED_CACHE = new LruCache<String, Spanned>(MAX_CACHED_CHARS) {
+		@Override
+		protected int sizeOf(String key, Spanned value) {
+			return key.length();
+		}
+	};
 
 	public static void configure(TextView textView) {
 		textView.setAutoLinkMask(0);
 		textView.setMovementMethod(new TouchableMovementMethod(new LinkListener(textView.getContext())));
 	}
 	/**
-	 * Sets the text to be displayed and ensure that any links (in the text) are clickable.
+	 * Sets the text to be displayed and ensure that any links (in the text) are clickable.  If the
+	 * text is not parsed yet, it's parsed in the background, and displayed when it's ready.
 	 *
 	 * @param text
 	 */
 	public static void setTextAndLinkify(TextView textView, String text) {
-		Logger.i(TAG, String.format("setText: %s", text));
-		Spanned spanns = span(text);
-		textView.setText(spanns);
+		PendingText.of(textView).setText(text);
+	}
+
+	/**
+	 * The text of a view, which is parsed in the background - the parsing is cancelled, when the
+	 * view is detached, or gets another text, and it's restarted, when the view is attached again.
+	 */
+	private static class PendingText implements View.OnAttachStateChangeListener {
+		private final TextView textView;
+		/** The text, whose links are not displayed yet, or null */
+		private String text;
+		private Disposable parsing;
+
+		private PendingText(TextView textView) {
+			this.textView = textView;
+		}
+
+		static PendingText of(TextView textView) {
+			final Object tag = textView.getTag();
+			if (tag instanceof PendingText) {
+				return (PendingText) tag;
+			}
+			final PendingText pendingText = new PendingText(textView);
+			textView.setTag(pendingText);
+			textView.addOnAttachStateChangeListener(pendingText);
+			return pendingText;
+		}
+
+		void setText(String newText) {
+			cancel();
+			text = null;
+			if (newText == null) {
+				textView.setText(null);
+				return;
+			}
+			final Spanned cached = SPANNED_CACHE.get(newText);
+			if (cached != null) {
+				textView.setText(cached);
+				return;
+			}
+			// the plain text is displayed, until the links are found
+			textView.setText(isText(newText) ? newText : toPlainText(newText));
+			text = newText;
+			parse();
+		}
+
+		private void parse() {
+			final String parsedText = text;
+			parsing = Single.fromCallable(() -> getSpanned(parsedText))
+					.subscribeOn(Schedulers.io())
+					.observeOn(AndroidSchedulers.mainThread())
+					.subscribe(spanned -> {
+						text = null;
+						parsing = null;
+						textView.setText(spanned);
+					}, error -> {
+						text = null;
+						parsing = null;
+						Logger.e(TAG, "Unable to linkify the text: " + error.getMessage(), error);
+					});
+		}
+
+		private void cancel() {
+			if (parsing != null) {
+				parsing.dispose();
+				parsing = null;
+			}
+		}
+
+		@Override
+		public void onViewAttachedToWindow(View view) {
+			if (text != null && parsing == null) {
+				parse();
+			}
+		}
+
+		@Override
+		public void onViewDetachedFromWindow(View view) {
+			cancel();
+		}
+	}
+
+	/**
+	 * @return The HTML text without the tags, and with the most common entities - good enough to be
+	 * displayed, while the HTML is parsed.
+	 */
+	private static String toPlainText(String html) {
+		final String text = HTML_TAG.matcher(HTML_LINE_BREAK.matcher(html).replaceAll("\n")).replaceAll("");
+		return text.replace("&quot;", "\"")
+				.replace("&#39;", "'")
+				.replace("&lt;", "<")
+				.replace("&gt;", ">")
+				.replace("&amp;", "&");
+	}
+
+	/**
+	 * Parse the text, and find the links in it - or return the cached result.  It can be called from
+	 * a background thread, so the text is ready, when it's displayed.
+	 *
+	 * @return The text with the links, or null, if the text is null.
+	 */
+	public static Spanned getSpanned(String text) {
+		if (text == null) {
+			return null;
+		}
+		Spanned result = SPANNED_CACHE.get(text);
+		if (result == null) {
+			result = span(text);
+			SPANNED_CACHE.put(text, result);
+		}
+		return result;
 	}
 
 	private static Spanned span(String text) {
@@ -75,8 +203,7 @@ public class Linker {
 	}
 
 	private static boolean isText(String text) {
-		String lower = text.toLowerCase();
-		return (!lower.contains("<a ") && !lower.contains("<br"));
+		return !HTML_MARKUP.matcher(text).find();
 	}
 
 	private static Spanned spanText(String text) {
@@ -50,14 +50,17 @@ class TouchableMovementMethod extends LinkMovementMethod {
      * @param textView  view the user clicked
      * @param spannable spannable string inside the clicked view
      * @param event     motion event that occurred
-     * @return
+     * @return False, if the touch doesn't start on a link - so a parent view can handle it, if the
+     * text view is not clickable.
      */
     @Override
     public boolean onTouchEvent(TextView textView, Spannable spannable, MotionEvent event) {
+        boolean handled = true;
         synchronized (lock) {
             switch (event.getAction()) {
                 case MotionEvent.ACTION_DOWN: {
                     handleActionDown(textView, spannable, event);
+                    handled = pressedSpan != null;
                     break;
                 }
                 case MotionEvent.ACTION_MOVE: {
@@ -73,7 +76,7 @@ class TouchableMovementMethod extends LinkMovementMethod {
             }
         }
 
-        return true;
+        return handled;
     }
 
     private void handleOther(TextView textView, Spannable spannable, MotionEvent event) {
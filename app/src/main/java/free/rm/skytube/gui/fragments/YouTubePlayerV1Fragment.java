@@ -18,7 +18,6 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
-import android.widget.ExpandableListView;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
@@ -31,6 +30,7 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.core.content.ContextCompat;
 import androidx.media.AudioManagerCompat;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
@@ -110,7 +110,7 @@ public class YouTubePlayerV1Fragment extends ImmersiveModeFragment implements Me
 	private View				    commentsProgressBar = null,
 									noVideoCommentsView = null;
 	private CommentsAdapter		    commentsAdapter = null;
-	private ExpandableListView	    commentsExpandableListView = null;
+	private RecyclerView		    commentsRecyclerView = null;
 
 	private Menu                    menu = null;
 	private YouTubePlayerActivityListener listener = null;
@@ -215,6 +215,9 @@ public class YouTubePlayerV1Fragment extends ImmersiveModeFragment implements Me
 	public void onDestroy() {
 		compositeDisposable.clear();
 		videoDescSubscribeButton.clearBackgroundTasks();
+		if (commentsAdapter != null) {
+			commentsAdapter.clearBackgroundTasks();
+		}
 		super.onDestroy();
 	}
 
@@ -444,13 +447,13 @@ public class YouTubePlayerV1Fragment extends ImmersiveModeFragment implements Me
 		videoDescLikesBar = view.findViewById(R.id.video_desc_likes_bar);
 		videoDescSubscribeButton = view.findViewById(R.id.video_desc_subscribe_button);
 
-		commentsExpandableListView = view.findViewById(R.id.commentsExpandableListView);
+		commentsRecyclerView = view.findViewById(R.id.commentsRecyclerView);
 		commentsProgressBar = view.findViewById(R.id.comments_progress_bar);
 		noVideoCommentsView = view.findViewById(R.id.no_video_comments_text_view);
 		commentsDrawer = view.findViewById(R.id.comments_drawer);
 		commentsDrawer.setOnDrawerOpenListener(() -> {
 			if (commentsAdapter == null) {
-				commentsAdapter = new CommentsAdapter(getActivity(), youTubeVideo.getId(), commentsExpandableListView, commentsProgressBar, noVideoCommentsView);
+				commentsAdapter = new CommentsAdapter(getActivity(), youTubeVideo.getId(), commentsRecyclerView, commentsProgressBar, noVideoCommentsView);
 			}
 		});
 		commentsDrawerIconView = view.findViewById(R.id.comments_icon_image_view);
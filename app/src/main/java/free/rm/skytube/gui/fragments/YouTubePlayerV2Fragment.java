@@ -33,7 +33,6 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.Window;
 import android.view.WindowManager;
-import android.widget.ExpandableListView;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.RelativeLayout;
@@ -46,6 +45,7 @@ import androidx.annotation.RequiresApi;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.ContextCompat;
 import androidx.media.AudioManagerCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.request.RequestOptions;
@@ -56,6 +56,7 @@ import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.ExoPlayerFactory;
 import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
 import com.google.android.exoplayer2.source.UnrecognizedInputFormatException;
 import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
@@ -67,6 +68,8 @@ import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
 import org.schabi.newpipe.extractor.StreamingService;
 import org.schabi.newpipe.extractor.stream.StreamInfo;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import butterknife.BindView;
@@ -81,8 +84,10 @@ import free.rm.skytube.app.enums.Policy;
 import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeChannel;
 import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+import free.rm.skytube.businessobjects.YouTube.PlayQueue;
 import free.rm.skytube.businessobjects.YouTube.YouTubeTasks;
 import free.rm.skytube.businessobjects.YouTube.newpipe.ContentId;
+import free.rm.skytube.businessobjects.YouTube.newpipe.NewPipeService;
 import free.rm.skytube.businessobjects.db.DatabaseTasks;
 import free.rm.skytube.businessobjects.db.DownloadedVideosDb;
 import free.rm.skytube.businessobjects.db.PlaybackStatusDb;
@@ -90,6 +95,7 @@ import free.rm.skytube.businessobjects.interfaces.GetDesiredStreamListener;
 import free.rm.skytube.businessobjects.interfaces.YouTubePlayerActivityListener;
 import free.rm.skytube.businessobjects.interfaces.YouTubePlayerFragmentInterface;
 import free.rm.skytube.gui.activities.ThumbnailViewerActivity;
+import free.rm.skytube.gui.businessobjects.AudioPlaybackService;
 import free.rm.skytube.gui.businessobjects.DatasourceBuilder;
 import free.rm.skytube.gui.businessobjects.MobileNetworkWarningDialog;
 import free.rm.skytube.gui.businessobjects.PlaybackSpeedController;
@@ -101,7 +107,11 @@ import free.rm.skytube.gui.businessobjects.fragments.ImmersiveModeFragment;
 import free.rm.skytube.gui.businessobjects.views.Linker;
 import free.rm.skytube.gui.businessobjects.views.SubscribeButton;
 import hollowsoft.slidingdrawer.SlidingDrawer;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 import static free.rm.skytube.gui.activities.YouTubePlayerActivity.YOUTUBE_VIDEO_OBJ;
 
@@ -121,6 +131,22 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 
 	private long				    playerInitialPosition = 0;
 
+	/** The videos to play, after the current one */
+	private PlayQueue               playQueue;
+	/**
+	 * The played videos - the current one, and the next one, when it's resolved - which are played
+	 * one after the other, without preparing the player again.
+	 */
+	private ConcatenatingMediaSource queueSource;
+	/** The videos of {@link #queueSource}, in the same order */
+	private final List<YouTubeVideo> queuedVideos = new ArrayList<>();
+	/** The resolution of the stream of the next video, in progress */
+	private Disposable              nextVideoTask;
+	/** Set, if the user wants to play the next video, before its stream is resolved */
+	private boolean                 playNextWhenResolved;
+	/** Set, while only the audio of the video is played by {@link AudioPlaybackService} */
+	private boolean                 playingAudioOnly;
+
 	private Menu                    menu = null;
 
 	@BindView(R.id.video_desc_title)
@@ -158,8 +184,8 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 	@BindView(R.id.no_video_comments_text_view)
 	protected View 					noVideoCommentsView = null;
 	private CommentsAdapter         commentsAdapter = null;
-	@BindView(R.id.commentsExpandableListView)
-	protected ExpandableListView      commentsExpandableListView = null;
+	@BindView(R.id.commentsRecyclerView)
+	protected RecyclerView            commentsRecyclerView = null;
 	private YouTubePlayerActivityListener listener = null;
 	private PlayerViewGestureHandler playerViewGestureHandler;
 
@@ -206,6 +232,10 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 			if (bundle != null  &&  bundle.getSerializable(YOUTUBE_VIDEO_OBJ) != null) {
 				// ... either the video details are passed through the previous activity
 				youTubeVideo = (YouTubeVideo) bundle.getSerializable(YOUTUBE_VIDEO_OBJ);
+				playQueue = PlayQueue.take(youTubeVideo.getId());
+				if (playQueue == null) {
+					playQueue = PlayQueue.of(youTubeVideo);
+				}
 				setUpHUDAndPlayVideo();
 
 				fetchVideoInformations();
@@ -227,6 +257,7 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 								closeActivity();
 							} else {
 								this.youTubeVideo = video;
+								this.playQueue = PlayQueue.of(video);
 
 								// setup the HUD and play the video
 								setUpHUDAndPlayVideo();
@@ -282,7 +313,7 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 		});
 		commentsDrawer.setOnDrawerOpenListener(() -> {
 			if (commentsAdapter == null) {
-				commentsAdapter = new CommentsAdapter(getActivity(), youTubeVideo.getId(), commentsExpandableListView, commentsProgressBar, noVideoCommentsView);
+				commentsAdapter = new CommentsAdapter(getActivity(), youTubeVideo.getId(), commentsRecyclerView, commentsProgressBar, noVideoCommentsView);
 			}
 		});
         this.playbackSpeedController= new PlaybackSpeedController(getContext(), playbackSpeedTextView, player);
@@ -306,11 +337,18 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 					if (playbackState == Player.STATE_READY && playWhenReady) {
 						preventDeviceSleeping(true);
 						playbackSpeedController.updateMenu();
+						// the current video is playing, the next one can be buffered
+						prepareNextVideo();
 					} else {
 						preventDeviceSleeping(false);
 					}
 				}
 
+				@Override
+				public void onPositionDiscontinuity(int reason) {
+					onWindowChanged(reason == Player.DISCONTINUITY_REASON_PERIOD_TRANSITION);
+				}
+
 				@Override
 				public void onPlayerError(ExoPlaybackException error) {
 					Logger.e(this, ":: onPlayerError " + error.getMessage(), error);
@@ -374,6 +412,14 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 	private void setUpHUDAndPlayVideo() {
 		setupInfoDisplay(youTubeVideo);
 
+		// opened from the notification of the audio playback: continue from there
+		final long audioPosition = AudioPlaybackService.stop(youTubeVideo.getId());
+		if (audioPosition >= 0) {
+			playerInitialPosition = audioPosition;
+			loadVideo();
+			return;
+		}
+
 		new ResumeVideoTask(getContext(), youTubeVideo.getId(), position -> {
 			playerInitialPosition = position;
 			YouTubePlayerV2Fragment.this.loadVideo();
@@ -565,15 +611,178 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 	 * @param streamInfo Additional information about the stream.
 	 */
 	private void playVideo(Uri videoUri, @Nullable Uri audioUri, @Nullable StreamInfo streamInfo) {
-		datasourceBuilder.play(videoUri, audioUri, streamInfo);
+		cancelNextVideo();
+		queueSource = new ConcatenatingMediaSource();
+		queueSource.addMediaSource(datasourceBuilder.createMediaSource(videoUri, audioUri, streamInfo));
+		queuedVideos.clear();
+		queuedVideos.add(youTubeVideo);
+		datasourceBuilder.play(queueSource);
 		if (playerInitialPosition > 0) {
 			player.seekTo(playerInitialPosition);
 		}
 	}
 
 
+	/**
+	 * Resolve the stream of the next video in the queue, and add it to the played sources - so
+	 * ExoPlayer buffers its beginning, while the current video plays, and continues with it without
+	 * a gap.
+	 */
+	private void prepareNextVideo() {
+		if (queueSource == null || nextVideoTask != null || playQueue == null) {
+			return;
+		}
+		final YouTubeVideo next = playQueue.getNext(youTubeVideo);
+		if (next == null || queuedVideos.contains(next)) {
+			return;
+		}
+		nextVideoTask = resolveStream(next)
+				.subscribe(stream -> {
+					nextVideoTask = null;
+					if (queueSource == null || player == null) {
+						return;
+					}
+					Logger.i(this, ">> QUEUED: %s - %s", next.getId(), stream.videoUri);
+					queueSource.addMediaSource(datasourceBuilder.createMediaSource(stream.videoUri, stream.audioUri, stream.streamInfo));
+					queuedVideos.add(next);
+					if (playNextWhenResolved) {
+						playNextWhenResolved = false;
+						loadingVideoView.setVisibility(View.GONE);
+						player.seekToDefaultPosition(queuedVideos.size() - 1);
+					}
+				}, error -> {
+					nextVideoTask = null;
+					Logger.e(this, "Unable to resolve the next video " + next.getId() + ": " + error.getMessage(), error);
+					if (playNextWhenResolved) {
+						playNextWhenResolved = false;
+						loadingVideoView.setVisibility(View.GONE);
+						Toast.makeText(getContext(), error.getMessage(), Toast.LENGTH_LONG).show();
+					}
+				});
+		compositeDisposable.add(nextVideoTask);
+	}
+
+
+	private void cancelNextVideo() {
+		if (nextVideoTask != null) {
+			compositeDisposable.remove(nextVideoTask);
+			nextVideoTask = null;
+		}
+		playNextWhenResolved = false;
+	}
+
+
+	/**
+	 * @return The downloaded file of the video, or its stream, as selected by the preferences.
+	 */
+	private Single<ResolvedStream> resolveStream(YouTubeVideo video) {
+		final StreamSelectionPolicy selectionPolicy = SkyTubeApp.getSettings().getDesiredVideoResolution(false);
+		return DownloadedVideosDb.getVideoDownloadsDb().getDownloadedFileStatus(getContext(), video.getVideoId())
+				.observeOn(Schedulers.io())
+				.map(downloadStatus -> {
+					// the description is displayed, when the video starts
+					Linker.getSpanned(video.getDescription());
+					if (downloadStatus.getUri() != null) {
+						return new ResolvedStream(downloadStatus.getUri(), downloadStatus.getAudioUri(), null);
+					}
+					final StreamInfo streamInfo = NewPipeService.get().getStreamInfoByVideoId(video.getId());
+					video.updateFromStreamInfo(streamInfo);
+					Linker.getSpanned(video.getDescription());
+					final StreamSelectionPolicy.StreamSelection selection = selectionPolicy.select(streamInfo);
+					if (selection == null) {
+						throw new IllegalStateException(selectionPolicy.getErrorMessage(SkyTubeApp.getContext()));
+					}
+					return new ResolvedStream(selection.getVideoStreamUri(), selection.getAudioStreamUri(), streamInfo);
+				})
+				.observeOn(AndroidSchedulers.mainThread());
+	}
+
+
+	/**
+	 * Play the next video of the queue - immediately, if it's already buffered.
+	 */
+	private void playNextVideo() {
+		final int nextWindow = player.getCurrentWindowIndex() + 1;
+		if (nextWindow < queuedVideos.size()) {
+			player.seekToDefaultPosition(nextWindow);
+		} else if (playQueue != null && playQueue.hasNext()) {
+			playNextWhenResolved = true;
+			loadingVideoView.setVisibility(View.VISIBLE);
+			prepareNextVideo();
+		}
+	}
+
+
+	/**
+	 * Called, when the player might have moved to an other video of the queue.
+	 *
+	 * @param finished True, if the previous video was played until its end.
+	 */
+	private void onWindowChanged(boolean finished) {
+		if (player == null) {
+			return;
+		}
+		final int window = player.getCurrentWindowIndex();
+		if (window >= queuedVideos.size() || queuedVideos.get(window) == youTubeVideo) {
+			return;
+		}
+		final YouTubeVideo previous = youTubeVideo;
+		if (finished) {
+			compositeDisposable.add(PlaybackStatusDb.getPlaybackStatusDb().setVideoWatchedStatusInBackground(previous, true)
+					.subscribe(updated -> {}, error -> Logger.e(this, "Unable to mark " + previous.getId() + " watched: " + error.getMessage(), error)));
+		}
+		youTubeVideo = queuedVideos.get(window);
+		while (playQueue.getCurrent() != youTubeVideo && playQueue.moveToNext() != null) {
+			// skip to the played video
+		}
+		// only the current and the next video are kept in the played sources
+		for (int i = 0; i < window; i++) {
+			queueSource.removeMediaSource(0);
+			queuedVideos.remove(0);
+		}
+		Logger.i(this, ">> PLAYING NEXT: %s", youTubeVideo.getId());
+
+		youTubeChannel = null;
+		setupInfoDisplay(youTubeVideo);
+		fetchVideoInformations();
+		// the comments of the new video are loaded, when the drawer is opened again
+		if (commentsAdapter != null) {
+			commentsAdapter.clearBackgroundTasks();
+			commentsAdapter = null;
+		}
+		if (commentsDrawer.isOpened()) {
+			commentsDrawer.close();
+		}
+		if (menu != null) {
+			compositeDisposable.add(DatabaseTasks.isVideoBookmarked(youTubeVideo.getId(), menu));
+		}
+		requireActivity().invalidateOptionsMenu();
+		prepareNextVideo();
+	}
+
+
+	/**
+	 * The resolved stream of a video, to be played.
+	 */
+	private static class ResolvedStream {
+		private final Uri videoUri;
+		private final Uri audioUri;
+		private final StreamInfo streamInfo;
+
+		ResolvedStream(Uri videoUri, Uri audioUri, StreamInfo streamInfo) {
+			this.videoUri = videoUri;
+			this.audioUri = audioUri;
+			this.streamInfo = streamInfo;
+		}
+	}
+
+
 	@Override
 	public void onPrepareOptionsMenu(Menu menu) {
+		final MenuItem playNext = menu.findItem(R.id.play_next);
+		if (playNext != null) {
+			playNext.setVisible(playQueue != null && playQueue.hasNext());
+		}
 		final MenuItem downloadVideo = menu.findItem(R.id.download_video);
 		downloadVideo.setVisible(false);
 		if (youTubeVideo != null) {
@@ -613,6 +822,10 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 				player.seekToDefaultPosition();
 				return true;
 
+			case R.id.play_next:
+				playNextVideo();
+				return true;
+
 			case R.id.menu_open_video_with:
 				player.setPlayWhenReady(false);
 				compositeDisposable.add(youTubeVideo.playVideoExternally(getContext()).subscribe());
@@ -661,7 +874,8 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 				return true;
 			case R.id.video_repeat_toggle:
 				boolean repeat = !item.isChecked();
-				player.setRepeatMode(repeat ? Player.REPEAT_MODE_ALL : Player.REPEAT_MODE_OFF);
+				// repeat the current video, not the queue
+				player.setRepeatMode(repeat ? Player.REPEAT_MODE_ONE : Player.REPEAT_MODE_OFF);
 				item.setChecked(repeat);
 				return true;
 			default:
@@ -706,6 +920,51 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 				youTubeVideo.getChannelId()));
 	}
 
+	@Override
+	public void onStart() {
+		super.onStart();
+		if (playingAudioOnly) {
+			playingAudioOnly = false;
+			final long position = AudioPlaybackService.stop(youTubeVideo.getId());
+			// the stopped player kept its position in the queue, so it's prepared from there
+			player.prepare(queueSource, false, false);
+			if (position >= 0) {
+				player.seekTo(position);
+				player.setPlayWhenReady(true);
+			} else {
+				// the audio ended, or it was stopped from its notification: continue from there, paused
+				final long stoppedPosition = AudioPlaybackService.getStoppedPosition(youTubeVideo.getId());
+				if (stoppedPosition == C.TIME_END_OF_SOURCE) {
+					player.seekTo(youTubeVideo.getDurationInSeconds() * 1000L);
+				} else if (stoppedPosition >= 0) {
+					player.seekTo(stoppedPosition);
+				} else {
+					final long savedPosition = PlaybackStatusDb.getPlaybackStatusDb().getVideoWatchedStatus(youTubeVideo.getId()).getPosition();
+					if (savedPosition > 0) {
+						player.seekTo(savedPosition);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onStop() {
+		super.onStop();
+		final Activity activity = requireActivity();
+		if (player != null && player.getPlayWhenReady() && youTubeVideo != null && queueSource != null
+				&& (player.getPlaybackState() == Player.STATE_READY || player.getPlaybackState() == Player.STATE_BUFFERING)
+				&& !activity.isFinishing() && !activity.isChangingConfigurations()
+				&& SkyTubeApp.getSettings().isBackgroundAudioOnly()) {
+			// continue with the audio only, until the player is displayed again
+			AudioPlaybackService.start(activity, youTubeVideo, player.getCurrentPosition());
+			player.setPlayWhenReady(false);
+			// stop buffering the video, and release the decoders, while the service plays the audio
+			player.stop();
+			playingAudioOnly = true;
+		}
+	}
+
 	@Override
 	public void videoPlaybackStopped() {
 		player.stop();
@@ -721,6 +980,11 @@ public class YouTubePlayerV2Fragment extends ImmersiveModeFragment implements Yo
 	@Override
 	public void onDestroy() {
 		compositeDisposable.clear();
+		if (commentsAdapter != null) {
+			commentsAdapter.clearBackgroundTasks();
+		}
+		nextVideoTask = null;
+		queueSource = null;
 		super.onDestroy();
 		// stop the player from playing (when this fragment is going to be destroyed) and clean up
 		player.stop();
@@ -25,15 +25,23 @@ import android.os.Bundle;
 import android.util.Log;
 import android.webkit.WebChromeClient;
 import android.webkit.WebView;
+import android.widget.Toast;
 
+import androidx.core.content.FileProvider;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceFragmentCompat;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 
 import free.rm.skytube.BuildConfig;
 import free.rm.skytube.R;
+import free.rm.skytube.businessobjects.Logger;
 import free.rm.skytube.gui.businessobjects.SkyTubeMaterialDialog;
 import free.rm.skytube.gui.businessobjects.updates.UpdatesCheckerTask;
 
@@ -86,6 +94,18 @@ public class AboutPreferenceFragment extends PreferenceFragmentCompat {
 			displayAppLicense();
 			return true;
 		});
+
+		// record the events of the app, for bug reports
+		Preference debugLogPref = findPreference(getString(R.string.pref_key_debug_log));
+		debugLogPref.setOnPreferenceChangeListener((preference, newValue) -> {
+			Logger.setRecording((Boolean) newValue);
+			return true;
+		});
+		Preference shareDebugLogPref = findPreference(getString(R.string.pref_key_share_debug_log));
+		shareDebugLogPref.setOnPreferenceClickListener(preference -> {
+			shareDebugLog();
+			return true;
+		});
 	}
 
 	/**
@@ -154,6 +174,33 @@ public class AboutPreferenceFragment extends PreferenceFragmentCompat {
 				.show();
 	}
 
+	/**
+	 * Share the recorded events, with the version of the app.  The events are shared as a file, as
+	 * the text of a long log would be too large for the intent.
+	 */
+	private void shareDebugLog() {
+		final String events = Logger.exportEvents();
+		if (events == null) {
+			Toast.makeText(getActivity(), R.string.debug_log_empty, Toast.LENGTH_SHORT).show();
+			return;
+		}
+		final File logFile = new File(requireContext().getCacheDir(), "skytube-debug-log.txt");
+		try (OutputStream output = new FileOutputStream(logFile)) {
+			output.write(events.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			Logger.e(this, "Unable to write the debug log: " + e.getMessage(), e);
+			Toast.makeText(getActivity(), e.getMessage(), Toast.LENGTH_LONG).show();
+			return;
+		}
+		final Uri logUri = FileProvider.getUriForFile(requireContext(), BuildConfig.APPLICATION_ID + ".provider", logFile);
+		Intent intent = new Intent(Intent.ACTION_SEND);
+		intent.setType("text/plain");
+		intent.putExtra(Intent.EXTRA_SUBJECT, "SkyTube " + getAppVersion());
+		intent.putExtra(Intent.EXTRA_STREAM, logUri);
+		intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+		startActivity(Intent.createChooser(intent, getString(R.string.share_via)));
+	}
+
 	/**
 	 * Displays the app's license in an AlertDialog.
 	 */
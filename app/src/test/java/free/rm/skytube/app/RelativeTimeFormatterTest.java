@@ -0,0 +1,67 @@
+package free.rm.skytube.app;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+public class RelativeTimeFormatterTest {
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long NOW = 1_600_000_000_000L;
+
+    private Locale defaultLocale;
+
+    @BeforeEach
+    void setLocale() {
+        defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    @AfterEach
+    void restoreLocale() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void testSameBucketSharesString() {
+        RelativeTimeFormatter formatter = new RelativeTimeFormatter();
+        String threeHours = formatter.format(NOW - 3 * HOUR, NOW);
+        Assertions.assertEquals("3 hours ago", threeHours);
+        Assertions.assertSame(threeHours, formatter.format(NOW - 3 * HOUR - 59 * MINUTE, NOW));
+        Assertions.assertEquals("4 hours ago", formatter.format(NOW - 4 * HOUR, NOW));
+    }
+
+    @Test
+    void testUnits() {
+        RelativeTimeFormatter formatter = new RelativeTimeFormatter();
+        Assertions.assertEquals("moments ago", formatter.format(NOW - 1000, NOW));
+        Assertions.assertEquals("moments ago", formatter.format(NOW + HOUR, NOW));
+        Assertions.assertEquals("5 minutes ago", formatter.format(NOW - 5 * MINUTE, NOW));
+        Assertions.assertEquals("2 days ago", formatter.format(NOW - 2 * DAY - HOUR, NOW));
+        Assertions.assertEquals("2 weeks ago", formatter.format(NOW - 15 * DAY, NOW));
+    }
+
+    @Test
+    void testMonthsAndYears() {
+        RelativeTimeFormatter formatter = new RelativeTimeFormatter();
+        Assertions.assertEquals("1 month ago", formatter.format(NOW - 30 * DAY, NOW));
+        Assertions.assertEquals("11 months ago", formatter.format(NOW - 359 * DAY, NOW));
+        // the days before, and at the year boundary are not formatted as "12 months"
+        Assertions.assertEquals("1 year ago", formatter.format(NOW - 360 * DAY, NOW));
+        Assertions.assertEquals("1 year ago", formatter.format(NOW - 365 * DAY, NOW));
+        Assertions.assertEquals("2 years ago", formatter.format(NOW - 2 * 365 * DAY, NOW));
+    }
+
+    @Test
+    void testValidUntilNextBucket() {
+        RelativeTimeFormatter formatter = new RelativeTimeFormatter();
+        long published = NOW - 3 * HOUR - 10 * MINUTE;
+        Assertions.assertEquals(published + 4 * HOUR, formatter.getValidUntil(published, NOW));
+        Assertions.assertEquals(NOW - 5 * MINUTE + 6 * MINUTE, formatter.getValidUntil(NOW - 5 * MINUTE, NOW));
+        Assertions.assertEquals(NOW + HOUR, formatter.getValidUntil(NOW + HOUR, NOW));
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.schabi.newpipe.extractor.MediaFormat;
+import org.schabi.newpipe.extractor.stream.AudioStream;
 import org.schabi.newpipe.extractor.stream.StreamInfo;
 import org.schabi.newpipe.extractor.stream.StreamType;
 import org.schabi.newpipe.extractor.stream.VideoStream;
@@ -53,6 +54,50 @@ public class StreamSelectionPolicyTest {
         test(policy, MediaFormat.MPEG_4, MediaFormat.VTT, MediaFormat.MPEG_4);
     }
 
+    @Test
+    void testAudioInSameContainerSelection() {
+        StreamSelectionPolicy playbackPolicy = new StreamSelectionPolicy(true, VideoResolution.RES_1080P, VideoResolution.RES_480P, VideoQuality.BEST_QUALITY);
+        StreamSelectionPolicy policy = playbackPolicy.withMuxableAudio(true);
+
+        StreamInfo streamInfo = createStreamInfo();
+        streamInfo.setVideoStreams(new ArrayList<>());
+        streamInfo.setVideoOnlyStreams(Arrays.asList(new VideoStream("url/video", MediaFormat.MPEG_4, "1080P", true)));
+        streamInfo.setAudioStreams(Arrays.asList(new AudioStream("url/webma", MediaFormat.WEBMA, 160),
+                new AudioStream("url/m4a", MediaFormat.M4A, 128)));
+        StreamSelectionPolicy.StreamSelection selection = policy.select(streamInfo);
+        Assertions.assertEquals(MediaFormat.M4A, selection.getAudioStream().getFormat());
+
+        // the playback doesn't mux, so it gets the best audio
+        selection = playbackPolicy.select(streamInfo);
+        Assertions.assertEquals(MediaFormat.WEBMA, selection.getAudioStream().getFormat());
+
+        // without a matching container, the best audio is used
+        streamInfo.setAudioStreams(Arrays.asList(new AudioStream("url/webma", MediaFormat.WEBMA, 160)));
+        selection = policy.select(streamInfo);
+        Assertions.assertEquals(MediaFormat.WEBMA, selection.getAudioStream().getFormat());
+    }
+
+    @Test
+    void testAudioOnlySelection() {
+        // the smallest audio is selected, even if the best quality is preferred for the videos
+        StreamSelectionPolicy policy = new StreamSelectionPolicy(true, VideoResolution.RES_1080P, VideoResolution.RES_480P, VideoQuality.BEST_QUALITY);
+
+        StreamInfo streamInfo = createStreamInfo();
+        streamInfo.setAudioStreams(Arrays.asList(new AudioStream("url/webma-160", MediaFormat.WEBMA, 160),
+                new AudioStream("url/m4a-128", MediaFormat.M4A, 128),
+                new AudioStream("url/webma-64", MediaFormat.WEBMA, 64)));
+        Assertions.assertEquals("url/webma-64", policy.selectAudioOnly(streamInfo).getUrl());
+
+        // with the same bitrate, the preferred format is used
+        streamInfo.setAudioStreams(Arrays.asList(new AudioStream("url/m4a", MediaFormat.M4A, 128),
+                new AudioStream("url/webma", MediaFormat.WEBMA, 128)));
+        Assertions.assertEquals(MediaFormat.WEBMA, policy.selectAudioOnly(streamInfo).getFormat());
+
+        // unknown formats are not played
+        streamInfo.setAudioStreams(Arrays.asList(new AudioStream("url/mp3", MediaFormat.MP3, 64)));
+        Assertions.assertNull(policy.selectAudioOnly(streamInfo));
+    }
+
     private void test(StreamSelectionPolicy policy, String expectedResolution, String... resolutions) {
         StreamInfo streamInfo = createStreams(resolutions);
         StreamSelectionPolicy.StreamSelection selection = policy.select(streamInfo);
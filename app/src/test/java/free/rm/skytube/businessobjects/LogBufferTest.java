@@ -0,0 +1,54 @@
+package free.rm.skytube.businessobjects;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LogBufferTest {
+
+    @Test
+    void testKeepsTheLastEvents() {
+        LogBuffer buffer = new LogBuffer(3);
+        Assertions.assertTrue(buffer.getEvents().isEmpty());
+
+        buffer.add(1, 'I', "Tag", "one", null);
+        buffer.add(2, 'I', "Tag", "two", null);
+        Assertions.assertEquals(Arrays.asList("one", "two"), messages(buffer));
+
+        buffer.add(3, 'W', "Tag", "three", null);
+        buffer.add(4, 'E', "Tag", "four", new IllegalStateException("broken"));
+        buffer.add(5, 'D', "Tag", "five", null);
+        Assertions.assertEquals(Arrays.asList("three", "four", "five"), messages(buffer));
+
+        LogBuffer.Event error = buffer.getEvents().get(1);
+        Assertions.assertEquals('E', error.getLevel());
+        Assertions.assertEquals(4, error.getTime());
+        Assertions.assertEquals("java.lang.IllegalStateException: broken", error.getError());
+
+        buffer.clear();
+        Assertions.assertTrue(buffer.getEvents().isEmpty());
+    }
+
+    @Test
+    void testExport() {
+        LogBuffer buffer = new LogBuffer(10);
+        buffer.add(0, 'W', "VideoPager", "first", null);
+        buffer.add(0, 'E', "NewPipeService", "second", new RuntimeException("failed"));
+
+        String[] lines = buffer.export().split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertTrue(lines[0].endsWith(" W/VideoPager [" + Thread.currentThread().getName() + "]: first"), lines[0]);
+        Assertions.assertTrue(lines[1].endsWith("E/NewPipeService [" + Thread.currentThread().getName() + "]: second - java.lang.RuntimeException: failed"), lines[1]);
+    }
+
+    private static List<String> messages(LogBuffer buffer) {
+        List<String> result = new ArrayList<>();
+        for (LogBuffer.Event event : buffer.getEvents()) {
+            result.add(event.getMessage());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+package free.rm.skytube.businessobjects.YouTube.POJOs;
+
+import com.google.gson.Gson;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class YouTubeVideoCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        YouTubeVideo video = createVideo(1);
+        byte[] blob = YouTubeVideoCodec.encode(video);
+        Assertions.assertFalse(YouTubeVideoCodec.isLegacy(blob));
+        assertSameVideo(video, YouTubeVideoCodec.decode(blob));
+    }
+
+    @Test
+    void testRoundTripWithMissingFields() {
+        YouTubeVideo video = new YouTubeVideo();
+        video.setId("abc");
+        video.setStoredDuration(null, -1);
+        YouTubeVideo decoded = YouTubeVideoCodec.decode(YouTubeVideoCodec.encode(video));
+        Assertions.assertEquals("abc", decoded.getId());
+        Assertions.assertNull(decoded.getTitle());
+        Assertions.assertNull(decoded.getDescription());
+        Assertions.assertNull(decoded.getChannel());
+        Assertions.assertNull(decoded.getPublishTimestamp());
+        Assertions.assertNull(decoded.getViewsCountInt());
+        Assertions.assertEquals(-1, decoded.getDurationInSeconds());
+    }
+
+    @Test
+    void testDescriptionIsDecodedOnDemand() {
+        YouTubeVideo decoded = YouTubeVideoCodec.decode(YouTubeVideoCodec.encode(createVideo(5)));
+        Assertions.assertNull(decoded.description);
+        Assertions.assertNull(decoded.getChannel().description);
+        Assertions.assertEquals(createVideo(5).getDescription(), decoded.getDescription());
+        Assertions.assertNotNull(decoded.description);
+    }
+
+    @Test
+    void testLegacyJson() {
+        YouTubeVideo video = createVideo(2);
+        byte[] blob = new Gson().toJson(video).getBytes(StandardCharsets.UTF_8);
+        Assertions.assertTrue(YouTubeVideoCodec.isLegacy(blob));
+        assertSameVideo(video, YouTubeVideoCodec.decode(blob));
+    }
+
+    @Test
+    void testNewerVersionsAreReadable() {
+        YouTubeVideo video = createVideo(3);
+        byte[] blob = YouTubeVideoCodec.encode(video);
+        // fields of a later version are appended to the end
+        byte[] extended = Arrays.copyOf(blob, blob.length + 3);
+        extended[1] = (byte) (YouTubeVideoCodec.VERSION + 1);
+        extended[blob.length] = 4;
+        assertSameVideo(video, YouTubeVideoCodec.decode(extended));
+    }
+
+    @Test
+    void testTruncatedBlob() {
+        byte[] blob = YouTubeVideoCodec.encode(createVideo(4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> YouTubeVideoCodec.decode(Arrays.copyOf(blob, blob.length / 2)));
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        final int rows = 1000;
+        Gson gson = new Gson();
+        long jsonSize = 0;
+        long binarySize = 0;
+        for (int i = 0; i < rows; i++) {
+            YouTubeVideo video = createVideo(i);
+            byte[] binary = YouTubeVideoCodec.encode(video);
+            jsonSize += gson.toJson(video).getBytes(StandardCharsets.UTF_8).length;
+            binarySize += binary.length;
+            Assertions.assertEquals(video.getId(), YouTubeVideoCodec.decode(binary).getId());
+        }
+        // the field names are not stored, and the numbers are varints
+        Assertions.assertTrue(binarySize * 2 < jsonSize, "binary " + binarySize + " bytes, JSON " + jsonSize + " bytes");
+    }
+
+    @Test
+    void testBinaryDecodesFasterThanJson() {
+        final int rows = 1000;
+        Gson gson = new Gson();
+        byte[][] binary = new byte[rows][];
+        byte[][] json = new byte[rows][];
+        for (int i = 0; i < rows; i++) {
+            YouTubeVideo video = createVideo(i);
+            binary[i] = YouTubeVideoCodec.encode(video);
+            json[i] = gson.toJson(video).getBytes(StandardCharsets.UTF_8);
+        }
+        // the best of a few rounds, after the first ones warmed up the JIT
+        long binaryNanos = Long.MAX_VALUE;
+        long jsonNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            binaryNanos = Math.min(binaryNanos, decodeAll(binary));
+            jsonNanos = Math.min(jsonNanos, decodeAll(json));
+        }
+        Assertions.assertTrue(binaryNanos < jsonNanos, "decoding " + rows + " rows: binary " + binaryNanos / 1000 + " us, JSON " + jsonNanos / 1000 + " us");
+    }
+
+    private static long decodeAll(byte[][] blobs) {
+        long start = System.nanoTime();
+        for (byte[] blob : blobs) {
+            Assertions.assertNotNull(YouTubeVideoCodec.decode(blob).getId());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static YouTubeVideo createVideo(int index) {
+        YouTubeVideo video = new YouTubeVideo();
+        video.setId("video-" + index);
+        video.setTitle("Video árvíztűrő ☃ #" + index);
+        video.setDescription("A longer description of the video, with links: https://example.com/" + index + "\n");
+        video.setThumbnailUrl("https://i.ytimg.com/vi/video-" + index + "/hqdefault.jpg");
+        video.setThumbnailMaxResUrl("https://i.ytimg.com/vi/video-" + index + "/maxresdefault.jpg");
+        video.setStoredDuration("12:34", 754);
+        video.setLanguage("en");
+        video.setStoredLikes(1234L + index, 12L, 97);
+        video.setStoredViewCount(BigInteger.valueOf(1_000_000L + index));
+        video.setPublishTimestamp(1_600_000_000_000L + index);
+        video.setPublishTimestampExact(true);
+        video.setRetrievalTimestamp(1_610_000_000_000L);
+        YouTubeChannel channel = new YouTubeChannel("channel-" + index, "Channel " + index);
+        channel.setThumbnailUrl("https://yt3.ggpht.com/channel-" + index);
+        channel.setBannerUrl("https://yt3.ggpht.com/banner-" + index);
+        channel.setDescription("Channel description");
+        channel.setStoredSubscriberCount(25_000L + index);
+        video.setChannel(channel);
+        return video;
+    }
+
+    private static void assertSameVideo(YouTubeVideo expected, YouTubeVideo actual) {
+        Assertions.assertEquals(expected.getId(), actual.getId());
+        Assertions.assertEquals(expected.getTitle(), actual.getTitle());
+        Assertions.assertEquals(expected.getDescription(), actual.getDescription());
+        Assertions.assertEquals(expected.getThumbnailUrl(), actual.getThumbnailUrl());
+        Assertions.assertEquals(expected.getThumbnailMaxResUrl(), actual.getThumbnailMaxResUrl());
+        Assertions.assertEquals(expected.getDuration(), actual.getDuration());
+        Assertions.assertEquals(expected.getDurationInSeconds(), actual.getDurationInSeconds());
+        Assertions.assertEquals(expected.getLanguage(), actual.getLanguage());
+        Assertions.assertEquals(expected.getThumbsUpPercentage(), actual.getThumbsUpPercentage());
+        Assertions.assertEquals(expected.getLikeCountNumber(), actual.getLikeCountNumber());
+        Assertions.assertEquals(expected.getDislikeCountNumber(), actual.getDislikeCountNumber());
+        Assertions.assertEquals(expected.getViewsCountInt(), actual.getViewsCountInt());
+        Assertions.assertEquals(expected.getPublishTimestamp(), actual.getPublishTimestamp());
+        Assertions.assertEquals(expected.getPublishTimestampExact(), actual.getPublishTimestampExact());
+        Assertions.assertEquals(expected.getRetrievalTimestamp(), actual.getRetrievalTimestamp());
+        Assertions.assertEquals(expected.getChannel().getId(), actual.getChannel().getId());
+        Assertions.assertEquals(expected.getChannel().getTitle(), actual.getChannel().getTitle());
+        Assertions.assertEquals(expected.getChannel().getThumbnailUrl(), actual.getChannel().getThumbnailUrl());
+        Assertions.assertEquals(expected.getChannel().getBannerUrl(), actual.getChannel().getBannerUrl());
+        Assertions.assertEquals(expected.getChannel().getDescription(), actual.getChannel().getDescription());
+        Assertions.assertEquals(expected.getChannel().getSubscriberCount(), actual.getChannel().getSubscriberCount());
+    }
+}
@@ -0,0 +1,106 @@
+package free.rm.skytube.businessobjects.YouTube;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import free.rm.skytube.businessobjects.YouTube.POJOs.YouTubeVideo;
+
+public class PlayQueueTest {
+
+    @Test
+    void testQueueStartsAtTheClickedVideo() {
+        List<YouTubeVideo> videos = createVideos(5);
+        PlayQueue.set(videos, videos.get(2));
+        PlayQueue queue = PlayQueue.take("video-2");
+
+        Assertions.assertNotNull(queue);
+        Assertions.assertSame(videos.get(2), queue.getCurrent());
+        Assertions.assertSame(videos.get(3), queue.getNext(videos.get(2)));
+        Assertions.assertNull(queue.getNext(videos.get(1)));
+    }
+
+    @Test
+    void testLiveStreamsAreSkipped() {
+        List<YouTubeVideo> videos = createVideos(2);
+        videos.add(1, createLiveStream("live"));
+        PlayQueue.set(videos, videos.get(0));
+        PlayQueue queue = PlayQueue.take("video-0");
+
+        Assertions.assertNotNull(queue);
+        Assertions.assertSame(videos.get(2), queue.moveToNext());
+        Assertions.assertFalse(queue.hasNext());
+    }
+
+    @Test
+    void testQueueIsCapped() {
+        List<YouTubeVideo> videos = createVideos(150);
+        PlayQueue.set(videos, videos.get(0));
+        PlayQueue queue = PlayQueue.take("video-0");
+
+        Assertions.assertNotNull(queue);
+        int size = 1;
+        while (queue.moveToNext() != null) {
+            size++;
+        }
+        Assertions.assertEquals(100, size);
+        Assertions.assertSame(videos.get(99), queue.getCurrent());
+    }
+
+    @Test
+    void testTakeWithOtherVideo() {
+        List<YouTubeVideo> videos = createVideos(3);
+        PlayQueue.set(videos, videos.get(0));
+
+        Assertions.assertNull(PlayQueue.take("video-1"));
+        // the queue is dropped, even if it belonged to another player
+        Assertions.assertNull(PlayQueue.take("video-0"));
+    }
+
+    @Test
+    void testMoveToNextAtTheEnd() {
+        List<YouTubeVideo> videos = createVideos(2);
+        PlayQueue.set(videos, videos.get(0));
+        PlayQueue queue = PlayQueue.take("video-0");
+
+        Assertions.assertNotNull(queue);
+        Assertions.assertTrue(queue.hasNext());
+        Assertions.assertSame(videos.get(1), queue.moveToNext());
+        Assertions.assertFalse(queue.hasNext());
+        Assertions.assertNull(queue.moveToNext());
+        Assertions.assertSame(videos.get(1), queue.getCurrent());
+    }
+
+    @Test
+    void testSingleVideoQueue() {
+        YouTubeVideo video = createVideo("single");
+        PlayQueue queue = PlayQueue.of(video);
+
+        Assertions.assertSame(video, queue.getCurrent());
+        Assertions.assertFalse(queue.hasNext());
+        Assertions.assertNull(queue.moveToNext());
+    }
+
+    private static List<YouTubeVideo> createVideos(int count) {
+        List<YouTubeVideo> videos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            videos.add(createVideo("video-" + i));
+        }
+        return videos;
+    }
+
+    private static YouTubeVideo createVideo(String id) {
+        return new YouTubeVideo(id, "Title of " + id, null, 60, null, -1, null, false, null);
+    }
+
+    private static YouTubeVideo createLiveStream(String id) {
+        return new YouTubeVideo(id, "Title of " + id, null, 0, null, -1, null, false, null) {
+            @Override
+            public boolean isLiveStream() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package free.rm.skytube.businessobjects.YouTube.VideoStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ResponseBodyReaderTest {
+
+    private final ResponseBodyReader reader = new ResponseBodyReader(1);
+
+    @Test
+    void testKnownContentLength() throws IOException {
+        String body = createPage(ResponseBodyReader.LARGE_BODY_THRESHOLD * 4);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals(body, reader.read(new ByteArrayInputStream(bytes), bytes.length, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testUnknownContentLength() throws IOException {
+        String body = createPage(ResponseBodyReader.LARGE_BODY_THRESHOLD * 3);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // read in small, uneven chunks, like a network stream does
+        InputStream input = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        Assertions.assertEquals(body, reader.read(input, -1, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBuffersAreReused() throws IOException {
+        // with a single permit, the second large read would block forever, if the first one leaked it
+        for (int i = 0; i < 3; i++) {
+            String body = createPage(ResponseBodyReader.LARGE_BODY_THRESHOLD + i);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            Assertions.assertEquals(body, reader.read(new ByteArrayInputStream(bytes), bytes.length, StandardCharsets.UTF_8));
+        }
+        Assertions.assertEquals("", reader.read(new ByteArrayInputStream(new byte[0]), 0, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testPoolIsBounded() throws IOException {
+        // a large body grows its buffer several times, but those big buffers are not kept
+        String body = createPage(ResponseBodyReader.LARGE_BODY_THRESHOLD * 8);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals(body, reader.read(new ByteArrayInputStream(bytes), -1, StandardCharsets.UTF_8));
+        Assertions.assertTrue(reader.getPooledBytes() <= 1024 * 1024, "pooled " + reader.getPooledBytes());
+    }
+
+    @Test
+    void testCharset() {
+        Assertions.assertEquals(StandardCharsets.ISO_8859_1, ResponseBodyReader.getCharset("text/html; charset=ISO-8859-1"));
+        Assertions.assertEquals(StandardCharsets.UTF_8, ResponseBodyReader.getCharset("text/html;charset=\"utf-8\""));
+        Assertions.assertEquals(StandardCharsets.UTF_8, ResponseBodyReader.getCharset("text/html; charset=unknown-charset"));
+        Assertions.assertEquals(StandardCharsets.UTF_8, ResponseBodyReader.getCharset(null));
+    }
+
+    private static String createPage(int minLength) {
+        StringBuilder sb = new StringBuilder(minLength + 64);
+        int line = 0;
+        while (sb.length() < minLength) {
+            // multi-byte characters, so they are split between reads
+            sb.append("<div id=\"").append(line++).append("\">\u00e1rv\u00edzt\u0171r\u0151 t\u00fck\u00f6rf\u00far\u00f3g\u00e9p \u2603</div>\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package free.rm.skytube.businessobjects.YouTube.newpipe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NewPipeUtilsTest {
+
+    @Test
+    void testPlainTextIsNotCleaned() {
+        String text = "Chapters:\n0:00 Intro\n1:23 https://example.com/page?a=1";
+        Assertions.assertSame(text, NewPipeUtils.filterHtml(text));
+        Assertions.assertNull(NewPipeUtils.filterHtml((String) null));
+    }
+
+    @Test
+    void testHtmlIsCleaned() {
+        Assertions.assertEquals("Hello <b>world</b>", NewPipeUtils.filterHtml("Hello <b>world</b><script>alert(1)</script>"));
+        Assertions.assertEquals("Tom &amp; Jerry<br>", NewPipeUtils.filterHtml("Tom & Jerry<br>"));
+    }
+}
@@ -0,0 +1,77 @@
+package free.rm.skytube.businessobjects.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SearchSuggestionIndexTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long NOW = 1_600_000_000_000L;
+
+    @Test
+    void testMatchesWordPrefixes() {
+        SearchSuggestionIndex index = new SearchSuggestionIndex();
+        index.put(1, "Linus Tech Tips", 1, NOW);
+        index.put(2, "techno music", 1, NOW);
+        index.put(3, "biotech", 1, NOW);
+
+        Assertions.assertEquals(Arrays.asList("Linus Tech Tips", "techno music"), texts(index.suggest("tech", 10, NOW)));
+        Assertions.assertEquals(Arrays.asList("Linus Tech Tips"), texts(index.suggest("  TECH   tip", 10, NOW)));
+        Assertions.assertEquals(Arrays.asList("Linus Tech Tips"), texts(index.suggest("lin", 10, NOW)));
+        Assertions.assertTrue(index.suggest("music video", 10, NOW).isEmpty());
+    }
+
+    @Test
+    void testRankedByFrecency() {
+        SearchSuggestionIndex index = new SearchSuggestionIndex();
+        index.put(1, "cats old", 10, NOW - 100 * DAY);
+        index.put(2, "cats frequent", 5, NOW - DAY);
+        index.put(3, "cats recent", 1, NOW);
+
+        Assertions.assertEquals(Arrays.asList("cats frequent", "cats recent", "cats old"), texts(index.suggest("cats", 10, NOW)));
+        Assertions.assertEquals(Arrays.asList("cats frequent", "cats recent"), texts(index.suggest("cats", 2, NOW)));
+    }
+
+    @Test
+    void testUseAndRemove() {
+        SearchSuggestionIndex index = new SearchSuggestionIndex();
+        index.put(1, "dogs", 1, NOW - DAY);
+        index.put(2, "dogs barking", 2, NOW - DAY);
+        index.use(1, "dogs", NOW);
+        index.use(1, "dogs", NOW);
+        Assertions.assertEquals(Arrays.asList("dogs", "dogs barking"), texts(index.suggest("do", 10, NOW)));
+        Assertions.assertEquals(3, index.suggest("dogs", 1, NOW).get(0).getUseCount());
+
+        index.use(3, "hot dogs", NOW);
+        Assertions.assertEquals(3, index.size());
+
+        index.remove("dogs barking");
+        Assertions.assertEquals(Arrays.asList("dogs", "hot dogs"), texts(index.suggest("dog", 10, NOW)));
+        Assertions.assertTrue(index.suggest("bark", 10, NOW).isEmpty());
+
+        index.clear();
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.suggest("", 10, NOW).isEmpty());
+    }
+
+    @Test
+    void testEmptyPrefixReturnsEverything() {
+        SearchSuggestionIndex index = new SearchSuggestionIndex();
+        index.put(1, "a", 1, NOW);
+        index.put(2, "b", 3, NOW);
+        index.put(3, "c", 2, NOW);
+        Assertions.assertEquals(Arrays.asList("b", "c", "a"), texts(index.suggest("", 10, NOW)));
+        Assertions.assertEquals(Arrays.asList("b", "c", "a"), texts(index.suggest(null, 10, NOW)));
+    }
+
+    private static List<String> texts(List<SearchSuggestionIndex.Suggestion> suggestions) {
+        List<String> result = new ArrayList<>();
+        for (SearchSuggestionIndex.Suggestion suggestion : suggestions) {
+            result.add(suggestion.getText());
+        }
+        return result;
+    }
+}
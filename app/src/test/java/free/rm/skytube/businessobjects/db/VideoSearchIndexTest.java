@@ -0,0 +1,35 @@
+package free.rm.skytube.businessobjects.db;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VideoSearchIndexTest {
+
+    @Test
+    void testMatchQuery() {
+        Assertions.assertEquals("linux*", VideoSearchIndex.toMatchQuery("Linux"));
+        Assertions.assertEquals("linus* tech* tips*", VideoSearchIndex.toMatchQuery("  Linus Tech-Tips! "));
+        Assertions.assertEquals("árvíztűrő* 2021*", VideoSearchIndex.toMatchQuery("Árvíztűrő 2021"));
+    }
+
+    @Test
+    void testOperatorsAreNotPassedThrough() {
+        // upper case keywords and the special characters of the FTS syntax are not interpreted
+        Assertions.assertEquals("cats* or* dogs*", VideoSearchIndex.toMatchQuery("cats OR dogs"));
+        Assertions.assertEquals("title* foo* bar*", VideoSearchIndex.toMatchQuery("title:\"foo bar\"*"));
+    }
+
+    @Test
+    void testIndexedTextIsLowerCased() {
+        // the fallback tokenizer folds only the ASCII letters, so the query has to match the indexed text
+        Assertions.assertEquals("árvíztűrő tükörfúrógép", VideoSearchIndex.normalize("ÁRVÍZTŰRŐ Tükörfúrógép"));
+        Assertions.assertNull(VideoSearchIndex.normalize(null));
+    }
+
+    @Test
+    void testEmptyQuery() {
+        Assertions.assertNull(VideoSearchIndex.toMatchQuery(null));
+        Assertions.assertNull(VideoSearchIndex.toMatchQuery(""));
+        Assertions.assertNull(VideoSearchIndex.toMatchQuery(" -*- "));
+    }
+}